@@ -2,9 +2,13 @@
 package tuda.ai1.propro25.ai;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 import tuda.ai1.propro25.ai.eval.*;
+import tuda.ai1.propro25.ai.eval.nnue.NNUEEvaluator;
+import tuda.ai1.propro25.ai.eval.nnue.NNUENetwork;
 import tuda.ai1.propro25.model.*;
 
 /**
@@ -18,11 +22,29 @@ import tuda.ai1.propro25.model.*;
  * Suchfunktion wird so abgeändert, dass bei instabilen Zuständen noch tiefer
  * gesucht wird als eigentlich angegeben. Dies verhindert/verringert den
  * "Horizon effect". 3: Piece square tables: Diese AI nutzt den
- * {@link PieceSquareTableEvaluator}
+ * {@link PieceSquareTableEvaluator} oder, falls eines konfiguriert ist (siehe
+ * {@link NNUENetwork#getActive()}), statt Material und Tabellen ein NNUE-Netz.
+ * 4: Iterative deepening: Es wird erst mit Tiefe 1, dann 2 usw. bis zur
+ * angegebenen Tiefe gesucht. Der beste Zug der letzten Iteration wird dabei
+ * zuerst untersucht. Wird die Suche durch ein Knoten- oder Zeitlimit
+ * abgebrochen, steht so immer ein sinnvoller Zug bereit.
+ * 5: Transpositionstabelle: Ergebnisse bereits untersuchter Stellungen werden
+ * in einer {@link TranspositionTable} abgelegt und wiederverwendet.
  */
 public class DeepeningAI extends PruningAI {
 
+	/** Standardgröße der eigenen Transpositionstabelle in MB */
+	static final int DEFAULT_TABLE_SIZE_MB = 4;
+
 	private final Comparator<Move> moveComparator;
+	private TranspositionTable transpositionTable;
+	private Consumer<SearchInfo> searchListener;
+	private final MoveHistory moveHistory = new MoveHistory();
+	private MovePicker[] movePickers = new MovePicker[64];
+	/** Anzahl der bisher erreichten Remis durch Wiederholung oder 50-Züge-Regel */
+	private int historyDraws;
+	/** Länge der Brett-Historie an der Wurzel der aktuellen Suche */
+	private int rootPly;
 
 	/**
 	 * Diese AI erstellt einen Suchbaum mindestens bis zur angegebenen Tiefe, nutzt
@@ -54,13 +76,269 @@ public class DeepeningAI extends PruningAI {
 	public DeepeningAI(String name, Color color, int remainingTime, int depth) {
 		super(name, color, remainingTime, depth);
 
-		this.evaluationPipeline = List.of(new EvaluationStep(new EndConditionEvaluator(), 1.0),
-				new EvaluationStep(new CheckEvaluator(), 1.0), new EvaluationStep(new MaterialEvaluator(), 1.0),
-				new EvaluationStep(new PieceSquareTableEvaluator(), 1.0));
+		EvaluationConfig config = EvaluationConfig.getActive();
+		NNUENetwork network = NNUENetwork.getActive();
+		if (network != null) {
+			// Das Netz ersetzt Material und Figurentabellen
+			this.evaluationPipeline = List.of(new EvaluationStep(new EndConditionEvaluator(), 1.0),
+					new EvaluationStep(new CheckEvaluator(), config.getCheckWeight()),
+					new EvaluationStep(new NNUEEvaluator(network), 1.0));
+		} else {
+			this.evaluationPipeline = List.of(new EvaluationStep(new EndConditionEvaluator(), 1.0),
+					new EvaluationStep(new CheckEvaluator(), config.getCheckWeight()),
+					new EvaluationStep(new MaterialEvaluator(), config.getMaterialWeight()),
+					new EvaluationStep(new PieceSquareTableEvaluator(config), config.getPieceSquareWeight()));
+		}
 
 		this.moveComparator = new MoveComparator().reversed();
 	}
 
+	/**
+	 * Setzt die Transpositionstabelle, die diese AI nutzen soll. So können sich
+	 * mehrere AIs (z.B. parallel suchende Threads oder aufeinanderfolgende Züge)
+	 * eine Tabelle teilen.
+	 *
+	 * @param transpositionTable
+	 *            die zu nutzende Tabelle
+	 */
+	public void setTranspositionTable(TranspositionTable transpositionTable) {
+		if (transpositionTable == null) {
+			throw new IllegalArgumentException("Die Transpositionstabelle darf nicht null sein!");
+		}
+		this.transpositionTable = transpositionTable;
+	}
+
+	/**
+	 * Setzt einen Listener, der nach jeder abgeschlossenen Iteration über den
+	 * aktuellen Stand der Suche informiert wird. Der Listener wird im suchenden
+	 * Thread aufgerufen.
+	 *
+	 * @param searchListener
+	 *            Listener oder null
+	 */
+	public void setSearchListener(Consumer<SearchInfo> searchListener) {
+		this.searchListener = searchListener;
+	}
+
+	/**
+	 * Sucht per iterative deepening den besten Zug. Jede Iteration durchsucht alle
+	 * Züge der Wurzel mit einer um eins höheren Tiefe als die vorherige, wobei der
+	 * zuletzt beste Zug zuerst untersucht wird. Bei einem Abbruch der Suche wird
+	 * das Ergebnis der unvollständigen Iteration nur übernommen, wenn darin
+	 * mindestens ein Zug vollständig untersucht wurde. Da dieser als erstes der
+	 * bisher beste Zug ist, kann das Ergebnis dadurch nur besser werden.
+	 *
+	 * @param board
+	 *            Das derzeitige Brett, muss frei zu bearbeiten sein
+	 * @return Bevorzugter Zug
+	 */
+	@Override
+	Move calculateNextMove(Board board) {
+		startSearch();
+		long startTime = System.nanoTime();
+		ensureTranspositionTable();
+		moveHistory.newSearch();
+		rootPly = board.getHistory().size();
+
+		List<Move> rootMoves = new ArrayList<>(board.findAllLegalMoves());
+		if (rootMoves.isEmpty()) {
+			return null;
+		}
+		rootMoves.sort(moveComparator);
+		Move bestMove = rootMoves.get(0);
+
+		for (int iterationDepth = 1; iterationDepth <= depth; iterationDepth++) {
+			int historyDrawsBefore = historyDraws;
+			double score = searchRoot(board, rootMoves, iterationDepth);
+			if (currentlyPreferredMove != null) {
+				bestMove = currentlyPreferredMove;
+			}
+			if (searchAborted) {
+				break;
+			}
+			// Bester Zug zuerst, die restliche Reihenfolge bleibt erhalten
+			rootMoves.remove(bestMove);
+			rootMoves.add(0, bestMove);
+			transpositionTable.store(board.getZobristHash(), storableDepth(iterationDepth, historyDrawsBefore),
+					TranspositionTable.BOUND_EXACT, score, bestMove);
+			if (searchListener != null) {
+				searchListener.accept(new SearchInfo(iterationDepth, score, evaluatedPositions,
+						(System.nanoTime() - startTime) / 1_000_000,
+						extractPrincipalVariation(board, bestMove, iterationDepth)));
+			}
+		}
+		return bestMove;
+	}
+
+	/**
+	 * Analysiert eine Stellung und liefert die besten Züge jeweils mit Bewertung
+	 * und erwarteter Zugfolge (Multi-PV), z.B. für eine Analyseansicht oder das
+	 * Kommentieren ganzer Partien. Pro Iteration wird die Wurzel mehrfach
+	 * durchsucht, wobei die bereits gefundenen Varianten jedes Mal ausgeschlossen
+	 * werden. Da sich alle Durchläufe die Transpositionstabelle teilen, sind die
+	 * weiteren Varianten deutlich günstiger als einzelne Suchen.
+	 * <p>
+	 * Die Analyse läuft im aufrufenden Thread und kann über die Knoten- und
+	 * Zeitlimits oder durch Unterbrechen des Threads abgebrochen werden. Es wird
+	 * dann das Ergebnis der letzten vollständigen Iteration zurückgegeben. Gibt es
+	 * noch keine, wird der bis dahin beste Zug als einzige Variante geliefert.
+	 *
+	 * @param position
+	 *            zu analysierende Stellung, wird nicht verändert
+	 * @param lineCount
+	 *            gewünschte Anzahl an Varianten
+	 * @param depthListener
+	 *            wird nach jeder vollständigen Iteration mit den Varianten
+	 *            aufgerufen, darf null sein
+	 * @return die besten Varianten, absteigend nach Bewertung sortiert. Die
+	 *         Bewertung ist jeweils aus Sicht des Spielers am Zug.
+	 */
+	public List<SearchInfo> analyze(DeepCopyable position, int lineCount, Consumer<List<SearchInfo>> depthListener) {
+		if (lineCount < 1) {
+			throw new IllegalArgumentException("Es muss mindestens eine Variante analysiert werden!");
+		}
+		Board board = position.getBoardDeepCopy();
+		startSearch();
+		long startTime = System.nanoTime();
+		ensureTranspositionTable();
+		moveHistory.newSearch();
+		rootPly = board.getHistory().size();
+
+		List<Move> rootMoves = new ArrayList<>(board.findAllLegalMoves());
+		rootMoves.sort(moveComparator);
+		List<SearchInfo> result = List.of();
+
+		for (int iterationDepth = 1; iterationDepth <= depth && !rootMoves.isEmpty(); iterationDepth++) {
+			List<SearchInfo> lines = new ArrayList<>();
+			List<Move> candidates = new ArrayList<>(rootMoves);
+			while (lines.size() < lineCount && !candidates.isEmpty()) {
+				int historyDrawsBefore = historyDraws;
+				double score = searchRoot(board, candidates, iterationDepth);
+				if (searchAborted && (currentlyPreferredMove == null || !result.isEmpty())) {
+					break;
+				}
+				Move lineMove = currentlyPreferredMove;
+				candidates.remove(lineMove);
+				if (lines.isEmpty()) {
+					transpositionTable.store(board.getZobristHash(), storableDepth(iterationDepth, historyDrawsBefore),
+							TranspositionTable.BOUND_EXACT, score, lineMove);
+				}
+				lines.add(new SearchInfo(iterationDepth, score, evaluatedPositions,
+						(System.nanoTime() - startTime) / 1_000_000,
+						extractPrincipalVariation(board, lineMove, iterationDepth)));
+				if (searchAborted) {
+					// Ohne vorheriges Ergebnis wird der beste teilweise untersuchte Zug genutzt
+					break;
+				}
+			}
+			// Durch die Transpositionstabelle kann eine spätere Variante minimal besser
+			// bewertet sein als eine frühere
+			lines.sort(Comparator.comparingDouble(SearchInfo::score).reversed());
+			if (searchAborted) {
+				// Eine unvollständige Iteration wird nur genutzt, wenn es noch gar kein
+				// Ergebnis gibt
+				if (result.isEmpty()) {
+					result = List.copyOf(lines);
+				}
+				break;
+			}
+			result = List.copyOf(lines);
+			// Die gefundenen Varianten werden in der nächsten Iteration zuerst untersucht
+			for (int i = lines.size() - 1; i >= 0; i--) {
+				Move lineMove = lines.get(i).principalVariation().get(0);
+				rootMoves.remove(lineMove);
+				rootMoves.add(0, lineMove);
+			}
+			if (depthListener != null) {
+				depthListener.accept(result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Erstellt die eigene Transpositionstabelle, falls keine gesetzt wurde
+	 */
+	private void ensureTranspositionTable() {
+		if (transpositionTable == null) {
+			transpositionTable = new TranspositionTable(DEFAULT_TABLE_SIZE_MB);
+		}
+	}
+
+	/**
+	 * @param ply
+	 *            Länge der Brett-Historie im Knoten
+	 * @return der MovePicker für Knoten dieses Halbzugs
+	 */
+	private MovePicker getMovePicker(int ply) {
+		if (ply >= movePickers.length) {
+			movePickers = Arrays.copyOf(movePickers, Math.max(ply + 1, movePickers.length * 2));
+		}
+		if (movePickers[ply] == null) {
+			movePickers[ply] = new MovePicker(moveHistory);
+		}
+		return movePickers[ply];
+	}
+
+	/**
+	 * Durchsucht alle Züge der Wurzel bis zur angegebenen Tiefe und merkt sich den
+	 * besten im Feld currentlyPreferredMove.
+	 *
+	 * @param board
+	 *            Brettzustand an der Wurzel
+	 * @param rootMoves
+	 *            alle legalen Züge der Wurzel in der Reihenfolge, in der sie
+	 *            untersucht werden sollen
+	 * @param iterationDepth
+	 *            Tiefe dieser Iteration
+	 * @return Bewertung des besten Zuges
+	 */
+	private double searchRoot(Board board, List<Move> rootMoves, int iterationDepth) {
+		currentlyPreferredMove = null;
+		double alpha = Double.NEGATIVE_INFINITY;
+		double beta = Double.POSITIVE_INFINITY;
+		for (Move move : rootMoves) {
+			board.makeMove(move);
+			double moveEval = -search(board, iterationDepth - 1, -beta, -alpha);
+			board.undoLastMove();
+			if (searchAborted) {
+				break;
+			}
+			if (moveEval > alpha || currentlyPreferredMove == null) {
+				alpha = moveEval;
+				currentlyPreferredMove = move;
+			}
+		}
+		return alpha;
+	}
+
+	/**
+	 * Rekonstruiert die erwartete Zugfolge, indem ausgehend vom besten Zug den in
+	 * der Transpositionstabelle gespeicherten Zügen gefolgt wird.
+	 *
+	 * @param board
+	 *            Brettzustand an der Wurzel, wird danach wiederhergestellt
+	 * @param bestMove
+	 *            bester Zug an der Wurzel
+	 * @param maxLength
+	 *            maximale Länge der Zugfolge
+	 * @return die erwartete Zugfolge
+	 */
+	List<Move> extractPrincipalVariation(Board board, Move bestMove, int maxLength) {
+		List<Move> principalVariation = new ArrayList<>();
+		Move next = bestMove;
+		while (next != null && principalVariation.size() < maxLength) {
+			board.makeMove(next);
+			principalVariation.add(next);
+			next = TranspositionTable.findEntryMove(transpositionTable.probe(board.getZobristHash()),
+					board.findAllLegalMoves());
+		}
+		for (int i = 0; i < principalVariation.size(); i++) {
+			board.undoLastMove();
+		}
+		return List.copyOf(principalVariation);
+	}
+
 	/**
 	 *
 	 * Für instabile Zustände suchen wir extra tief erweiterte Teilbäume ab.
@@ -80,7 +358,13 @@ public class DeepeningAI extends PruningAI {
 	 *         Bekannte, wenn Suche sich nicht lohnt (beta)
 	 */
 	private double quiescenceSearch(Board board, double alpha, double beta) {
+		if (shouldAbortSearch()) {
+			return 0;
+		}
 		evaluatedPositions++;
+		if (isHistoryDraw(board)) {
+			historyDraws++;
+		}
 		// Dieser Evaluation wird oft "Stand-pat" genannt: Der Wert dieses Knotens im
 		// Spielbaum, wenn wir hier jetzt aufhören würden zu suchen. Wir prüfen das
 		// vorher, da die quiescenceSearch nicht alle Teilbäume erforscht und wir gar
@@ -115,6 +399,9 @@ public class DeepeningAI extends PruningAI {
 			board.makeMove(m);
 			double evaluation = -quiescenceSearch(board, -beta, -alpha);
 			board.undoLastMove();
+			if (searchAborted) {
+				return alpha;
+			}
 
 			if (evaluation >= beta) {
 				return beta;
@@ -126,9 +413,10 @@ public class DeepeningAI extends PruningAI {
 
 	/**
 	 * Sucht den aktuellen Zustandsbaum bis mindestens zur übrigen Tiefe ab und
-	 * bewertet die Zustände. Das ganze passiert rekursiv. Auf der obersten Ebene
-	 * werden die tatsächlichen Züge im Klassenfeld currentlyPreferredMove
-	 * gespeichert, um die rekursive Methode schneller zu halten. Die Suche nutzt
+	 * bewertet die Zustände. Das ganze passiert rekursiv. Bereits bekannte
+	 * Stellungen werden in der Transpositionstabelle nachgeschlagen: Reicht die
+	 * gespeicherte Tiefe aus, wird das Ergebnis direkt übernommen, ansonsten wird
+	 * zumindest der gespeicherte beste Zug zuerst untersucht. Die Suche nutzt
 	 * Alpha-Beta pruning, um die Anzahl an Teilbäumen, die tatsächlich evaluiert
 	 * werden muss, zu verringern. Dabei werden Teilbäume gar nicht mehr abgesucht,
 	 * wenn der gegnerische Spieler sie nie zulassen würde, weil er einen besseren
@@ -153,39 +441,140 @@ public class DeepeningAI extends PruningAI {
 		if (remainingDepth == 0) {
 			return quiescenceSearch(board, alpha, beta);
 		}
-		// Ganz normaler Knoten im Suchbaum, tiefer gehen!
-		// Wir müssen die Liste erst einmal kopieren, damit wir sie sortieren und
-		// modifizieren können
-		List<Move> moves = new ArrayList<>(board.findAllLegalMoves());
-		moves.sort(moveComparator);
+		if (shouldAbortSearch()) {
+			return 0;
+		}
+		// Beendete Partien zuerst erkennen: Wiederholung und 50-Züge-Regel hängen von
+		// der Historie ab, die nicht im Zobrist-Hash steckt
+		List<Move> moves = board.findAllLegalMoves();
 		if (moves.isEmpty()) {
 			// Wir können nicht tiefer suchen, daher diesen Zustand evaluieren
 			evaluatedPositions++;
+			if (isHistoryDraw(board)) {
+				historyDraws++;
+			}
 			return evaluate(board);
 		}
-		for (Move move : moves) {
+		int ply = board.getHistory().size();
+		long key = board.getZobristHash();
+		long entry = transpositionTable.probe(key);
+		if (entry != 0 && TranspositionTable.entryDepth(entry) >= remainingDepth) {
+			double storedEval = fromTableScore(TranspositionTable.entryScore(entry), ply - rootPly);
+			int bound = TranspositionTable.entryBound(entry);
+			if (bound != TranspositionTable.BOUND_UPPER && storedEval >= beta) {
+				return beta;
+			}
+			if (bound != TranspositionTable.BOUND_LOWER && storedEval <= alpha) {
+				return alpha;
+			}
+			if (bound == TranspositionTable.BOUND_EXACT) {
+				return storedEval;
+			}
+		}
+		// Ganz normaler Knoten im Suchbaum, tiefer gehen!
+		int historyDrawsBefore = historyDraws;
+		// Die Züge werden erst nach und nach sortiert, siehe MovePicker
+		MovePicker picker = getMovePicker(ply);
+		picker.reset(moves, TranspositionTable.findEntryMove(entry, moves), ply);
+		Move bestMove = null;
+		Move move;
+		while ((move = picker.next()) != null) {
 			board.makeMove(move);
 			// Alpha und Beta werden getauscht da wir NegaMax statt klassischem Minimax
 			// nutzen
 			double moveEval = -search(board, remainingDepth - 1, -beta, -alpha);
 			board.undoLastMove();
+			if (searchAborted) {
+				// Das Ergebnis des abgebrochenen Teilbaums ist unbrauchbar
+				return alpha;
+			}
 			if (moveEval >= beta) {
 				// Dieser Zug eben war so gut, dass der Gegner diesen Teilbaum definitiv
 				// vermeiden wird. Wir brauchen also keine weiteren Züge in diesem Teilbaum zu
 				// erforschen.
+				if (MovePicker.isQuiet(move)) {
+					moveHistory.recordCutoff(ply, move, remainingDepth);
+				}
+				transpositionTable.store(key, storableDepth(remainingDepth, historyDrawsBefore),
+						TranspositionTable.BOUND_LOWER, toTableScore(beta, ply - rootPly), move);
 				return beta;
 			}
 			if (moveEval > alpha) {
 				alpha = moveEval;
-				if (remainingDepth == depth) {
-					// Den Move auf oberster Ebene tatsächlich speichern
-					currentlyPreferredMove = move;
-				}
+				bestMove = move;
 			}
 		}
+		transpositionTable.store(key, storableDepth(remainingDepth, historyDrawsBefore),
+				bestMove != null ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER,
+				toTableScore(alpha, ply - rootPly), bestMove);
 		return alpha;
 	}
 
+	/**
+	 * Bewertet ein Matt nach seiner Entfernung zur Wurzel: Pro Halbzug bis zum
+	 * Matt wird eins abgezogen. So bevorzugt die Suche das kürzeste Matt und zögert
+	 * eine Niederlage möglichst lange hinaus.
+	 */
+	@Override
+	double evaluate(Board board) {
+		if (board.getGameState() == GameState.END_CHECKMATE) {
+			return -(EndConditionEvaluator.WIN_SCORE - (board.getHistory().size() - rootPly));
+		}
+		return super.evaluate(board);
+	}
+
+	/**
+	 * Rechnet eine Mattbewertung von der Entfernung zur Wurzel in die Entfernung
+	 * zum Knoten um, da derselbe Knoten in anderen Suchen anders weit von der
+	 * Wurzel entfernt sein kann
+	 *
+	 * @param score
+	 *            Bewertung relativ zur Wurzel
+	 * @param distance
+	 *            Halbzüge von der Wurzel bis zum Knoten
+	 * @return die Bewertung für die Transpositionstabelle
+	 */
+	private static double toTableScore(double score, int distance) {
+		if (!EndConditionEvaluator.isMateScore(score)) {
+			return score;
+		}
+		return score > 0 ? score + distance : score - distance;
+	}
+
+	/**
+	 * Umkehrung von {@link #toTableScore(double, int)}
+	 */
+	private static double fromTableScore(double score, int distance) {
+		if (!EndConditionEvaluator.isMateScore(score)) {
+			return score;
+		}
+		return score > 0 ? score - distance : score + distance;
+	}
+
+	/**
+	 * @return ob die Partie durch Stellungswiederholung oder die 50-Züge-Regel
+	 *         unentschieden ist, also durch die Historie statt durch die Stellung
+	 */
+	private static boolean isHistoryDraw(Board board) {
+		return board.getGameState() == GameState.END_REPETITION || board.getGameState() == GameState.END_50MOVE;
+	}
+
+	/**
+	 * Bestimmt die Tiefe, mit der das Ergebnis eines Knotens gespeichert wird.
+	 * Hing es von einem Remis durch die Historie ab, gilt es nur auf diesem Weg zur
+	 * Stellung. Es wird dann mit Tiefe 0 gespeichert, sodass nur der beste Zug für
+	 * die Sortierung genutzt wird, die Bewertung aber nie.
+	 *
+	 * @param remainingDepth
+	 *            übrige Tiefe des Knotens
+	 * @param historyDrawsBefore
+	 *            Anzahl der Remis durch die Historie vor der Suche im Knoten
+	 * @return die zu speichernde Tiefe
+	 */
+	private int storableDepth(int remainingDepth, int historyDrawsBefore) {
+		return historyDraws == historyDrawsBefore ? remainingDepth : 0;
+	}
+
 	@Override
 	public String getAIConfigString() {
 		return "DeepeningAI{d(" + depth + ")}";
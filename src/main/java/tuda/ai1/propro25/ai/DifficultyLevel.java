@@ -0,0 +1,78 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import tuda.ai1.propro25.model.Color;
+
+/**
+ * Spielstärken der AI-Gegner. Jede Stufe ist in erster Linie über ein
+ * Knotenbudget pro Zug definiert, die Suchtiefe ist nur eine Obergrenze. Da die
+ * Knotenzahl unabhängig von der Rechnergeschwindigkeit ist, spielt eine Stufe
+ * in derselben Stellung immer denselben Zug. Damit die Antwortzeit auch auf
+ * langsamen Rechnern planbar bleibt, begrenzt zusätzlich ein Zeitbudget die
+ * Bedenkzeit. Wird es erreicht, ist der Zug nicht mehr reproduzierbar.
+ * <p>
+ * Alle Stufen nutzen die {@link DeepeningAI}. Greift eines der Budgets, spielt
+ * sie den Zug der letzten vollständigen Iteration statt eines zufällig bis dahin
+ * besten Zugs einer abgebrochenen Suche.
+ */
+public enum DifficultyLevel {
+	EASY(2, 2_000, 1_000), MEDIUM(3, 8_000, 3_000), HARD(8, 15_000, 5_000);
+
+	private final int maxDepth;
+	private final long nodeLimit;
+	private final long timeLimitMillis;
+
+	/**
+	 * @param maxDepth
+	 *            maximale Suchtiefe
+	 * @param nodeLimit
+	 *            Knotenbudget pro Zug
+	 * @param timeLimitMillis
+	 *            maximale Bedenkzeit pro Zug in Millisekunden
+	 */
+	DifficultyLevel(int maxDepth, long nodeLimit, long timeLimitMillis) {
+		this.maxDepth = maxDepth;
+		this.nodeLimit = nodeLimit;
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Erstellt einen AI-Gegner dieser Stufe. Die Stufen unterscheiden sich nur in
+	 * maximaler Suchtiefe und Budgets.
+	 *
+	 * @param name
+	 *            Name der AI als Spieler
+	 * @param color
+	 *            Figurenfarbe, mit welcher die AI spielt
+	 * @param remainingTime
+	 *            Zugzeit, welche die AI noch hat
+	 * @return der konfigurierte AI-Gegner
+	 */
+	public DeepeningAI createOpponent(String name, Color color, int remainingTime) {
+		DeepeningAI ai = new DeepeningAI(name, color, remainingTime, maxDepth);
+		ai.setNodeLimit(nodeLimit);
+		ai.setTimeLimit(timeLimitMillis);
+		return ai;
+	}
+
+	/**
+	 * @return maximale Suchtiefe dieser Stufe
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * @return Knotenbudget pro Zug
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * @return maximale Bedenkzeit pro Zug in Millisekunden
+	 */
+	public long getTimeLimitMillis() {
+		return timeLimitMillis;
+	}
+}
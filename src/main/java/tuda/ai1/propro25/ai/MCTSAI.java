@@ -0,0 +1,455 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import tuda.ai1.propro25.ai.eval.BoardEvaluator;
+import tuda.ai1.propro25.ai.eval.MaterialEvaluator;
+import tuda.ai1.propro25.ai.eval.PieceSquareTableEvaluator;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.Player;
+
+/**
+ * Diese AI nutzt Monte Carlo Tree Search (MCTS) statt alpha beta. Der Suchbaum
+ * wird Playout für Playout aufgebaut: 1: Selection: Ausgehend von der Wurzel
+ * wird jeweils das Kind mit dem höchsten UCT-Wert gewählt, also eine Abwägung
+ * zwischen bisher guter Bewertung und wenig besuchten Zügen. 2: Expansion: Am
+ * ersten Knoten mit noch nicht untersuchten Zügen wird ein neues Kind angelegt.
+ * 3: Simulation: Von dort werden einige zufällige Züge gespielt und die
+ * Stellung anschließend statisch bewertet. Komplett ausgespielte Partien wären
+ * mit unserem Brett zu langsam. 4: Backpropagation: Das Ergebnis wird auf dem
+ * Pfad zur Wurzel eingetragen.
+ * <p>
+ * Die Playouts laufen parallel auf einem {@link ForkJoinPool}, der nur für die
+ * Dauer einer Suche existiert. Alle Threads
+ * arbeiten auf demselben Baum und jeweils einer eigenen Kopie des Bretts. Damit
+ * nicht alle Threads denselben Pfad wählen, wird jeder gewählte Knoten sofort
+ * als verlorener Besuch gezählt ("virtual loss"). Die Backpropagation ersetzt
+ * diesen Verlust später durch das echte Ergebnis.
+ * <p>
+ * Nach einem Zug wird der Baum nicht verworfen: Findet die AI beim nächsten
+ * Aufruf ihre alte Wurzel zwei Halbzüge zurück in der Historie, wird der
+ * passende Teilbaum als neue Wurzel genutzt.
+ */
+public class MCTSAI extends AIOpponent {
+
+	/** Standardbedenkzeit pro Zug in Millisekunden */
+	static final long DEFAULT_TIME_LIMIT_MILLIS = 2000;
+	/** Anzahl zufälliger Halbzüge pro Simulation */
+	static final int ROLLOUT_DEPTH = 4;
+	/** Explorationskonstante der UCT-Formel */
+	static final double EXPLORATION = Math.sqrt(2);
+	/**
+	 * Materialvorteil in Bauern, bei dem die Simulation als zu etwa 90% gewonnen
+	 * gewertet wird
+	 */
+	private static final double WIN_PROBABILITY_SCALE = 4;
+
+	private final BoardEvaluator materialEvaluator = new MaterialEvaluator();
+	private final BoardEvaluator pieceSquareTableEvaluator = new PieceSquareTableEvaluator();
+	private final int threads;
+
+	private long playoutLimit = 0;
+	private long timeLimitMillis = DEFAULT_TIME_LIMIT_MILLIS;
+	// null bedeutet ThreadLocalRandom des jeweiligen Threads
+	private Random random;
+
+	private Node root;
+	private long rootKey;
+	private int rootHistorySize;
+
+	private final AtomicLong playouts = new AtomicLong();
+	private volatile boolean stopped;
+	private long searchDeadline;
+
+	/**
+	 * Knoten des Suchbaums. Die Statistik eines Knotens ist aus Sicht des Spielers
+	 * gespeichert, der den Zug {@link #move} gemacht hat. Alle Felder außer
+	 * {@link #visits} werden nur unter dem Lock des Elternknotens (bzw. bei der
+	 * Wurzel des Knotens selbst) verändert. Die Besuche werden sowohl unter dem
+	 * Lock des Elternknotens (UCT-Wert des Kindes) als auch unter dem eigenen Lock
+	 * (Nenner beim Auswählen der Kinder) gelesen und sind deshalb atomar.
+	 */
+	static final class Node {
+		final Move move;
+		Node parent;
+		final List<Node> children = new ArrayList<>();
+		List<Move> untriedMoves;
+		final AtomicLong visits = new AtomicLong();
+		double totalReward;
+
+		Node(Node parent, Move move) {
+			this.parent = parent;
+			this.move = move;
+		}
+
+		/**
+		 * @return UCT-Wert dieses Knotens aus Sicht des Elternknotens
+		 */
+		double uct(double logParentVisits) {
+			long visitCount = visits.get();
+			return totalReward / visitCount + EXPLORATION * Math.sqrt(logParentVisits / visitCount);
+		}
+	}
+
+	/**
+	 * Erstellt eine MCTS-AI mit einem Thread pro verfügbarem Kern
+	 *
+	 * @param name
+	 *            Name der AI als Spieler
+	 * @param color
+	 *            Figurenfarbe, mit welcher diese AI spielt
+	 * @param remainingTime
+	 *            Zugzeit, welche diese AI noch hat
+	 */
+	public MCTSAI(String name, Color color, int remainingTime) {
+		this(name, color, remainingTime, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Erstellt eine MCTS-AI
+	 *
+	 * @param name
+	 *            Name der AI als Spieler
+	 * @param color
+	 *            Figurenfarbe, mit welcher diese AI spielt
+	 * @param remainingTime
+	 *            Zugzeit, welche diese AI noch hat
+	 * @param threads
+	 *            Anzahl parallel arbeitender Threads
+	 */
+	public MCTSAI(String name, Color color, int remainingTime, int threads) {
+		super(name, color, remainingTime);
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Es muss mindestens ein Thread genutzt werden!");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Erstellt eine MCTS-AI mit einem Thread pro verfügbarem Kern
+	 *
+	 * @param player
+	 *            Spieler, welchen diese AI steuert/repräsentiert
+	 */
+	public MCTSAI(Player player) {
+		this(player == null ? null : player.getName(), player == null ? null : player.getColor(),
+				player == null ? -1 : player.getRemainingTime());
+	}
+
+	/**
+	 * Begrenzt die Anzahl an Playouts pro Zug. Mit nur einem Thread und fester
+	 * Zufallsquelle (siehe {@link #setRandom(Random)}) ist die Suche dann
+	 * reproduzierbar.
+	 *
+	 * @param playoutLimit
+	 *            maximale Anzahl an Playouts pro Zug, 0 für unbegrenzt
+	 */
+	public void setPlayoutLimit(long playoutLimit) {
+		if (playoutLimit < 0) {
+			throw new IllegalArgumentException("Das Playoutlimit darf nicht negativ sein!");
+		}
+		this.playoutLimit = playoutLimit;
+	}
+
+	/**
+	 * Begrenzt die Bedenkzeit pro Zug
+	 *
+	 * @param timeLimitMillis
+	 *            maximale Bedenkzeit pro Zug in Millisekunden, 0 für unbegrenzt
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		if (timeLimitMillis < 0) {
+			throw new IllegalArgumentException("Das Zeitlimit darf nicht negativ sein!");
+		}
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Setzt die Zufallsquelle für die Reihenfolge der Expansion und die
+	 * Simulationen, z.B. eine mit festem Seed für reproduzierbare Suchen. Bei
+	 * mehreren Threads teilen sich alle Threads diese Quelle.
+	 *
+	 * @param random
+	 *            die Zufallsquelle oder null für {@link ThreadLocalRandom}
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * Sucht per MCTS den besten Zug, bis das Playout- oder Zeitlimit erreicht ist
+	 * oder der aufrufende Thread unterbrochen wird. Gewählt wird der am häufigsten
+	 * besuchte Zug der Wurzel.
+	 *
+	 * @param board
+	 *            Das derzeitige Brett, muss frei zu bearbeiten sein
+	 * @return Bevorzugter Zug
+	 */
+	@Override
+	Move calculateNextMove(Board board) {
+		if (board.findAllLegalMoves().isEmpty()) {
+			return null;
+		}
+		if (playoutLimit == 0 && timeLimitMillis == 0) {
+			throw new IllegalStateException("MCTS benötigt ein Playout- oder Zeitlimit!");
+		}
+		reuseOrCreateRoot(board);
+		playouts.set(0);
+		stopped = false;
+		searchDeadline = System.nanoTime() + timeLimitMillis * 1_000_000;
+
+		// Der Pool lebt nur während der Suche, damit eine nicht mehr genutzte AI keine
+		// Threads zurücklässt
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		boolean interrupted = false;
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				Board workerBoard = board.getBoardDeepCopy();
+				workers.add(pool.submit((Callable<Void>) () -> {
+					while (!shouldStop()) {
+						playout(workerBoard);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				while (true) {
+					try {
+						worker.get();
+						break;
+					} catch (InterruptedException e) {
+						// Alle Threads stoppen, aber trotzdem auf sie warten, damit der Baum danach
+						// nicht mehr verändert wird
+						stopped = true;
+						interrupted = true;
+					} catch (ExecutionException e) {
+						stopped = true;
+						throw new IllegalStateException("Fehler in der MCTS-Suche", e.getCause());
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		Node best = null;
+		synchronized (root) {
+			for (Node child : root.children) {
+				if (best == null || child.visits.get() > best.visits.get()) {
+					best = child;
+				}
+			}
+		}
+		return best == null ? board.findAllLegalMoves().get(0) : best.move;
+	}
+
+	/**
+	 * Nutzt den Teilbaum der vorherigen Suche, wenn die aktuelle Stellung aus der
+	 * alten Wurzel durch die seitdem gespielten Züge entstanden ist. Ansonsten
+	 * wird ein neuer Baum begonnen.
+	 */
+	private void reuseOrCreateRoot(Board board) {
+		int historySize = board.getHistory().size();
+		int playedMoves = historySize - rootHistorySize;
+		Node newRoot = null;
+		if (root != null && playedMoves > 0 && playedMoves <= 2) {
+			List<Move> moves = new ArrayList<>();
+			for (int i = historySize - playedMoves; i < historySize; i++) {
+				moves.add(board.getHistory().get(i).getMoveToNextState());
+			}
+			for (int i = 0; i < playedMoves; i++) {
+				board.undoLastMove();
+			}
+			boolean sameRoot = board.getZobristHash() == rootKey;
+			for (Move move : moves) {
+				board.makeMove(move);
+			}
+			newRoot = sameRoot ? findDescendant(root, moves) : null;
+		}
+		root = newRoot == null ? new Node(null, null) : newRoot;
+		root.parent = null;
+		rootKey = board.getZobristHash();
+		rootHistorySize = historySize;
+	}
+
+	private static Node findDescendant(Node node, List<Move> moves) {
+		for (Move move : moves) {
+			Node next = null;
+			synchronized (node) {
+				for (Node child : node.children) {
+					if (child.move.equals(move)) {
+						next = child;
+						break;
+					}
+				}
+			}
+			if (next == null) {
+				return null;
+			}
+			node = next;
+		}
+		return node;
+	}
+
+	private boolean shouldStop() {
+		if (!stopped) {
+			stopped = (playoutLimit > 0 && playouts.get() >= playoutLimit)
+					|| (timeLimitMillis > 0 && System.nanoTime() - searchDeadline >= 0);
+		}
+		return stopped;
+	}
+
+	/**
+	 * Führt ein Playout (Selection, Expansion, Simulation, Backpropagation) aus.
+	 * Das Brett steht danach wieder auf der Wurzel.
+	 *
+	 * @param board
+	 *            Kopie des Bretts an der Wurzel, die nur dieser Thread nutzt
+	 */
+	private void playout(Board board) {
+		playouts.incrementAndGet();
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		root.visits.incrementAndGet();
+		while (isRunning(board)) {
+			Node next;
+			boolean expanded = false;
+			synchronized (node) {
+				if (node.untriedMoves == null) {
+					node.untriedMoves = new ArrayList<>(board.findAllLegalMoves());
+					Collections.shuffle(node.untriedMoves, random());
+				}
+				if (!node.untriedMoves.isEmpty()) {
+					next = new Node(node, node.untriedMoves.remove(node.untriedMoves.size() - 1));
+					node.children.add(next);
+					expanded = true;
+				} else if (!node.children.isEmpty()) {
+					next = selectChild(node);
+				} else {
+					break;
+				}
+				// Virtual loss: der Besuch zählt sofort, die Belohnung kommt erst mit der
+				// Backpropagation
+				next.visits.incrementAndGet();
+			}
+			board.makeMove(next.move);
+			path.add(next);
+			node = next;
+			if (expanded) {
+				break;
+			}
+		}
+
+		double reward = simulate(board);
+		for (int i = path.size() - 1; i >= 0; i--) {
+			Node current = path.get(i);
+			// Der Zug des Knotens wurde vom Gegner des Spielers gemacht, der danach am Zug
+			// ist
+			reward = 1 - reward;
+			synchronized (current.parent) {
+				current.totalReward += reward;
+			}
+			board.undoLastMove();
+		}
+	}
+
+	/**
+	 * Wählt das Kind mit dem höchsten UCT-Wert. Muss unter dem Lock des Knotens
+	 * aufgerufen werden.
+	 */
+	private static Node selectChild(Node node) {
+		double logVisits = Math.log(node.visits.get());
+		Node best = null;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (Node child : node.children) {
+			double value = child.uct(logVisits);
+			if (value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Spielt einige zufällige Züge und bewertet die erreichte Stellung. Das Brett
+	 * wird danach wiederhergestellt.
+	 *
+	 * @return Gewinnwahrscheinlichkeit (0 bis 1) aus Sicht des Spielers, der am
+	 *         Anfang der Simulation am Zug ist
+	 */
+	private double simulate(Board board) {
+		int plies = 0;
+		while (plies < ROLLOUT_DEPTH && isRunning(board)) {
+			List<Move> moves = board.findAllLegalMoves();
+			if (moves.isEmpty()) {
+				break;
+			}
+			board.makeMove(moves.get(random().nextInt(moves.size())));
+			plies++;
+		}
+		double reward = evaluate(board);
+		for (int i = 0; i < plies; i++) {
+			board.undoLastMove();
+		}
+		return plies % 2 == 0 ? reward : 1 - reward;
+	}
+
+	/**
+	 * Bewertet eine Stellung als Gewinnwahrscheinlichkeit des Spielers am Zug.
+	 * Beendete Partien zählen als Sieg, Niederlage oder Remis, ansonsten wird die
+	 * statische Bewertung über eine logistische Funktion abgebildet.
+	 */
+	private double evaluate(Board board) {
+		if (!isRunning(board)) {
+			Player winner = board.getWinner();
+			if (winner == null) {
+				return 0.5;
+			}
+			return winner == board.getCurrentPlayer() ? 1 : 0;
+		}
+		double eval = materialEvaluator.evaluate(board) + pieceSquareTableEvaluator.evaluate(board);
+		return 1 / (1 + Math.pow(10, -eval / WIN_PROBABILITY_SCALE));
+	}
+
+	private Random random() {
+		return random == null ? ThreadLocalRandom.current() : random;
+	}
+
+	private static boolean isRunning(Board board) {
+		return board.getGameState() == GameState.RUNNING || board.getGameState() == GameState.PAUSED;
+	}
+
+	/**
+	 * @return Anzahl der Playouts der letzten Suche
+	 */
+	public long getPlayouts() {
+		return playouts.get();
+	}
+
+	@Override
+	public String getAIConfigString() {
+		return "MCTSAI{t(" + threads + ")}";
+	}
+
+	@Override
+	public String toString() {
+		return "MCTSAI{" + getColor() + ", t(" + threads + ")}";
+	}
+}
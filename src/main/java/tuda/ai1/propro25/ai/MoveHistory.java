@@ -0,0 +1,98 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import java.util.Arrays;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Move;
+
+/**
+ * Merkt sich während der Suche, welche ruhigen Züge (weder Schlag noch
+ * Umwandlung) zu einem Beta-Cutoff geführt haben, damit der {@link MovePicker}
+ * sie in ähnlichen Stellungen früher versucht:
+ * <ul>
+ * <li>Killer-Züge: pro Halbzug die zwei letzten Züge, die einen Cutoff
+ * ausgelöst haben. Oft widerlegt derselbe Zug auch die Geschwisterknoten.</li>
+ * <li>History-Heuristik: pro Figur und Zielfeld ein Zähler, der bei jedem
+ * Cutoff um das Quadrat der Resttiefe steigt.</li>
+ * </ul>
+ * Die Halbzüge werden über die Länge der Brett-Historie gezählt, sodass keine
+ * Suchtiefe mitgeführt werden muss.
+ */
+class MoveHistory {
+
+	/** Ab diesem Zählerstand werden alle Zähler halbiert */
+	private static final int HISTORY_LIMIT = 1 << 20;
+
+	private Move[] killers = new Move[2 * 64];
+	private final int[] history = new int[2 * 6 * 64];
+
+	/**
+	 * Bereitet eine neue Suche vor: Killer-Züge gelten nur für die Stellungen der
+	 * letzten Suche und werden verworfen, die History-Zähler werden halbiert.
+	 */
+	void newSearch() {
+		Arrays.fill(killers, null);
+		for (int i = 0; i < history.length; i++) {
+			history[i] /= 2;
+		}
+	}
+
+	/**
+	 * @param ply
+	 *            Länge der Brett-Historie im aktuellen Knoten
+	 * @param slot
+	 *            0 für den jüngsten, 1 für den älteren Killer-Zug
+	 * @return der Killer-Zug oder null
+	 */
+	Move getKiller(int ply, int slot) {
+		int index = 2 * ply + slot;
+		return index < killers.length ? killers[index] : null;
+	}
+
+	/**
+	 * @return History-Zähler des Zuges, höher ist besser
+	 */
+	int getScore(Move move) {
+		return history[index(move)];
+	}
+
+	/**
+	 * Vermerkt, dass ein ruhiger Zug einen Beta-Cutoff ausgelöst hat
+	 *
+	 * @param ply
+	 *            Länge der Brett-Historie im aktuellen Knoten
+	 * @param move
+	 *            der Zug
+	 * @param remainingDepth
+	 *            Resttiefe des Knotens
+	 */
+	void recordCutoff(int ply, Move move, int remainingDepth) {
+		if (2 * ply + 1 >= killers.length) {
+			killers = Arrays.copyOf(killers, Math.max(killers.length * 2, 2 * ply + 2));
+		}
+		if (!move.equals(killers[2 * ply])) {
+			killers[2 * ply + 1] = killers[2 * ply];
+			killers[2 * ply] = move;
+		}
+		int index = index(move);
+		history[index] += remainingDepth * remainingDepth;
+		if (history[index] >= HISTORY_LIMIT) {
+			for (int i = 0; i < history.length; i++) {
+				history[i] /= 2;
+			}
+		}
+	}
+
+	private static int index(Move move) {
+		int color = move.getPiece().getColor() == Color.WHITE ? 0 : 1;
+		int type = switch (move.getPiece().getAlgebraicNotationSymbol()) {
+			case 'P' -> 0;
+			case 'N' -> 1;
+			case 'B' -> 2;
+			case 'R' -> 3;
+			case 'Q' -> 4;
+			default -> 5;
+		};
+		return (color * 6 + type) * 64 + move.getTo().getRank() * 8 + move.getTo().getFile();
+	}
+}
@@ -0,0 +1,243 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import java.util.Arrays;
+import java.util.List;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.MoveType;
+
+/**
+ * Liefert die Züge eines Suchknotens schrittweise in der Reihenfolge, in der
+ * sie am wahrscheinlichsten einen Beta-Cutoff auslösen:
+ * <ol>
+ * <li>der Zug aus der Transpositionstabelle</li>
+ * <li>gewinnende Schlagzüge und Umwandlungen, nach MVV-LVA (wertvollstes Opfer
+ * zuerst, bei Gleichstand mit dem billigsten Angreifer)</li>
+ * <li>die Killer-Züge dieses Halbzugs</li>
+ * <li>ruhige Züge nach History-Zähler</li>
+ * <li>verlierende Schlagzüge, bei denen der Angreifer mehr wert ist als das
+ * Opfer</li>
+ * </ol>
+ * Jede Stufe wird erst aus den legalen Zügen herausgesucht, wenn die vorherige
+ * erschöpft ist, und innerhalb einer Stufe wird immer nur der nächstbeste Zug
+ * ausgewählt statt die ganze Stufe zu sortieren. Löst schon der erste Zug einen
+ * Cutoff aus, was in den meisten Knoten passiert, fällt so fast keine Arbeit
+ * für die Sortierung an.
+ * <p>
+ * Ein MovePicker wird pro Halbzug wiederverwendet, um in der Suche keine
+ * Listen anlegen zu müssen.
+ */
+class MovePicker {
+
+	private static final int STAGE_HASH_MOVE = 0;
+	private static final int STAGE_GENERATE_CAPTURES = 1;
+	private static final int STAGE_GOOD_CAPTURES = 2;
+	private static final int STAGE_KILLERS = 3;
+	private static final int STAGE_QUIETS = 4;
+	private static final int STAGE_BAD_CAPTURES = 5;
+	private static final int STAGE_DONE = 6;
+
+	private final MoveHistory moveHistory;
+
+	private List<Move> legalMoves;
+	private Move hashMove;
+	private final Move[] killers = new Move[2];
+	private int killerIndex;
+	private int stage;
+
+	/** Züge der aktuellen Stufe und deren Bewertung, ab index noch nicht geliefert */
+	private Move[] moves = new Move[64];
+	private int[] scores = new int[64];
+	private int size;
+	private int index;
+
+	/** Beim Heraussuchen der Schlagzüge gefundene verlierende Schlagzüge */
+	private Move[] badCaptures = new Move[16];
+	private int[] badScores = new int[16];
+	private int badCaptureCount;
+
+	/**
+	 * @param moveHistory
+	 *            Killer-Züge und History-Zähler der Suche
+	 */
+	MovePicker(MoveHistory moveHistory) {
+		this.moveHistory = moveHistory;
+	}
+
+	/**
+	 * Bereitet den Picker für einen neuen Knoten vor
+	 *
+	 * @param legalMoves
+	 *            alle legalen Züge des Knotens, wird nicht verändert
+	 * @param hashMove
+	 *            legaler Zug aus der Transpositionstabelle oder null
+	 * @param ply
+	 *            Länge der Brett-Historie im Knoten, für die Killer-Züge
+	 */
+	void reset(List<Move> legalMoves, Move hashMove, int ply) {
+		this.legalMoves = legalMoves;
+		this.hashMove = hashMove;
+		this.killers[0] = moveHistory.getKiller(ply, 0);
+		this.killers[1] = moveHistory.getKiller(ply, 1);
+		this.killerIndex = 0;
+		this.stage = STAGE_HASH_MOVE;
+		this.size = 0;
+		this.index = 0;
+		this.badCaptureCount = 0;
+	}
+
+	/**
+	 * @return der nächste Zug oder null, wenn alle Züge geliefert wurden
+	 */
+	Move next() {
+		while (true) {
+			switch (stage) {
+				case STAGE_HASH_MOVE -> {
+					stage = STAGE_GENERATE_CAPTURES;
+					if (hashMove != null) {
+						return hashMove;
+					}
+				}
+				case STAGE_GENERATE_CAPTURES -> {
+					generateCaptures();
+					stage = STAGE_GOOD_CAPTURES;
+				}
+				case STAGE_GOOD_CAPTURES -> {
+					Move move = pickBest();
+					if (move != null) {
+						return move;
+					}
+					stage = STAGE_KILLERS;
+				}
+				case STAGE_KILLERS -> {
+					while (killerIndex < killers.length) {
+						Move killer = killers[killerIndex++];
+						if (killer != null && !killer.equals(hashMove) && isQuiet(killer)
+								&& legalMoves.contains(killer)) {
+							return killer;
+						}
+						// Ein nicht gelieferter Killer darf die ruhigen Züge nicht ausschließen
+						killers[killerIndex - 1] = null;
+					}
+					stage = STAGE_QUIETS;
+					generateQuiets();
+				}
+				case STAGE_QUIETS -> {
+					Move move = pickBest();
+					if (move != null) {
+						return move;
+					}
+					stage = STAGE_BAD_CAPTURES;
+					Move[] swapMoves = moves;
+					int[] swapScores = scores;
+					moves = badCaptures;
+					scores = badScores;
+					badCaptures = swapMoves;
+					badScores = swapScores;
+					size = badCaptureCount;
+					index = 0;
+				}
+				case STAGE_BAD_CAPTURES -> {
+					Move move = pickBest();
+					if (move != null) {
+						return move;
+					}
+					stage = STAGE_DONE;
+				}
+				default -> {
+					return null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true, wenn der Zug weder schlägt noch umwandelt
+	 */
+	static boolean isQuiet(Move move) {
+		return switch (move.getType()) {
+			case CAPTURE, EN_PASSANT, PROMOTION, CAPTURE_PROMOTION -> false;
+			default -> true;
+		};
+	}
+
+	/**
+	 * Sucht alle Schlagzüge und Umwandlungen heraus. Gewinnende kommen in die
+	 * aktuelle Stufe, verlierende werden für die letzte Stufe zurückgelegt.
+	 */
+	private void generateCaptures() {
+		size = 0;
+		index = 0;
+		for (Move move : legalMoves) {
+			if (isQuiet(move) || move.equals(hashMove)) {
+				continue;
+			}
+			int victim = move.getInvolvedPiece() != null && move.getType() != MoveType.PROMOTION
+					? move.getInvolvedPiece().getValue()
+					: 0;
+			int attacker = move.getPiece().getValue();
+			int promotion = move.getPromotionPiece() != null ? move.getPromotionPiece().getValue() : 0;
+			int score = (victim + promotion) * 16 - attacker;
+			if (victim >= attacker || promotion > 0 || move.getType() == MoveType.EN_PASSANT) {
+				add(move, score);
+			} else {
+				if (badCaptureCount == badCaptures.length) {
+					badCaptures = Arrays.copyOf(badCaptures, badCaptureCount * 2);
+					badScores = Arrays.copyOf(badScores, badCaptureCount * 2);
+				}
+				badCaptures[badCaptureCount] = move;
+				badScores[badCaptureCount++] = score;
+			}
+		}
+	}
+
+	/**
+	 * Sucht alle ruhigen Züge heraus, die nicht schon als Hash- oder Killer-Zug
+	 * geliefert wurden
+	 */
+	private void generateQuiets() {
+		size = 0;
+		index = 0;
+		for (Move move : legalMoves) {
+			if (!isQuiet(move) || move.equals(hashMove) || move.equals(killers[0]) || move.equals(killers[1])) {
+				continue;
+			}
+			add(move, moveHistory.getScore(move));
+		}
+	}
+
+	private void add(Move move, int score) {
+		if (size == moves.length) {
+			moves = Arrays.copyOf(moves, size * 2);
+			scores = Arrays.copyOf(scores, size * 2);
+		}
+		moves[size] = move;
+		scores[size++] = score;
+	}
+
+	/**
+	 * Wählt den besten noch nicht gelieferten Zug der aktuellen Stufe
+	 * (Selection-Sort Schritt für Schritt). Bei gleicher Bewertung bleibt die
+	 * Reihenfolge der legalen Züge erhalten.
+	 */
+	private Move pickBest() {
+		if (index >= size) {
+			return null;
+		}
+		int best = index;
+		for (int i = index + 1; i < size; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		Move move = moves[best];
+		int score = scores[best];
+		// Nach hinten schieben statt tauschen, damit die Reihenfolge stabil bleibt
+		System.arraycopy(moves, index, moves, index + 1, best - index);
+		System.arraycopy(scores, index, scores, index + 1, best - index);
+		moves[index] = move;
+		scores[index] = score;
+		index++;
+		return move;
+	}
+}
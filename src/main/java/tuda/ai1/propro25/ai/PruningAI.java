@@ -50,8 +50,10 @@ public class PruningAI extends SearchAI {
 	 */
 	public PruningAI(String name, Color color, int remainingTime, int depth) {
 		super(name, color, remainingTime, depth);
+		EvaluationConfig config = EvaluationConfig.getActive();
 		this.evaluationPipeline = List.of(new EvaluationStep(new EndConditionEvaluator(), 1.0),
-				new EvaluationStep(new CheckEvaluator(), 1.0), new EvaluationStep(new MaterialEvaluator(), 1.0));
+				new EvaluationStep(new CheckEvaluator(), config.getCheckWeight()),
+				new EvaluationStep(new MaterialEvaluator(), config.getMaterialWeight()));
 	}
 
 	/**
@@ -79,6 +81,9 @@ public class PruningAI extends SearchAI {
 	 *         Bekannte, wenn Suche sich nicht lohnt (beta)
 	 */
 	double search(Board board, int remainingDepth, double alpha, double beta) {
+		if (shouldAbortSearch()) {
+			return 0;
+		}
 		if (remainingDepth == 0) {
 			evaluatedPositions++;
 			return evaluate(board);
@@ -95,6 +100,10 @@ public class PruningAI extends SearchAI {
 			// nutzen
 			double moveEval = -search(board, remainingDepth - 1, -beta, -alpha);
 			board.undoLastMove();
+			if (searchAborted) {
+				// Das Ergebnis des abgebrochenen Teilbaums ist unbrauchbar
+				return alpha;
+			}
 			if (moveEval > beta) {
 				// Dieser Zug eben war so gut, dass der Gegner diesen Teilbaum definitiv
 				// vermeiden wird. Wir brauchen also keine weiteren Züge in diesem Teilbaum zu
@@ -117,7 +126,7 @@ public class PruningAI extends SearchAI {
 		currentlyPreferredMove = null;
 		double alpha = Double.NEGATIVE_INFINITY;
 		double beta = Double.POSITIVE_INFINITY;
-		evaluatedPositions = 0;
+		startSearch();
 		search(board, depth, alpha, beta);
 		if (currentlyPreferredMove == null && !board.findAllLegalMoves().isEmpty()) {
 			currentlyPreferredMove = board.findAllLegalMoves().get(0);
@@ -18,6 +18,15 @@ public class SearchAI extends ConfigurableAIOpponent {
 
 	long evaluatedPositions = 0;
 
+	/** Maximale Anzahl an Knoten pro Zug, 0 steht für unbegrenzt */
+	long nodeLimit = 0;
+	/** Maximale Bedenkzeit pro Zug in Millisekunden, 0 steht für unbegrenzt */
+	long timeLimitMillis = 0;
+	/** Zeitpunkt (System.nanoTime), an dem die aktuelle Suche abbrechen muss */
+	private long searchDeadline;
+	/** Wird gesetzt, sobald die aktuelle Suche abgebrochen wurde */
+	boolean searchAborted;
+
 	/**
 	 * Diese AI erstellt einen Suchbaum bis zur angegebenen Tiefe.
 	 * 
@@ -60,6 +69,9 @@ public class SearchAI extends ConfigurableAIOpponent {
 	 * @return Beste gefundene Evaluation dieses Teilbaumes
 	 */
 	double search(Board board, int remainingDepth) {
+		if (shouldAbortSearch()) {
+			return 0;
+		}
 		if (remainingDepth == 0) {
 			evaluatedPositions++;
 			return evaluate(board);
@@ -74,10 +86,13 @@ public class SearchAI extends ConfigurableAIOpponent {
 		for (Move move : moves) {
 			board.makeMove(move);
 			double moveEval = -search(board, remainingDepth - 1);
+			board.undoLastMove();
+			if (searchAborted) {
+				return 0;
+			}
 			if (moveEval > bestEval) {
 				bestEval = moveEval;
 			}
-			board.undoLastMove();
 		}
 		return bestEval;
 	}
@@ -85,16 +100,20 @@ public class SearchAI extends ConfigurableAIOpponent {
 	@Override
 	Move calculateNextMove(Board board) {
 		Move actualMove = null;
-		evaluatedPositions = 0;
+		startSearch();
 		double bestEval = Double.NEGATIVE_INFINITY;
 		for (Move move : board.findAllLegalMoves()) {
 			board.makeMove(move);
 			double moveEval = -search(board, depth - 1);
+			board.undoLastMove();
+			if (searchAborted) {
+				// Nur vollständig untersuchte Züge dürfen gewählt werden
+				break;
+			}
 			if (moveEval > bestEval) {
 				bestEval = moveEval;
 				actualMove = move;
 			}
-			board.undoLastMove();
 		}
 		if (actualMove == null && !board.findAllLegalMoves().isEmpty()) {
 			actualMove = board.findAllLegalMoves().get(0);
@@ -102,6 +121,62 @@ public class SearchAI extends ConfigurableAIOpponent {
 		return actualMove;
 	}
 
+	/**
+	 * Setzt die Zähler für eine neue Suche zurück und startet die Uhr für das
+	 * Zeitlimit.
+	 */
+	void startSearch() {
+		evaluatedPositions = 0;
+		searchAborted = false;
+		searchDeadline = System.nanoTime() + timeLimitMillis * 1_000_000;
+	}
+
+	/**
+	 * Prüft, ob die aktuelle Suche abgebrochen werden muss. Das ist der Fall, wenn
+	 * das Knoten- oder Zeitlimit erreicht ist oder der suchende Thread unterbrochen
+	 * wurde. Ein einmal erfolgter Abbruch bleibt bis zur nächsten Suche bestehen,
+	 * damit sich alle rekursiven Aufrufe schnell beenden.
+	 *
+	 * @return true, wenn die Suche nicht weiter fortgesetzt werden darf
+	 */
+	boolean shouldAbortSearch() {
+		if (!searchAborted) {
+			searchAborted = (nodeLimit > 0 && evaluatedPositions >= nodeLimit)
+					|| (timeLimitMillis > 0 && System.nanoTime() - searchDeadline >= 0)
+					|| Thread.currentThread().isInterrupted();
+		}
+		return searchAborted;
+	}
+
+	/**
+	 * Begrenzt die Anzahl der Knoten, die pro Zug evaluiert werden dürfen. Da die
+	 * Knotenzahl unabhängig von der Rechnergeschwindigkeit ist, sind Suchen mit
+	 * Knotenlimit reproduzierbar.
+	 *
+	 * @param nodeLimit
+	 *            maximale Anzahl an Knoten pro Zug, 0 für unbegrenzt
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		if (nodeLimit < 0) {
+			throw new IllegalArgumentException("Das Knotenlimit darf nicht negativ sein!");
+		}
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Begrenzt die Bedenkzeit pro Zug. Wird das Limit erreicht, wird der beste
+	 * bis dahin vollständig untersuchte Zug gespielt.
+	 *
+	 * @param timeLimitMillis
+	 *            maximale Bedenkzeit pro Zug in Millisekunden, 0 für unbegrenzt
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		if (timeLimitMillis < 0) {
+			throw new IllegalArgumentException("Das Zeitlimit darf nicht negativ sein!");
+		}
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
 	@Override
 	public String getAIConfigString() {
 		return "SearchAI{d(" + depth + ")}";
@@ -0,0 +1,24 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import java.util.List;
+import tuda.ai1.propro25.model.Move;
+
+/**
+ * Zwischenstand einer Suche nach einer vollständig abgeschlossenen Iteration
+ * der {@link DeepeningAI}. Bei einer Analyse mit mehreren Varianten
+ * ({@link DeepeningAI#analyze}) beschreibt jede Instanz eine Variante.
+ *
+ * @param depth
+ *            abgeschlossene Suchtiefe
+ * @param score
+ *            Bewertung des ersten Zuges der Zugfolge aus Sicht des Spielers am Zug
+ * @param nodes
+ *            bisher evaluierte Knoten
+ * @param timeMillis
+ *            bisher benötigte Zeit in Millisekunden
+ * @param principalVariation
+ *            erwartete Zugfolge, beginnend mit dem besten Zug
+ */
+public record SearchInfo(int depth, double score, long nodes, long timeMillis, List<Move> principalVariation) {
+}
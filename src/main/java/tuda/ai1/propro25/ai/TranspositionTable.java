@@ -0,0 +1,179 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import java.util.Arrays;
+import java.util.List;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Transpositionstabelle, in der die Suche bereits untersuchte Stellungen
+ * (identifiziert über ihren Zobrist-Hash) mit Bewertung, Suchtiefe und bestem
+ * Zug ablegt. Wird dieselbe Stellung über eine andere Zugfolge erneut erreicht,
+ * kann das Ergebnis wiederverwendet oder zumindest der beste Zug zuerst
+ * untersucht werden.
+ * <p>
+ * Jeder Eintrag besteht aus zwei longs: Der Schlüssel wird mit den Daten per XOR
+ * verknüpft abgelegt. Schreiben mehrere Threads gleichzeitig in denselben
+ * Eintrag, passen Schlüssel und Daten danach nicht mehr zusammen und der
+ * Eintrag wird beim Lesen einfach verworfen. Dadurch kann die Tabelle ohne
+ * Locks von mehreren Suchthreads geteilt werden.
+ */
+public class TranspositionTable {
+
+	/** Die gespeicherte Bewertung ist exakt */
+	static final int BOUND_EXACT = 0;
+	/** Die gespeicherte Bewertung ist eine untere Schranke (beta cutoff) */
+	static final int BOUND_LOWER = 1;
+	/** Die gespeicherte Bewertung ist eine obere Schranke (kein Zug war gut genug) */
+	static final int BOUND_UPPER = 2;
+
+	private static final int BYTES_PER_ENTRY = 16;
+	private static final long VALID_BIT = 1L << 63;
+	private static final long HAS_MOVE_BIT = 1L << 57;
+	private static final String PROMOTION_SYMBOLS = " NBRQ";
+
+	private long[] keys;
+	private long[] data;
+	private int mask;
+
+	/**
+	 * Erstellt eine neue, leere Tabelle
+	 *
+	 * @param megabytes
+	 *            ungefähre Größe der Tabelle in MB
+	 */
+	public TranspositionTable(int megabytes) {
+		resize(megabytes);
+	}
+
+	/**
+	 * Ändert die Größe der Tabelle. Dabei gehen alle Einträge verloren. Darf nicht
+	 * während einer laufenden Suche aufgerufen werden.
+	 *
+	 * @param megabytes
+	 *            ungefähre Größe der Tabelle in MB, die Anzahl der Einträge wird
+	 *            auf eine Zweierpotenz abgerundet
+	 */
+	public void resize(int megabytes) {
+		if (megabytes <= 0) {
+			throw new IllegalArgumentException("Die Größe der Transpositionstabelle muss positiv sein!");
+		}
+		long entries = Long.highestOneBit(megabytes * 1024L * 1024L / BYTES_PER_ENTRY);
+		int size = (int) Math.min(entries, 1 << 30);
+		keys = new long[size];
+		data = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Löscht alle Einträge, z.B. vor einer neuen Partie
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+	}
+
+	/**
+	 * Legt das Ergebnis einer Suche ab. Ein vorhandener Eintrag derselben Stellung
+	 * wird nur durch eine mindestens gleich tiefe Suche ersetzt, Einträge anderer
+	 * Stellungen werden immer ersetzt.
+	 *
+	 * @param key
+	 *            Zobrist-Hash der Stellung
+	 * @param depth
+	 *            übrige Suchtiefe, mit der die Bewertung berechnet wurde
+	 * @param bound
+	 *            Art der Bewertung ({@link #BOUND_EXACT}, {@link #BOUND_LOWER}
+	 *            oder {@link #BOUND_UPPER})
+	 * @param score
+	 *            Bewertung aus Sicht des Spielers am Zug
+	 * @param bestMove
+	 *            bester gefundener Zug oder null
+	 */
+	void store(long key, int depth, int bound, double score, Move bestMove) {
+		int index = (int) key & mask;
+		long existing = data[index];
+		if ((keys[index] ^ existing) == key && (existing & VALID_BIT) != 0 && entryDepth(existing) > depth) {
+			return;
+		}
+		long entry = VALID_BIT | (Float.floatToIntBits((float) score) & 0xFFFFFFFFL)
+				| ((long) Math.min(depth, 255) << 32) | ((long) bound << 40);
+		if (bestMove != null) {
+			entry |= HAS_MOVE_BIT | ((long) encodeMove(bestMove) << 42);
+		}
+		data[index] = entry;
+		keys[index] = key ^ entry;
+	}
+
+	/**
+	 * Sucht den Eintrag zu einer Stellung
+	 *
+	 * @param key
+	 *            Zobrist-Hash der Stellung
+	 * @return den gepackten Eintrag oder 0, wenn es keinen gibt
+	 */
+	long probe(long key) {
+		int index = (int) key & mask;
+		long entry = data[index];
+		if ((keys[index] ^ entry) != key || (entry & VALID_BIT) == 0) {
+			return 0;
+		}
+		return entry;
+	}
+
+	/**
+	 * @return gespeicherte Bewertung eines Eintrags
+	 */
+	static double entryScore(long entry) {
+		return Float.intBitsToFloat((int) entry);
+	}
+
+	/**
+	 * @return gespeicherte Suchtiefe eines Eintrags
+	 */
+	static int entryDepth(long entry) {
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	/**
+	 * @return Art der gespeicherten Bewertung eines Eintrags
+	 */
+	static int entryBound(long entry) {
+		return (int) (entry >>> 40) & 0x3;
+	}
+
+	/**
+	 * Sucht den im Eintrag gespeicherten besten Zug in einer Liste von Zügen
+	 *
+	 * @param entry
+	 *            gepackter Eintrag
+	 * @param moves
+	 *            legale Züge der Stellung
+	 * @return der passende Zug aus der Liste oder null
+	 */
+	static Move findEntryMove(long entry, List<Move> moves) {
+		if (entry == 0 || (entry & HAS_MOVE_BIT) == 0) {
+			return null;
+		}
+		int encoded = (int) (entry >>> 42) & 0x7FFF;
+		for (Move move : moves) {
+			if (encodeMove(move) == encoded) {
+				return move;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Kodiert einen Zug in 15 Bit: je 6 Bit für Start- und Zielfeld und 3 Bit für
+	 * eine mögliche Umwandlung
+	 */
+	private static int encodeMove(Move move) {
+		int from = move.getFrom().getFile() * 8 + move.getFrom().getRank();
+		int to = move.getTo().getFile() * 8 + move.getTo().getRank();
+		Piece promotion = move.getPromotionPiece();
+		int promotionCode = promotion == null ? 0 : PROMOTION_SYMBOLS.indexOf(promotion.getAlgebraicNotationSymbol());
+		return from | (to << 6) | (promotionCode << 12);
+	}
+}
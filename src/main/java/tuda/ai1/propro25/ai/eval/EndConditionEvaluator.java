@@ -5,13 +5,31 @@ import tuda.ai1.propro25.model.Board;
 
 public class EndConditionEvaluator implements BoardEvaluator {
 
+	/**
+	 * Bewertung einer gewonnenen Partie. Alle anderen Bewertungen liegen weit
+	 * darunter, Bewertungen ab der Hälfte stehen also für ein erzwungenes Matt.
+	 * Suchen können pro Halbzug bis zum Matt eins abziehen, siehe
+	 * {@link #isMateScore(double)}.
+	 */
+	public static final double WIN_SCORE = 10000;
+
+	/**
+	 * @param score
+	 *            Bewertung aus Sicht eines Spielers
+	 * @return ob die Bewertung für ein erzwungenes Matt für oder gegen den Spieler
+	 *         steht
+	 */
+	public static boolean isMateScore(double score) {
+		return Math.abs(score) >= WIN_SCORE / 2;
+	}
+
 	/**
 	 * @return +-unendlich für gewonnen/verloren, -1 bei unentschieden, sonst 0
 	 */
 	@Override
 	public double evaluate(Board board) {
 		if (board.getWinner() != null) {
-			return board.getWinner() == board.getCurrentPlayer() ? 10000 : -10000;
+			return board.getWinner() == board.getCurrentPlayer() ? WIN_SCORE : -WIN_SCORE;
 		}
 		return 0;
 	}
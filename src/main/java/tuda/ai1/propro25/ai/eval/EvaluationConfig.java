@@ -0,0 +1,248 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Parameter der Bewertungsfunktion: die Gewichte der einzelnen
+ * {@link EvaluationStep}s und die Tabellen des
+ * {@link PieceSquareTableEvaluator}. Eine Konfiguration kann in einer Datei
+ * gespeichert und wieder geladen werden, z.B. nachdem sie mit dem Texel-Tuner
+ * optimiert wurde.
+ * <p>
+ * Die Datei ist eine Properties-Datei mit den Schlüsseln {@code weight.check},
+ * {@code weight.material}, {@code weight.pst} und {@code pst.<figur>} (je 64
+ * durch Komma getrennte Werte in Centipawns, Zeile für Zeile aus Sicht von
+ * Weiß beginnend bei Reihe 8). Fehlende Schlüssel behalten ihren Standardwert.
+ * <p>
+ * Ist die System-Property {@value #CONFIG_PROPERTY} gesetzt, nutzen die AIs die
+ * darin angegebene Datei statt der Standardwerte.
+ */
+public final class EvaluationConfig {
+
+	public static final int PAWN = 0;
+	public static final int KNIGHT = 1;
+	public static final int BISHOP = 2;
+	public static final int ROOK = 3;
+	public static final int QUEEN = 4;
+	public static final int KING = 5;
+	/** Tabelle für den König im Endspiel */
+	public static final int KING_END = 6;
+	public static final int TABLE_COUNT = 7;
+
+	/** System-Property mit dem Pfad der Konfiguration, die die AIs nutzen */
+	public static final String CONFIG_PROPERTY = "propro25.evalConfig";
+
+	static final String[] TABLE_NAMES = {"pawn", "knight", "bishop", "rook", "queen", "king", "kingEnd"};
+
+	/** Die ursprünglichen, ungetunten Parameter */
+	public static final EvaluationConfig DEFAULT = new EvaluationConfig(1.0, 1.0, 1.0,
+			new int[][][]{PieceSquareTableEvaluator.DEFAULT_PAWN, PieceSquareTableEvaluator.DEFAULT_KNIGHT,
+					PieceSquareTableEvaluator.DEFAULT_BISHOP, PieceSquareTableEvaluator.DEFAULT_ROOK,
+					PieceSquareTableEvaluator.DEFAULT_QUEEN, PieceSquareTableEvaluator.DEFAULT_KING,
+					PieceSquareTableEvaluator.DEFAULT_KING_END});
+
+	private static volatile EvaluationConfig active;
+
+	private final double checkWeight;
+	private final double materialWeight;
+	private final double pieceSquareWeight;
+	private final int[][][] tables;
+
+	/**
+	 * @param checkWeight
+	 *            Gewicht des {@link CheckEvaluator}
+	 * @param materialWeight
+	 *            Gewicht des {@link MaterialEvaluator}
+	 * @param pieceSquareWeight
+	 *            Gewicht des {@link PieceSquareTableEvaluator}
+	 * @param tables
+	 *            {@value #TABLE_COUNT} Tabellen mit je 8x8 Werten in Centipawns,
+	 *            indiziert mit den Konstanten dieser Klasse
+	 */
+	public EvaluationConfig(double checkWeight, double materialWeight, double pieceSquareWeight, int[][][] tables) {
+		if (tables == null || tables.length != TABLE_COUNT) {
+			throw new IllegalArgumentException("Es müssen genau " + TABLE_COUNT + " Tabellen angegeben werden!");
+		}
+		this.checkWeight = checkWeight;
+		this.materialWeight = materialWeight;
+		this.pieceSquareWeight = pieceSquareWeight;
+		this.tables = new int[TABLE_COUNT][][];
+		for (int i = 0; i < TABLE_COUNT; i++) {
+			this.tables[i] = copyTable(tables[i]);
+		}
+	}
+
+	/**
+	 * Liefert die Konfiguration, mit der neue AIs bewerten. Das ist die Datei aus
+	 * der System-Property {@value #CONFIG_PROPERTY} oder, falls diese nicht gesetzt
+	 * ist oder nicht gelesen werden kann, {@link #DEFAULT}.
+	 *
+	 * @return die aktive Konfiguration
+	 */
+	public static EvaluationConfig getActive() {
+		EvaluationConfig config = active;
+		if (config == null) {
+			config = DEFAULT;
+			String path = System.getProperty(CONFIG_PROPERTY);
+			if (path != null) {
+				try {
+					config = load(Path.of(path));
+				} catch (IOException e) {
+					System.err.println("Bewertungsparameter konnten nicht geladen werden, nutze Standardwerte: "
+							+ e.getMessage());
+				}
+			}
+			active = config;
+		}
+		return config;
+	}
+
+	/**
+	 * Lädt eine Konfiguration aus einer Datei
+	 *
+	 * @param file
+	 *            die Datei
+	 * @return die geladene Konfiguration
+	 * @throws IOException
+	 *             wenn die Datei nicht gelesen werden kann oder ungültige Werte
+	 *             enthält
+	 */
+	public static EvaluationConfig load(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		try {
+			double check = parseWeight(properties, "weight.check", DEFAULT.checkWeight);
+			double material = parseWeight(properties, "weight.material", DEFAULT.materialWeight);
+			double pieceSquare = parseWeight(properties, "weight.pst", DEFAULT.pieceSquareWeight);
+			int[][][] tables = new int[TABLE_COUNT][][];
+			for (int i = 0; i < TABLE_COUNT; i++) {
+				String value = properties.getProperty("pst." + TABLE_NAMES[i]);
+				tables[i] = value == null ? DEFAULT.tables[i] : parseTable(TABLE_NAMES[i], value);
+			}
+			return new EvaluationConfig(check, material, pieceSquare, tables);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Ungültige Bewertungsparameter in " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Speichert die Konfiguration in einer Datei, die mit {@link #load(Path)}
+	 * wieder gelesen werden kann
+	 *
+	 * @param file
+	 *            die Datei
+	 * @param comment
+	 *            Kommentar für den Kopf der Datei oder null
+	 * @throws IOException
+	 *             wenn die Datei nicht geschrieben werden kann
+	 */
+	public void save(Path file, String comment) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			if (comment != null) {
+				for (String line : comment.split("\n")) {
+					writer.write("# " + line + "\n");
+				}
+			}
+			writer.write("weight.check=" + checkWeight + "\n");
+			writer.write("weight.material=" + materialWeight + "\n");
+			writer.write("weight.pst=" + pieceSquareWeight + "\n");
+			for (int i = 0; i < TABLE_COUNT; i++) {
+				writer.write("pst." + TABLE_NAMES[i] + "=");
+				for (int row = 0; row < 8; row++) {
+					for (int column = 0; column < 8; column++) {
+						writer.write(Integer.toString(tables[i][row][column]));
+						if (row < 7 || column < 7) {
+							writer.write(',');
+						}
+					}
+					if (row < 7) {
+						writer.write("\\\n    ");
+					}
+				}
+				writer.write('\n');
+			}
+		}
+	}
+
+	private static double parseWeight(Properties properties, String key, double defaultValue) {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("'" + key + "' ist keine Zahl: " + value);
+		}
+	}
+
+	private static int[][] parseTable(String name, String value) {
+		String[] entries = value.split(",");
+		if (entries.length != 64) {
+			throw new IllegalArgumentException("Tabelle '" + name + "' muss 64 Werte haben, hat aber " + entries.length);
+		}
+		int[][] table = new int[8][8];
+		for (int i = 0; i < 64; i++) {
+			try {
+				table[i / 8][i % 8] = Integer.parseInt(entries[i].trim());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Tabelle '" + name + "' enthält ungültigen Wert: " + entries[i]);
+			}
+		}
+		return table;
+	}
+
+	private static int[][] copyTable(int[][] table) {
+		if (table == null || table.length != 8) {
+			throw new IllegalArgumentException("Eine Tabelle muss 8x8 Werte haben!");
+		}
+		int[][] copy = new int[8][];
+		for (int row = 0; row < 8; row++) {
+			if (table[row] == null || table[row].length != 8) {
+				throw new IllegalArgumentException("Eine Tabelle muss 8x8 Werte haben!");
+			}
+			copy[row] = table[row].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * @return Gewicht des {@link CheckEvaluator}
+	 */
+	public double getCheckWeight() {
+		return checkWeight;
+	}
+
+	/**
+	 * @return Gewicht des {@link MaterialEvaluator}
+	 */
+	public double getMaterialWeight() {
+		return materialWeight;
+	}
+
+	/**
+	 * @return Gewicht des {@link PieceSquareTableEvaluator}
+	 */
+	public double getPieceSquareWeight() {
+		return pieceSquareWeight;
+	}
+
+	/**
+	 * @param table
+	 *            Index der Tabelle, z.B. {@link #PAWN}
+	 * @return Kopie der Tabelle, indiziert mit [Zeile][Linie], Zeile 0 ist aus
+	 *         Sicht von Weiß die Reihe 8
+	 */
+	public int[][] getTable(int table) {
+		return copyTable(tables[table]);
+	}
+}
@@ -2,37 +2,101 @@
 package tuda.ai1.propro25.ai.eval;
 
 import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.MaterialKey;
 import tuda.ai1.propro25.model.piece.Piece;
 
 public class PieceSquareTableEvaluator implements BoardEvaluator {
 
 	// Diese Werte stammen von
 	// https://www.chessprogramming.org/Simplified_Evaluation_Function und sind
-	// zeilenbasiert
-	private final int[][] pawn = {{0, 0, 0, 0, 0, 0, 0, 0}, {50, 50, 50, 50, 50, 50, 50, 50},
-			{10, 10, 20, 30, 30, 20, 10, 10}, {5, 5, 10, 25, 25, 10, 5, 5}, {0, 0, 0, 20, 20, 0, 0, 0},
-			{5, -5, -10, 0, 0, -10, -5, 5}, {5, 10, 10, -20, -20, 10, 10, 5}, {0, 0, 0, 0, 0, 0, 0, 0}};
-	private final int[][] knight = {{-50, -40, -30, -30, -30, -30, -40, -50}, {-40, -20, 0, 0, 0, 0, -20, -40},
-			{-30, 0, 10, 15, 15, 10, 0, -30}, {-30, 5, 15, 20, 20, 15, 5, -30}, {-30, 0, 15, 20, 20, 15, 0, -30},
-			{-30, 5, 10, 15, 15, 10, 5, -30}, {-40, -20, 0, 5, 5, 0, -20, -40},
-			{-50, -40, -30, -30, -30, -30, -40, -50}};
-	private final int[][] bishop = {{-20, -10, -10, -10, -10, -10, -10, -20}, {-10, 0, 0, 0, 0, 0, 0, -10},
-			{-10, 0, 5, 10, 10, 5, 0, -10}, {-10, 5, 5, 10, 10, 5, 5, -10}, {-10, 0, 10, 10, 10, 10, 0, -10},
-			{-10, 10, 10, 10, 10, 10, 10, -10}, {-10, 5, 0, 0, 0, 0, 5, -10}, {-20, -10, -10, -10, -10, -10, -10, -20}};
-	private final int[][] rook = {{0, 0, 0, 0, 0, 0, 0, 0}, {5, 10, 10, 10, 10, 10, 10, 5}, {-5, 0, 0, 0, 0, 0, 0, -5},
-			{-5, 0, 0, 0, 0, 0, 0, -5}, {-5, 0, 0, 0, 0, 0, 0, -5}, {-5, 0, 0, 0, 0, 0, 0, -5},
-			{-5, 0, 0, 0, 0, 0, 0, -5}, {0, 0, 0, 5, 5, 0, 0, 0}};
-	private final int[][] queen = {{-20, -10, -10, -5, -5, -10, -10, -20}, {-10, 0, 0, 0, 0, 0, 0, -10},
-			{-10, 0, 5, 5, 5, 5, 0, -10}, {-5, 0, 5, 5, 5, 5, 0, -5}, {0, 0, 5, 5, 5, 5, 0, -5},
-			{-10, 5, 5, 5, 5, 5, 0, -10}, {-10, 0, 5, 0, 0, 0, 0, -10}, {-20, -10, -10, -5, -5, -10, -10, -20}};
-	private final int[][] king = {{-30, -40, -40, -50, -50, -40, -40, -30}, {-30, -40, -40, -50, -50, -40, -40, -30},
-			{-30, -40, -40, -50, -50, -40, -40, -30}, {-30, -40, -40, -50, -50, -40, -40, -30},
-			{-20, -30, -30, -40, -40, -30, -30, -20}, {-10, -20, -20, -20, -20, -20, -20, -10},
-			{20, 20, 0, 0, 0, 0, 20, 20}, {20, 30, 10, 0, 0, 10, 30, 20}};
-	private final int[][] kingEnd = {{-50, -40, -30, -20, -20, -30, -40, -50}, {-30, -20, -10, 0, 0, -10, -20, -30},
-			{-30, -10, 20, 30, 30, 20, -10, -30}, {-30, -10, 30, 40, 40, 30, -10, -30},
-			{-30, -10, 30, 40, 40, 30, -10, -30}, {-30, -10, 20, 30, 30, 20, -10, -30},
-			{-30, -30, 0, 0, 0, 0, -30, -30}, {-50, -30, -30, -30, -30, -30, -30, -50}};
+	// zeilenbasiert, die erste Zeile ist aus Sicht von Weiß die 8. Reihe
+	static final int[][] DEFAULT_PAWN = {{0, 0, 0, 0, 0, 0, 0, 0}, // 8
+			{50, 50, 50, 50, 50, 50, 50, 50}, // 7
+			{10, 10, 20, 30, 30, 20, 10, 10}, // 6
+			{5, 5, 10, 25, 25, 10, 5, 5}, // 5
+			{0, 0, 0, 20, 20, 0, 0, 0}, // 4
+			{5, -5, -10, 0, 0, -10, -5, 5}, // 3
+			{5, 10, 10, -20, -20, 10, 10, 5}, // 2
+			{0, 0, 0, 0, 0, 0, 0, 0}}; // 1
+	static final int[][] DEFAULT_KNIGHT = {{-50, -40, -30, -30, -30, -30, -40, -50}, // 8
+			{-40, -20, 0, 0, 0, 0, -20, -40}, // 7
+			{-30, 0, 10, 15, 15, 10, 0, -30}, // 6
+			{-30, 5, 15, 20, 20, 15, 5, -30}, // 5
+			{-30, 0, 15, 20, 20, 15, 0, -30}, // 4
+			{-30, 5, 10, 15, 15, 10, 5, -30}, // 3
+			{-40, -20, 0, 5, 5, 0, -20, -40}, // 2
+			{-50, -40, -30, -30, -30, -30, -40, -50}}; // 1
+	static final int[][] DEFAULT_BISHOP = {{-20, -10, -10, -10, -10, -10, -10, -20}, // 8
+			{-10, 0, 0, 0, 0, 0, 0, -10}, // 7
+			{-10, 0, 5, 10, 10, 5, 0, -10}, // 6
+			{-10, 5, 5, 10, 10, 5, 5, -10}, // 5
+			{-10, 0, 10, 10, 10, 10, 0, -10}, // 4
+			{-10, 10, 10, 10, 10, 10, 10, -10}, // 3
+			{-10, 5, 0, 0, 0, 0, 5, -10}, // 2
+			{-20, -10, -10, -10, -10, -10, -10, -20}}; // 1
+	static final int[][] DEFAULT_ROOK = {{0, 0, 0, 0, 0, 0, 0, 0}, // 8
+			{5, 10, 10, 10, 10, 10, 10, 5}, // 7
+			{-5, 0, 0, 0, 0, 0, 0, -5}, // 6
+			{-5, 0, 0, 0, 0, 0, 0, -5}, // 5
+			{-5, 0, 0, 0, 0, 0, 0, -5}, // 4
+			{-5, 0, 0, 0, 0, 0, 0, -5}, // 3
+			{-5, 0, 0, 0, 0, 0, 0, -5}, // 2
+			{0, 0, 0, 5, 5, 0, 0, 0}}; // 1
+	static final int[][] DEFAULT_QUEEN = {{-20, -10, -10, -5, -5, -10, -10, -20}, // 8
+			{-10, 0, 0, 0, 0, 0, 0, -10}, // 7
+			{-10, 0, 5, 5, 5, 5, 0, -10}, // 6
+			{-5, 0, 5, 5, 5, 5, 0, -5}, // 5
+			{0, 0, 5, 5, 5, 5, 0, -5}, // 4
+			{-10, 5, 5, 5, 5, 5, 0, -10}, // 3
+			{-10, 0, 5, 0, 0, 0, 0, -10}, // 2
+			{-20, -10, -10, -5, -5, -10, -10, -20}}; // 1
+	static final int[][] DEFAULT_KING = {{-30, -40, -40, -50, -50, -40, -40, -30}, // 8
+			{-30, -40, -40, -50, -50, -40, -40, -30}, // 7
+			{-30, -40, -40, -50, -50, -40, -40, -30}, // 6
+			{-30, -40, -40, -50, -50, -40, -40, -30}, // 5
+			{-20, -30, -30, -40, -40, -30, -30, -20}, // 4
+			{-10, -20, -20, -20, -20, -20, -20, -10}, // 3
+			{20, 20, 0, 0, 0, 0, 20, 20}, // 2
+			{20, 30, 10, 0, 0, 10, 30, 20}}; // 1
+	static final int[][] DEFAULT_KING_END = {{-50, -40, -30, -20, -20, -30, -40, -50}, // 8
+			{-30, -20, -10, 0, 0, -10, -20, -30}, // 7
+			{-30, -10, 20, 30, 30, 20, -10, -30}, // 6
+			{-30, -10, 30, 40, 40, 30, -10, -30}, // 5
+			{-30, -10, 30, 40, 40, 30, -10, -30}, // 4
+			{-30, -10, 20, 30, 30, 20, -10, -30}, // 3
+			{-30, -30, 0, 0, 0, 0, -30, -30}, // 2
+			{-50, -30, -30, -30, -30, -30, -30, -50}}; // 1
+
+	private final int[][] pawn;
+	private final int[][] knight;
+	private final int[][] bishop;
+	private final int[][] rook;
+	private final int[][] queen;
+	private final int[][] king;
+	private final int[][] kingEnd;
+
+	/**
+	 * Erstellt den Evaluator mit den Standardtabellen
+	 */
+	public PieceSquareTableEvaluator() {
+		this(EvaluationConfig.DEFAULT);
+	}
+
+	/**
+	 * Erstellt den Evaluator mit den Tabellen einer (z.B. getunten) Konfiguration
+	 *
+	 * @param config
+	 *            Konfiguration, aus der die Tabellen übernommen werden
+	 */
+	public PieceSquareTableEvaluator(EvaluationConfig config) {
+		this.pawn = config.getTable(EvaluationConfig.PAWN);
+		this.knight = config.getTable(EvaluationConfig.KNIGHT);
+		this.bishop = config.getTable(EvaluationConfig.BISHOP);
+		this.rook = config.getTable(EvaluationConfig.ROOK);
+		this.queen = config.getTable(EvaluationConfig.QUEEN);
+		this.king = config.getTable(EvaluationConfig.KING);
+		this.kingEnd = config.getTable(EvaluationConfig.KING_END);
+	}
 
 	/**
 	 * Evaluiert die aktuelle Spielposition, indem die Felder, auf denen sich
@@ -47,7 +111,7 @@ public class PieceSquareTableEvaluator implements BoardEvaluator {
 	 */
 	@Override
 	public double evaluate(Board board) {
-		boolean isEndgame = board.getHistory().size() > 50;
+		boolean isEndgame = MaterialKey.isEndgame(board.getMaterialKey());
 		int ownSum = 0;
 		int enemySum = 0;
 		for (int file = 0; file < Board.BOARD_SIZE; file++) {
@@ -0,0 +1,237 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval.nnue;
+
+import java.util.Arrays;
+import java.util.List;
+import tuda.ai1.propro25.ai.eval.BoardEvaluator;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.MoveType;
+import tuda.ai1.propro25.model.history.HistoricalBoardState;
+import tuda.ai1.propro25.model.piece.Piece;
+import tuda.ai1.propro25.model.piece.Rook;
+
+/**
+ * Bewertet Stellungen mit einem {@link NNUENetwork}. Teuer ist beim Netz nur
+ * die erste Schicht. Deren Ergebnis (der Akkumulator) wird deshalb pro
+ * Suchtiefe gespeichert und nach einem Zug nur um die geänderten Eingänge
+ * aktualisiert: Bei einem normalen Zug wird eine Gewichtszeile abgezogen und
+ * eine addiert, bei Schlagzügen und Rochaden eine mehr.
+ * <p>
+ * Der Akkumulator der Stellung nach n Zügen liegt auf Ebene n und gehört zu dem
+ * {@link HistoricalBoardState}, aus dem der n-te Zug heraus gemacht wurde. Ein
+ * undoLastMove macht so keine Arbeit: Die darunterliegende Ebene ist weiterhin
+ * gültig. Nach einem makeMove wird die neue Ebene beim nächsten Bewerten aus der
+ * vorherigen abgeleitet. Werden mehrere Züge ohne Bewertung gemacht, was in der
+ * Suche an inneren Knoten passiert, werden die fehlenden Ebenen nachgeholt.
+ * <p>
+ * Ein NNUEEvaluator hat Zustand und darf nicht von mehreren Threads
+ * gleichzeitig genutzt werden. Jede AI braucht ihren eigenen, das Netz kann
+ * aber geteilt werden.
+ */
+public class NNUEEvaluator implements BoardEvaluator {
+
+	/**
+	 * So viele Züge werden höchstens nachgeholt, bevor der Akkumulator lieber neu
+	 * aus allen Figuren berechnet wird
+	 */
+	private static final int MAX_REPLAY = 8;
+	private static final Color[] PERSPECTIVES = Color.values();
+	/** Bei Rochaden mitziehender Turm, nach Farbe */
+	private static final Piece[] ROOKS = {new Rook(Color.WHITE), new Rook(Color.BLACK)};
+
+	private final NNUENetwork network;
+	private final NNUEKernel kernel;
+	private final int hiddenSize;
+	private final short[] weights;
+
+	/** Pro Ebene zwei Akkumulatoren: zuerst aus Sicht von Weiß, dann von Schwarz */
+	private short[] accumulators;
+	/** Zustand, aus dem die jeweils nächste Ebene berechnet wurde */
+	private HistoricalBoardState[] appliedStates;
+
+	private final int[] added = new int[32];
+	private final int[] removed = new int[2];
+
+	/**
+	 * Erstellt einen Evaluator, der die schnellste verfügbare Umsetzung nutzt
+	 *
+	 * @param network
+	 *            das Netz
+	 */
+	public NNUEEvaluator(NNUENetwork network) {
+		this(network, NNUEKernel.best());
+	}
+
+	NNUEEvaluator(NNUENetwork network, NNUEKernel kernel) {
+		this.network = network;
+		this.kernel = kernel;
+		this.hiddenSize = network.getHiddenSize();
+		this.weights = network.getFeatureWeights();
+		this.accumulators = new short[64 * 2 * hiddenSize];
+		this.appliedStates = new HistoricalBoardState[64];
+	}
+
+	@Override
+	public double evaluate(Board board) {
+		int level = prepareAccumulator(board);
+		int white = level * 2 * hiddenSize;
+		int black = white + hiddenSize;
+		boolean whiteToMove = board.getCurrentPlayer().getColor() == Color.WHITE;
+		short[] outputWeights = network.getOutputWeights();
+		long output = kernel.output(accumulators, whiteToMove ? white : black, outputWeights, 0, hiddenSize,
+				network.getClip())
+				+ kernel.output(accumulators, whiteToMove ? black : white, outputWeights, hiddenSize, hiddenSize,
+						network.getClip());
+		return network.toPawns(output);
+	}
+
+	/**
+	 * Sorgt dafür, dass der Akkumulator der aktuellen Stellung berechnet ist
+	 *
+	 * @return Ebene des Akkumulators
+	 */
+	private int prepareAccumulator(Board board) {
+		List<HistoricalBoardState> history = board.getHistory();
+		int size = history.size();
+		ensureCapacity(size + 1);
+
+		int level = size;
+		int lowest = Math.max(1, size - MAX_REPLAY);
+		while (level >= lowest && appliedStates[level - 1] != history.get(level - 1)) {
+			level--;
+		}
+		if (level < lowest) {
+			refresh(size, board.getUnmodifiablePieceGrid());
+			if (size > 0) {
+				appliedStates[size - 1] = history.get(size - 1);
+			}
+			return size;
+		}
+		for (; level < size; level++) {
+			HistoricalBoardState state = history.get(level);
+			if (state.isMoveAlreadyApplied()) {
+				// Zustand aus einem FEN mit En-Passant-Feld: Das Brett zeigt schon die
+				// Stellung nach dem Zug, es gibt nichts zu aktualisieren
+				refresh(level + 1, level + 1 < size
+						? history.get(level + 1).getPieceGrid()
+						: board.getUnmodifiablePieceGrid());
+			} else {
+				applyMove(level, state.getMoveToNextState(), state.getCapturedPiece());
+			}
+			appliedStates[level] = state;
+		}
+		return size;
+	}
+
+	private void ensureCapacity(int levels) {
+		if (levels > appliedStates.length) {
+			int capacity = Math.max(levels, appliedStates.length * 2);
+			appliedStates = Arrays.copyOf(appliedStates, capacity);
+			accumulators = Arrays.copyOf(accumulators, capacity * 2 * hiddenSize);
+		}
+	}
+
+	/**
+	 * Berechnet die Akkumulatoren einer Ebene neu aus allen Figuren
+	 */
+	private void refresh(int level, Piece[][] grid) {
+		for (Color perspective : PERSPECTIVES) {
+			int offset = accumulatorOffset(level, perspective);
+			System.arraycopy(network.getFeatureBias(), 0, accumulators, offset, hiddenSize);
+			int count = 0;
+			for (int file = 0; file < Board.BOARD_SIZE; file++) {
+				for (int rank = 0; rank < Board.BOARD_SIZE; rank++) {
+					Piece piece = grid[file][rank];
+					if (piece != null) {
+						added[count++] = featureRow(perspective, piece, file, rank);
+					}
+				}
+			}
+			kernel.update(accumulators, offset, offset, weights, added, count, removed, 0, hiddenSize);
+		}
+	}
+
+	/**
+	 * Leitet die Akkumulatoren der nächsten Ebene aus denen dieser Ebene ab
+	 *
+	 * @param level
+	 *            Ebene vor dem Zug
+	 * @param move
+	 *            der Zug
+	 * @param captured
+	 *            die geschlagene Figur oder null
+	 */
+	private void applyMove(int level, Move move, Piece captured) {
+		Coordinate from = move.getFrom();
+		Coordinate to = move.getTo();
+		Piece moving = move.getPiece();
+		Piece placed = move.getPromotionPiece() != null ? move.getPromotionPiece() : moving;
+		MoveType type = move.getType();
+
+		Piece second;
+		int secondFromFile;
+		int secondToFile = -1;
+		int secondRank = from.getRank();
+		if (type == MoveType.EN_PASSANT) {
+			second = captured;
+			secondFromFile = to.getFile();
+		} else if (type == MoveType.CASTLING_KINGSIDE) {
+			second = ROOKS[moving.getColor() == Color.WHITE ? 0 : 1];
+			secondFromFile = 7;
+			secondToFile = 5;
+		} else if (type == MoveType.CASTLING_QUEENSIDE) {
+			second = ROOKS[moving.getColor() == Color.WHITE ? 0 : 1];
+			secondFromFile = 0;
+			secondToFile = 3;
+		} else {
+			second = captured;
+			secondFromFile = to.getFile();
+			secondRank = to.getRank();
+		}
+
+		for (Color perspective : PERSPECTIVES) {
+			int addedCount = 0;
+			int removedCount = 0;
+			removed[removedCount++] = featureRow(perspective, moving, from.getFile(), from.getRank());
+			added[addedCount++] = featureRow(perspective, placed, to.getFile(), to.getRank());
+			if (second != null) {
+				removed[removedCount++] = featureRow(perspective, second, secondFromFile, secondRank);
+				if (secondToFile >= 0) {
+					added[addedCount++] = featureRow(perspective, second, secondToFile, secondRank);
+				}
+			}
+			kernel.update(accumulators, accumulatorOffset(level, perspective),
+					accumulatorOffset(level + 1, perspective), weights, added, addedCount, removed, removedCount,
+					hiddenSize);
+		}
+	}
+
+	private int accumulatorOffset(int level, Color perspective) {
+		return (level * 2 + (perspective == Color.WHITE ? 0 : 1)) * hiddenSize;
+	}
+
+	/**
+	 * Berechnet den Startindex der Gewichtszeile zu einer Figur. Aus Sicht von
+	 * Schwarz wird das Brett gespiegelt und die Farben getauscht, sodass das Netz
+	 * für beide Seiten dieselben Gewichte nutzt.
+	 */
+	private int featureRow(Color perspective, Piece piece, int file, int rank) {
+		int square = (perspective == Color.WHITE ? rank : 7 - rank) * 8 + file;
+		int side = piece.getColor() == perspective ? 0 : 6;
+		return ((side + pieceType(piece)) * 64 + square) * hiddenSize;
+	}
+
+	private static int pieceType(Piece piece) {
+		return switch (piece.getAlgebraicNotationSymbol()) {
+			case 'P' -> 0;
+			case 'N' -> 1;
+			case 'B' -> 2;
+			case 'R' -> 3;
+			case 'Q' -> 4;
+			default -> 5;
+		};
+	}
+}
@@ -0,0 +1,74 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval.nnue;
+
+/**
+ * Die Rechenoperationen des Netzes. Es gibt eine Umsetzung mit der Vector API
+ * ({@link VectorKernel}), die SIMD-Befehle der CPU nutzt, und eine skalare
+ * Umsetzung ({@link ScalarKernel}) für JVMs ohne das Modul
+ * {@code jdk.incubator.vector}. Beide liefern bitgenau dieselben Ergebnisse.
+ */
+interface NNUEKernel {
+
+	/**
+	 * Berechnet einen Akkumulator aus einem anderen, indem Zeilen der
+	 * Gewichtsmatrix addiert und subtrahiert werden. Quelle und Ziel dürfen
+	 * übereinstimmen.
+	 *
+	 * @param accumulators
+	 *            Array mit allen Akkumulatoren
+	 * @param source
+	 *            Startindex des Quell-Akkumulators
+	 * @param target
+	 *            Startindex des Ziel-Akkumulators
+	 * @param weights
+	 *            Gewichte der ersten Schicht
+	 * @param added
+	 *            Startindizes der zu addierenden Zeilen in weights
+	 * @param addedCount
+	 *            Anzahl der zu addierenden Zeilen
+	 * @param removed
+	 *            Startindizes der zu subtrahierenden Zeilen in weights
+	 * @param removedCount
+	 *            Anzahl der zu subtrahierenden Zeilen
+	 * @param length
+	 *            Länge eines Akkumulators
+	 */
+	void update(short[] accumulators, int source, int target, short[] weights, int[] added, int addedCount,
+			int[] removed, int removedCount, int length);
+
+	/**
+	 * Berechnet die Summe aus ClippedReLU(Akkumulator) mal Gewicht
+	 *
+	 * @param accumulators
+	 *            Array mit allen Akkumulatoren
+	 * @param offset
+	 *            Startindex des Akkumulators
+	 * @param weights
+	 *            Ausgabegewichte
+	 * @param weightOffset
+	 *            Startindex der passenden Ausgabegewichte
+	 * @param length
+	 *            Länge eines Akkumulators
+	 * @param clip
+	 *            obere Grenze der Aktivierung
+	 * @return die Summe
+	 */
+	long output(short[] accumulators, int offset, short[] weights, int weightOffset, int length, int clip);
+
+	/**
+	 * Wählt die schnellste verfügbare Umsetzung. Die Vector API wird nur genutzt,
+	 * wenn die JVM mit {@code --add-modules jdk.incubator.vector} gestartet wurde.
+	 *
+	 * @return der Kernel
+	 */
+	static NNUEKernel best() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return new VectorKernel();
+			} catch (LinkageError e) {
+				// Modul vorhanden, aber nicht lesbar: skalar weiterrechnen
+			}
+		}
+		return new ScalarKernel();
+	}
+}
@@ -0,0 +1,236 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval.nnue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Gewichte eines kleinen, quantisierten NNUE-Netzes. Das Netz hat 768
+ * Eingänge (6 Figurentypen x 2 Farben x 64 Felder), eine versteckte Schicht
+ * mit {@link #getHiddenSize()} Neuronen, die für beide Seiten getrennt
+ * berechnet wird (Akkumulator), und einen Ausgang. Als Aktivierung dient
+ * ClippedReLU auf das Intervall [0, clip].
+ * <p>
+ * Die Netzdatei ist binär und little-endian aufgebaut:
+ * <ol>
+ * <li>int: {@link #MAGIC}, int: {@link #VERSION}</li>
+ * <li>int: Größe der versteckten Schicht (Vielfaches von 32), int: clip, int:
+ * Quantisierung der Ausgabegewichte, int: Skalierung in Centipawns</li>
+ * <li>short[768 x hidden]: Gewichte der ersten Schicht, Eingang für Eingang</li>
+ * <li>short[hidden]: Bias der ersten Schicht</li>
+ * <li>short[2 x hidden]: Ausgabegewichte, zuerst für die Seite am Zug</li>
+ * <li>int: Bias der Ausgabe</li>
+ * </ol>
+ * Die Bewertung in Centipawns ist {@code ausgabe * skalierung / (clip *
+ * quantisierung)}.
+ * <p>
+ * Ein Netz ist unveränderlich und kann von beliebig vielen
+ * {@link NNUEEvaluator}s gleichzeitig genutzt werden.
+ */
+public final class NNUENetwork {
+
+	/** "PNUE" little-endian */
+	public static final int MAGIC = 0x45554E50;
+	public static final int VERSION = 1;
+	/** Anzahl der Eingänge: 6 Figurentypen x 2 Farben x 64 Felder */
+	public static final int INPUT_SIZE = 768;
+
+	/** System-Property mit dem Pfad des Netzes, das die DeepeningAI nutzt */
+	public static final String NETWORK_PROPERTY = "propro25.nnue";
+
+	private static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+	private static volatile NNUENetwork active;
+	private static volatile boolean activeLoaded;
+
+	private final int hiddenSize;
+	private final int clip;
+	private final int outputQuantisation;
+	private final int scale;
+	private final short[] featureWeights;
+	private final short[] featureBias;
+	private final short[] outputWeights;
+	private final int outputBias;
+
+	/**
+	 * @param hiddenSize
+	 *            Größe der versteckten Schicht, ein Vielfaches von 32
+	 * @param clip
+	 *            obere Grenze der Aktivierung (Quantisierung der ersten Schicht)
+	 * @param outputQuantisation
+	 *            Quantisierung der Ausgabegewichte
+	 * @param scale
+	 *            Skalierung der Ausgabe in Centipawns
+	 * @param featureWeights
+	 *            {@value #INPUT_SIZE} x hiddenSize Gewichte der ersten Schicht
+	 * @param featureBias
+	 *            hiddenSize Bias-Werte der ersten Schicht
+	 * @param outputWeights
+	 *            2 x hiddenSize Ausgabegewichte
+	 * @param outputBias
+	 *            Bias der Ausgabe
+	 */
+	public NNUENetwork(int hiddenSize, int clip, int outputQuantisation, int scale, short[] featureWeights,
+			short[] featureBias, short[] outputWeights, int outputBias) {
+		if (hiddenSize <= 0 || hiddenSize % 32 != 0) {
+			throw new IllegalArgumentException("Die versteckte Schicht muss ein positives Vielfaches von 32 sein!");
+		}
+		if (clip <= 0 || outputQuantisation <= 0) {
+			throw new IllegalArgumentException("Die Quantisierung muss positiv sein!");
+		}
+		if (featureWeights.length != INPUT_SIZE * hiddenSize || featureBias.length != hiddenSize
+				|| outputWeights.length != 2 * hiddenSize) {
+			throw new IllegalArgumentException("Die Gewichte passen nicht zur Größe der versteckten Schicht!");
+		}
+		this.hiddenSize = hiddenSize;
+		this.clip = clip;
+		this.outputQuantisation = outputQuantisation;
+		this.scale = scale;
+		this.featureWeights = featureWeights.clone();
+		this.featureBias = featureBias.clone();
+		this.outputWeights = outputWeights.clone();
+		this.outputBias = outputBias;
+	}
+
+	/**
+	 * Liefert das Netz aus der System-Property {@value #NETWORK_PROPERTY}. Ist sie
+	 * nicht gesetzt oder kann die Datei nicht gelesen werden, wird null
+	 * zurückgegeben und die AIs bewerten klassisch.
+	 *
+	 * @return das aktive Netz oder null
+	 */
+	public static NNUENetwork getActive() {
+		if (!activeLoaded) {
+			synchronized (NNUENetwork.class) {
+				if (!activeLoaded) {
+					String path = System.getProperty(NETWORK_PROPERTY);
+					if (path != null) {
+						try {
+							active = load(Path.of(path));
+						} catch (IOException e) {
+							System.err.println("NNUE-Netz konnte nicht geladen werden, nutze klassische Bewertung: "
+									+ e.getMessage());
+						}
+					}
+					activeLoaded = true;
+				}
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Lädt ein Netz. Die Datei wird dazu in den Speicher gemappt und die Gewichte
+	 * direkt aus dem Mapping in Arrays übernommen.
+	 *
+	 * @param file
+	 *            die Netzdatei
+	 * @return das geladene Netz
+	 * @throws IOException
+	 *             wenn die Datei nicht gelesen werden kann oder kein gültiges Netz
+	 *             enthält
+	 */
+	public static NNUENetwork load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES) {
+				throw new IOException("Die Netzdatei ist zu kurz: " + file);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Keine NNUE-Netzdatei: " + file);
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Nicht unterstützte Version " + version + " der Netzdatei " + file);
+			}
+			int hiddenSize = buffer.getInt();
+			int clip = buffer.getInt();
+			int outputQuantisation = buffer.getInt();
+			int scale = buffer.getInt();
+			long expected = HEADER_BYTES + (long) Short.BYTES * (INPUT_SIZE + 3L) * hiddenSize + Integer.BYTES;
+			if (hiddenSize <= 0 || channel.size() != expected) {
+				throw new IOException("Die Netzdatei " + file + " hat nicht die erwartete Größe von " + expected
+						+ " Bytes");
+			}
+			short[] featureWeights = new short[INPUT_SIZE * hiddenSize];
+			short[] featureBias = new short[hiddenSize];
+			short[] outputWeights = new short[2 * hiddenSize];
+			buffer.asShortBuffer().get(featureWeights).get(featureBias).get(outputWeights);
+			int outputBias = buffer.getInt(buffer.capacity() - Integer.BYTES);
+			try {
+				return new NNUENetwork(hiddenSize, clip, outputQuantisation, scale, featureWeights, featureBias,
+						outputWeights, outputBias);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Ungültiges Netz in " + file + ": " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Speichert das Netz im Format, das {@link #load(Path)} erwartet
+	 *
+	 * @param file
+	 *            die Netzdatei
+	 * @throws IOException
+	 *             wenn die Datei nicht geschrieben werden kann
+	 */
+	public void save(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer
+				.allocate(HEADER_BYTES + Short.BYTES * (INPUT_SIZE + 3) * hiddenSize + Integer.BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(hiddenSize).putInt(clip).putInt(outputQuantisation)
+				.putInt(scale);
+		for (short weight : featureWeights) {
+			buffer.putShort(weight);
+		}
+		for (short bias : featureBias) {
+			buffer.putShort(bias);
+		}
+		for (short weight : outputWeights) {
+			buffer.putShort(weight);
+		}
+		buffer.putInt(outputBias);
+		Files.write(file, buffer.array());
+	}
+
+	/**
+	 * @return Größe der versteckten Schicht
+	 */
+	public int getHiddenSize() {
+		return hiddenSize;
+	}
+
+	int getClip() {
+		return clip;
+	}
+
+	short[] getFeatureWeights() {
+		return featureWeights;
+	}
+
+	short[] getFeatureBias() {
+		return featureBias;
+	}
+
+	short[] getOutputWeights() {
+		return outputWeights;
+	}
+
+	/**
+	 * Rechnet die Ausgabe des Netzes in Bauerneinheiten um
+	 *
+	 * @param output
+	 *            Summe aus Ausgabegewichten mal Aktivierungen, ohne Bias
+	 * @return Bewertung in Bauerneinheiten
+	 */
+	double toPawns(long output) {
+		return (output + outputBias) * (double) scale / ((double) clip * outputQuantisation) / 100.0;
+	}
+}
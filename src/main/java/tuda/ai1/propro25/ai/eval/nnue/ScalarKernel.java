@@ -0,0 +1,33 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval.nnue;
+
+/**
+ * Skalare Umsetzung der Netzoperationen, die auf jeder JVM läuft
+ */
+final class ScalarKernel implements NNUEKernel {
+
+	@Override
+	public void update(short[] accumulators, int source, int target, short[] weights, int[] added, int addedCount,
+			int[] removed, int removedCount, int length) {
+		for (int i = 0; i < length; i++) {
+			int value = accumulators[source + i];
+			for (int j = 0; j < addedCount; j++) {
+				value += weights[added[j] + i];
+			}
+			for (int j = 0; j < removedCount; j++) {
+				value -= weights[removed[j] + i];
+			}
+			accumulators[target + i] = (short) value;
+		}
+	}
+
+	@Override
+	public long output(short[] accumulators, int offset, short[] weights, int weightOffset, int length, int clip) {
+		long sum = 0;
+		for (int i = 0; i < length; i++) {
+			int activation = Math.min(Math.max(accumulators[offset + i], 0), clip);
+			sum += activation * weights[weightOffset + i];
+		}
+		return sum;
+	}
+}
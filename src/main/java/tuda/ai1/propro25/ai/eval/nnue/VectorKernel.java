@@ -0,0 +1,79 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Umsetzung der Netzoperationen mit der Vector API. Es wird die breiteste von
+ * der CPU unterstützte Vektorlänge genutzt, z.B. 16 shorts pro Befehl mit AVX2.
+ * Die Skalarprodukte der Ausgabe werden dazu in zwei Hälften auf int erweitert,
+ * damit die Produkte nicht überlaufen.
+ */
+final class VectorKernel implements NNUEKernel {
+
+	private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+	/** Nach so vielen Blöcken werden die int-Summen in ein long übertragen */
+	private static final int FLUSH_INTERVAL = 16;
+
+	@Override
+	public void update(short[] accumulators, int source, int target, short[] weights, int[] added, int addedCount,
+			int[] removed, int removedCount, int length) {
+		int bound = SHORTS.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += SHORTS.length()) {
+			ShortVector value = ShortVector.fromArray(SHORTS, accumulators, source + i);
+			for (int j = 0; j < addedCount; j++) {
+				value = value.add(ShortVector.fromArray(SHORTS, weights, added[j] + i));
+			}
+			for (int j = 0; j < removedCount; j++) {
+				value = value.sub(ShortVector.fromArray(SHORTS, weights, removed[j] + i));
+			}
+			value.intoArray(accumulators, target + i);
+		}
+		for (; i < length; i++) {
+			int value = accumulators[source + i];
+			for (int j = 0; j < addedCount; j++) {
+				value += weights[added[j] + i];
+			}
+			for (int j = 0; j < removedCount; j++) {
+				value -= weights[removed[j] + i];
+			}
+			accumulators[target + i] = (short) value;
+		}
+	}
+
+	@Override
+	public long output(short[] accumulators, int offset, short[] weights, int weightOffset, int length, int clip) {
+		int parts = SHORTS.length() / INTS.length();
+		int bound = SHORTS.loopBound(length);
+		long total = 0;
+		IntVector sum = IntVector.zero(INTS);
+		int blocks = 0;
+		int i = 0;
+		for (; i < bound; i += SHORTS.length()) {
+			ShortVector activation = ShortVector.fromArray(SHORTS, accumulators, offset + i).max((short) 0)
+					.min((short) clip);
+			ShortVector weight = ShortVector.fromArray(SHORTS, weights, weightOffset + i);
+			for (int part = 0; part < parts; part++) {
+				IntVector wideActivation = (IntVector) activation.castShape(INTS, part);
+				IntVector wideWeight = (IntVector) weight.castShape(INTS, part);
+				sum = sum.add(wideActivation.mul(wideWeight));
+			}
+			if (++blocks == FLUSH_INTERVAL) {
+				total += sum.reduceLanesToLong(VectorOperators.ADD);
+				sum = IntVector.zero(INTS);
+				blocks = 0;
+			}
+		}
+		total += sum.reduceLanesToLong(VectorOperators.ADD);
+		for (; i < length; i++) {
+			int activation = Math.min(Math.max(accumulators[offset + i], 0), clip);
+			total += activation * weights[weightOffset + i];
+		}
+		return total;
+	}
+}
@@ -0,0 +1,295 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.tuning;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import tuda.ai1.propro25.ai.eval.EvaluationConfig;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.MoveType;
+import tuda.ai1.propro25.model.history.HistoricalBoardState;
+import tuda.ai1.propro25.pgn.GameReconstructionException;
+import tuda.ai1.propro25.pgn.GameReconstructor;
+import tuda.ai1.propro25.pgn.GameTermination;
+import tuda.ai1.propro25.pgn.PGNGame;
+import tuda.ai1.propro25.pgn.PGNParser;
+
+/**
+ * Optimiert die Parameter der Bewertungsfunktion nach dem Texel-Verfahren: Aus
+ * PGN-Partien werden ruhige Stellungen entnommen und die Parameter so
+ * angepasst, dass die Bewertung einer Stellung möglichst gut das Ergebnis der
+ * Partie vorhersagt. Die Bewertung wird dazu mit einer Sigmoidfunktion auf eine
+ * erwartete Punktzahl zwischen 0 und 1 abgebildet.
+ * <p>
+ * Getunt werden das Materialgewicht und alle Einträge der Figurentabellen.
+ * Statt der klassischen lokalen Suche, die pro Parameter zwei volle Durchläufe
+ * braucht, wird der Gradient analytisch berechnet (die Bewertung ist linear in
+ * den Parametern) und mit Adam optimiert. Ein Durchlauf über eine Million
+ * Stellungen dauert so auf mehreren Kernen nur Sekunden.
+ * <p>
+ * Das Schachgewicht wird nicht getunt, da in ruhigen Stellungen nie ein König
+ * im Schach steht. Es wird aus der Startkonfiguration übernommen.
+ * <p>
+ * Aufruf: {@code TexelTuner --pgn datei [--pgn datei ...] [--output datei]
+ * [--config datei] [--epochs n] [--rate r] [--threads n]}
+ */
+public class TexelTuner {
+
+	/** Die ersten Halbzüge einer Partie sind meist Eröffnungstheorie und werden übersprungen */
+	private static final int SKIPPED_PLIES = 8;
+	/** Anzahl der Partien, die gemeinsam parallel rekonstruiert werden */
+	private static final int GAME_BATCH_SIZE = 512;
+	private static final int DEFAULT_EPOCHS = 500;
+	private static final double DEFAULT_LEARNING_RATE = 0.002;
+	private static final double BETA1 = 0.9;
+	private static final double BETA2 = 0.999;
+	private static final double EPSILON = 1e-8;
+
+	private final TuningPositions positions = new TuningPositions();
+	private final ForkJoinPool pool;
+	private final AtomicLong games = new AtomicLong();
+	private final AtomicLong skippedGames = new AtomicLong();
+
+	/**
+	 * @param threads
+	 *            Anzahl an Threads für Rekonstruktion und Fehlerberechnung
+	 */
+	TexelTuner(int threads) {
+		this.pool = new ForkJoinPool(threads);
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<Path> pgnFiles = new ArrayList<>();
+		Path outputFile = Path.of("evaluation.properties");
+		Path configFile = null;
+		int epochs = DEFAULT_EPOCHS;
+		double learningRate = DEFAULT_LEARNING_RATE;
+		int threads = 0;
+		for (int i = 0; i < args.length; i++) {
+			String value = i + 1 < args.length ? args[i + 1] : null;
+			if (value == null) {
+				usage("Fehlender Wert für " + args[i]);
+			}
+			switch (args[i]) {
+				case "--pgn" -> pgnFiles.add(Path.of(value));
+				case "--output" -> outputFile = Path.of(value);
+				case "--config" -> configFile = Path.of(value);
+				case "--epochs" -> epochs = Integer.parseInt(value);
+				case "--rate" -> learningRate = Double.parseDouble(value);
+				case "--threads" -> threads = Integer.parseInt(value);
+				default -> usage("Unbekannte Option: " + args[i]);
+			}
+			i++;
+		}
+		if (pgnFiles.isEmpty()) {
+			usage("Es muss mindestens eine PGN-Datei angegeben werden!");
+		}
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		EvaluationConfig start = configFile == null ? EvaluationConfig.DEFAULT : EvaluationConfig.load(configFile);
+
+		TexelTuner tuner = new TexelTuner(threads);
+		long startTime = System.currentTimeMillis();
+		for (Path file : pgnFiles) {
+			tuner.readGames(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+		}
+		System.err.printf(Locale.ROOT, "%d Stellungen aus %d Partien gelesen (%d übersprungen) in %.1f s%n",
+				tuner.positions.size(), tuner.games.get(), tuner.skippedGames.get(),
+				(System.currentTimeMillis() - startTime) / 1000.0);
+		if (tuner.positions.size() == 0) {
+			System.err.println("Keine Stellungen gefunden, es gibt nichts zu tunen.");
+			System.exit(1);
+		}
+
+		EvaluationConfig tuned = tuner.tune(start, epochs, learningRate);
+		tuned.save(outputFile, "Getunt mit TexelTuner über " + tuner.positions.size() + " Stellungen");
+		System.err.println("Parameter gespeichert in " + outputFile);
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println("Aufruf: TexelTuner --pgn datei [--pgn datei ...] [--output datei] [--config datei]"
+				+ " [--epochs n] [--rate r] [--threads n]");
+		System.exit(1);
+	}
+
+	/**
+	 * Liest alle Partien einer PGN-Datei und übernimmt deren ruhige Stellungen.
+	 * Die Partien werden über {@link PGNParser#stream(Reader, Consumer)} gelesen
+	 * und blockweise parallel rekonstruiert, sodass nie die ganze Datei im
+	 * Speicher liegt.
+	 *
+	 * @param reader
+	 *            Quelle der Partien
+	 */
+	void readGames(Reader reader) {
+		List<PGNGame> batch = new ArrayList<>(GAME_BATCH_SIZE);
+		try (Stream<PGNGame> stream = PGNParser.stream(reader, e -> {
+			games.incrementAndGet();
+			skippedGames.incrementAndGet();
+		})) {
+			stream.forEach(game -> {
+				batch.add(game);
+				if (batch.size() >= GAME_BATCH_SIZE) {
+					processBatch(batch);
+					batch.clear();
+				}
+			});
+		}
+		processBatch(batch);
+	}
+
+	private void processBatch(List<PGNGame> batch) {
+		pool.submit(() -> batch.parallelStream().forEach(this::addGame)).join();
+	}
+
+	/**
+	 * Rekonstruiert eine Partie und fügt ihre ruhigen Stellungen hinzu. Ruhig ist
+	 * eine Stellung, wenn niemand im Schach steht und der nächste Zug weder
+	 * schlägt noch umwandelt. Partien ohne Ergebnis werden übersprungen.
+	 *
+	 * @param game
+	 *            die geparste Partie
+	 */
+	void addGame(PGNGame game) {
+		games.incrementAndGet();
+		if (game.termination() == GameTermination.IN_PROGRESS) {
+			skippedGames.incrementAndGet();
+			return;
+		}
+		double whiteScore = switch (game.termination()) {
+			case WHITE_WINS -> 1.0;
+			case BLACK_WINS -> 0.0;
+			default -> 0.5;
+		};
+		Board board;
+		try {
+			board = new GameReconstructor(600, 600).reconstructGame(game);
+		} catch (GameReconstructionException | RuntimeException e) {
+			skippedGames.incrementAndGet();
+			return;
+		}
+
+		List<HistoricalBoardState> history = board.getHistory();
+		for (int ply = SKIPPED_PLIES; ply < history.size(); ply++) {
+			HistoricalBoardState state = history.get(ply);
+			if (state.isMoveAlreadyApplied() || state.getColorInCheck() != null || state.getMoveToNextState() == null
+					|| !isQuiet(state.getMoveToNextState().getType())) {
+				continue;
+			}
+			positions.add(state.getPieceGrid(), whiteScore);
+		}
+	}
+
+	private static boolean isQuiet(MoveType type) {
+		return switch (type) {
+			case CAPTURE, EN_PASSANT, PROMOTION, CAPTURE_PROMOTION -> false;
+			default -> true;
+		};
+	}
+
+	/**
+	 * Optimiert die Parameter
+	 *
+	 * @param start
+	 *            Startkonfiguration
+	 * @param epochs
+	 *            Anzahl der Optimierungsschritte, jeder über alle Stellungen
+	 * @param learningRate
+	 *            Schrittweite von Adam in Bauerneinheiten
+	 * @return die getunte Konfiguration
+	 */
+	EvaluationConfig tune(EvaluationConfig start, int epochs, double learningRate) {
+		double[] parameters = toParameters(start);
+		double scale = pool.submit(() -> fitScale(parameters)).join();
+		double initialError = pool.submit(() -> positions.error(parameters, scale)).join();
+		System.err.printf(Locale.ROOT, "K = %.3f, Fehler vorher: %.6f%n", scale, initialError);
+
+		int chunks = pool.getParallelism() * 4;
+		double[] firstMoment = new double[parameters.length];
+		double[] secondMoment = new double[parameters.length];
+		for (int epoch = 1; epoch <= epochs; epoch++) {
+			double[] gradient = pool.submit(() -> positions.gradient(parameters, scale, chunks)).join();
+			double correction1 = 1 - Math.pow(BETA1, epoch);
+			double correction2 = 1 - Math.pow(BETA2, epoch);
+			for (int i = 0; i < parameters.length; i++) {
+				firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * gradient[i];
+				secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * gradient[i] * gradient[i];
+				parameters[i] -= learningRate * (firstMoment[i] / correction1)
+						/ (Math.sqrt(secondMoment[i] / correction2) + EPSILON);
+			}
+			if (epoch % 50 == 0 || epoch == epochs) {
+				double error = pool.submit(() -> positions.error(parameters, scale)).join();
+				System.err.printf(Locale.ROOT, "Epoche %d: Fehler %.6f%n", epoch, error);
+			}
+		}
+		return toConfig(parameters, start.getCheckWeight());
+	}
+
+	/**
+	 * Bestimmt die Skalierung K der Sigmoidfunktion, bei der die
+	 * Startparameter den kleinsten Fehler haben. Der Fehler ist in K unimodal,
+	 * daher genügt eine Intervallschachtelung.
+	 */
+	double fitScale(double[] parameters) {
+		double low = 0.05;
+		double high = 5;
+		for (int i = 0; i < 40; i++) {
+			double first = low + (high - low) / 3;
+			double second = high - (high - low) / 3;
+			if (positions.error(parameters, first) < positions.error(parameters, second)) {
+				high = second;
+			} else {
+				low = first;
+			}
+		}
+		return (low + high) / 2;
+	}
+
+	/**
+	 * Wandelt eine Konfiguration in einen Parametervektor um. Die Tabellen werden
+	 * dabei mit dem Tabellengewicht verrechnet und in Bauerneinheiten umgerechnet,
+	 * so wie der PieceSquareTableEvaluator sie nutzt.
+	 */
+	static double[] toParameters(EvaluationConfig config) {
+		double[] parameters = new double[TuningPositions.PARAMETER_COUNT];
+		parameters[TuningPositions.MATERIAL] = config.getMaterialWeight();
+		for (int table = 0; table < EvaluationConfig.TABLE_COUNT; table++) {
+			int[][] values = config.getTable(table);
+			for (int row = 0; row < 8; row++) {
+				for (int file = 0; file < 8; file++) {
+					parameters[TuningPositions.TABLE_OFFSET + table * 64 + row * 8 + file] = values[row][file]
+							* config.getPieceSquareWeight() * 0.01;
+				}
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * Wandelt einen Parametervektor zurück in eine Konfiguration mit
+	 * Tabellengewicht 1 und Tabellen in Centipawns
+	 */
+	static EvaluationConfig toConfig(double[] parameters, double checkWeight) {
+		int[][][] tables = new int[EvaluationConfig.TABLE_COUNT][8][8];
+		for (int table = 0; table < EvaluationConfig.TABLE_COUNT; table++) {
+			for (int row = 0; row < 8; row++) {
+				for (int file = 0; file < 8; file++) {
+					tables[table][row][file] = (int) Math
+							.round(parameters[TuningPositions.TABLE_OFFSET + table * 64 + row * 8 + file] * 100);
+				}
+			}
+		}
+		return new EvaluationConfig(checkWeight, parameters[TuningPositions.MATERIAL], 1.0, tables);
+	}
+}
@@ -0,0 +1,187 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.tuning;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import tuda.ai1.propro25.ai.eval.EvaluationConfig;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.MaterialKey;
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Kompakte Sammlung der Stellungen, über die getunt wird. Statt ganzer Bretter
+ * wird pro Stellung nur gespeichert, was die Bewertung tatsächlich braucht:
+ * Jede Figur wird als ein short abgelegt (Tabelle, Feld und Farbe), dazu
+ * Materialdifferenz und Ergebnis der Partie. Eine Stellung belegt so im Schnitt
+ * etwa 60 Byte, eine Million Stellungen passen problemlos in den Speicher.
+ * <p>
+ * Die Bewertung ist linear in den Parametern. Der Parametervektor besteht aus
+ * dem Materialgewicht an Index 0 und danach den Einträgen aller
+ * Figurentabellen in Bauerneinheiten. Alle Bewertungen sind aus Sicht von
+ * Weiß.
+ */
+final class TuningPositions {
+
+	/** Index des Materialgewichts im Parametervektor */
+	static final int MATERIAL = 0;
+	/** Index des ersten Tabelleneintrags im Parametervektor */
+	static final int TABLE_OFFSET = 1;
+	static final int PARAMETER_COUNT = TABLE_OFFSET + EvaluationConfig.TABLE_COUNT * 64;
+
+	private static final int BLACK_BIT = 0x200;
+
+	private short[] pieces = new short[1 << 16];
+	private int[] offsets = new int[1 << 12];
+	private short[] material = new short[1 << 12];
+	private byte[] results = new byte[1 << 12];
+	private int count;
+
+	/**
+	 * Fügt eine Stellung hinzu
+	 *
+	 * @param pieceGrid
+	 *            Figuren, indiziert mit [Linie][Reihe]
+	 * @param whiteScore
+	 *            Ergebnis der Partie aus Sicht von Weiß (0, 0.5 oder 1)
+	 */
+	synchronized void add(Piece[][] pieceGrid, double whiteScore) {
+		if (count + 2 > offsets.length) {
+			int capacity = offsets.length * 2;
+			offsets = Arrays.copyOf(offsets, capacity);
+			material = Arrays.copyOf(material, capacity);
+			results = Arrays.copyOf(results, capacity);
+		}
+		int start = offsets[count];
+		if (start + 32 > pieces.length) {
+			pieces = Arrays.copyOf(pieces, pieces.length * 2);
+		}
+		int end = start;
+		int materialDifference = 0;
+		// Wie im PieceSquareTableEvaluator entscheidet das Material über die Königstabelle
+		boolean endgame = MaterialKey.isEndgame(MaterialKey.of(pieceGrid));
+		for (int file = 0; file < 8; file++) {
+			for (int rank = 0; rank < 8; rank++) {
+				Piece piece = pieceGrid[file][rank];
+				if (piece == null) {
+					continue;
+				}
+				boolean white = piece.getColor() == Color.WHITE;
+				int table = tableIndex(piece.getAlgebraicNotationSymbol(), endgame);
+				int row = white ? 7 - rank : rank;
+				pieces[end++] = (short) ((table * 64 + row * 8 + file) | (white ? 0 : BLACK_BIT));
+				materialDifference += white ? piece.getValue() : -piece.getValue();
+			}
+		}
+		material[count] = (short) materialDifference;
+		results[count] = (byte) Math.round(whiteScore * 2);
+		count++;
+		offsets[count] = end;
+	}
+
+	private static int tableIndex(char symbol, boolean endgame) {
+		return switch (symbol) {
+			case 'P' -> EvaluationConfig.PAWN;
+			case 'N' -> EvaluationConfig.KNIGHT;
+			case 'B' -> EvaluationConfig.BISHOP;
+			case 'R' -> EvaluationConfig.ROOK;
+			case 'Q' -> EvaluationConfig.QUEEN;
+			case 'K' -> endgame ? EvaluationConfig.KING_END : EvaluationConfig.KING;
+			default -> throw new IllegalArgumentException("Unbekannte Figur: " + symbol);
+		};
+	}
+
+	/**
+	 * @return Anzahl der Stellungen
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Bewertet eine Stellung
+	 *
+	 * @param position
+	 *            Index der Stellung
+	 * @param parameters
+	 *            Parametervektor
+	 * @return Bewertung in Bauerneinheiten aus Sicht von Weiß
+	 */
+	double evaluate(int position, double[] parameters) {
+		double eval = parameters[MATERIAL] * material[position];
+		for (int i = offsets[position]; i < offsets[position + 1]; i++) {
+			int feature = pieces[i];
+			double value = parameters[TABLE_OFFSET + (feature & ~BLACK_BIT)];
+			eval += (feature & BLACK_BIT) == 0 ? value : -value;
+		}
+		return eval;
+	}
+
+	/**
+	 * Berechnet den mittleren quadratischen Fehler zwischen vorhergesagter
+	 * Gewinnwahrscheinlichkeit und Ergebnis. Läuft parallel im aktuellen
+	 * ForkJoinPool.
+	 *
+	 * @param parameters
+	 *            Parametervektor
+	 * @param scale
+	 *            Skalierung K der Sigmoidfunktion
+	 * @return der Fehler
+	 */
+	double error(double[] parameters, double scale) {
+		return IntStream.range(0, count).parallel().mapToDouble(i -> {
+			double difference = results[i] * 0.5 - sigmoid(evaluate(i, parameters), scale);
+			return difference * difference;
+		}).sum() / count;
+	}
+
+	/**
+	 * Berechnet den Gradienten des Fehlers nach allen Parametern. Die Stellungen
+	 * werden in Blöcke aufgeteilt, die parallel jeweils einen eigenen Gradienten
+	 * aufsummieren.
+	 *
+	 * @param parameters
+	 *            Parametervektor
+	 * @param scale
+	 *            Skalierung K der Sigmoidfunktion
+	 * @param chunks
+	 *            Anzahl paralleler Blöcke
+	 * @return der Gradient
+	 */
+	double[] gradient(double[] parameters, double scale, int chunks) {
+		int chunkSize = (count + chunks - 1) / chunks;
+		double derivativeFactor = Math.log(10) * scale / 4;
+		double[] gradient = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+			double[] local = new double[PARAMETER_COUNT];
+			int end = Math.min(count, (chunk + 1) * chunkSize);
+			for (int i = chunk * chunkSize; i < end; i++) {
+				double prediction = sigmoid(evaluate(i, parameters), scale);
+				double factor = -2 * (results[i] * 0.5 - prediction) * prediction * (1 - prediction)
+						* derivativeFactor;
+				local[MATERIAL] += factor * material[i];
+				for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+					int feature = pieces[j];
+					local[TABLE_OFFSET + (feature & ~BLACK_BIT)] += (feature & BLACK_BIT) == 0 ? factor : -factor;
+				}
+			}
+			return local;
+		}).reduce(new double[PARAMETER_COUNT], (a, b) -> {
+			double[] sum = new double[PARAMETER_COUNT];
+			for (int i = 0; i < PARAMETER_COUNT; i++) {
+				sum[i] = a[i] + b[i];
+			}
+			return sum;
+		});
+		for (int i = 0; i < PARAMETER_COUNT; i++) {
+			gradient[i] /= count;
+		}
+		return gradient;
+	}
+
+	/**
+	 * Bildet eine Bewertung in Bauerneinheiten auf eine erwartete Punktzahl
+	 * zwischen 0 und 1 ab
+	 */
+	static double sigmoid(double eval, double scale) {
+		return 1 / (1 + Math.pow(10, -scale * eval / 4));
+	}
+}
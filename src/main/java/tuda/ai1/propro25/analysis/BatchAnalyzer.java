@@ -0,0 +1,363 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.analysis;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import tuda.ai1.propro25.ai.DeepeningAI;
+import tuda.ai1.propro25.ai.SearchInfo;
+import tuda.ai1.propro25.ai.TranspositionTable;
+import tuda.ai1.propro25.fen.FENCodec;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.uci.UCIEngine;
+
+/**
+ * Headless Analyse vieler Stellungen. Die Stellungen werden zeilenweise als FEN
+ * oder EPD aus einer Datei gelesen, auf einen work-stealing Pool verteilt und
+ * jeweils bis zu einer festen Tiefe bzw. einem Knotenlimit mit der
+ * {@link DeepeningAI} durchsucht. Die Ergebnisse (bester Zug, Bewertung,
+ * Knoten, Zeit) werden als CSV oder JSONL in der Reihenfolge der Eingabe
+ * geschrieben.
+ * <p>
+ * Es werden nie mehr als {@code --window} Stellungen gleichzeitig im Speicher
+ * gehalten. Ist das Fenster voll, wartet das Einlesen, bis das älteste Ergebnis
+ * geschrieben wurde. So können auch sehr große Dateien analysiert werden.
+ * <p>
+ * Jeder Worker-Thread nutzt eine eigene AI mit eigener Transpositionstabelle,
+ * die vor jeder Stellung geleert wird. Die Knotenzahlen sind dadurch unabhängig
+ * von der Anzahl an Threads reproduzierbar.
+ * <p>
+ * Aufruf:
+ *
+ * <pre>
+ * BatchAnalyzer --input datei [--output datei] [--format csv|jsonl] [--depth n]
+ *     [--nodes n] [--threads n] [--window n]
+ * </pre>
+ *
+ * Leere Zeilen und Zeilen, die mit {@code #} beginnen, werden übersprungen.
+ * Ungültige Stellungen werden mit Fehlermeldung ausgegeben und brechen die
+ * Analyse nicht ab.
+ */
+public class BatchAnalyzer {
+
+	/** Standardtiefe, wenn weder Tiefe noch Knotenlimit angegeben sind */
+	static final int DEFAULT_DEPTH = 3;
+	/** Tiefe, bis zu der bei reinem Knotenlimit maximal gesucht wird */
+	static final int MAX_DEPTH = 64;
+	/** Größe der Transpositionstabelle je Worker in MB */
+	static final int TABLE_SIZE_MB = 4;
+	/** Abstand zwischen zwei Fortschrittsmeldungen in Millisekunden */
+	private static final long PROGRESS_INTERVAL_MILLIS = 5000;
+
+	/**
+	 * Ergebnis der Analyse einer Stellung
+	 *
+	 * @param lineNumber
+	 *            Zeile der Stellung in der Eingabedatei
+	 * @param fen
+	 *            die analysierte Stellung
+	 * @param bestMove
+	 *            bester Zug in UCI-Notation oder null, wenn es keinen legalen Zug
+	 *            gibt
+	 * @param score
+	 *            Bewertung aus Sicht des Spielers am Zug
+	 * @param nodes
+	 *            evaluierte Knoten
+	 * @param timeMillis
+	 *            benötigte Zeit in Millisekunden
+	 * @param error
+	 *            Fehlermeldung, falls die Stellung nicht analysiert werden konnte,
+	 *            sonst null
+	 */
+	record Result(long lineNumber, String fen, String bestMove, double score, long nodes, long timeMillis,
+			String error) {
+	}
+
+	/**
+	 * AI und Transpositionstabelle eines Worker-Threads
+	 */
+	private record Worker(DeepeningAI ai, TranspositionTable transpositionTable) {
+	}
+
+	private final ThreadLocal<Worker> worker;
+
+	/**
+	 * @param depth
+	 *            maximale Suchtiefe
+	 * @param nodeLimit
+	 *            Knotenlimit pro Stellung, 0 für unbegrenzt
+	 */
+	BatchAnalyzer(int depth, long nodeLimit) {
+		this.worker = ThreadLocal.withInitial(() -> {
+			DeepeningAI ai = new DeepeningAI("Analyse", Color.WHITE, 600, depth);
+			TranspositionTable transpositionTable = new TranspositionTable(TABLE_SIZE_MB);
+			ai.setTranspositionTable(transpositionTable);
+			ai.setNodeLimit(nodeLimit);
+			return new Worker(ai, transpositionTable);
+		});
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path inputFile = null;
+		Path outputFile = null;
+		String format = "csv";
+		int depth = 0;
+		long nodes = 0;
+		int threads = 0;
+		int window = 0;
+		for (int i = 0; i < args.length; i++) {
+			String value = i + 1 < args.length ? args[i + 1] : null;
+			if (value == null) {
+				usage("Fehlender Wert für " + args[i]);
+			}
+			switch (args[i]) {
+				case "--input" -> inputFile = Path.of(value);
+				case "--output" -> outputFile = Path.of(value);
+				case "--format" -> format = value.toLowerCase(Locale.ROOT);
+				case "--depth" -> depth = Integer.parseInt(value);
+				case "--nodes" -> nodes = Long.parseLong(value);
+				case "--threads" -> threads = Integer.parseInt(value);
+				case "--window" -> window = Integer.parseInt(value);
+				default -> usage("Unbekannte Option: " + args[i]);
+			}
+			i++;
+		}
+		if (inputFile == null) {
+			usage("Es muss eine Eingabedatei angegeben werden!");
+		}
+		if (!format.equals("csv") && !format.equals("jsonl")) {
+			usage("Unbekanntes Format: " + format);
+		}
+		if (depth <= 0) {
+			depth = nodes > 0 ? MAX_DEPTH : DEFAULT_DEPTH;
+		}
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		if (window <= 0) {
+			window = threads * 16;
+		}
+
+		BatchAnalyzer analyzer = new BatchAnalyzer(depth, nodes);
+		try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8);
+				Writer writer = outputFile == null
+						? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+						: Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+			analyzer.run(reader, writer, format.equals("jsonl"), threads, window);
+		}
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println("Aufruf: BatchAnalyzer --input datei [--output datei] [--format csv|jsonl] [--depth n]"
+				+ " [--nodes n] [--threads n] [--window n]");
+		System.exit(1);
+	}
+
+	/**
+	 * Analysiert alle Stellungen der Eingabe und schreibt die Ergebnisse in
+	 * Eingabereihenfolge
+	 *
+	 * @param reader
+	 *            Quelle der Stellungen, eine pro Zeile
+	 * @param writer
+	 *            Ziel der Ergebnisse
+	 * @param jsonLines
+	 *            true für JSONL, false für CSV
+	 * @param threads
+	 *            Anzahl an Worker-Threads
+	 * @param window
+	 *            maximale Anzahl gleichzeitig gehaltener Stellungen
+	 */
+	void run(BufferedReader reader, Writer writer, boolean jsonLines, int threads, int window) throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		ArrayDeque<CompletableFuture<Result>> pending = new ArrayDeque<>();
+		Progress progress = new Progress();
+		try {
+			if (!jsonLines) {
+				writer.write("line,fen,bestmove,score_cp,nodes,time_ms,error\n");
+			}
+			String line;
+			long lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				if (pending.size() >= window) {
+					writeResult(pending.removeFirst().join(), writer, jsonLines, progress);
+				}
+				long number = lineNumber;
+				String input = line;
+				pending.addLast(CompletableFuture.supplyAsync(() -> analyze(number, input), pool));
+			}
+			while (!pending.isEmpty()) {
+				writeResult(pending.removeFirst().join(), writer, jsonLines, progress);
+			}
+			writer.flush();
+			progress.report(true);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Analysiert eine Stellung mit der AI des aktuellen Worker-Threads
+	 *
+	 * @param lineNumber
+	 *            Zeile der Stellung in der Eingabe
+	 * @param line
+	 *            Stellung als FEN oder EPD
+	 * @return das Ergebnis der Analyse
+	 */
+	Result analyze(long lineNumber, String line) {
+		long start = System.nanoTime();
+		String fen = line;
+		try {
+			fen = toFen(line);
+			Board board = new Board(fen);
+			Worker current = worker.get();
+			current.transpositionTable().clear();
+			DeepeningAI ai = current.ai();
+			List<SearchInfo> lines = ai.analyze(board, 1, null);
+			long timeMillis = (System.nanoTime() - start) / 1_000_000;
+			if (lines.isEmpty()) {
+				String error = board.findAllLegalMoves().isEmpty() ? null : "Knotenlimit zu klein";
+				return new Result(lineNumber, fen, null, 0, ai.getEvaluatedPositions(), timeMillis, error);
+			}
+			SearchInfo best = lines.get(0);
+			return new Result(lineNumber, fen, UCIEngine.formatMove(best.principalVariation().get(0)),
+					best.score(), ai.getEvaluatedPositions(), timeMillis, null);
+		} catch (FENFormatException | IllegalArgumentException e) {
+			return new Result(lineNumber, fen, null, 0, 0, (System.nanoTime() - start) / 1_000_000,
+					e.getMessage());
+		} catch (RuntimeException e) {
+			// Eine einzelne Stellung darf nie die ganze Analyse abbrechen
+			return new Result(lineNumber, fen, null, 0, 0, (System.nanoTime() - start) / 1_000_000,
+					"Unerwarteter Fehler: " + e);
+		}
+	}
+
+	/**
+	 * Wandelt eine Zeile in FEN um. EPD-Zeilen enthalten nur die ersten vier
+	 * Felder einer FEN und ggf. Operationen dahinter, die Zugzähler werden dann
+	 * ergänzt.
+	 *
+	 * @param line
+	 *            Stellung als FEN oder EPD
+	 * @return Stellung als FEN
+	 * @throws FENFormatException
+	 *             wenn die Zeile weder FEN noch EPD ist
+	 */
+	static String toFen(String line) throws FENFormatException {
+		FENCodec codec = new FENCodec();
+		return codec.encode(codec.decodeEPD(line).position(), new StringBuilder(90)).toString();
+	}
+
+	private void writeResult(Result result, Writer writer, boolean jsonLines, Progress progress)
+			throws IOException {
+		writer.write(jsonLines ? formatJson(result) : formatCsv(result));
+		writer.write('\n');
+		progress.add(result);
+		if (progress.report(false)) {
+			writer.flush();
+		}
+	}
+
+	/**
+	 * @return das Ergebnis als CSV-Zeile (ohne Zeilenumbruch)
+	 */
+	static String formatCsv(Result result) {
+		return result.lineNumber() + "," + result.fen() + "," + (result.bestMove() == null ? "" : result.bestMove())
+				+ "," + (result.error() == null ? Math.round(result.score() * 100) : "") + "," + result.nodes() + ","
+				+ result.timeMillis() + ","
+				+ (result.error() == null ? "" : "\"" + result.error().replace("\"", "\"\"") + "\"");
+	}
+
+	/**
+	 * @return das Ergebnis als JSON-Objekt (ohne Zeilenumbruch)
+	 */
+	static String formatJson(Result result) {
+		StringBuilder json = new StringBuilder("{\"line\":").append(result.lineNumber());
+		json.append(",\"fen\":").append(jsonString(result.fen()));
+		json.append(",\"bestmove\":").append(result.bestMove() == null ? "null" : jsonString(result.bestMove()));
+		json.append(",\"score_cp\":").append(result.error() == null ? Math.round(result.score() * 100) : "null");
+		json.append(",\"nodes\":").append(result.nodes());
+		json.append(",\"time_ms\":").append(result.timeMillis());
+		if (result.error() != null) {
+			json.append(",\"error\":").append(jsonString(result.error()));
+		}
+		return json.append('}').toString();
+	}
+
+	private static String jsonString(String value) {
+		StringBuilder escaped = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '"' -> escaped.append("\\\"");
+				case '\\' -> escaped.append("\\\\");
+				case '\n' -> escaped.append("\\n");
+				case '\r' -> escaped.append("\\r");
+				case '\t' -> escaped.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						escaped.append(String.format("\\u%04x", (int) c));
+					} else {
+						escaped.append(c);
+					}
+				}
+			}
+		}
+		return escaped.append('"').toString();
+	}
+
+	/**
+	 * Zählt die geschriebenen Ergebnisse und meldet regelmäßig den Fortschritt auf
+	 * der Standardfehlerausgabe
+	 */
+	private static final class Progress {
+		private final long start = System.nanoTime();
+		private long lastReport = start;
+		private long positions;
+		private long nodes;
+		private long errors;
+
+		void add(Result result) {
+			positions++;
+			nodes += result.nodes();
+			if (result.error() != null) {
+				errors++;
+			}
+		}
+
+		/**
+		 * @param force
+		 *            true, um unabhängig vom Intervall zu melden
+		 * @return true, wenn gemeldet wurde
+		 */
+		boolean report(boolean force) {
+			long now = System.nanoTime();
+			if (!force && now - lastReport < PROGRESS_INTERVAL_MILLIS * 1_000_000) {
+				return false;
+			}
+			lastReport = now;
+			long elapsedMillis = Math.max(1, (now - start) / 1_000_000);
+			System.err.printf("%d Stellungen, %d Fehler, %d Knoten, %d Knoten/s, %.1f Stellungen/s%n", positions,
+					errors, nodes, nodes * 1000 / elapsedMillis, positions * 1000.0 / elapsedMillis);
+			return true;
+		}
+	}
+}
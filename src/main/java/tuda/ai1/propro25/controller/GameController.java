@@ -29,6 +29,13 @@ public class GameController {
 	private boolean timerStarted = false;
 	Random random = new Random();
 
+	/**
+	 * Zuletzt veröffentlichter Stand des Bretts. Wird nach jeder Änderung am Brett
+	 * ersetzt und nie verändert, sodass Renderer und andere Threads ihn ohne
+	 * Synchronisation lesen können.
+	 */
+	private volatile PositionSnapshot position;
+
 	/**
 	 * Future für den nächsten Zug der AI. Objektvariable, um die Berechnung global
 	 * abbrechen zu können
@@ -49,6 +56,7 @@ public class GameController {
 		this.board = board;
 		this.view = view;
 		this.increment = increment;
+		this.position = board.snapshot();
 
 		Player[] players = board.getPlayers();
 
@@ -77,17 +85,26 @@ public class GameController {
 	 *         Figur an dieser Stelle vorhanden ist
 	 */
 	public Piece getPieceAt(Coordinate coordinate) {
-		return board.getPiece(coordinate.getFile(), coordinate.getRank());
+		return position.getPiece(coordinate.getFile(), coordinate.getRank());
 	}
 
 	/**
-	 * Gibt das aktuelle Schachbrett als 2D-Array von Figuren zurück.
+	 * Gibt den zuletzt veröffentlichten Stand des Schachbretts zurück. Der
+	 * Schnappschuss ist unveränderlich, zum Zeichnen muss also nichts kopiert
+	 * werden.
 	 *
-	 * @return Ein 2D-Array von {@link Piece}-Objekten, das das Schachbrett
-	 *         darstellt
+	 * @return Schnappschuss des Schachbretts
 	 **/
-	public Piece[][] getBoard() {
-		return board.getUnmodifiablePieceGrid();
+	public PositionSnapshot getBoard() {
+		return position;
+	}
+
+	/**
+	 * Veröffentlicht den aktuellen Stand des Bretts, muss nach jeder Änderung am
+	 * Brett aufgerufen werden
+	 */
+	private void publishPosition() {
+		position = board.snapshot();
 	}
 
 	/**
@@ -227,6 +244,7 @@ public class GameController {
 		try {
 			view.playSound(move.getType());
 			board.makeMove(move);
+			publishPosition();
 			view.highlightActivePlayer(getCurrentPlayer().getColor());
 			if (board.getColorInCheck() != null) {
 				view.playSound(Sound.CHECK);
@@ -288,6 +306,7 @@ public class GameController {
 		view.playSound(Sound.UNDO);
 		board.restoreTimeForUndo();
 		board.undoLastMove();
+		publishPosition();
 		view.clearHighlights();
 		view.getMoveHistoryRenderer().removeMove(getCurrentColor());
 		Move lastMove = board.getLastMove();
@@ -375,22 +394,23 @@ public class GameController {
 	/**
 	 * Ermittelt den nächsten Spielzug des KI-Gegners asynchron.
 	 * <p>
-	 * Die Methode übergibt die Spielfeld-Instanz an die KI-Logik und der Executor
-	 * wartet im Hintergrund auf das Ergebnis. Die maximale Wartezeit entspricht der
-	 * verbleibenden Zeit des KI-Spielers. Sollte innerhalb dieser Zeit kein Zug
-	 * geliefert werden, gilt dies als Timeout, und der KI-Spieler gibt auf. Wenn
-	 * die KI einen Zug berechnet hat, wird über den Executor die handleMove methode
-	 * aufgerufen.
+	 * Die Methode übergibt den zuletzt veröffentlichten Schnappschuss des
+	 * Spielfelds an die KI-Logik und der Executor wartet im Hintergrund auf das
+	 * Ergebnis. Die maximale Wartezeit entspricht der verbleibenden Zeit des
+	 * KI-Spielers. Sollte innerhalb dieser Zeit kein Zug geliefert werden, gilt
+	 * dies als Timeout, und der KI-Spieler gibt auf. Wenn die KI einen Zug
+	 * berechnet hat, wird über den Executor die handleMove methode aufgerufen.
 	 */
 	private void askAIForMove(AIOpponent player) {
 		if (aiMoveFuture != null) {
 			aiMoveFuture.cancel(true);
 		}
 
+		PositionSnapshot snapshot = position;
 		aiMoveFuture = aiExecutor.submit(() -> {
 			try {
 				long startTime = System.currentTimeMillis();
-				Move move = player.getNextMove(board);
+				Move move = player.getNextMove(snapshot);
 				long endTime = System.currentTimeMillis();
 				if ((endTime - startTime) / 1000000 < 200) {
 					// Für weniger als 200 ms machen wir eine zusätzliche zufällige Verzögerung, das
@@ -428,6 +448,7 @@ public class GameController {
 		// handle TimeOut
 		if (newRemainingTime == 0 && board.getGameState() == GameState.RUNNING) {
 			board.forfeitByTime(currentPlayer.getColor());
+			publishPosition();
 			endGame(board.getGameState());
 		}
 	}
@@ -0,0 +1,178 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.fen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Liest EPD-Dateien, z.B. Testsuiten oder Trainingsdaten, Zeile für Zeile. Die
+ * Zeilen werden nicht erst in Strings umgewandelt, sondern mit dem
+ * {@link FENCodec} direkt aus dem Lesepuffer geparst.
+ * <p>
+ * Leere Zeilen und Zeilen, die mit {@code #} beginnen, werden übersprungen.
+ * Neben EPD werden auch vollständige FENs akzeptiert, siehe
+ * {@link FENCodec#decodeEPD(CharSequence)}.
+ */
+public final class EPDReader {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private EPDReader() {
+	}
+
+	/**
+	 * Liest alle Stellungen nacheinander. Fehlerhafte Zeilen werden übersprungen
+	 * und an den errorHandler gemeldet. Der Stream schließt beim Schließen auch
+	 * die Eingabe.
+	 *
+	 * @param input
+	 *            die UTF-8-kodierte Eingabe, wird nur stückweise gelesen
+	 * @param errorHandler
+	 *            bekommt für jede fehlerhafte Zeile die Exception, deren Nachricht
+	 *            die Nummer der Zeile enthält
+	 * @return die Stellungen in der Reihenfolge der Eingabe
+	 */
+	public static Stream<EPDRecord> stream(InputStream input, Consumer<FENFormatException> errorHandler) {
+		Iterator<EPDRecord> records = new RecordIterator(input, errorHandler);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						input.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	/**
+	 * Siehe {@link #stream(InputStream, Consumer)}
+	 *
+	 * @throws IOException
+	 *             falls die Datei nicht geöffnet werden kann
+	 */
+	public static Stream<EPDRecord> stream(Path file, Consumer<FENFormatException> errorHandler) throws IOException {
+		return stream(Files.newInputStream(file), errorHandler);
+	}
+
+	/**
+	 * Liest die Stellungen immer erst, wenn die nächste angefragt wird
+	 */
+	private static class RecordIterator implements Iterator<EPDRecord> {
+
+		private final InputStream input;
+		private final Consumer<FENFormatException> errorHandler;
+		private final FENCodec codec = new FENCodec();
+
+		private byte[] buffer = new byte[BUFFER_SIZE];
+		/** Beginn der nächsten Zeile im Puffer */
+		private int start;
+		/** Ende der gelesenen Bytes im Puffer */
+		private int limit;
+		private boolean endOfInput;
+		private long lineNumber;
+		private EPDRecord next;
+
+		RecordIterator(InputStream input, Consumer<FENFormatException> errorHandler) {
+			this.input = input;
+			this.errorHandler = errorHandler;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null) {
+				int lineEnd = findLineEnd();
+				if (lineEnd < 0) {
+					return false;
+				}
+				int lineStart = start;
+				start = lineEnd < limit ? lineEnd + 1 : lineEnd;
+				lineNumber++;
+
+				if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+					lineEnd--;
+				}
+				while (lineStart < lineEnd && (buffer[lineStart] == ' ' || buffer[lineStart] == '\t')) {
+					lineStart++;
+				}
+				if (lineStart == lineEnd || buffer[lineStart] == '#') {
+					continue;
+				}
+
+				try {
+					next = codec.decodeEPD(buffer, lineStart, lineEnd);
+				} catch (FENFormatException e) {
+					errorHandler.accept(new FENFormatException("Zeile " + lineNumber + ": " + e.getMessage()));
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public EPDRecord next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			EPDRecord record = next;
+			next = null;
+			return record;
+		}
+
+		/**
+		 * Sucht das Ende der nächsten Zeile und lädt dafür bei Bedarf nach
+		 *
+		 * @return Index des Zeilenumbruchs im Puffer bzw. des Endes der letzten
+		 *         Zeile oder -1, wenn es keine Zeile mehr gibt
+		 */
+		private int findLineEnd() {
+			int searched = start;
+			while (true) {
+				for (int i = searched; i < limit; i++) {
+					if (buffer[i] == '\n') {
+						return i;
+					}
+				}
+				if (endOfInput) {
+					return start < limit ? limit : -1;
+				}
+				searched = limit - start;
+				fill();
+			}
+		}
+
+		/**
+		 * Schiebt die angefangene Zeile an den Anfang des Puffers und liest dahinter
+		 * weiter. Passt die Zeile nicht in den Puffer, wird er vergrößert.
+		 */
+		private void fill() {
+			if (start > 0) {
+				System.arraycopy(buffer, start, buffer, 0, limit - start);
+				limit -= start;
+				start = 0;
+			} else if (limit == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			try {
+				int read = input.read(buffer, limit, buffer.length - limit);
+				if (read < 0) {
+					endOfInput = true;
+				} else {
+					limit += read;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Fehler beim Lesen der EPD-Eingabe", e);
+			}
+		}
+	}
+}
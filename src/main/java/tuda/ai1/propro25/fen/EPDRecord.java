@@ -0,0 +1,52 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.fen;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eine Stellung aus einer EPD-Zeile mit ihren Operationen
+ *
+ * @param position
+ *            die Stellung, die Zugzähler stammen aus hmvc und fmvn oder sind 0
+ *            und 1
+ * @param operations
+ *            die Operanden jeder Operation in der Reihenfolge der Zeile. Mehrere
+ *            Operanden sind durch ein Leerzeichen getrennt, Strings stehen ohne
+ *            Anführungszeichen darin.
+ */
+public record EPDRecord(FENRecord position, Map<String, String> operations) {
+
+	/**
+	 * @return die besten Züge in SAN aus der Operation bm, evtl. leer
+	 */
+	public List<String> bestMoves() {
+		return moves("bm");
+	}
+
+	/**
+	 * @return die zu vermeidenden Züge in SAN aus der Operation am, evtl. leer
+	 */
+	public List<String> avoidMoves() {
+		return moves("am");
+	}
+
+	/**
+	 * @return der Name der Stellung aus der Operation id oder null
+	 */
+	public String id() {
+		return operations.get("id");
+	}
+
+	/**
+	 * @return der Kommentar aus der Operation c0 oder null
+	 */
+	public String comment() {
+		return operations.get("c0");
+	}
+
+	private List<String> moves(String opcode) {
+		String moves = operations.get(opcode);
+		return moves == null || moves.isEmpty() ? List.of() : List.of(moves.split(" "));
+	}
+}
@@ -0,0 +1,587 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.fen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.CastlingAvailability;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.model.piece.*;
+
+/**
+ * Liest und schreibt FEN und EPD in einem Durchgang. Anders als der
+ * {@link FENParser} werden dabei weder Felder per split zerlegt noch
+ * Zwischen-Strings erzeugt: Gelesen wird direkt aus einem Ausschnitt einer
+ * {@link CharSequence} oder eines byte-Arrays in das Figuren-Array, geschrieben
+ * wird an einen wiederverwendbaren {@link StringBuilder}.
+ * <p>
+ * Figuren haben keinen veränderlichen Zustand, deshalb teilen sich alle
+ * gelesenen Stellungen dieselben Figuren-Instanzen. Ebenso werden
+ * Rochadenrechte und En-Passant-Felder nicht pro Stellung neu erzeugt.
+ * <p>
+ * Ein FENCodec merkt sich die aktuelle Leseposition und ist deshalb nicht
+ * threadsicher.
+ */
+public class FENCodec {
+
+	private static final Piece[] PIECES = new Piece['z' + 1];
+	private static final CastlingAvailability[] CASTLING = new CastlingAvailability[16];
+	private static final Coordinate[] SQUARES = new Coordinate[Board.BOARD_SIZE * Board.BOARD_SIZE];
+
+	static {
+		for (Color color : Color.values()) {
+			for (Piece piece : new Piece[]{new Pawn(color), new Knight(color), new Bishop(color), new Rook(color),
+					new Queen(color), new King(color)}) {
+				PIECES[piece.getFenSymbol()] = piece;
+			}
+		}
+		for (int bits = 0; bits < CASTLING.length; bits++) {
+			CASTLING[bits] = new CastlingAvailability((bits & 8) != 0, (bits & 4) != 0, (bits & 2) != 0,
+					(bits & 1) != 0);
+		}
+		for (int square = 0; square < SQUARES.length; square++) {
+			SQUARES[square] = new Coordinate(square / Board.BOARD_SIZE, square % Board.BOARD_SIZE);
+		}
+	}
+
+	private final ByteSequence bytes = new ByteSequence();
+
+	private CharSequence input;
+	private int position;
+	private int end;
+	private boolean lenient;
+
+	/**
+	 * Liest einen vollständigen FEN-Record mit genau sechs durch je ein
+	 * Leerzeichen getrennten Feldern. Leerzeichen am Ende werden ignoriert.
+	 *
+	 * @param input
+	 *            der FEN-Record
+	 * @return der gelesene Record
+	 * @throws FENFormatException
+	 *             falls die Eingabe keine gültige FEN ist
+	 */
+	public FENRecord decode(CharSequence input) throws FENFormatException {
+		return decode(input, 0, input.length());
+	}
+
+	/**
+	 * Wie {@link #decode(CharSequence)}, aber nur für den Ausschnitt von start bis
+	 * ausschließlich end
+	 */
+	public FENRecord decode(CharSequence input, int start, int end) throws FENFormatException {
+		return decode(input, start, end, new Piece[Board.BOARD_SIZE][Board.BOARD_SIZE]);
+	}
+
+	/**
+	 * Wie {@link #decode(CharSequence, int, int)}, liest die Figuren aber in ein
+	 * vorhandenes Array. Wer viele Stellungen nacheinander auswertet, muss so nicht
+	 * für jede ein neues Brett anlegen.
+	 *
+	 * @param board
+	 *            ein {@link Board#BOARD_SIZE} x {@link Board#BOARD_SIZE} Array,
+	 *            wird geleert und mit den Figuren gefüllt, indiziert mit
+	 *            [Linie][Reihe]. Der zurückgegebene Record teilt sich das Array.
+	 */
+	public FENRecord decode(CharSequence input, int start, int end, Piece[][] board) throws FENFormatException {
+		begin(input, start, end, false);
+		decodePlacement(board);
+		Color color = decodeColor();
+		CastlingAvailability castlingAvailability = decodeCastlingAvailability();
+		Coordinate enPassantTarget = decodeEnPassantTarget(board, color);
+		int halfMoveClock = decodeNumber();
+		endField();
+		int fullMoveClock = decodeNumber();
+		while (position < end && input.charAt(position) == ' ') {
+			position++;
+		}
+		if (position != end) {
+			throw fieldCountError();
+		}
+		if (fullMoveClock < 1) {
+			throw new FENFormatException("Die Zug-Anzahl darf nicht negativ oder 0 sein");
+		}
+
+		return new FENRecord(board, color, castlingAvailability, enPassantTarget, halfMoveClock, fullMoveClock);
+	}
+
+	/**
+	 * Wie {@link #decode(CharSequence)} für ASCII- bzw. UTF-8-kodierte Bytes von
+	 * start bis ausschließlich end
+	 */
+	public FENRecord decode(byte[] input, int start, int end) throws FENFormatException {
+		bytes.set(input, start, end);
+		return decode(bytes, 0, end - start);
+	}
+
+	/**
+	 * Liest eine EPD-Zeile: die ersten vier Felder einer FEN, durch Leerzeichen
+	 * oder Tabs getrennt, gefolgt von Operationen wie {@code bm Nf3 e4;} oder
+	 * {@code id "Test 1";}. Die Zugzähler werden aus den Operationen hmvc und fmvn
+	 * übernommen, sonst sind sie 0 und 1. Folgen auf die vier Felder stattdessen
+	 * zwei Zahlen, wird die Zeile wie eine FEN mit Zugzählern gelesen.
+	 *
+	 * @param input
+	 *            die EPD-Zeile
+	 * @return die Stellung mit ihren Operationen
+	 * @throws FENFormatException
+	 *             falls die Eingabe kein gültiges EPD ist
+	 */
+	public EPDRecord decodeEPD(CharSequence input) throws FENFormatException {
+		return decodeEPD(input, 0, input.length());
+	}
+
+	/**
+	 * Wie {@link #decodeEPD(CharSequence)}, aber nur für den Ausschnitt von start
+	 * bis ausschließlich end
+	 */
+	public EPDRecord decodeEPD(CharSequence input, int start, int end) throws FENFormatException {
+		begin(input, start, end, true);
+		skipSeparators();
+		Piece[][] board = new Piece[Board.BOARD_SIZE][Board.BOARD_SIZE];
+		decodePlacement(board);
+		Color color = decodeColor();
+		CastlingAvailability castlingAvailability = decodeCastlingAvailability();
+		Coordinate enPassantTarget = decodeEnPassantTarget(board, color);
+
+		int halfMoveClock = 0;
+		int fullMoveClock = 1;
+		if (position < end && isDigit(input.charAt(position))) {
+			halfMoveClock = decodeNumber();
+			endField();
+			fullMoveClock = decodeNumber();
+			endField();
+		}
+
+		Map<String, String> operations = new LinkedHashMap<>();
+		while (position < end) {
+			decodeOperation(operations);
+		}
+		if (operations.containsKey("hmvc")) {
+			halfMoveClock = parseOperand("hmvc", operations.get("hmvc"));
+		}
+		if (operations.containsKey("fmvn")) {
+			fullMoveClock = parseOperand("fmvn", operations.get("fmvn"));
+		}
+		if (fullMoveClock < 1) {
+			throw new FENFormatException("Die Zug-Anzahl darf nicht negativ oder 0 sein");
+		}
+
+		return new EPDRecord(
+				new FENRecord(board, color, castlingAvailability, enPassantTarget, halfMoveClock, fullMoveClock),
+				operations);
+	}
+
+	/**
+	 * Wie {@link #decodeEPD(CharSequence)} für UTF-8-kodierte Bytes von start bis
+	 * ausschließlich end
+	 */
+	public EPDRecord decodeEPD(byte[] input, int start, int end) throws FENFormatException {
+		bytes.set(input, start, end);
+		return decodeEPD(bytes, 0, end - start);
+	}
+
+	/**
+	 * Hängt den FEN-Record an
+	 *
+	 * @param record
+	 *            der zu schreibende Record
+	 * @param output
+	 *            der StringBuilder, an den angehängt wird
+	 * @return output
+	 */
+	public StringBuilder encode(FENRecord record, StringBuilder output) {
+		Piece[][] board = record.board();
+		for (int rank = Board.BOARD_SIZE - 1; rank >= 0; rank--) {
+			int empty = 0;
+			for (int file = 0; file < Board.BOARD_SIZE; file++) {
+				Piece piece = board[file][rank];
+				if (piece == null) {
+					empty++;
+				} else {
+					if (empty > 0) {
+						output.append((char) ('0' + empty));
+						empty = 0;
+					}
+					output.append(piece.getFenSymbol());
+				}
+			}
+			if (empty > 0) {
+				output.append((char) ('0' + empty));
+			}
+			if (rank > 0) {
+				output.append('/');
+			}
+		}
+
+		output.append(record.activeColor() == Color.WHITE ? " w " : " b ");
+
+		CastlingAvailability castling = record.castlingAvailability();
+		if (!castling.isAnyAvailable()) {
+			output.append('-');
+		} else {
+			if (castling.whiteCastleKingSide()) {
+				output.append('K');
+			}
+			if (castling.whiteCastleQueenSide()) {
+				output.append('Q');
+			}
+			if (castling.blackCastleKingSide()) {
+				output.append('k');
+			}
+			if (castling.blackCastleQueenSide()) {
+				output.append('q');
+			}
+		}
+
+		Coordinate enPassantTarget = record.enPassantTarget();
+		if (enPassantTarget == null) {
+			output.append(" - ");
+		} else {
+			output.append(' ').append((char) ('a' + enPassantTarget.getFile()))
+					.append((char) ('1' + enPassantTarget.getRank())).append(' ');
+		}
+
+		return output.append(record.halfMoveClock()).append(' ').append(record.fullMoveClock());
+	}
+
+	private void begin(CharSequence input, int start, int end, boolean lenient) {
+		if (start < 0 || end > input.length() || start > end) {
+			throw new IndexOutOfBoundsException("Ungültiger Ausschnitt " + start + " bis " + end);
+		}
+		this.input = input;
+		this.position = start;
+		this.end = end;
+		this.lenient = lenient;
+	}
+
+	/**
+	 * Liest die Figurenstellung und das Trennzeichen dahinter. Die Prüfungen und
+	 * Fehlermeldungen entsprechen {@link FENParser#parseBoard(String)}.
+	 */
+	private void decodePlacement(Piece[][] board) throws FENFormatException {
+		int fieldEnd = fieldEnd();
+		for (Piece[] file : board) {
+			Arrays.fill(file, null);
+		}
+
+		for (int rank = Board.BOARD_SIZE - 1; rank >= 0; rank--) { // FEN starts with rank 8
+			int file = 0;
+			while (position < fieldEnd && input.charAt(position) != '/') {
+				char c = input.charAt(position++);
+
+				if (file >= Board.BOARD_SIZE) {
+					throw new FENFormatException(
+							"Zeile " + (rank + 1) + " enthält mehr als " + Board.BOARD_SIZE + " Figuren");
+				}
+
+				if (isDigit(c)) {
+					file += c - '0';
+				} else {
+					Piece piece = c < PIECES.length ? PIECES[c] : null;
+					if (piece == null) {
+						throw new FENFormatException("'" + c + "' kodiert keine Figur");
+					}
+					board[file++][rank] = piece;
+				}
+			}
+
+			if (rank > 0) {
+				if (position >= fieldEnd) {
+					throw rankCountError();
+				}
+				position++; // das '/'
+			}
+
+			if (file != Board.BOARD_SIZE) {
+				throw new FENFormatException(
+						"Zeile " + (rank + 1) + " enthielt weniger als " + Board.BOARD_SIZE + " Figuren");
+			}
+		}
+		if (position != fieldEnd) {
+			throw rankCountError();
+		}
+
+		endField();
+	}
+
+	private Color decodeColor() throws FENFormatException {
+		int fieldEnd = fieldEnd();
+		Color color = null;
+		if (fieldEnd - position == 1) {
+			char c = input.charAt(position);
+			color = c == 'w' ? Color.WHITE : c == 'b' ? Color.BLACK : null;
+		}
+		if (color == null) {
+			throw new FENFormatException(
+					"'" + field(fieldEnd) + "' stellt keine Farbe da. Valide Farben sind 'w' und 'b'");
+		}
+		position = fieldEnd;
+		endField();
+		return color;
+	}
+
+	private CastlingAvailability decodeCastlingAvailability() throws FENFormatException {
+		int fieldEnd = fieldEnd();
+		int length = fieldEnd - position;
+		if (length == 0 || length > 4) {
+			throw new FENFormatException("Der Rochaden-String muss zwischen 1 und 4 Zeichen lang sein (inklusive)");
+		}
+
+		int bits = 0;
+		if (length == 1 && input.charAt(position) == '-') {
+			position++;
+		} else {
+			// jedes Recht darf nur einmal und nur in der Reihenfolge KQkq vorkommen
+			for (int i = 0; i < 4 && position < fieldEnd; i++) {
+				if (input.charAt(position) == "KQkq".charAt(i)) {
+					bits |= 8 >> i;
+					position++;
+				}
+			}
+			if (position != fieldEnd) {
+				throw new FENFormatException("Rochaden-String konnte nicht geparst werden: Die " + (fieldEnd - position)
+						+ " letzten Buchstaben sind nicht legal oder die Reihenfolge ist falsch");
+			}
+		}
+
+		endField();
+		return CASTLING[bits];
+	}
+
+	/**
+	 * Liest das En-Passant-Feld. Es muss direkt hinter einem Bauern liegen, der im
+	 * letzten Zug zwei Felder vorgerückt ist, also auf Reihe 6, wenn Weiß am Zug
+	 * ist, bzw. auf Reihe 3, wenn Schwarz am Zug ist.
+	 */
+	private Coordinate decodeEnPassantTarget(Piece[][] board, Color color) throws FENFormatException {
+		int fieldEnd = fieldEnd();
+		int length = fieldEnd - position;
+		if (length == 1 && input.charAt(position) == '-') {
+			position++;
+			endField();
+			return null;
+		}
+
+		if (length != 2) {
+			throw new FENFormatException("Koordinaten in algebraischer Notation muss exakt zwei Zeichen lang sein");
+		}
+
+		int file = input.charAt(position) - 'a';
+		int rank = input.charAt(position + 1) - '1';
+		if (file >= Board.BOARD_SIZE || file < 0 || rank >= Board.BOARD_SIZE || rank < 0) {
+			throw new FENFormatException("Die Koordinate " + field(fieldEnd) + " ist nicht auf dem Brett");
+		}
+		int targetRank = color == Color.WHITE ? 5 : 2;
+		int pawnRank = color == Color.WHITE ? 4 : 3;
+		Piece pawn = board[file][pawnRank];
+		if (rank != targetRank || board[file][rank] != null || !(pawn instanceof Pawn)
+				|| pawn.getColor() == color) {
+			throw new FENFormatException("Das En-Passant-Feld " + field(fieldEnd)
+					+ " liegt nicht hinter einem gerade zwei Felder vorgerückten Bauern");
+		}
+
+		position = fieldEnd;
+		endField();
+		return SQUARES[file * Board.BOARD_SIZE + rank];
+	}
+
+	/**
+	 * Liest eine nicht negative ganze Zahl, wie sie in den Zugzählern steht. Das
+	 * Trennzeichen dahinter wird nicht übersprungen, da der letzte Zugzähler am
+	 * Ende der FEN steht.
+	 */
+	private int decodeNumber() throws FENFormatException {
+		int fieldEnd = fieldEnd();
+		// mehr als 9 Ziffern könnten überlaufen
+		if (fieldEnd == position || fieldEnd - position > 9) {
+			throw numberError(fieldEnd);
+		}
+		int number = 0;
+		for (int i = position; i < fieldEnd; i++) {
+			char c = input.charAt(i);
+			if (!isDigit(c)) {
+				throw numberError(fieldEnd);
+			}
+			number = number * 10 + c - '0';
+		}
+		position = fieldEnd;
+		return number;
+	}
+
+	/**
+	 * Liest eine Operation bis einschließlich ihres Semikolons. Mehrere Operanden
+	 * werden mit je einem Leerzeichen getrennt, Anführungszeichen um einen String
+	 * entfernt.
+	 */
+	private void decodeOperation(Map<String, String> operations) throws FENFormatException {
+		int opcodeStart = position;
+		while (position < end && !isSeparator(input.charAt(position)) && input.charAt(position) != ';') {
+			position++;
+		}
+		if (position == opcodeStart) {
+			throw new FENFormatException("Operation ohne Opcode");
+		}
+		String opcode = input.subSequence(opcodeStart, position).toString();
+
+		StringBuilder operands = new StringBuilder();
+		skipSeparators();
+		while (position < end && input.charAt(position) != ';') {
+			if (!operands.isEmpty()) {
+				operands.append(' ');
+			}
+			int operandStart = position;
+			if (input.charAt(position) == '"') {
+				do {
+					position++;
+				} while (position < end && input.charAt(position) != '"');
+				if (position == end) {
+					throw new FENFormatException("String in Operation " + opcode + " ist nicht abgeschlossen");
+				}
+				operands.append(input, operandStart + 1, position);
+				position++;
+			} else {
+				while (position < end && !isSeparator(input.charAt(position)) && input.charAt(position) != ';') {
+					position++;
+				}
+				operands.append(input, operandStart, position);
+			}
+			skipSeparators();
+		}
+		if (position == end) {
+			throw new FENFormatException("Operation " + opcode + " ist nicht mit ';' abgeschlossen");
+		}
+		position++; // das ';'
+		skipSeparators();
+
+		// Operanden aus einem byte-Array müssen als UTF-8 gelesen werden
+		String value = input instanceof ByteSequence sequence ? sequence.decode(operands) : operands.toString();
+		operations.put(opcode, value);
+	}
+
+	private static int parseOperand(String opcode, String operand) throws FENFormatException {
+		try {
+			int number = Integer.parseInt(operand);
+			if (number >= 0) {
+				return number;
+			}
+		} catch (NumberFormatException e) {
+			// unten
+		}
+		throw new FENFormatException("Operation " + opcode + " erwartet eine nicht negative Zahl: " + operand);
+	}
+
+	/**
+	 * @return das Ende des Felds ab der aktuellen Position
+	 */
+	private int fieldEnd() {
+		int fieldEnd = position;
+		while (fieldEnd < end && !isSeparator(input.charAt(fieldEnd))) {
+			fieldEnd++;
+		}
+		return fieldEnd;
+	}
+
+	/**
+	 * Überspringt das Trennzeichen nach einem Feld. In FEN ist das genau ein
+	 * Leerzeichen, in EPD beliebig viele Leerzeichen und Tabs.
+	 */
+	private void endField() throws FENFormatException {
+		if (position >= end) {
+			if (lenient) {
+				return;
+			}
+			throw fieldCountError();
+		}
+		position++;
+		if (lenient) {
+			skipSeparators();
+		}
+	}
+
+	private void skipSeparators() {
+		while (position < end && isSeparator(input.charAt(position))) {
+			position++;
+		}
+	}
+
+	private boolean isSeparator(char c) {
+		return c == ' ' || (lenient && c == '\t');
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private String field(int fieldEnd) {
+		return input.subSequence(position, fieldEnd).toString();
+	}
+
+	private FENFormatException fieldCountError() {
+		return new FENFormatException("FEN Record muss genau 6 durch Leerzeichen getrennte Felder enthalten");
+	}
+
+	private FENFormatException rankCountError() {
+		return new FENFormatException(
+				"Der FEN Brettzustand muss genau " + Board.BOARD_SIZE + " durch '/' getrennte Abschnitte enthalten");
+	}
+
+	private FENFormatException numberError(int fieldEnd) {
+		return new FENFormatException("Der String '" + field(fieldEnd) + "' enthält keine gültige Zahl");
+	}
+
+	/**
+	 * Sicht auf einen Ausschnitt eines byte-Arrays. Für das Parsen reicht es, die
+	 * Bytes einzeln als Zeichen zu lesen, da alle Zeichen mit Bedeutung ASCII sind.
+	 * Nur die Texte in Operanden und Fehlermeldungen werden als UTF-8 dekodiert.
+	 */
+	private static final class ByteSequence implements CharSequence {
+
+		private byte[] bytes;
+		private int offset;
+		private int length;
+
+		void set(byte[] bytes, int start, int end) {
+			if (start < 0 || end > bytes.length || start > end) {
+				throw new IndexOutOfBoundsException("Ungültiger Ausschnitt " + start + " bis " + end);
+			}
+			this.bytes = bytes;
+			this.offset = start;
+			this.length = end - start;
+		}
+
+		/**
+		 * Dekodiert Zeichen, die einzeln aus dieser Sicht kopiert wurden, als UTF-8
+		 */
+		String decode(CharSequence chars) {
+			byte[] raw = new byte[chars.length()];
+			for (int i = 0; i < raw.length; i++) {
+				raw[i] = (byte) chars.charAt(i);
+			}
+			return new String(raw, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (bytes[offset + index] & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new String(bytes, offset + start, end - start, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String toString() {
+			return new String(bytes, offset, length, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -17,7 +17,9 @@ public class FENParser {
 
 	/**
 	 * Parst den gesamten FEN-Record. Die Eingabe muss vollständig syntaktisch
-	 * korrekt sein, damit der Parser die Eingabe akzeptiert.
+	 * korrekt sein, damit der Parser die Eingabe akzeptiert. Gelesen wird in einem
+	 * Durchgang mit dem {@link FENCodec}, die einzelnen parse-Methoden prüfen
+	 * dieselben Regeln für einzelne Felder.
 	 *
 	 * @param encodedRecord
 	 *            der gesamte FEN-Record als String kodiert
@@ -31,19 +33,7 @@ public class FENParser {
 			throw new IllegalArgumentException("FEN Record ist null");
 		}
 
-		String[] fields = encodedRecord.split(" ");
-		if (fields.length != 6) {
-			throw new FENFormatException("FEN Record muss genau 6 durch Leerzeichen getrennte Felder enthalten");
-		}
-
-		Piece[][] board = parseBoard(fields[0]);
-		Color color = parseColor(fields[1]);
-		CastlingAvailability castlingAvailability = parseCastlingAvailability(fields[2]);
-		Coordinate enPassantTarget = parseEnPassantTarget(fields[3]);
-		int halfMoveClock = parseHalfMoveClock(fields[4]);
-		int fullMoveClock = parseFullMoveClock(fields[5]);
-
-		return new FENRecord(board, color, castlingAvailability, enPassantTarget, halfMoveClock, fullMoveClock);
+		return new FENCodec().decode(encodedRecord);
 	}
 
 	/**
@@ -29,10 +29,7 @@ public class FENSerializer {
 	public String serializeRecord(FENRecord record) {
 		// TODO: Aufgabe 3.5
 		
-		return  serializeBoard(record.board()) + " " + serializeActiveColor(record.activeColor())
-				+ " " + serializeCastlingAvailability(record.castlingAvailability()) + " " + 
-				serializeEnPassantTarget(record.enPassantTarget()) + " " + record.halfMoveClock() + 
-				" " + record.fullMoveClock();
+		return new FENCodec().encode(record, new StringBuilder(90)).toString();
 	}
 
 	// TODO: Aufgabe 3.1
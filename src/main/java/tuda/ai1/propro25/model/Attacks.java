@@ -0,0 +1,204 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Rückwärts-Suche von Angriffen: Statt für jede Figur alle Züge zu erzeugen,
+ * wird vom Zielfeld aus in die Richtungen geschaut, aus denen eine Figur es
+ * erreichen könnte. Ob ein Feld angegriffen wird oder welche Figur auf ein Feld
+ * ziehen kann, kostet so nur wenige Feldzugriffe.
+ * <p>
+ * Alle Methoden arbeiten direkt auf einem Figuren-Array, indiziert mit
+ * [Linie][Reihe], und beachten keine Fesselungen.
+ */
+public final class Attacks {
+
+	private static final int[][] KNIGHT_JUMPS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1},
+			{-1, 2}};
+	private static final int[][] KING_STEPS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+	private static final int[][] STRAIGHT = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+	private static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+	private Attacks() {
+	}
+
+	/**
+	 * @param pieceGrid
+	 *            Figuren, indiziert mit [Linie][Reihe]
+	 * @param file
+	 *            Linie des Feldes
+	 * @param rank
+	 *            Reihe des Feldes
+	 * @param attacker
+	 *            Farbe der angreifenden Figuren
+	 * @return true, wenn eine Figur der Farbe das Feld schlagen könnte
+	 */
+	public static boolean isAttacked(Piece[][] pieceGrid, int file, int rank, Color attacker) {
+		// ein Bauer greift von der Reihe hinter dem Feld aus seiner Sicht an
+		int pawnRank = rank - (attacker == Color.WHITE ? 1 : -1);
+		if (isPiece(pieceGrid, file - 1, pawnRank, attacker, 'P')
+				|| isPiece(pieceGrid, file + 1, pawnRank, attacker, 'P')) {
+			return true;
+		}
+		for (int[] jump : KNIGHT_JUMPS) {
+			if (isPiece(pieceGrid, file + jump[0], rank + jump[1], attacker, 'N')) {
+				return true;
+			}
+		}
+		for (int[] step : KING_STEPS) {
+			if (isPiece(pieceGrid, file + step[0], rank + step[1], attacker, 'K')) {
+				return true;
+			}
+		}
+		for (int[] direction : STRAIGHT) {
+			Piece piece = firstPiece(pieceGrid, file, rank, direction);
+			if (piece != null && piece.getColor() == attacker
+					&& (piece.getAlgebraicNotationSymbol() == 'R' || piece.getAlgebraicNotationSymbol() == 'Q')) {
+				return true;
+			}
+		}
+		for (int[] direction : DIAGONAL) {
+			Piece piece = firstPiece(pieceGrid, file, rank, direction);
+			if (piece != null && piece.getColor() == attacker
+					&& (piece.getAlgebraicNotationSymbol() == 'B' || piece.getAlgebraicNotationSymbol() == 'Q')) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sucht alle Felder, von denen aus eine Figur wie die angegebene das Zielfeld
+	 * erreichen könnte. Bei Bauern sind das die Felder eine Reihe dahinter auf
+	 * derselben und den Nachbarlinien sowie zwei Reihen dahinter auf derselben
+	 * Linie. Ob der Bauer dort tatsächlich schlagen oder ziehen darf, muss mit
+	 * seinen pseudolegalen Zügen geprüft werden.
+	 *
+	 * @param pieceGrid
+	 *            Figuren, indiziert mit [Linie][Reihe]
+	 * @param piece
+	 *            gesuchte Figur, verglichen mit {@link Piece#equals(Object)}
+	 * @param file
+	 *            Linie des Zielfelds
+	 * @param rank
+	 *            Reihe des Zielfelds
+	 * @return die Startfelder aller passenden Figuren
+	 */
+	public static List<Coordinate> findOrigins(Piece[][] pieceGrid, Piece piece, int file, int rank) {
+		List<Coordinate> origins = new ArrayList<>(2);
+		switch (piece.getAlgebraicNotationSymbol()) {
+			case 'P' -> {
+				int behind = piece.getColor() == Color.WHITE ? -1 : 1;
+				for (int df = -1; df <= 1; df++) {
+					addIfPiece(pieceGrid, piece, file + df, rank + behind, origins);
+				}
+				addIfPiece(pieceGrid, piece, file, rank + 2 * behind, origins);
+			}
+			case 'N' -> {
+				for (int[] jump : KNIGHT_JUMPS) {
+					addIfPiece(pieceGrid, piece, file + jump[0], rank + jump[1], origins);
+				}
+			}
+			case 'K' -> {
+				for (int[] step : KING_STEPS) {
+					addIfPiece(pieceGrid, piece, file + step[0], rank + step[1], origins);
+				}
+				// Rochade: der König steht zwei Linien neben dem Zielfeld
+				addIfPiece(pieceGrid, piece, file - 2, rank, origins);
+				addIfPiece(pieceGrid, piece, file + 2, rank, origins);
+			}
+			default -> {
+				char symbol = piece.getAlgebraicNotationSymbol();
+				if (symbol != 'B') {
+					addSliders(pieceGrid, piece, file, rank, STRAIGHT, origins);
+				}
+				if (symbol != 'R') {
+					addSliders(pieceGrid, piece, file, rank, DIAGONAL, origins);
+				}
+			}
+		}
+		return origins;
+	}
+
+	/**
+	 * Prüft für einen einfachen Zug ohne Rochade, En Passant oder Umwandlung, ob
+	 * danach der König der ziehenden Seite angegriffen wäre, die Figur also z.B.
+	 * gefesselt ist. Das Figuren-Array wird dabei nicht verändert.
+	 *
+	 * @param pieceGrid
+	 *            Figuren vor dem Zug, indiziert mit [Linie][Reihe]
+	 * @param from
+	 *            Startfeld der ziehenden Figur
+	 * @param to
+	 *            Zielfeld, eine Figur dort wird geschlagen
+	 * @return true, wenn der Zug den eigenen König im Schach lassen würde
+	 */
+	public static boolean leavesKingAttacked(Piece[][] pieceGrid, Coordinate from, Coordinate to) {
+		Piece moving = pieceGrid[from.getFile()][from.getRank()];
+		Piece[][] after = new Piece[pieceGrid.length][];
+		for (int file = 0; file < pieceGrid.length; file++) {
+			after[file] = pieceGrid[file].clone();
+		}
+		after[to.getFile()][to.getRank()] = moving;
+		after[from.getFile()][from.getRank()] = null;
+
+		Color enemy = moving.getColor() == Color.WHITE ? Color.BLACK : Color.WHITE;
+		for (int file = 0; file < Board.BOARD_SIZE; file++) {
+			for (int rank = 0; rank < Board.BOARD_SIZE; rank++) {
+				Piece piece = after[file][rank];
+				if (piece != null && piece.getColor() == moving.getColor()
+						&& piece.getAlgebraicNotationSymbol() == 'K') {
+					return isAttacked(after, file, rank, enemy);
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void addSliders(Piece[][] pieceGrid, Piece piece, int file, int rank, int[][] directions,
+			List<Coordinate> origins) {
+		for (int[] direction : directions) {
+			int f = file + direction[0];
+			int r = rank + direction[1];
+			while (isOnBoard(f, r) && pieceGrid[f][r] == null) {
+				f += direction[0];
+				r += direction[1];
+			}
+			addIfPiece(pieceGrid, piece, f, r, origins);
+		}
+	}
+
+	private static void addIfPiece(Piece[][] pieceGrid, Piece piece, int file, int rank, List<Coordinate> origins) {
+		if (isOnBoard(file, rank) && piece.equals(pieceGrid[file][rank])) {
+			origins.add(new Coordinate(file, rank));
+		}
+	}
+
+	private static Piece firstPiece(Piece[][] pieceGrid, int file, int rank, int[] direction) {
+		int f = file + direction[0];
+		int r = rank + direction[1];
+		while (isOnBoard(f, r)) {
+			if (pieceGrid[f][r] != null) {
+				return pieceGrid[f][r];
+			}
+			f += direction[0];
+			r += direction[1];
+		}
+		return null;
+	}
+
+	private static boolean isPiece(Piece[][] pieceGrid, int file, int rank, Color color, char symbol) {
+		if (!isOnBoard(file, rank)) {
+			return false;
+		}
+		Piece piece = pieceGrid[file][rank];
+		return piece != null && piece.getColor() == color && piece.getAlgebraicNotationSymbol() == symbol;
+	}
+
+	private static boolean isOnBoard(int file, int rank) {
+		return file >= 0 && file < Board.BOARD_SIZE && rank >= 0 && rank < Board.BOARD_SIZE;
+	}
+}
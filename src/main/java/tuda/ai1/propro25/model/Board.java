@@ -5,11 +5,9 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.BiFunction;
+import tuda.ai1.propro25.fen.FENCodec;
 import tuda.ai1.propro25.fen.FENFormatException;
-import tuda.ai1.propro25.fen.FENParser;
 import tuda.ai1.propro25.fen.FENRecord;
-import tuda.ai1.propro25.fen.FENSerializer;
 import tuda.ai1.propro25.model.history.HistoricalBoardState;
 import tuda.ai1.propro25.model.history.HistoricalGame;
 import tuda.ai1.propro25.model.piece.*;
@@ -22,16 +20,24 @@ import tuda.ai1.propro25.pgn.move.Checking;
  */
 public class Board implements DeepCopyable {
 	public static final int BOARD_SIZE = 8;
+	// Anzahl der Züge, für die nach undoLastMove die legalen Züge noch bekannt sind
+	private static final int UNDO_CACHE_SIZE = 64;
 	private final Player[] players;
 	private int currentPlayerIndex;
 	private CastlingAvailability castlingAvailability;
 	/**
 	 * Speichert vorherige Zustände des Spielbrettes
 	 */
-	private final ArrayList<HistoricalBoardState> history;
+	private final HistoryList history;
 	// Speichert den Spielstand durch ein 2d-Array aus Pieces. Ist an einer Position
 	// kein Piece so ist in dem Array null gespeichert. Spaltenbasiert.
 	private Piece[][] pieceGrid;
+	// Materialschlüssel zum pieceGrid, siehe MaterialKey
+	private long materialKey;
+	// Zobrist-Hash des aktuellen Zustands, wird in movePiece und unMovePiece
+	// fortgeschrieben. enPassantFile ist die darin enthaltene En-Passant-Linie.
+	private long zobristHash;
+	private int enPassantFile = -1;
 	private GameState gameState;
 	private int winnerIndex = -1;
 	// HalfMove und FullMove clocks zählen Züge seit dem letzten Schlagen und
@@ -40,6 +46,12 @@ public class Board implements DeepCopyable {
 	private int fullMoveClock = 1;
 	// Cached aktuell legale Züge damit sie weniger oft neu berechnet werden müssen
 	private List<Move> currentlyLegalMoves;
+	// Legale Züge der Stellungen vor den letzten Zügen, damit sie nach
+	// undoLastMove, z.B. in einer Suche, nicht neu berechnet werden müssen. Der
+	// Eintrag eines Zugs liegt bei dessen Index in der history modulo
+	// UNDO_CACHE_SIZE, ältere Einträge werden überschrieben.
+	private final List<List<Move>> undoLegalMoves = new ArrayList<>(Collections.nCopies(UNDO_CACHE_SIZE, null));
+	private final int[] undoLegalMovesIndex = new int[UNDO_CACHE_SIZE];
 	// Speichert die Zeit, die der aktuelle Spieler zu Beginn dieses Zuges noch
 	// hatte
 	private int playerTimeAtStartOfMove;
@@ -67,9 +79,10 @@ public class Board implements DeepCopyable {
 	public Board(Player[] players) {
 		validatePlayerArray(players);
 		this.pieceGrid = createBasicPieceGrid();
+		this.materialKey = MaterialKey.of(pieceGrid);
 		this.players = players;
 		this.currentPlayerIndex = 0;
-		this.history = new ArrayList<>();
+		this.history = new HistoryList();
 		this.castlingAvailability = new CastlingAvailability(true, true, true, true);
 		this.gameState = GameState.PAUSED;
 		this.halfMoveClock = 0;
@@ -79,6 +92,7 @@ public class Board implements DeepCopyable {
 		this.colorInCheck = null;
 		this.nonStandardStartState = null; // ist Startposition
 		this.initialTime = players[0].getRemainingTime();
+		initZobristHash();
 	}
 
 	/**
@@ -115,16 +129,17 @@ public class Board implements DeepCopyable {
 			throw new IllegalArgumentException("Der FEN String darf weder null, noch leer sein!");
 		}
 		validatePlayerArray(players);
-		FENParser fenParser = new FENParser();
-		FENRecord parsedRecord = fenParser.parseRecord(fen);
+		FENRecord parsedRecord = new FENCodec().decode(fen);
 		pieceGrid = parsedRecord.deepCopyBoard(); // wichtig: sonst wird nonStandardStartState auch modifiziert
+		materialKey = MaterialKey.of(pieceGrid);
 
 		this.players = players;
 		currentPlayerIndex = parsedRecord.activeColor() == Color.WHITE ? 0 : 1;
-		history = new ArrayList<>();
+		history = new HistoryList();
 		castlingAvailability = parsedRecord.castlingAvailability();
 		this.halfMoveClock = parsedRecord.halfMoveClock();
 		this.fullMoveClock = parsedRecord.fullMoveClock();
+		initZobristHash();
 
 		// Damit enPassant ordentlich funktioniert, müssen wir aus dem target den
 		// letzten DOUBLEPAWN move rekonstruieren
@@ -151,7 +166,8 @@ public class Board implements DeepCopyable {
 
 			// Zu En Passant: wir müssen eine Liste an möglichen Moves angeben,
 			// also geben wir null. (Wir wissen nicht, wie es davor aussah)
-			history.add(new HistoricalBoardState(this, doublePawnPlayer, null, enPassant));
+			history.add(HistoricalBoardState.ofAppliedMove(this, doublePawnPlayer, enPassant));
+			initZobristHash();
 		}
 
 		gameState = isMatePossible() ? GameState.PAUSED : GameState.END_MATERIAL;
@@ -211,9 +227,10 @@ public class Board implements DeepCopyable {
 			throw new IllegalArgumentException("HalfMoveClock oder FullMoveClock hat unerlaubten Wert!");
 		}
 		this.pieceGrid = pieceGrid;
+		this.materialKey = MaterialKey.of(pieceGrid);
 		this.players = players;
 		this.currentPlayerIndex = currentPlayerIndex;
-		this.history = history;
+		this.history = new HistoryList(history);
 		this.castlingAvailability = castlingAvailability;
 		this.gameState = gameState;
 		this.halfMoveClock = halfMoveClock;
@@ -225,6 +242,47 @@ public class Board implements DeepCopyable {
 		this.nonStandardStartState = new FENRecord(getUnmodifiablePieceGrid(), getCurrentPlayer().getColor(),
 				getCastlingAvailability(), null, halfMoveClock, fullMoveClock);
 		this.initialTime = players[0].getRemainingTime();
+		initZobristHash();
+	}
+
+	/**
+	 * Erstellt ein Brett aus einem Schnappschuss. Die Historie wird dabei nicht
+	 * kopiert, sondern geteilt, siehe {@link PositionSnapshot}.
+	 *
+	 * @param snapshot
+	 *            der Schnappschuss
+	 */
+	Board(PositionSnapshot snapshot) {
+		this.pieceGrid = new Piece[BOARD_SIZE][BOARD_SIZE];
+		for (int file = 0; file < BOARD_SIZE; file++) {
+			System.arraycopy(snapshot.squares, file * BOARD_SIZE, pieceGrid[file], 0, BOARD_SIZE);
+		}
+		this.materialKey = snapshot.materialKey;
+		this.players = new Player[]{
+				new Player(snapshot.playerNames[0], Color.WHITE, snapshot.playerTimes[0]),
+				new Player(snapshot.playerNames[1], Color.BLACK, snapshot.playerTimes[1])};
+		this.currentPlayerIndex = snapshot.currentPlayerIndex;
+		this.history = new HistoryList(snapshot.history);
+		this.castlingAvailability = snapshot.castlingAvailability;
+		this.gameState = snapshot.gameState;
+		this.winnerIndex = snapshot.winnerIndex;
+		this.halfMoveClock = snapshot.halfMoveClock;
+		this.fullMoveClock = snapshot.fullMoveClock;
+		this.currentlyLegalMoves = null;
+		this.playerTimeAtStartOfMove = snapshot.playerTimeAtStartOfMove;
+		this.colorInCheck = snapshot.colorInCheck;
+		this.nonStandardStartState = snapshot.nonStandardStartState;
+		this.initialTime = snapshot.initialTime;
+		initZobristHash();
+	}
+
+	/**
+	 * Berechnet den Zobrist-Hash einmal vollständig, danach wird er pro Zug nur
+	 * noch angepasst
+	 */
+	private void initZobristHash() {
+		enPassantFile = Zobrist.enPassantFile(pieceGrid, getLastMove());
+		zobristHash = Zobrist.hash(pieceGrid, getCurrentPlayer().getColor(), castlingAvailability, enPassantFile);
 	}
 
 	/**
@@ -291,11 +349,11 @@ public class Board implements DeepCopyable {
 	/**
 	 * Berechnet alle im aktuellen Zustand erlaubten Züge. Zuerst werden alle
 	 * pseudolegalen Moves angefragt
-	 * ({@link #findAllPseudoLegalMovesForColor(Color)}). Danach wird ein Zug als
-	 * legal/illegal kategorisiert, indem geschaut wird ob der Gegner damit
-	 * antworten könnte, den König des aktiven Spielers zu schlagen. Natürlich kann
-	 * man den König nie wirklich schlagen, wenn der Gegner es also könnte, heißt
-	 * das, dass der untersuchte Zug gegen eine Regel verstoßen hat
+	 * ({@link #findAllPseudoLegalMovesForColor(Color)}). Danach wird jeder Zug mit
+	 * {@link #isLegalProbe(Move, Coordinate, boolean)} als legal/illegal
+	 * kategorisiert, also mit denselben Regeln wie in
+	 * {@link #getAllAllowedMovesForPieceOnSquare(Coordinate)} und
+	 * {@link #findLegalMovesTo(Piece, Coordinate)}.
 	 *
 	 * @return Liste an allen legalen Zügen im aktuellen Spielzustand
 	 */
@@ -305,79 +363,27 @@ public class Board implements DeepCopyable {
 			// Ein beendetes Spiel hat keine legalen Züge mehr!
 			return legalMoves;
 		}
+		Coordinate king = findKing(getCurrentPlayer().getColor());
+		boolean inCheck = king != null
+				&& Attacks.isAttacked(pieceGrid, king.getFile(), king.getRank(), getNextPlayer().getColor());
 		var allPseudoLegal = findAllPseudoLegalMovesForColor(getCurrentPlayer().getColor());
 		for (var move : allPseudoLegal) {
-			movePiece(move); // Wir tun so, als würden wir diesen Zug machen
-			var enemyPseudolegalResponses = findAllPseudoLegalMovesForColor(getNextPlayer().getColor());
-			// Für die Rochaden muss auch geprüft werden, dass selbst die Zwischenfelder
-			// und die Ausgangsposition nicht bedroht waren
-			if (move.getType() == MoveType.CASTLING_QUEENSIDE || move.getType() == MoveType.CASTLING_KINGSIDE) {
-				Coordinate kingMovesOver = new Coordinate(
-						move.getTo().getFile() + (move.getType() == MoveType.CASTLING_QUEENSIDE ? 1 : -1),
-						move.getTo().getRank());
-				var enemyTargetsCastlingJourney = enemyPseudolegalResponses.stream()
-						.anyMatch(enemyResponse -> enemyResponse.getTo().equals(move.getFrom())
-								|| enemyResponse.getTo().equals(kingMovesOver));
-				if (enemyTargetsCastlingJourney) {
-					// Dieser Zug kann nicht legal sein, die weiteren Überprüfungen werden also eh
-					// nicht mehr gebraucht
-					unMovePiece();
-					continue;
-				}
-			}
-			// Wenn wir jetzt im Schach stehen, war der Zug illegal
-			boolean enemyCouldCaptureKing = movesContainCapturingKing(enemyPseudolegalResponses);
-			if (!enemyCouldCaptureKing) {
-				// Der Zug zuvor war also legal und wir können ihn zulassen
+			if (isLegalProbe(move, king, inCheck)) {
 				legalMoves.add(move);
 			}
-			unMovePiece(); // Jetzt schieben wir wieder alles zurück wie es war
 		}
 		// Wir speichern diese Liste als unmodifiable damit sie von extern definitiv
 		// nicht bearbeitet werden kann
 		return Collections.unmodifiableList(legalMoves);
 	}
 
-	/**
-	 * Prüft, ob der gegnerische Spieler mit den angegebenen Zügen den König des
-	 * aktuellen Spielers schlagen könnte. Dies geschieht, indem die übergebene
-	 * Liste auf Züge untersucht wird, die den aktuellen König treffen.
-	 * 
-	 * @param enemyPseudoLegalMoves
-	 *            Die Züge, die der Gegner eventuell machen könnte
-	 * @return true, wenn ein Zug enthalten war, der den König des aktuellen
-	 *         Spielers schlagen kann
-	 */
-	private boolean movesContainCapturingKing(List<Move> enemyPseudoLegalMoves) {
-		var kingInCurrentColor = new King(getCurrentPlayer().getColor());
-		for (Move enemyResponse : enemyPseudoLegalMoves) {
-			if (enemyResponse.getType() == MoveType.CAPTURE || enemyResponse.getType() == MoveType.CAPTURE_PROMOTION) {
-				if (getPiece(enemyResponse.getTo()).equals(kingInCurrentColor)) {
-					return true;
-				}
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * Findet heraus, ob der Spieler gerade im Schach steht. Dies kann unabhängig
-	 * vom aktuellen Spielzustand geprüft werden
-	 *
-	 * @param player
-	 *            Spieler, für den das geprüft werden soll
-	 * @return true, wenn der Spieler gerade im Schach steht
-	 */
-	private boolean isPlayerInCheck(Player player) {
-		var enemyMoves = findAllPseudoLegalMovesForColor(player.getColor() == Color.WHITE ? Color.BLACK : Color.WHITE);
-		return movesContainCapturingKing(enemyMoves);
-	}
-
 	/**
 	 * Gibt alle erlaubten Zielfelder für die gewählte Figur zurück. Diese Methode
 	 * generiert dabei echte legale Züge, nicht pseudolegale. Vorgeschlagene Züge
 	 * sind also tatsächlich ausführbar. Die GUI kann diese Methode nutzen, um den
 	 * Spielenden mögliche Züge vorzuschlagen, wenn eine Figur angeklickt wurde.
+	 * Sind die legalen Züge der Stellung noch nicht berechnet, werden nur die Züge
+	 * dieser Figur geprüft.
 	 * 
 	 * @param coordinate
 	 *            Koordinate, auf der sich die Figur befindet, für die alle
@@ -392,8 +398,24 @@ public class Board implements DeepCopyable {
 		if (piece.getColor() != getCurrentPlayer().getColor()) {
 			return List.of(); // Dieser Spieler ist gerade nicht dran
 		}
-		// Filtere alle möglichen Moves nach denen, die für die gefragte Figur gelten
-		return findAllLegalMoves().stream().filter(move -> move.getFrom().equals(coordinate)).toList();
+		if (currentlyLegalMoves != null) {
+			// Filtere alle möglichen Moves nach denen, die für die gefragte Figur gelten
+			return currentlyLegalMoves.stream().filter(move -> move.getFrom().equals(coordinate)).toList();
+		}
+		if (gameState != GameState.RUNNING && gameState != GameState.PAUSED) {
+			return List.of();
+		}
+		// sonst nur die Züge dieser Figur prüfen, siehe findLegalMovesTo
+		Coordinate king = findKing(piece.getColor());
+		boolean inCheck = king != null
+				&& Attacks.isAttacked(pieceGrid, king.getFile(), king.getRank(), getNextPlayer().getColor());
+		List<Move> legalMoves = new ArrayList<>();
+		for (Move move : piece.getPseudolegalMoves(coordinate, this)) {
+			if (isLegalProbe(move, king, inCheck)) {
+				legalMoves.add(move);
+			}
+		}
+		return legalMoves;
 	}
 
 	/**
@@ -424,26 +446,20 @@ public class Board implements DeepCopyable {
 			throw new IllegalStateException(
 					"Auf der Zielposition befindet sich eine Figur, aber der Zug scheint diese nicht zu beachten!");
 		}
-		history.add(new HistoricalBoardState(this, currentPlayerIndex, currentlyLegalMoves, move));
-		Piece movingPiece = pieceGrid[move.getFrom().getFile()][move.getFrom().getRank()];
-		pieceGrid[move.getFrom().getFile()][move.getFrom().getRank()] = null;
-		pieceGrid[move.getTo().getFile()][move.getTo().getRank()] = movingPiece;
-		if (move.getType() == MoveType.EN_PASSANT) {
-			// Position des gegnerischen Bauern lässt sich aus neuer Linie und alter Zeile
-			// rekonstruieren!
-			pieceGrid[move.getTo().getFile()][move.getFrom().getRank()] = null;
-		} else if (move.getType() == MoveType.CASTLING_KINGSIDE) {
-			// Turm über König nach f Linie hüpfen lassen
-			pieceGrid[5][move.getFrom().getRank()] = pieceGrid[7][move.getFrom().getRank()];
-			pieceGrid[7][move.getFrom().getRank()] = null;
-		} else if (move.getType() == MoveType.CASTLING_QUEENSIDE) {
-			// Turm über König nach d Linie hüpfen lassen
-			pieceGrid[3][move.getFrom().getRank()] = pieceGrid[0][move.getFrom().getRank()];
-			pieceGrid[0][move.getFrom().getRank()] = null;
-		} else if (move.getType() == MoveType.PROMOTION || move.getType() == MoveType.CAPTURE_PROMOTION) {
-			pieceGrid[move.getTo().getFile()][move.getTo().getRank()] = move.getPromotionPiece();
-		}
+		HistoricalBoardState previous = history.isEmpty() ? null : history.get(history.size() - 1);
+		int index = history.size();
+		undoLegalMoves.set(index % UNDO_CACHE_SIZE, currentlyLegalMoves);
+		undoLegalMovesIndex[index % UNDO_CACHE_SIZE] = index;
+		history.add(new HistoricalBoardState(this, previous, currentPlayerIndex, move));
+		materialKey += MaterialKey.delta(pieceGrid, move);
+		zobristHash ^= Zobrist.moveDelta(pieceGrid, move) ^ Zobrist.castlingKey(castlingAvailability)
+				^ Zobrist.enPassantKey(enPassantFile);
+		move.applyTo(pieceGrid);
 		updateCastlingAvailability(move);
+		enPassantFile = Zobrist.enPassantFile(pieceGrid, move);
+		// nach dem Zug ist immer die andere Seite am Zug
+		zobristHash ^= Zobrist.castlingKey(castlingAvailability) ^ Zobrist.enPassantKey(enPassantFile)
+				^ Zobrist.blackToMoveKey();
 	}
 
 	/**
@@ -521,7 +537,8 @@ public class Board implements DeepCopyable {
 
 	/**
 	 * Macht den letzten ausgeführten Zug wieder rückgängig. Dazu wird der letzte
-	 * Spielzustand aus der history entfernt und übernommen. Diese Methode updated
+	 * Spielzustand aus der history entfernt und sein Zug mit der darin gemerkten
+	 * geschlagenen Figur zurückgespielt. Diese Methode updated
 	 * nicht den Spieler der gerade am Zug ist etc., sondern ausschließlich die
 	 * Figurpositionen und Rochadeoptionen. Sie ist damit als inverse Operation zu
 	 * {@link #movePiece(Move)} zu betrachten. Für die öffentliche Methode, welche
@@ -532,8 +549,19 @@ public class Board implements DeepCopyable {
 			throw new IllegalStateException("Kann Figur nicht zurück bewegen, da es keinen vorherigen Zustand gab!");
 		}
 		HistoricalBoardState boardState = history.remove(history.size() - 1);
-		pieceGrid = boardState.getPieceGrid();
+		zobristHash ^= Zobrist.castlingKey(castlingAvailability) ^ Zobrist.enPassantKey(enPassantFile)
+				^ Zobrist.blackToMoveKey();
+		// Zustände aus dem En-Passant-Feld eines FEN zeigen bereits die Stellung nach
+		// ihrem Zug
+		if (!boardState.isMoveAlreadyApplied() && boardState.getMoveToNextState() != null) {
+			Move move = boardState.getMoveToNextState();
+			move.revertOn(pieceGrid, boardState.getCapturedPiece());
+			materialKey -= MaterialKey.delta(pieceGrid, move);
+			zobristHash ^= Zobrist.moveDelta(pieceGrid, move);
+		}
 		castlingAvailability = boardState.getCastlingAvailability();
+		enPassantFile = Zobrist.enPassantFile(pieceGrid, getLastMove());
+		zobristHash ^= Zobrist.castlingKey(castlingAvailability) ^ Zobrist.enPassantKey(enPassantFile);
 	}
 
 	/**
@@ -560,6 +588,47 @@ public class Board implements DeepCopyable {
 		if (!isLegalMove(move)) {
 			throw new IllegalArgumentException("Der vorgeschlagene Zug ist gerade nicht erlaubt: " + move);
 		}
+		applyMove(move);
+		if (gameState == GameState.RUNNING) {
+			// Erst wenn wir wirklich hier ankommen berechnen wir legale Züge, um Zeit zu
+			// sparen und nicht aus Versehen legale Züge vorzuschlagen, obwohl das Spiel
+			// bereits beendet ist
+			detectMateOrStalemate();
+		}
+	}
+
+	/**
+	 * Spielt einen Zug nach, der bereits über {@link #findLegalMovesTo(Piece, Coordinate)}
+	 * als legal bestimmt wurde, z.B. beim Rekonstruieren einer Partie. Anders als
+	 * bei {@link #makeMove(Move)} wird der Zug nicht gegen alle legalen Züge
+	 * geprüft und Matt bzw. Patt werden erst durch {@link #finishReplay()} erkannt.
+	 * So muss pro Halbzug keine einzige vollständige Zuggenerierung laufen.
+	 *
+	 * @param move
+	 *            ein legaler Zug
+	 */
+	public void replayMove(Move move) {
+		applyMove(move);
+	}
+
+	/**
+	 * Erkennt nach {@link #replayMove(Move)} in der erreichten Stellung Matt oder
+	 * Patt
+	 */
+	public void finishReplay() {
+		if (gameState == GameState.RUNNING) {
+			detectMateOrStalemate();
+		}
+	}
+
+	/**
+	 * Führt einen legalen Zug aus und aktualisiert alle Spielzustände bis auf
+	 * Matt und Patt, für die alle legalen Züge berechnet werden müssten
+	 *
+	 * @param move
+	 *            Zug, der durchgeführt werden soll
+	 */
+	private void applyMove(Move move) {
 		if (gameState == GameState.PAUSED) {
 			gameState = GameState.RUNNING;
 		}
@@ -572,7 +641,7 @@ public class Board implements DeepCopyable {
 		// Die alten legalen Züge stimmen jetzt nicht mehr
 		currentlyLegalMoves = null;
 		advancePlayer();
-		if (isPlayerInCheck(getCurrentPlayer())) {
+		if (isKingAttacked(getCurrentPlayer().getColor())) {
 			// Der Spieler, der eben einen Zug ausgeführt hat, kann jetzt nicht mehr im
 			// Schach sein: Das wäre ein illegaler Zug gewesen. Wir müssen also nur den
 			// aktuellen Spieler testen
@@ -603,26 +672,168 @@ public class Board implements DeepCopyable {
 		if (!isMatePossible()) {
 			gameState = GameState.END_MATERIAL;
 			winnerIndex = -1;
-			return;
 		}
-		// Erst wenn wir wirklich hier ankommen berechnen wir legale Züge, um Zeit zu
-		// sparen und nicht aus Versehen legale Züge vorzuschlagen, obwohl das Spiel
-		// bereits beendet ist
+	}
+
+	/**
+	 * Beendet das Spiel, falls der aktuelle Spieler keinen legalen Zug mehr hat
+	 */
+	private void detectMateOrStalemate() {
 		if (findAllLegalMoves().isEmpty()) {
 			// Das Spiel ist definitiv zu Ende, aber es könnte Schachmatt oder Patt sein
-			// Wir schauen also, ob wir gerade im Schach stehen, indem berechnet wird ob der
-			// Gegner unseren König schlagen könnte
-			if (movesContainCapturingKing(findAllPseudoLegalMovesForColor(getNextPlayer().getColor()))) {
+			if (colorInCheck != null) {
 				gameState = GameState.END_CHECKMATE;
 				winnerIndex = (currentPlayerIndex + 1) % 2;
 			} else {
-				// König kann nicht geschlagen werden, ist also gerade nicht im Schach -> Patt
+				// König steht gerade nicht im Schach -> Patt
 				gameState = GameState.END_STALEMATE;
 				winnerIndex = -1;
 			}
 		}
 	}
 
+	/**
+	 * Findet alle legalen Züge einer Figur auf ein Zielfeld, ohne alle legalen
+	 * Züge der Stellung zu berechnen. Die Startfelder werden über
+	 * {@link Attacks#findOrigins} vom Zielfeld aus gesucht, nur für die gefundenen
+	 * Kandidaten wird geprüft, ob danach der eigene König angegriffen wäre. Sind
+	 * die legalen Züge schon bekannt, werden sie direkt gefiltert.
+	 *
+	 * @param piece
+	 *            die ziehende Figur, sie muss die Farbe des aktuellen Spielers
+	 *            haben
+	 * @param to
+	 *            das Zielfeld
+	 * @return die legalen Züge, bei Bauern auf der letzten Reihe einer pro
+	 *         Umwandlungsfigur
+	 */
+	public List<Move> findLegalMovesTo(Piece piece, Coordinate to) {
+		if (currentlyLegalMoves != null) {
+			return currentlyLegalMoves.stream().filter(move -> move.getPiece().equals(piece))
+					.filter(move -> move.getTo().equals(to)).toList();
+		}
+		if ((gameState != GameState.RUNNING && gameState != GameState.PAUSED)
+				|| piece.getColor() != getCurrentPlayer().getColor()) {
+			return List.of();
+		}
+
+		List<Move> legalMoves = new ArrayList<>(1);
+		for (Coordinate from : Attacks.findOrigins(pieceGrid, piece, to.getFile(), to.getRank())) {
+			for (Move move : piece.getPseudolegalMoves(from, this)) {
+				if (move.getTo().equals(to) && isLegalProbe(move)) {
+					legalMoves.add(move);
+				}
+			}
+		}
+		return legalMoves;
+	}
+
+	/**
+	 * Prüft einen pseudolegalen Zug darauf, ob danach der eigene König angegriffen
+	 * wird. Steht der König nicht im Schach und die ziehende Figur auf keiner
+	 * Linie mit ihm, kann sie nicht gefesselt sein und der Zug ist ohne weitere
+	 * Prüfung legal. Sonst wird der Zug auf einer Kopie der Figuren ausgeführt,
+	 * nur En Passant und Rochaden werden wirklich probeweise ausgeführt. Bei
+	 * Rochaden dürfen zusätzlich das Start- und das Zwischenfeld des Königs nicht
+	 * angegriffen sein.
+	 *
+	 * @param move
+	 *            pseudolegaler Zug des aktuellen Spielers
+	 * @return true, wenn der Zug legal ist
+	 */
+	private boolean isLegalProbe(Move move) {
+		Coordinate king = findKing(getCurrentPlayer().getColor());
+		return isLegalProbe(move, king, king != null
+				&& Attacks.isAttacked(pieceGrid, king.getFile(), king.getRank(), getNextPlayer().getColor()));
+	}
+
+	/**
+	 * Siehe {@link #isLegalProbe(Move)}, mit vorab bestimmtem König, wenn mehrere
+	 * Züge derselben Stellung geprüft werden
+	 *
+	 * @param move
+	 *            pseudolegaler Zug des aktuellen Spielers
+	 * @param king
+	 *            Feld des eigenen Königs oder null
+	 * @param inCheck
+	 *            ob der eigene König gerade angegriffen wird
+	 * @return true, wenn der Zug legal ist
+	 */
+	private boolean isLegalProbe(Move move, Coordinate king, boolean inCheck) {
+		Color own = getCurrentPlayer().getColor();
+		Color enemy = getNextPlayer().getColor();
+		if (move.getType() == MoveType.CASTLING_KINGSIDE || move.getType() == MoveType.CASTLING_QUEENSIDE) {
+			if (isCastlingPathAttacked(move, enemy)) {
+				return false;
+			}
+		} else if (move.getType() != MoveType.EN_PASSANT) {
+			if (king == null) {
+				return true;
+			}
+			Coordinate from = move.getFrom();
+			int fileDistance = Math.abs(from.getFile() - king.getFile());
+			int rankDistance = Math.abs(from.getRank() - king.getRank());
+			boolean aligned = fileDistance == 0 || rankDistance == 0 || fileDistance == rankDistance;
+			if (!aligned && !inCheck) {
+				return true;
+			}
+			return !Attacks.leavesKingAttacked(pieceGrid, from, move.getTo());
+		}
+		movePiece(move);
+		boolean legal = !isKingAttacked(own);
+		unMovePiece();
+		return legal;
+	}
+
+	/**
+	 * Bei einer Rochade darf der König weder aus dem Schach heraus noch über ein
+	 * angegriffenes Feld ziehen. Geprüft wird vor dem Zug, denn auch leere Felder
+	 * können angegriffen sein, z.B. von einem Bauern, der dorthin nur schlagen
+	 * könnte.
+	 *
+	 * @param castling
+	 *            Rochade des aktuellen Spielers
+	 * @param enemy
+	 *            Farbe des Gegners
+	 * @return true, wenn das Start- oder das Zwischenfeld des Königs angegriffen
+	 *         wird
+	 */
+	private boolean isCastlingPathAttacked(Move castling, Color enemy) {
+		int over = castling.getTo().getFile() + (castling.getType() == MoveType.CASTLING_QUEENSIDE ? 1 : -1);
+		int rank = castling.getFrom().getRank();
+		return Attacks.isAttacked(pieceGrid, castling.getFrom().getFile(), rank, enemy)
+				|| Attacks.isAttacked(pieceGrid, over, rank, enemy);
+	}
+
+	/**
+	 * @param color
+	 *            Farbe des Königs
+	 * @return true, wenn der König der Farbe von einer gegnerischen Figur
+	 *         angegriffen wird
+	 */
+	private boolean isKingAttacked(Color color) {
+		Coordinate king = findKing(color);
+		return king != null && Attacks.isAttacked(pieceGrid, king.getFile(), king.getRank(),
+				color == Color.WHITE ? Color.BLACK : Color.WHITE);
+	}
+
+	/**
+	 * @param color
+	 *            Farbe des Königs
+	 * @return das Feld des Königs oder null, falls es keinen gibt
+	 */
+	private Coordinate findKing(Color color) {
+		for (int file = 0; file < BOARD_SIZE; file++) {
+			for (int rank = 0; rank < BOARD_SIZE; rank++) {
+				Piece piece = pieceGrid[file][rank];
+				if (piece != null && piece.getColor() == color && piece.getAlgebraicNotationSymbol() == 'K') {
+					return new Coordinate(file, rank);
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Diese Methode kann von extern aufgerufen werden, um offiziell den letzten Zug
 	 * zurückzunehmen. Dabei werden alle Spielzustände geupdated.
@@ -635,7 +846,12 @@ public class Board implements DeepCopyable {
 		fullMoveClock = boardState.getFullMoveClock();
 		halfMoveClock = boardState.getHalfMoveClock();
 		currentPlayerIndex = boardState.getPlayerIndex();
-		currentlyLegalMoves = boardState.getLegalMovesInThisState();
+		int index = history.size() - 1;
+		// nur übernehmen, wenn der Eintrag nicht schon von einem späteren Zug
+		// überschrieben wurde, sonst werden die Züge bei Bedarf neu berechnet
+		currentlyLegalMoves = undoLegalMovesIndex[index % UNDO_CACHE_SIZE] == index
+				? undoLegalMoves.get(index % UNDO_CACHE_SIZE)
+				: null;
 		gameState = boardState.getGameState();
 		colorInCheck = boardState.getColorInCheck();
 		winnerIndex = boardState.getWinnerIndex();
@@ -742,112 +958,24 @@ public class Board implements DeepCopyable {
 	}
 
 	/**
-	 * Genutzt für die Wiederholungsregel. Nutzt den StateString und die bisher
-	 * gesehenen Spielzustände, um zu sagen, wie oft der aktuelle Spielzustand schon
-	 * gesehen wurde
+	 * Genutzt für die Wiederholungsregel. Vergleicht den Hash der aktuellen
+	 * Stellung mit den bisher gesehenen Spielzuständen, um zu sagen, wie oft der
+	 * aktuelle Spielzustand schon gesehen wurde. Seit dem letzten Bauernzug oder
+	 * Schlagen (siehe halfMoveClock) kann sich keine frühere Stellung wiederholen,
+	 * nur diese Zustände werden also betrachtet.
 	 *
 	 * @return Wie oft dieser Spielzustand schon gesehen wurde
 	 */
 	int howOftenHasThisPositionBeenSeen() {
-		HashMap<String, Integer> stateMap = new HashMap<>();
-		for (var state : history) {
-			// Wir holen uns den String der diesen Zustand repräsentiert
-			var stateString = state.getStateString();
-			// Jetzt schauen wir, ob er schonmal besucht wurde, indem wir ihn in der
-			// Tabelle/Map nachschlagen
-			var visits = stateMap.computeIfAbsent(stateString, key -> 0);
-			visits++;
-			stateMap.put(stateString, visits); // Neuen Wert speichern
-		}
-		return stateMap.computeIfAbsent(getStateString(), key -> 0) + 1;
-	}
-
-	/**
-	 * Gibt zurück, welche Seite(n) theoretisch noch mattsetzen kann/können. Eine
-	 * Seite kann noch mattsetzen, wenn sie: - mindestens 2 Springer hat, - einen
-	 * Läufer und einen Springer hat, - zwei Läufer auf unterschiedlichen Farben
-	 * hat, - oder noch eine Schwerfigur oder einen Bauern besitzt.
-	 *
-	 * @return Liste der Farben (Color.WHITE, Color.BLACK), die noch mattsetzen
-	 *         können.
-	 */
-	HashSet<Color> getSidesThatCanMate() {
-		HashSet<Color> canMate = new HashSet<>();
-
-		Boolean whiteBishopColor = null; // true = hell, false = dunkel
-		Boolean blackBishopColor = null;
-
-		boolean whiteBishopsSameColor = true;
-		boolean blackBishopsSameColor = true;
-
-		int whiteBishopCount = 0;
-		int blackBishopCount = 0;
-		int whiteKnightCount = 0;
-		int blackKnightCount = 0;
-
-		BiFunction<Integer, Integer, Boolean> isLightSquare = (f, r) -> (f + r) % 2 == 0;
-
-		for (int file = 0; file < pieceGrid.length; file++) {
-			for (int rank = 0; rank < pieceGrid[file].length; rank++) {
-				Piece piece = pieceGrid[file][rank];
-				if (piece == null)
-					continue;
-
-				char fen = piece.getFenSymbol();
-				boolean color;
-
-				switch (fen) {
-					case 'B' :
-						color = isLightSquare.apply(file, rank);
-						if (whiteBishopColor == null) {
-							whiteBishopColor = color;
-						} else if (whiteBishopColor != color) {
-							whiteBishopsSameColor = false;
-						}
-						whiteBishopCount++;
-						break;
-					case 'b' :
-						color = isLightSquare.apply(file, rank);
-						if (blackBishopColor == null) {
-							blackBishopColor = color;
-						} else if (blackBishopColor != color) {
-							blackBishopsSameColor = false;
-						}
-						blackBishopCount++;
-						break;
-					case 'N' :
-						whiteKnightCount++;
-						break;
-					case 'n' :
-						blackKnightCount++;
-						break;
-					case 'Q' :
-					case 'R' :
-					case 'P' :
-						canMate.add(Color.WHITE);
-						break;
-					case 'q' :
-					case 'r' :
-					case 'p' :
-						canMate.add(Color.BLACK);
-						break;
-				}
+		long hash = getRepetitionHash();
+		int seen = 1;
+		int oldest = Math.max(0, history.size() - halfMoveClock);
+		for (int i = history.size() - 1; i >= oldest; i--) {
+			if (history.get(i).getPositionHash() == hash) {
+				seen++;
 			}
 		}
-
-		boolean whiteCanMate = whiteKnightCount >= 2 || (whiteBishopCount >= 2 && !whiteBishopsSameColor)
-				|| (whiteBishopCount >= 1 && whiteKnightCount >= 1);
-		boolean blackCanMate = blackKnightCount >= 2 || (blackBishopCount >= 2 && !blackBishopsSameColor)
-				|| (blackBishopCount >= 1 && blackKnightCount >= 1);
-
-		if (whiteCanMate) {
-			canMate.add(Color.WHITE);
-		}
-		if (blackCanMate) {
-			canMate.add(Color.BLACK);
-		}
-
-		return canMate;
+		return seen;
 	}
 
 	/**
@@ -858,8 +986,16 @@ public class Board implements DeepCopyable {
 	 *         verfügt.
 	 */
 	boolean isMatePossible() {
-		return !getSidesThatCanMate().isEmpty();
+		return !MaterialKey.isInsufficientMaterial(materialKey);
 	}
+
+	/**
+	 * @return Materialschlüssel der aktuellen Stellung, siehe {@link MaterialKey}
+	 */
+	public long getMaterialKey() {
+		return materialKey;
+	}
+
 	/**
 	 * Zählt die aktuellen Werte aller Figuren auf dem Spielfeld für beide Spieler
 	 * zusammen. (siehe Chess Piece Value)
@@ -867,19 +1003,8 @@ public class Board implements DeepCopyable {
 	 * @return {CPV weiß, CPV schwarz}
 	 */
 	public int[] getPieceValues() {
-		int white = 0;
-		int black = 0;
-		for (Piece[] file : pieceGrid) {
-			for (Piece piece : file) {
-				if (piece == null)
-					continue;
-				if (piece.getColor() == Color.WHITE)
-					white += piece.getValue();
-				if (piece.getColor() == Color.BLACK)
-					black += piece.getValue();
-			}
-		}
-		return new int[]{white, black};
+		return new int[]{MaterialKey.getPieceValue(materialKey, Color.WHITE),
+				MaterialKey.getPieceValue(materialKey, Color.BLACK)};
 	}
 
 	/**
@@ -896,15 +1021,27 @@ public class Board implements DeepCopyable {
 	 * @return FEN String, der den aktuellen Spielzustand beschreibt
 	 */
 	public String exportToFEN() {
+		return exportToFEN(new StringBuilder(90)).toString();
+	}
+
+	/**
+	 * Hängt den aktuellen Spielzustand als FEN an, z.B. an einen StringBuilder,
+	 * der für viele Stellungen wiederverwendet wird
+	 *
+	 * @param output
+	 *            der StringBuilder, an den angehängt wird
+	 * @return output
+	 */
+	public StringBuilder exportToFEN(StringBuilder output) {
 		Coordinate enPassantTarget = null;
 		if (getLastMove() != null && getLastMove().getType() == MoveType.DOUBLEPAWN) {
 			enPassantTarget = new Coordinate(getLastMove().getTo().getFile(),
 					getLastMove().getTo().getRank() == 3 ? 2 : 5);
 		}
-		FENRecord fenRecord = new FENRecord(getUnmodifiablePieceGrid(), getCurrentPlayer().getColor(),
-				getCastlingAvailability(), enPassantTarget, halfMoveClock, fullMoveClock);
-		FENSerializer fenSerializer = new FENSerializer();
-		return fenSerializer.serializeRecord(fenRecord);
+		// der Record wird nur gelesen, deshalb muss das Brett nicht kopiert werden
+		FENRecord fenRecord = new FENRecord(pieceGrid, getCurrentPlayer().getColor(), getCastlingAvailability(),
+				enPassantTarget, halfMoveClock, fullMoveClock);
+		return new FENCodec().encode(fenRecord, output);
 	}
 
 	///  Ab hier kommen nur noch Getter/Setter Methoden und überschriebene Methoden
@@ -1096,6 +1233,30 @@ public class Board implements DeepCopyable {
 		return stringBuilder.toString();
 	}
 
+	/**
+	 * Gibt den Hash zurück, mit dem die Wiederholungsregel Stellungen vergleicht.
+	 * Wie beim {@link #getStateString()} zählen nur Figurpositionen,
+	 * Rochadeoptionen und der aktuelle Spieler.
+	 *
+	 * @return Zobrist-Hash ohne En-Passant-Linie
+	 */
+	public long getRepetitionHash() {
+		return zobristHash ^ Zobrist.enPassantKey(enPassantFile);
+	}
+
+	/**
+	 * Gibt den Zobrist-Hash des aktuellen Zustands zurück. Im Gegensatz zu
+	 * {@link #getStateString()} fließt auch ein mögliches En-Passant-Schlagen mit
+	 * ein. Gleiche Zustände haben immer den gleichen Hash, siehe {@link Zobrist}.
+	 * Der Hash wird nicht neu berechnet, sondern bei jedem Zug angepasst.
+	 *
+	 * @return 64-Bit Hash von Figurpositionen, Rochadeoptionen, En-Passant-Linie
+	 *         und aktuellem Spieler
+	 */
+	public long getZobristHash() {
+		return zobristHash;
+	}
+
 	/**
 	 * @return den Startzustand des Spiels, falls es nicht das Standardbrett war. In
 	 *         diesem Fall null
@@ -1143,26 +1304,31 @@ public class Board implements DeepCopyable {
 	}
 
 	/**
-	 * @return Tiefe Kopie des Spieler arrays. Zur Sicherheit damit die AI nicht die
-	 *         Spielerzeit zerstören kann
+	 * Erstellt einen unveränderlichen Schnappschuss des aktuellen Zustands in
+	 * konstanter Zeit. Er kann an andere Threads weitergegeben werden, die sich
+	 * daraus ein eigenes Brett erzeugen.
+	 *
+	 * @return der Schnappschuss
 	 */
-	private Player[] getPlayerArrayCopy() {
-		Player[] newPlayers = new Player[players.length];
-		for (int i = 0; i < players.length; i++) {
-			newPlayers[i] = new Player(players[i].getName(), players[i].getColor(), players[i].getRemainingTime());
+	public PositionSnapshot snapshot() {
+		Piece[] squares = new Piece[BOARD_SIZE * BOARD_SIZE];
+		for (int file = 0; file < BOARD_SIZE; file++) {
+			System.arraycopy(pieceGrid[file], 0, squares, file * BOARD_SIZE, BOARD_SIZE);
 		}
-		return newPlayers;
+		return new PositionSnapshot(squares, new String[]{players[0].getName(), players[1].getName()},
+				new int[]{players[0].getRemainingTime(), players[1].getRemainingTime()}, currentPlayerIndex,
+				materialKey, castlingAvailability, history.snapshot(), gameState, winnerIndex, halfMoveClock,
+				fullMoveClock, playerTimeAtStartOfMove, colorInCheck, nonStandardStartState, initialTime);
 	}
 
 	/**
 	 * @return Kopie des Boards mit separatem Piecegrid und Movehistory, sodass sich
 	 *         Änderungen nicht auf das echte Spiel übertragen, wenn die AI faxen
-	 *         macht
+	 *         macht. Die Historie wird dabei strukturell geteilt, die Kopie kostet
+	 *         unabhängig von der Länge der Partie konstante Zeit.
 	 */
 	public Board getBoardDeepCopy() {
-		return new Board(getUnmodifiablePieceGrid(), getPlayerArrayCopy(), currentPlayerIndex,
-				new ArrayList<HistoricalBoardState>(history), castlingAvailability, gameState, halfMoveClock,
-				fullMoveClock);
+		return new Board(snapshot());
 	}
 
 	/**
@@ -0,0 +1,81 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import tuda.ai1.propro25.model.history.HistoricalBoardState;
+import tuda.ai1.propro25.model.history.PersistentHistory;
+
+/**
+ * Die Historie eines Bretts als veränderbare Liste. Intern wird nach jeder
+ * Änderung eine neue {@link PersistentHistory} abgelegt, sodass
+ * {@link #snapshot()} den aktuellen Stand in konstanter Zeit liefern kann.
+ * Verändert werden kann die Liste wie ein Stapel nur am Ende.
+ */
+final class HistoryList extends AbstractList<HistoricalBoardState> implements RandomAccess {
+
+	private PersistentHistory states;
+
+	HistoryList() {
+		this(PersistentHistory.EMPTY);
+	}
+
+	HistoryList(PersistentHistory states) {
+		this.states = states;
+	}
+
+	HistoryList(Collection<HistoricalBoardState> states) {
+		this();
+		addAll(states);
+	}
+
+	/**
+	 * @return der aktuelle Stand der Historie, unabhängig von späteren Änderungen
+	 */
+	PersistentHistory snapshot() {
+		return states;
+	}
+
+	@Override
+	public HistoricalBoardState get(int index) {
+		return states.get(index);
+	}
+
+	@Override
+	public int size() {
+		return states.size();
+	}
+
+	@Override
+	public boolean add(HistoricalBoardState state) {
+		states = states.append(state);
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public void add(int index, HistoricalBoardState state) {
+		if (index != size()) {
+			throw new UnsupportedOperationException("Zustände können nur am Ende angehängt werden!");
+		}
+		add(state);
+	}
+
+	@Override
+	public HistoricalBoardState remove(int index) {
+		if (index != size() - 1) {
+			throw new UnsupportedOperationException("Nur der letzte Zustand kann entfernt werden!");
+		}
+		HistoricalBoardState removed = states.get(index);
+		states = states.dropLast();
+		modCount++;
+		return removed;
+	}
+
+	@Override
+	public void clear() {
+		states = PersistentHistory.EMPTY;
+		modCount++;
+	}
+}
@@ -0,0 +1,179 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Kodiert das Material beider Seiten kompakt in einem long, dem
+ * Materialschlüssel. Pro Farbe werden die Anzahl der Bauern, Springer, Türme
+ * und Damen sowie der Läufer auf hellen und auf dunklen Feldern in je 4 Bit
+ * gezählt; die Könige fehlen, da es immer genau einen pro Seite gibt.
+ * <p>
+ * Der Schlüssel ist die Summe {@code Anzahl * 2^Position} aller Zähler. Das
+ * {@link Board} hält ihn beim Ziehen und Zurücknehmen über die Differenz aus
+ * {@link #delta(Piece[][], Move)} aktuell, statt das Brett abzusuchen. Fragen
+ * wie "reicht das Material noch zum Matt?" oder "ist das ein Endspiel?" lassen
+ * sich so mit wenigen Bitoperationen beantworten.
+ */
+public final class MaterialKey {
+
+	public static final int PAWN = 0;
+	public static final int KNIGHT = 1;
+	public static final int LIGHT_BISHOP = 2;
+	public static final int DARK_BISHOP = 3;
+	public static final int ROOK = 4;
+	public static final int QUEEN = 5;
+
+	private static final int BITS = 4;
+	private static final int COLOR_SHIFT = 6 * BITS;
+	private static final long MASK = (1L << BITS) - 1;
+
+	/** Spielphase mit allen Figuren der Grundstellung, siehe {@link #getPhase(long)} */
+	public static final int MAX_PHASE = 24;
+	/** Bis zu dieser Spielphase gilt eine Stellung als Endspiel */
+	public static final int ENDGAME_PHASE = 8;
+
+	private MaterialKey() {
+	}
+
+	/**
+	 * Berechnet den Schlüssel für ein Brett, indem alle Felder abgesucht werden
+	 *
+	 * @param pieceGrid
+	 *            Figuren, indiziert mit [Linie][Reihe]
+	 * @return der Materialschlüssel
+	 */
+	public static long of(Piece[][] pieceGrid) {
+		long key = 0;
+		for (int file = 0; file < pieceGrid.length; file++) {
+			for (int rank = 0; rank < pieceGrid[file].length; rank++) {
+				Piece piece = pieceGrid[file][rank];
+				if (piece != null) {
+					key += unit(piece, file, rank);
+				}
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Berechnet, wie sich der Schlüssel durch einen Zug verändert. Nach dem Zug
+	 * gilt {@code neu = alt + delta}, beim Zurücknehmen entsprechend
+	 * {@code alt = neu - delta}.
+	 *
+	 * @param pieceGrid
+	 *            Figuren vor dem Zug, indiziert mit [Linie][Reihe]
+	 * @param move
+	 *            der Zug
+	 * @return die Differenz der Schlüssel, 0 wenn sich das Material nicht ändert
+	 */
+	static long delta(Piece[][] pieceGrid, Move move) {
+		int file = move.getTo().getFile();
+		int rank = move.getTo().getRank();
+		return switch (move.getType()) {
+			case CAPTURE -> -unit(pieceGrid[file][rank], file, rank);
+			case EN_PASSANT -> -unit(pieceGrid[file][move.getFrom().getRank()], file, move.getFrom().getRank());
+			case PROMOTION -> unit(move.getPromotionPiece(), file, rank) - unit(move.getPiece(), file, rank);
+			case CAPTURE_PROMOTION -> unit(move.getPromotionPiece(), file, rank) - unit(move.getPiece(), file, rank)
+					- unit(pieceGrid[file][rank], file, rank);
+			default -> 0;
+		};
+	}
+
+	/**
+	 * @return Beitrag einer Figur auf dem Feld zum Schlüssel, 0 für Könige
+	 */
+	private static long unit(Piece piece, int file, int rank) {
+		int type = switch (piece.getAlgebraicNotationSymbol()) {
+			case 'P' -> PAWN;
+			case 'N' -> KNIGHT;
+			// a1 ist dunkel, also Felder mit gerader Summe der Koordinaten
+			case 'B' -> (file + rank) % 2 == 0 ? DARK_BISHOP : LIGHT_BISHOP;
+			case 'R' -> ROOK;
+			case 'Q' -> QUEEN;
+			default -> -1;
+		};
+		if (type < 0) {
+			return 0;
+		}
+		int shift = type * BITS + (piece.getColor() == Color.WHITE ? 0 : COLOR_SHIFT);
+		return 1L << shift;
+	}
+
+	/**
+	 * @param key
+	 *            der Materialschlüssel
+	 * @param color
+	 *            Farbe der Figuren
+	 * @param type
+	 *            eine der Konstanten {@link #PAWN} bis {@link #QUEEN}
+	 * @return Anzahl dieser Figuren
+	 */
+	public static int count(long key, Color color, int type) {
+		int shift = type * BITS + (color == Color.WHITE ? 0 : COLOR_SHIFT);
+		return (int) ((key >>> shift) & MASK);
+	}
+
+	/**
+	 * @return Anzahl der Läufer der Farbe auf beiden Feldfarben
+	 */
+	public static int bishops(long key, Color color) {
+		return count(key, color, LIGHT_BISHOP) + count(key, color, DARK_BISHOP);
+	}
+
+	/**
+	 * Eine Seite kann noch mattsetzen, wenn sie einen Bauern, einen Turm oder eine
+	 * Dame, mindestens zwei Springer, einen Läufer und einen Springer oder zwei
+	 * Läufer auf unterschiedlichen Feldfarben hat.
+	 *
+	 * @return true, wenn die Seite theoretisch noch mattsetzen kann
+	 */
+	public static boolean canMate(long key, Color color) {
+		if (count(key, color, PAWN) > 0 || count(key, color, ROOK) > 0 || count(key, color, QUEEN) > 0) {
+			return true;
+		}
+		int knights = count(key, color, KNIGHT);
+		int light = count(key, color, LIGHT_BISHOP);
+		int dark = count(key, color, DARK_BISHOP);
+		return knights >= 2 || (light > 0 && dark > 0) || (knights > 0 && light + dark > 0);
+	}
+
+	/**
+	 * @return true, wenn keine Seite mehr genug Material zum Mattsetzen hat
+	 */
+	public static boolean isInsufficientMaterial(long key) {
+		return !canMate(key, Color.WHITE) && !canMate(key, Color.BLACK);
+	}
+
+	/**
+	 * Gewichtet die Figuren beider Seiten nach ihrem Einfluss auf die Spielphase:
+	 * Springer und Läufer zählen 1, Türme 2 und Damen 4. Bauern zählen nicht.
+	 *
+	 * @return Spielphase von 0 (nur Könige und Bauern) bis {@link #MAX_PHASE}
+	 *         (Grundstellung), durch Umwandlungen auch darüber
+	 */
+	public static int getPhase(long key) {
+		return getPhase(key, Color.WHITE) + getPhase(key, Color.BLACK);
+	}
+
+	private static int getPhase(long key, Color color) {
+		return count(key, color, KNIGHT) + bishops(key, color) + 2 * count(key, color, ROOK)
+				+ 4 * count(key, color, QUEEN);
+	}
+
+	/**
+	 * @return true, wenn so wenige Figuren übrig sind, dass die Stellung als
+	 *         Endspiel gilt
+	 */
+	public static boolean isEndgame(long key) {
+		return getPhase(key) <= ENDGAME_PHASE;
+	}
+
+	/**
+	 * @return Summe der Figurenwerte (Chess Piece Values) der Farbe
+	 */
+	public static int getPieceValue(long key, Color color) {
+		return count(key, color, PAWN) + 3 * count(key, color, KNIGHT) + 3 * bishops(key, color)
+				+ 5 * count(key, color, ROOK) + 9 * count(key, color, QUEEN);
+	}
+}
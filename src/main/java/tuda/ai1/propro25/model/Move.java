@@ -181,6 +181,63 @@ public class Move {
 		return promotionPiece;
 	}
 
+	/**
+	 * Führt den Zug auf einem Figuren-Array aus. Wie bei
+	 * {@link Board#movePiece(Move)} wird nicht geprüft, ob der Zug legal ist.
+	 *
+	 * @param grid
+	 *            Figuren, indiziert mit [Linie][Reihe], wird verändert
+	 */
+	public void applyTo(Piece[][] grid) {
+		Piece movingPiece = grid[from.getFile()][from.getRank()];
+		grid[from.getFile()][from.getRank()] = null;
+		grid[to.getFile()][to.getRank()] = movingPiece;
+		if (type == MoveType.EN_PASSANT) {
+			// Position des gegnerischen Bauern lässt sich aus neuer Linie und alter Zeile
+			// rekonstruieren!
+			grid[to.getFile()][from.getRank()] = null;
+		} else if (type == MoveType.CASTLING_KINGSIDE) {
+			// Turm über König nach f Linie hüpfen lassen
+			grid[5][from.getRank()] = grid[7][from.getRank()];
+			grid[7][from.getRank()] = null;
+		} else if (type == MoveType.CASTLING_QUEENSIDE) {
+			// Turm über König nach d Linie hüpfen lassen
+			grid[3][from.getRank()] = grid[0][from.getRank()];
+			grid[0][from.getRank()] = null;
+		} else if (type == MoveType.PROMOTION || type == MoveType.CAPTURE_PROMOTION) {
+			grid[to.getFile()][to.getRank()] = promotionPiece;
+		}
+	}
+
+	/**
+	 * Macht {@link #applyTo(Piece[][])} auf einem Figuren-Array rückgängig
+	 *
+	 * @param grid
+	 *            Figuren nach dem Zug, indiziert mit [Linie][Reihe], wird verändert
+	 * @param capturedPiece
+	 *            die durch den Zug geschlagene Figur oder null
+	 */
+	public void revertOn(Piece[][] grid, Piece capturedPiece) {
+		Piece movedPiece = grid[to.getFile()][to.getRank()];
+		if (type == MoveType.PROMOTION || type == MoveType.CAPTURE_PROMOTION) {
+			movedPiece = piece;
+		}
+		grid[from.getFile()][from.getRank()] = movedPiece;
+		if (type == MoveType.EN_PASSANT) {
+			grid[to.getFile()][to.getRank()] = null;
+			grid[to.getFile()][from.getRank()] = capturedPiece;
+		} else {
+			grid[to.getFile()][to.getRank()] = capturedPiece;
+		}
+		if (type == MoveType.CASTLING_KINGSIDE) {
+			grid[7][from.getRank()] = grid[5][from.getRank()];
+			grid[5][from.getRank()] = null;
+		} else if (type == MoveType.CASTLING_QUEENSIDE) {
+			grid[0][from.getRank()] = grid[3][from.getRank()];
+			grid[3][from.getRank()] = null;
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (o == null || getClass() != o.getClass()) {
@@ -0,0 +1,105 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import tuda.ai1.propro25.fen.FENRecord;
+import tuda.ai1.propro25.model.history.PersistentHistory;
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Unveränderlicher Schnappschuss eines {@link Board}s. Die Stellung wird
+ * kompakt als 64 Felder gespeichert, die Historie als {@link PersistentHistory}
+ * geteilt statt kopiert. Erstellen des Schnappschusses und das Erzeugen eines
+ * neuen Bretts daraus ({@link #getBoardDeepCopy()}) kosten damit konstante Zeit,
+ * unabhängig von der Länge der Partie.
+ * <p>
+ * Ein Schnappschuss kann gefahrlos an andere Threads weitergegeben werden: Der
+ * GUI-Thread erstellt ihn und der AI-Thread erzeugt sich daraus sein eigenes
+ * Suchbrett, ohne auf das Brett des GUI-Threads zuzugreifen. Ebenso zeichnet die
+ * GUI das Brett aus dem zuletzt veröffentlichten Schnappschuss.
+ */
+public final class PositionSnapshot implements DeepCopyable {
+
+	/** Figuren, indiziert mit Linie * 8 + Reihe */
+	final Piece[] squares;
+	final String[] playerNames;
+	final int[] playerTimes;
+	final int currentPlayerIndex;
+	final long materialKey;
+	final CastlingAvailability castlingAvailability;
+	final PersistentHistory history;
+	final GameState gameState;
+	final int winnerIndex;
+	final int halfMoveClock;
+	final int fullMoveClock;
+	final int playerTimeAtStartOfMove;
+	final Color colorInCheck;
+	final FENRecord nonStandardStartState;
+	final int initialTime;
+
+	PositionSnapshot(Piece[] squares, String[] playerNames, int[] playerTimes, int currentPlayerIndex,
+			long materialKey, CastlingAvailability castlingAvailability, PersistentHistory history,
+			GameState gameState, int winnerIndex, int halfMoveClock, int fullMoveClock, int playerTimeAtStartOfMove,
+			Color colorInCheck, FENRecord nonStandardStartState, int initialTime) {
+		this.squares = squares;
+		this.playerNames = playerNames;
+		this.playerTimes = playerTimes;
+		this.currentPlayerIndex = currentPlayerIndex;
+		this.materialKey = materialKey;
+		this.castlingAvailability = castlingAvailability;
+		this.history = history;
+		this.gameState = gameState;
+		this.winnerIndex = winnerIndex;
+		this.halfMoveClock = halfMoveClock;
+		this.fullMoveClock = fullMoveClock;
+		this.playerTimeAtStartOfMove = playerTimeAtStartOfMove;
+		this.colorInCheck = colorInCheck;
+		this.nonStandardStartState = nonStandardStartState;
+		this.initialTime = initialTime;
+	}
+
+	/**
+	 * Gibt die Figur auf einem Feld zurück, ohne etwas zu kopieren
+	 *
+	 * @param file
+	 *            Linie des Feldes
+	 * @param rank
+	 *            Reihe des Feldes
+	 * @return die Figur oder null, wenn das Feld leer ist
+	 */
+	public Piece getPiece(int file, int rank) {
+		return squares[file * Board.BOARD_SIZE + rank];
+	}
+
+	/**
+	 * @return der zuletzt gespielte Zug oder null
+	 */
+	public Move getLastMove() {
+		return history.size() == 0 ? null : history.get(history.size() - 1).getMoveToNextState();
+	}
+
+	/**
+	 * @return Anzahl der bisher gespielten Halbzüge
+	 */
+	public int getPly() {
+		return history.size();
+	}
+
+	/**
+	 * @return Farbe des Spielers am Zug
+	 */
+	public Color getActiveColor() {
+		return currentPlayerIndex == 0 ? Color.WHITE : Color.BLACK;
+	}
+
+	/**
+	 * Erzeugt ein neues, frei veränderbares Brett mit diesem Zustand. Das Brett
+	 * teilt sich die Historie mit dem Schnappschuss, Änderungen daran sind aber
+	 * nur im neuen Brett sichtbar.
+	 *
+	 * @return das neue Brett
+	 */
+	@Override
+	public Board getBoardDeepCopy() {
+		return new Board(this);
+	}
+}
@@ -0,0 +1,199 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import java.util.SplittableRandom;
+import tuda.ai1.propro25.model.piece.Pawn;
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Zobrist-Hashing für Schachstellungen. Jede Kombination aus Figur und Feld,
+ * jede Rochadeoption, jede En-Passant-Linie und die Seite am Zug bekommen eine
+ * feste Zufallszahl. Der Hash einer Stellung ist das XOR aller zutreffenden
+ * Zahlen, sodass gleiche Stellungen immer denselben 64-Bit Wert haben. Da XOR
+ * sein eigenes Inverses ist, passt das {@link Board} den Hash pro Zug nur mit
+ * {@link #moveDelta(Piece[][], Move)} und den übrigen Schlüsseln an, statt ihn
+ * neu zu berechnen.
+ * <p>
+ * Die Zufallszahlen werden mit festem Seed erzeugt. Die Hashes sind damit über
+ * Programmläufe hinweg stabil und dürfen auch in Dateien gespeichert werden.
+ */
+public final class Zobrist {
+
+	private static final String PIECE_SYMBOLS = "PNBRQKpnbrqk";
+
+	private static final long[][] PIECE_SQUARE = new long[12][64];
+	private static final long[] CASTLING = new long[4];
+	private static final long[] EN_PASSANT_FILE = new long[8];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x5EED_C0FFEE_2025L);
+		for (long[] squares : PIECE_SQUARE) {
+			for (int i = 0; i < squares.length; i++) {
+				squares[i] = random.nextLong();
+			}
+		}
+		for (int i = 0; i < CASTLING.length; i++) {
+			CASTLING[i] = random.nextLong();
+		}
+		for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+			EN_PASSANT_FILE[i] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * @param piece
+	 *            eine Figur
+	 * @return Index der Figur (0-5 weiße, 6-11 schwarze Figuren in der Reihenfolge
+	 *         Bauer, Springer, Läufer, Turm, Dame, König)
+	 */
+	public static int pieceIndex(Piece piece) {
+		return PIECE_SYMBOLS.indexOf(piece.getFenSymbol());
+	}
+
+	/**
+	 * @return Zufallszahl für die Figur auf dem angegebenen Feld
+	 */
+	public static long pieceSquare(Piece piece, int file, int rank) {
+		return PIECE_SQUARE[pieceIndex(piece)][file * 8 + rank];
+	}
+
+	/**
+	 * Berechnet den Hash einer Stellung
+	 *
+	 * @param pieceGrid
+	 *            Figuren, indiziert mit [Linie][Reihe]
+	 * @param colorToMove
+	 *            Seite am Zug
+	 * @param castling
+	 *            Rochadeoptionen
+	 * @param enPassantFile
+	 *            Linie, auf der gerade en passant geschlagen werden kann, oder -1
+	 * @return der Hash der Stellung
+	 */
+	public static long hash(Piece[][] pieceGrid, Color colorToMove, CastlingAvailability castling,
+			int enPassantFile) {
+		long hash = 0;
+		for (int file = 0; file < 8; file++) {
+			for (int rank = 0; rank < 8; rank++) {
+				Piece piece = pieceGrid[file][rank];
+				if (piece != null) {
+					hash ^= pieceSquare(piece, file, rank);
+				}
+			}
+		}
+		hash ^= castlingKey(castling) ^ enPassantKey(enPassantFile);
+		if (colorToMove == Color.BLACK) {
+			hash ^= BLACK_TO_MOVE;
+		}
+		return hash;
+	}
+
+	/**
+	 * Berechnet, wie sich der Anteil der Figuren am Hash durch einen Zug verändert.
+	 * Dieselbe Differenz gilt auch beim Zurücknehmen des Zugs.
+	 *
+	 * @param pieceGrid
+	 *            Figuren vor dem Zug, indiziert mit [Linie][Reihe]
+	 * @param move
+	 *            der Zug
+	 * @return die Differenz, die per XOR auf den Hash angewendet wird
+	 */
+	public static long moveDelta(Piece[][] pieceGrid, Move move) {
+		int fromFile = move.getFrom().getFile();
+		int fromRank = move.getFrom().getRank();
+		int toFile = move.getTo().getFile();
+		int toRank = move.getTo().getRank();
+		Piece moving = pieceGrid[fromFile][fromRank];
+		long delta = pieceSquare(moving, fromFile, fromRank);
+		switch (move.getType()) {
+			case PROMOTION -> delta ^= pieceSquare(move.getPromotionPiece(), toFile, toRank);
+			case CAPTURE_PROMOTION -> delta ^= pieceSquare(pieceGrid[toFile][toRank], toFile, toRank)
+					^ pieceSquare(move.getPromotionPiece(), toFile, toRank);
+			case CAPTURE -> delta ^= pieceSquare(pieceGrid[toFile][toRank], toFile, toRank)
+					^ pieceSquare(moving, toFile, toRank);
+			case EN_PASSANT -> delta ^= pieceSquare(pieceGrid[toFile][fromRank], toFile, fromRank)
+					^ pieceSquare(moving, toFile, toRank);
+			case CASTLING_KINGSIDE -> delta ^= pieceSquare(moving, toFile, toRank)
+					^ rookJump(pieceGrid[7][fromRank], 7, 5, fromRank);
+			case CASTLING_QUEENSIDE -> delta ^= pieceSquare(moving, toFile, toRank)
+					^ rookJump(pieceGrid[0][fromRank], 0, 3, fromRank);
+			default -> delta ^= pieceSquare(moving, toFile, toRank);
+		}
+		return delta;
+	}
+
+	private static long rookJump(Piece rook, int fromFile, int toFile, int rank) {
+		return pieceSquare(rook, fromFile, rank) ^ pieceSquare(rook, toFile, rank);
+	}
+
+	/**
+	 * @return XOR der Zufallszahlen aller verfügbaren Rochadeoptionen
+	 */
+	public static long castlingKey(CastlingAvailability castling) {
+		long key = 0;
+		if (castling.whiteCastleKingSide()) {
+			key ^= CASTLING[0];
+		}
+		if (castling.whiteCastleQueenSide()) {
+			key ^= CASTLING[1];
+		}
+		if (castling.blackCastleKingSide()) {
+			key ^= CASTLING[2];
+		}
+		if (castling.blackCastleQueenSide()) {
+			key ^= CASTLING[3];
+		}
+		return key;
+	}
+
+	/**
+	 * @param enPassantFile
+	 *            Linie, auf der en passant geschlagen werden kann, oder -1
+	 * @return Zufallszahl der Linie oder 0
+	 */
+	public static long enPassantKey(int enPassantFile) {
+		return enPassantFile >= 0 ? EN_PASSANT_FILE[enPassantFile] : 0;
+	}
+
+	/**
+	 * @return Zufallszahl, die im Hash enthalten ist, wenn Schwarz am Zug ist
+	 */
+	public static long blackToMoveKey() {
+		return BLACK_TO_MOVE;
+	}
+
+	/**
+	 * Bestimmt die Linie, auf der die Seite am Zug en passant schlagen könnte. Wie
+	 * bei Polyglot zählt die Linie nur, wenn auch ein eigener Bauer daneben steht,
+	 * damit gleiche Stellungen nicht unnötig verschiedene Hashes bekommen.
+	 *
+	 * @param pieceGrid
+	 *            Figuren, indiziert mit [Linie][Reihe]
+	 * @param lastMove
+	 *            der zuletzt gespielte Zug oder null
+	 * @return Linie des en passant schlagbaren Bauern oder -1
+	 */
+	public static int enPassantFile(Piece[][] pieceGrid, Move lastMove) {
+		if (lastMove == null || lastMove.getType() != MoveType.DOUBLEPAWN) {
+			return -1;
+		}
+		int file = lastMove.getTo().getFile();
+		int rank = lastMove.getTo().getRank();
+		Color capturer = lastMove.getPiece().getColor() == Color.WHITE ? Color.BLACK : Color.WHITE;
+		for (int neighbour = file - 1; neighbour <= file + 1; neighbour += 2) {
+			if (neighbour < 0 || neighbour > 7) {
+				continue;
+			}
+			Piece piece = pieceGrid[neighbour][rank];
+			if (piece instanceof Pawn && piece.getColor() == capturer) {
+				return file;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,187 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model.history;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.PositionSnapshot;
+
+/**
+ * Ein Spielbaum aus Hauptvariante und beliebig tief geschachtelten Varianten,
+ * wie sie z.B. in kommentierten PGN-Partien vorkommen.
+ * <p>
+ * Jeder Knoten speichert nur den Zug, der zu ihm geführt hat. Da ein
+ * {@link Move} auch die geschlagene Figur bzw. den Rochadeturm kennt, reicht das
+ * zum Zurücknehmen aus. Varianten teilen sich alle Züge bis zur Abzweigung mit
+ * ihrer Hauptvariante, Stellungen werden nicht gespeichert, sondern bei Bedarf
+ * mit {@link #createBoard(Node)} aus der Startstellung nachgespielt. Der
+ * Speicherbedarf wächst so mit der Anzahl der Züge und nicht mit Zügen mal
+ * Brettgröße.
+ */
+public class GameTree {
+
+	private final PositionSnapshot startPosition;
+	private final Node root = new Node(null, null);
+	private int size;
+
+	/**
+	 * Erstellt einen leeren Spielbaum
+	 *
+	 * @param startPosition
+	 *            die Stellung vor dem ersten Zug
+	 */
+	public GameTree(PositionSnapshot startPosition) {
+		if (startPosition == null) {
+			throw new IllegalArgumentException("startPosition darf nicht null sein");
+		}
+		this.startPosition = startPosition;
+	}
+
+	/**
+	 * @return der Knoten der Startstellung, er hat keinen Zug
+	 */
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return Anzahl der Züge im gesamten Baum
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return die Züge der Hauptvariante
+	 */
+	public List<Move> getMainline() {
+		List<Move> moves = new ArrayList<>();
+		for (Node node = root.firstChild; node != null; node = node.firstChild) {
+			moves.add(node.move);
+		}
+		return moves;
+	}
+
+	/**
+	 * Erzeugt ein neues Brett mit der Stellung eines Knotens, indem die Züge von
+	 * der Startstellung aus nachgespielt werden
+	 *
+	 * @param node
+	 *            ein Knoten dieses Baums
+	 * @return das Brett nach dem Zug des Knotens
+	 */
+	public Board createBoard(Node node) {
+		Board board = startPosition.getBoardDeepCopy();
+		for (Move move : node.getMovesFromRoot()) {
+			board.makeMove(move);
+		}
+		return board;
+	}
+
+	/**
+	 * Ein Knoten des Spielbaums. Die Kinder werden als verkettete Liste gehalten:
+	 * das erste Kind setzt die Hauptvariante des Knotens fort, alle weiteren sind
+	 * Varianten dazu.
+	 */
+	public final class Node {
+
+		private final Node parent;
+		private final Move move;
+		private final int ply;
+		private Node firstChild;
+		private Node nextSibling;
+
+		private Node(Node parent, Move move) {
+			this.parent = parent;
+			this.move = move;
+			this.ply = parent == null ? 0 : parent.ply + 1;
+		}
+
+		/**
+		 * @return der Zug, der zu diesem Knoten geführt hat, null an der Wurzel
+		 */
+		public Move getMove() {
+			return move;
+		}
+
+		/**
+		 * @return der Knoten davor, null an der Wurzel
+		 */
+		public Node getParent() {
+			return parent;
+		}
+
+		/**
+		 * @return Anzahl der Züge von der Startstellung bis hierher
+		 */
+		public int getPly() {
+			return ply;
+		}
+
+		/**
+		 * @return der nächste Knoten der Hauptvariante oder null
+		 */
+		public Node getMainline() {
+			return firstChild;
+		}
+
+		/**
+		 * @return alle Alternativen zum nächsten Knoten der Hauptvariante
+		 */
+		public List<Node> getVariations() {
+			if (firstChild == null || firstChild.nextSibling == null) {
+				return Collections.emptyList();
+			}
+			List<Node> variations = new ArrayList<>();
+			for (Node child = firstChild.nextSibling; child != null; child = child.nextSibling) {
+				variations.add(child);
+			}
+			return variations;
+		}
+
+		/**
+		 * @return alle Züge von der Startstellung bis zu diesem Knoten
+		 */
+		public List<Move> getMovesFromRoot() {
+			Move[] moves = new Move[ply];
+			for (Node node = this; node.parent != null; node = node.parent) {
+				moves[node.ply - 1] = node.move;
+			}
+			return List.of(moves);
+		}
+
+		/**
+		 * Hängt einen Zug an diesen Knoten an. Gibt es den Zug hier schon, wird der
+		 * vorhandene Knoten zurückgegeben, sodass gleiche Zugfolgen nur einmal
+		 * gespeichert werden. Der erste Zug wird zur Hauptvariante, alle weiteren
+		 * zu Varianten.
+		 *
+		 * @param move
+		 *            der Zug, der in dieser Stellung legal sein muss
+		 * @return der Knoten nach dem Zug
+		 */
+		public Node addMove(Move move) {
+			if (move == null) {
+				throw new IllegalArgumentException("move darf nicht null sein");
+			}
+			Node last = null;
+			for (Node child = firstChild; child != null; child = child.nextSibling) {
+				if (child.move.equals(move)) {
+					return child;
+				}
+				last = child;
+			}
+
+			Node child = new Node(this, move);
+			if (last == null) {
+				firstChild = child;
+			} else {
+				last.nextSibling = child;
+			}
+			size++;
+			return child;
+		}
+	}
+}
@@ -2,17 +2,27 @@
 package tuda.ai1.propro25.model.history;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 import tuda.ai1.propro25.model.*;
 import tuda.ai1.propro25.model.piece.Piece;
 
 /**
  * HistoricalBoardStates sind bereits gesehene Spielzustände mit zusätzlichen
- * Informationen
+ * Informationen.
+ * <p>
+ * Damit lange Partien nicht pro Halbzug ein ganzes Brett belegen, wird die
+ * Figurenstellung nur alle {@link #CHECKPOINT_INTERVAL} Halbzüge vollständig
+ * gespeichert. Alle anderen Zustände merken sich nur ihren Vorgänger, den Zug
+ * und die dabei geschlagene Figur. {@link #getPieceGrid()} baut die Stellung
+ * bei Bedarf aus dem letzten vollständig gespeicherten Zustand nach, das kostet
+ * höchstens {@link #CHECKPOINT_INTERVAL} - 1 Züge. Für die Wiederholungsregel
+ * wird statt eines Strings nur ein Hash der Stellung gespeichert.
  */
 public class HistoricalBoardState {
 
+	/** Abstand in Halbzügen zwischen zwei vollständig gespeicherten Stellungen */
+	public static final int CHECKPOINT_INTERVAL = 16;
+
 	private final int playerIndex;
 	private final int playerRemainingTime;
 	private final CastlingAvailability castlingAvailability;
@@ -22,16 +32,22 @@ public class HistoricalBoardState {
 	private final Color colorInCheck;
 	private final int winnerIndex;
 
-	private final String stateString;
+	private final long positionHash;
 
+	private final HistoricalBoardState previous;
+	private final int ply;
+	// nur bei Checkpoints gesetzt, sonst null
 	private final Piece[][] pieceGrid;
+	private final Piece capturedPiece;
 	private final Move moveToNextState;
-	private final List<Move> legalMovesInThisState;
+	// true, wenn das Brett beim Erstellen schon die Stellung nach dem Zug zeigte
+	private final boolean moveAlreadyApplied;
 
 	/**
 	 * Ein HistoricalMove ist ein Zug, der bereits geschehen ist. Er erweitert Move
 	 * mit extra Informationen, um das Spielgeschehen im Nachhinein einfacher
-	 * rekonstruieren zu können.
+	 * rekonstruieren zu können. Ohne Vorgänger wird die Stellung immer vollständig
+	 * gespeichert.
 	 * 
 	 * @param board
 	 *            Das Brett, welches hier repräsentiert werden soll. Es wird
@@ -39,14 +55,52 @@ public class HistoricalBoardState {
 	 *            Zustand der Figuren zu speichern
 	 * @param playerIndex
 	 *            Der Index des Spielers, welcher in diesem Zustand am Zug war
-	 * @param legalMovesInThisState
-	 *            Cache für legale Züge, die es in diesem Zustand gab. Kann null
-	 *            sein wenn ungewünscht.
 	 * @param moveToNextState
 	 *            Der Zug, welcher in den nächsten Zustand geführt hat. Kann null
 	 *            sein, z.B. wenn dies der letzte bekannte Brettzustand ist.
 	 */
-	public HistoricalBoardState(Board board, int playerIndex, List<Move> legalMovesInThisState, Move moveToNextState) {
+	public HistoricalBoardState(Board board, int playerIndex, Move moveToNextState) {
+		this(board, null, playerIndex, moveToNextState, false);
+	}
+
+	/**
+	 * Erstellt einen Zustand, der auf einen vorherigen Zustand folgt
+	 *
+	 * @param board
+	 *            Das Brett, welches hier repräsentiert werden soll
+	 * @param previous
+	 *            Der Zustand direkt davor, dessen Zug zu diesem Brett geführt hat,
+	 *            oder null
+	 * @param playerIndex
+	 *            Der Index des Spielers, welcher in diesem Zustand am Zug war
+	 * @param moveToNextState
+	 *            Der Zug, welcher in den nächsten Zustand geführt hat. Kann null
+	 *            sein, z.B. wenn dies der letzte bekannte Brettzustand ist.
+	 */
+	public HistoricalBoardState(Board board, HistoricalBoardState previous, int playerIndex, Move moveToNextState) {
+		this(board, previous, playerIndex, moveToNextState, false);
+	}
+
+	/**
+	 * Erstellt einen unvollständigen Zustand für einen Zug, der auf dem Brett
+	 * bereits ausgeführt ist. Das passiert, wenn ein FEN ein En-Passant-Feld
+	 * enthält: Der Doppelschritt des Bauern ist dann bekannt, die Stellung davor
+	 * aber nicht.
+	 *
+	 * @param board
+	 *            Das Brett nach dem Zug
+	 * @param playerIndex
+	 *            Der Index des Spielers, welcher den Zug gemacht hat
+	 * @param move
+	 *            Der bereits ausgeführte Zug
+	 * @return der Zustand, er hat keinen Vorgänger
+	 */
+	public static HistoricalBoardState ofAppliedMove(Board board, int playerIndex, Move move) {
+		return new HistoricalBoardState(board, null, playerIndex, move, true);
+	}
+
+	private HistoricalBoardState(Board board, HistoricalBoardState previous, int playerIndex, Move moveToNextState,
+			boolean moveAlreadyApplied) {
 		if (board == null) {
 			throw new NullPointerException("Board and CastlingAvailability dürfen nicht null sein!");
 		}
@@ -56,11 +110,16 @@ public class HistoricalBoardState {
 		this.castlingAvailability = board.getCastlingAvailability();
 		this.halfMoveClock = board.getHalfMoveClock();
 		this.fullMoveClock = board.getFullMoveClock();
-		this.pieceGrid = board.getUnmodifiablePieceGrid();
+		this.previous = previous;
+		this.ply = previous == null ? 0 : previous.ply + 1;
+		this.pieceGrid = previous == null || ply % CHECKPOINT_INTERVAL == 0 ? board.getUnmodifiablePieceGrid() : null;
+		this.capturedPiece = moveToNextState != null && !moveAlreadyApplied
+				? capturedPiece(board, moveToNextState)
+				: null;
+		this.moveAlreadyApplied = moveAlreadyApplied;
 		this.playerIndex = playerIndex;
-		this.legalMovesInThisState = legalMovesInThisState;
 		this.moveToNextState = moveToNextState;
-		this.stateString = board.getStateString();
+		this.positionHash = board.getRepetitionHash();
 		this.gameState = board.getGameState();
 		this.colorInCheck = board.getColorInCheck();
 		this.winnerIndex = board.getWinnerIndex();
@@ -90,16 +149,71 @@ public class HistoricalBoardState {
 		return moveToNextState;
 	}
 
+	/**
+	 * Gibt die Figurenstellung in diesem Zustand zurück. Ist sie nicht
+	 * gespeichert, wird sie ausgehend vom letzten Checkpoint durch Nachspielen
+	 * der Züge neu aufgebaut.
+	 *
+	 * @return Figuren, indiziert mit [Linie][Reihe]. Bei gespeicherten Stellungen
+	 *         wird das gespeicherte Array geteilt, es darf nicht verändert werden.
+	 */
 	public Piece[][] getPieceGrid() {
-		return pieceGrid;
+		if (pieceGrid != null) {
+			return pieceGrid;
+		}
+		HistoricalBoardState[] replay = new HistoricalBoardState[CHECKPOINT_INTERVAL];
+		int count = 0;
+		HistoricalBoardState checkpoint = previous;
+		while (checkpoint.pieceGrid == null) {
+			replay[count++] = checkpoint;
+			checkpoint = checkpoint.previous;
+		}
+		Piece[][] grid = new Piece[checkpoint.pieceGrid.length][];
+		for (int file = 0; file < grid.length; file++) {
+			grid[file] = checkpoint.pieceGrid[file].clone();
+		}
+		applyMoveToNextState(checkpoint, grid);
+		while (count > 0) {
+			applyMoveToNextState(replay[--count], grid);
+		}
+		return grid;
 	}
 
-	public List<Move> getLegalMovesInThisState() {
-		return legalMovesInThisState;
+	private static Piece capturedPiece(Board board, Move move) {
+		return switch (move.getType()) {
+			case CAPTURE, CAPTURE_PROMOTION -> board.getPiece(move.getTo());
+			case EN_PASSANT -> board.getPiece(move.getTo().getFile(), move.getFrom().getRank());
+			default -> null;
+		};
 	}
 
-	public String getStateString() {
-		return stateString;
+	private static void applyMoveToNextState(HistoricalBoardState state, Piece[][] grid) {
+		if (!state.moveAlreadyApplied) {
+			state.moveToNextState.applyTo(grid);
+		}
+	}
+
+	/**
+	 * @return die Figur, die der Zug aus diesem Zustand geschlagen hat, oder null
+	 */
+	public Piece getCapturedPiece() {
+		return capturedPiece;
+	}
+
+	/**
+	 * @return der Zustand direkt davor oder null, wenn dieser Zustand der erste
+	 *         bekannte ist
+	 */
+	public HistoricalBoardState getPrevious() {
+		return previous;
+	}
+
+	/**
+	 * @return Hash der Stellung für die Wiederholungsregel, siehe
+	 *         {@link Board#getRepetitionHash()}
+	 */
+	public long getPositionHash() {
+		return positionHash;
 	}
 
 	public GameState getGameState() {
@@ -115,14 +229,11 @@ public class HistoricalBoardState {
 	}
 
 	/**
-	 * Gibt zurück, ob dieser Zustand unvollständig ist. Unvollständige Zustände
-	 * entstehen, wenn der Zug bekannt ist, der diesen Zustand erzeugt, jedoch
-	 * nicht, welche Züge in diesem Zustand legal waren.
-	 * 
-	 * @return true genau dann, wenn keine legalen Züge bekannt sind
+	 * @return true, wenn die gespeicherte Stellung schon die nach dem Zug ist,
+	 *         siehe {@link #ofAppliedMove(Board, int, Move)}
 	 */
-	public boolean isIncomplete() {
-		return legalMovesInThisState == null;
+	public boolean isMoveAlreadyApplied() {
+		return moveAlreadyApplied;
 	}
 
 	@Override
@@ -134,15 +245,14 @@ public class HistoricalBoardState {
 				&& halfMoveClock == that.halfMoveClock && fullMoveClock == that.fullMoveClock
 				&& winnerIndex == that.winnerIndex && Objects.equals(castlingAvailability, that.castlingAvailability)
 				&& gameState == that.gameState && colorInCheck == that.colorInCheck
-				&& Objects.equals(stateString, that.stateString) && Objects.deepEquals(pieceGrid, that.pieceGrid)
-				&& Objects.equals(moveToNextState, that.moveToNextState)
-				&& Objects.equals(legalMovesInThisState, that.legalMovesInThisState);
+				&& positionHash == that.positionHash && Objects.deepEquals(getPieceGrid(), that.getPieceGrid())
+				&& Objects.equals(moveToNextState, that.moveToNextState);
 	}
 
 	@Override
 	public int hashCode() {
 		return Objects.hash(playerIndex, playerRemainingTime, castlingAvailability, halfMoveClock, fullMoveClock,
-				gameState, colorInCheck, winnerIndex, stateString, Arrays.deepHashCode(pieceGrid), moveToNextState,
-				legalMovesInThisState);
+				gameState, colorInCheck, winnerIndex, positionHash, Arrays.deepHashCode(getPieceGrid()),
+				moveToNextState);
 	}
 }
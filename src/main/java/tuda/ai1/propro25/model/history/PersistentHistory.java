@@ -0,0 +1,169 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model.history;
+
+import java.util.Arrays;
+
+/**
+ * Unveränderliche Liste von Spielzuständen, die beim Anhängen und Entfernen am
+ * Ende fast ihre gesamte Struktur mit der Vorgängerversion teilt (persistenter
+ * Vektor). Die Zustände liegen in einem Baum mit 32 Kindern pro Knoten, nur die
+ * letzten bis zu 32 Zustände in einem eigenen Array (tail). Anhängen und
+ * Entfernen kopieren dadurch höchstens einen Pfad von wenigen Knoten, Zugriff
+ * per Index kostet bei Partien unter 1024 Halbzügen zwei Arrayzugriffe.
+ * <p>
+ * So können beliebig viele Bretter dieselbe Historie in konstanter Zeit
+ * übernehmen und danach unabhängig voneinander weiterspielen, ohne sich
+ * gegenseitig zu beeinflussen. Da die Liste unveränderlich ist, darf sie ohne
+ * Synchronisation zwischen Threads weitergegeben werden.
+ */
+public final class PersistentHistory {
+
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+	private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+	/** Die leere Historie */
+	public static final PersistentHistory EMPTY = new PersistentHistory(0, BITS, EMPTY_NODE, new Object[0]);
+
+	private final int size;
+	private final int shift;
+	private final Object[] root;
+	private final Object[] tail;
+
+	private PersistentHistory(int size, int shift, Object[] root, Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * @return Anzahl der Zustände
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 *            Index des Zustands, 0 ist der älteste
+	 * @return der Zustand
+	 */
+	public HistoricalBoardState get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " außerhalb der Historie der Länge " + size);
+		}
+		return (HistoricalBoardState) leafFor(index)[index & MASK];
+	}
+
+	/**
+	 * @param state
+	 *            anzuhängender Zustand
+	 * @return neue Historie mit dem Zustand am Ende, diese Historie bleibt
+	 *         unverändert
+	 */
+	public PersistentHistory append(HistoricalBoardState state) {
+		if (size - tailOffset() < WIDTH) {
+			Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+			newTail[tail.length] = state;
+			return new PersistentHistory(size + 1, shift, root, newTail);
+		}
+		// Der volle tail wandert in den Baum
+		Object[] newRoot;
+		int newShift = shift;
+		if ((size >>> BITS) > (1 << shift)) {
+			newRoot = new Object[WIDTH];
+			newRoot[0] = root;
+			newRoot[1] = newPath(shift, tail);
+			newShift += BITS;
+		} else {
+			newRoot = pushTail(shift, root, tail);
+		}
+		return new PersistentHistory(size + 1, newShift, newRoot, new Object[]{state});
+	}
+
+	/**
+	 * @return neue Historie ohne den letzten Zustand, diese Historie bleibt
+	 *         unverändert
+	 */
+	public PersistentHistory dropLast() {
+		if (size == 0) {
+			throw new IllegalStateException("Die Historie ist leer!");
+		}
+		if (size == 1) {
+			return EMPTY;
+		}
+		if (size - tailOffset() > 1) {
+			return new PersistentHistory(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+		}
+		// Der tail wird leer, das letzte Blatt des Baums wird zum neuen tail
+		Object[] newTail = leafFor(size - 2);
+		Object[] newRoot = popTail(shift, root);
+		int newShift = shift;
+		if (newRoot == null) {
+			newRoot = EMPTY_NODE;
+		}
+		if (shift > BITS && newRoot[1] == null) {
+			newRoot = (Object[]) newRoot[0];
+			newShift -= BITS;
+		}
+		return new PersistentHistory(size - 1, newShift, newRoot, newTail);
+	}
+
+	private int tailOffset() {
+		return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+	}
+
+	private Object[] leafFor(int index) {
+		if (index >= tailOffset()) {
+			return tail;
+		}
+		Object[] node = root;
+		for (int level = shift; level > 0; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return node;
+	}
+
+	private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+		int subIndex = ((size - 1) >>> level) & MASK;
+		Object[] result = parent.clone();
+		Object[] inserted;
+		if (level == BITS) {
+			inserted = tailNode;
+		} else {
+			Object[] child = (Object[]) parent[subIndex];
+			inserted = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+		}
+		result[subIndex] = inserted;
+		return result;
+	}
+
+	private Object[] popTail(int level, Object[] node) {
+		int subIndex = ((size - 2) >>> level) & MASK;
+		if (level > BITS) {
+			Object[] newChild = popTail(level - BITS, (Object[]) node[subIndex]);
+			if (newChild == null && subIndex == 0) {
+				return null;
+			}
+			Object[] result = node.clone();
+			result[subIndex] = newChild;
+			return result;
+		} else if (subIndex == 0) {
+			return null;
+		}
+		Object[] result = node.clone();
+		result[subIndex] = null;
+		return result;
+	}
+
+	private static Object[] newPath(int level, Object[] node) {
+		if (level == 0) {
+			return node;
+		}
+		Object[] path = new Object[WIDTH];
+		path[0] = newPath(level - BITS, node);
+		return path;
+	}
+}
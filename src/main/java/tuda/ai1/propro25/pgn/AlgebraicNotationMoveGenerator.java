@@ -3,11 +3,14 @@ package tuda.ai1.propro25.pgn;
 
 import java.io.PrintWriter;
 import java.util.List;
-import java.util.Objects;
+import tuda.ai1.propro25.model.Attacks;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Coordinate;
 import tuda.ai1.propro25.model.Move;
 import tuda.ai1.propro25.model.MoveType;
 import tuda.ai1.propro25.model.history.HistoricalBoardState;
 import tuda.ai1.propro25.model.piece.Pawn;
+import tuda.ai1.propro25.model.piece.Piece;
 import tuda.ai1.propro25.pgn.move.Checking;
 
 /**
@@ -25,7 +28,7 @@ public class AlgebraicNotationMoveGenerator {
 	 *            ob dieser Zug den gegnerischen König ins Schach stellt
 	 */
 	public static void writeHalfMove(HistoricalBoardState moveState, Checking checking, PrintWriter output) {
-		if (moveState.isIncomplete()) {
+		if (moveState.isMoveAlreadyApplied()) {
 			// Entsteht, wenn das Spiel aus FEN rekonstruiert wird und der erste Zug ein
 			// Double-Pawn ist,
 			// das ein En-Passant ermöglicht.
@@ -35,6 +38,40 @@ public class AlgebraicNotationMoveGenerator {
 		}
 
 		Move move = moveState.getMoveToNextState();
+		writeMove(move, findCandidateOrigins(moveState.getPieceGrid(), move), output);
+		writeChecking(checking, output);
+	}
+
+	/**
+	 * Schreibt einen einzelnen Zug ohne Schach-Suffix. Anders als
+	 * {@link #writeHalfMove(HistoricalBoardState, Checking, PrintWriter)} braucht
+	 * es dafür nur die Stellung vor dem Zug, so dass beim Export mehrerer Züge ein
+	 * einziges Figuren-Array mitgeführt werden kann.
+	 *
+	 * @param move
+	 *            der Zug
+	 * @param pieceGrid
+	 *            die Figuren vor dem Zug, indiziert mit [Linie][Reihe]
+	 */
+	static void writeMove(Move move, Piece[][] pieceGrid, PrintWriter output) {
+		writeMove(move, findCandidateOrigins(pieceGrid, move), output);
+	}
+
+	/**
+	 * Schreibt das Suffix für Schach bzw. Schachmatt
+	 *
+	 * @param checking
+	 *            ob der Zug den gegnerischen König ins Schach stellt
+	 */
+	static void writeChecking(Checking checking, PrintWriter output) {
+		if (checking == Checking.CHECKMATE) {
+			output.print('#');
+		} else if (checking == Checking.CHECK) {
+			output.print('+');
+		}
+	}
+
+	private static void writeMove(Move move, List<Coordinate> candidates, PrintWriter output) {
 		if (move.getType() == MoveType.CASTLING_KINGSIDE) {
 			output.print("O-O");
 			return;
@@ -51,28 +88,21 @@ public class AlgebraicNotationMoveGenerator {
 				|| move.getType() == MoveType.EN_PASSANT;
 		boolean pawnCapture = capture && move.getPiece() instanceof Pawn;
 
-		List<Move> candidates = moveState.getLegalMovesInThisState().stream()
-				// wir werden sowieso das Figurensymbol (außer beim Bauern) und das Zielfeld
-				// angeben
-				.filter(candidate -> candidate.getPiece().equals(move.getPiece()))
-				.filter(candidate -> candidate.getTo().equals(move.getTo()))
-				.filter(candidate -> Objects.equals(candidate.getPromotionPiece(), move.getPromotionPiece())).toList();
-
 		// wenn ein Bauer schlägt, muss immer mind. die Startspalte angegeben werden
 		if (candidates.size() > 1 || pawnCapture) {
 			// Es reicht nicht aus, nur das Figurensymbol und das Zielfeld anzugeben.
 
 			// Wir schauen, ob die Angabe der Startspalte ausreicht
-			List<Move> candidatesFile = candidates.stream()
-					.filter(candidate -> candidate.getFrom().getFile() == move.getFrom().getFile()).toList();
+			List<Coordinate> candidatesFile = candidates.stream()
+					.filter(candidate -> candidate.getFile() == move.getFrom().getFile()).toList();
 
 			if (candidatesFile.size() == 1) {
 				// Angabe der Startspalte reicht
 				output.print((char) (move.getFrom().getFile() + 'a'));
 			} else {
 				// Reicht die Angabe der Startspalte nicht, probieren wir es mit der Startreihen
-				List<Move> candidatesRank = candidates.stream()
-						.filter(candidate -> candidate.getFrom().getRank() == move.getFrom().getRank()).toList();
+				List<Coordinate> candidatesRank = candidates.stream()
+						.filter(candidate -> candidate.getRank() == move.getFrom().getRank()).toList();
 
 				// wenn bei einem Bauern-Schlag die Spalte nicht ausreicht, wird direkt das
 				// ganze Startfeld angegeben
@@ -96,12 +126,34 @@ public class AlgebraicNotationMoveGenerator {
 			output.print('=');
 			output.print(move.getPromotionPiece().getAlgebraicNotationSymbol());
 		}
+	}
 
-		if (checking == Checking.CHECKMATE) {
-			output.print('#');
-		} else if (checking == Checking.CHECK) {
-			output.print('+');
+	/**
+	 * Bestimmt die Startfelder aller Figuren, die denselben Zug auf das Zielfeld
+	 * machen könnten. Die Figuren werden über {@link Attacks#findOrigins} gesucht,
+	 * gefesselte Figuren werden aussortiert.
+	 *
+	 * @param pieceGrid
+	 *            die Figuren vor dem Zug
+	 * @param move
+	 *            der Zug
+	 * @return die Startfelder, inklusive dem des Zugs selbst
+	 */
+	private static List<Coordinate> findCandidateOrigins(Piece[][] pieceGrid, Move move) {
+		if (move.getPiece() instanceof Pawn) {
+			// Bauernzüge ohne Schlagen sind immer eindeutig, beim Schlagen wird die
+			// Startspalte sowieso angegeben
+			return List.of(move.getFrom());
+		}
+		List<Coordinate> origins = Attacks.findOrigins(pieceGrid, move.getPiece(), move.getTo().getFile(),
+				move.getTo().getRank());
+		if (origins.size() < 2) {
+			return origins;
 		}
+		// gefesselte Figuren kommen nicht in Frage
+		return origins.stream().filter(
+				from -> from.equals(move.getFrom()) || !Attacks.leavesKingAttacked(pieceGrid, from, move.getTo()))
+				.toList();
 	}
 
 }
@@ -0,0 +1,126 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+
+/**
+ * Liest Spiele, die mit dem {@link BinaryGameWriter} geschrieben wurden. Jeder
+ * Halbzug wird über seinen Index direkt aus den legalen Zügen der Stellung
+ * gewählt, es muss also weder SAN geparst noch ein Zug gesucht werden.
+ */
+public class BinaryGameReader implements Closeable {
+
+	private static final GameTermination[] TERMINATIONS = GameTermination.values();
+
+	private final DataInputStream input;
+	private final GameReconstructor reconstructor;
+
+	/**
+	 * Ein gelesenes Spiel
+	 *
+	 * @param tags
+	 *            die Tags in der gespeicherten Reihenfolge
+	 * @param board
+	 *            das Brett nach allen Zügen, mit dem gespeicherten Ergebnis
+	 */
+	public record Game(Map<String, String> tags, Board board) {
+
+		/**
+		 * @return das Spiel mit Name und Datum aus den Tags Event und Date
+		 */
+		public HistoricalGame toHistoricalGame() {
+			String name = tags.getOrDefault("Event", "?");
+			LocalDateTime time;
+			try {
+				time = LocalDate.parse(tags.getOrDefault("Date", ""), DateTimeFormatter.ofPattern("yyyy.MM.dd"))
+						.atStartOfDay();
+			} catch (DateTimeParseException e) {
+				time = LocalDateTime.now();
+			}
+			return new HistoricalGame(name, time, board);
+		}
+	}
+
+	/**
+	 * Erstellt einen Reader und prüft die Kennung des Formats
+	 *
+	 * @param input
+	 *            der Strom mit den Binärdaten
+	 * @param whiteRemainingTime
+	 *            Restzeit für Weiß in den gelesenen Spielen
+	 * @param blackRemainingTime
+	 *            Restzeit für Schwarz in den gelesenen Spielen
+	 * @throws IOException
+	 *             falls nicht gelesen werden kann oder der Strom nicht im
+	 *             Binärformat ist
+	 */
+	public BinaryGameReader(InputStream input, int whiteRemainingTime, int blackRemainingTime) throws IOException {
+		this.input = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+		this.reconstructor = new GameReconstructor(whiteRemainingTime, blackRemainingTime);
+		if (this.input.readInt() != BinaryGameWriter.MAGIC) {
+			throw new IOException("Die Daten sind nicht im binären Spielformat");
+		}
+	}
+
+	/**
+	 * Liest das nächste Spiel. Schlägt das Nachspielen fehl, steht der Reader
+	 * trotzdem am Anfang des nächsten Spiels.
+	 *
+	 * @return das Spiel oder null, falls es keine weiteren Spiele gibt
+	 * @throws IOException
+	 *             falls nicht gelesen werden kann oder die Daten unvollständig
+	 *             sind
+	 * @throws GameReconstructionException
+	 *             falls die Tags keine gültige Startstellung ergeben oder ein
+	 *             Zugindex ungültig ist
+	 */
+	public Game readGame() throws IOException, GameReconstructionException {
+		int first = input.read();
+		if (first < 0) {
+			return null;
+		}
+		int tagCount = first << 8 | input.readUnsignedByte();
+		Map<String, String> tags = new LinkedHashMap<>();
+		for (int i = 0; i < tagCount; i++) {
+			tags.put(input.readUTF(), input.readUTF());
+		}
+		int termination = input.readUnsignedByte();
+		byte[] plies = new byte[input.readUnsignedShort()];
+		input.readFully(plies);
+
+		if (termination >= TERMINATIONS.length) {
+			throw new GameReconstructionException("Unbekanntes Spielergebnis " + termination);
+		}
+		Board board = reconstructor.createInitialBoard(tags);
+		for (int ply = 0; ply < plies.length; ply++) {
+			Move move = MoveCodes.moveAt(board, plies[ply] & 0xFF);
+			if (move == null) {
+				throw new GameReconstructionException(
+						"Halbzug " + (ply + 1) + ": Index " + (plies[ply] & 0xFF) + " ist kein legaler Zug");
+			}
+			board.replayMove(move);
+		}
+		board.finishReplay();
+		reconstructor.verifyGameState(board, TERMINATIONS[termination]);
+
+		return new Game(tags, board);
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+}
@@ -0,0 +1,170 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.history.HistoricalBoardState;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+
+/**
+ * Schreibt Spiele in ein kompaktes Binärformat, das mit dem
+ * {@link BinaryGameReader} wieder gelesen werden kann. Anders als beim
+ * {@link PGNExporter} muss dafür keine SAN erzeugt werden.
+ * <p>
+ * Nach einer Kennung am Anfang des Stroms folgt jedes Spiel als:
+ * <ul>
+ * <li>Anzahl der Tags als 2 Bytes, dann Name und Wert jedes Tags in modified
+ * UTF-8 wie bei {@link DataOutputStream#writeUTF(String)}. Eine abweichende
+ * Startstellung steht wie in PGN in den Tags SetUp und FEN.</li>
+ * <li>{@link GameTermination} als 1 Byte</li>
+ * <li>Anzahl der Halbzüge als 2 Bytes</li>
+ * <li>pro Halbzug 1 Byte: der Index des Zugs unter allen legalen Zügen der
+ * Stellung, sortiert nach Start- und Zielfeld, siehe {@link MoveCodes}. Da es
+ * nie mehr als 218 legale Züge gibt, reicht ein Byte immer aus.</li>
+ * </ul>
+ */
+public class BinaryGameWriter implements Closeable {
+
+	static final int MAGIC = 0x50504247; // "PPBG"
+
+	private final DataOutputStream output;
+	private final GameReconstructor reconstructor = new GameReconstructor(0, 0);
+
+	/**
+	 * Erstellt einen Writer und schreibt die Kennung des Formats
+	 *
+	 * @param output
+	 *            der Strom, in den die Spiele geschrieben werden
+	 * @throws IOException
+	 *             falls nicht geschrieben werden kann
+	 */
+	public BinaryGameWriter(OutputStream output) throws IOException {
+		this.output = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+		this.output.writeInt(MAGIC);
+	}
+
+	/**
+	 * Schreibt ein Spiel mit denselben Tags, die der {@link PGNExporter} erzeugen
+	 * würde
+	 *
+	 * @param game
+	 *            das zu schreibende Spiel
+	 * @throws IOException
+	 *             falls nicht geschrieben werden kann
+	 */
+	public void writeGame(HistoricalGame game) throws IOException {
+		writeGame(PGNExporter.createTags(game), game.board());
+	}
+
+	/**
+	 * Schreibt ein Spiel. Das Ergebnis wird aus dem Spielzustand des Bretts
+	 * übernommen, ein Result-Tag muss dazu passen.
+	 *
+	 * @param tags
+	 *            die Tags des Spiels, mindestens White und Black sowie SetUp und
+	 *            FEN, falls das Spiel nicht in der Grundstellung begann
+	 * @param board
+	 *            das Brett mit allen Zügen des Spiels in der Historie
+	 * @throws IOException
+	 *             falls nicht geschrieben werden kann
+	 * @throws IllegalArgumentException
+	 *             falls die Tags nicht zum Brett passen oder das Spiel mehr als
+	 *             65535 Halbzüge hat
+	 */
+	public void writeGame(Map<String, String> tags, Board board) throws IOException {
+		Board replay;
+		try {
+			replay = reconstructor.createInitialBoard(tags);
+		} catch (GameReconstructionException e) {
+			throw new IllegalArgumentException("Aus den Tags kann keine Startstellung erstellt werden", e);
+		}
+
+		List<Move> moves = new ArrayList<>();
+		for (HistoricalBoardState state : board.getHistory()) {
+			// der Zustand aus dem En-Passant-Feld eines FEN entsteht auch beim Lesen
+			if (!state.isMoveAlreadyApplied()) {
+				moves.add(state.getMoveToNextState());
+			}
+		}
+		if (moves.size() > 0xFFFF) {
+			throw new IllegalArgumentException("Ein Spiel darf höchstens 65535 Halbzüge haben");
+		}
+
+		if (tags.size() > 0xFFFF) {
+			throw new IllegalArgumentException("Ein Spiel darf höchstens 65535 Tags haben");
+		}
+		output.writeShort(tags.size());
+		for (Map.Entry<String, String> tag : tags.entrySet()) {
+			output.writeUTF(tag.getKey());
+			output.writeUTF(tag.getValue());
+		}
+		output.writeByte(PGNExporter.determineTermination(board).ordinal());
+		output.writeShort(moves.size());
+		for (Move move : moves) {
+			int index = MoveCodes.indexOf(replay, move);
+			output.writeByte(index);
+			replay.replayMove(MoveCodes.moveAt(replay, index));
+		}
+	}
+
+	/**
+	 * Rekonstruiert PGN-Spiele parallel und schreibt sie in das Binärformat.
+	 * Spiele, die nicht rekonstruiert werden können, werden übersprungen.
+	 *
+	 * @param games
+	 *            die geparsten Spiele, z.B. aus {@link PGNParser#stream}
+	 * @param output
+	 *            Ziel der Binärdaten, wird nicht geschlossen
+	 * @param threads
+	 *            Anzahl der Threads, 0 für alle Kerne
+	 * @return Kennzahlen der Rekonstruktion, fehlgeschlagene Spiele fehlen in der
+	 *         Ausgabe
+	 * @throws IOException
+	 *             falls nicht geschrieben werden kann
+	 */
+	public static BulkGameReconstructor.Statistics convert(Stream<PGNGame> games, OutputStream output, int threads)
+			throws IOException {
+		BinaryGameWriter writer = new BinaryGameWriter(output);
+		BulkGameReconstructor.Statistics statistics;
+		try (BulkGameReconstructor reconstructor = new BulkGameReconstructor(threads, 0, 0)) {
+			statistics = reconstructor.reconstructAll(games, result -> {
+				if (result.isSuccess()) {
+					try {
+						writer.writeGame(result.game().tags(), result.board());
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+		return statistics;
+	}
+
+	/**
+	 * Schreibt alle gepufferten Daten in den Strom
+	 *
+	 * @throws IOException
+	 *             falls nicht geschrieben werden kann
+	 */
+	public void flush() throws IOException {
+		output.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -0,0 +1,161 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import tuda.ai1.propro25.model.Board;
+
+/**
+ * Rekonstruiert viele Spiele parallel, z.B. beim Import oder Prüfen einer ganzen
+ * PGN-Datenbank. Die Spiele werden auf einem {@link ForkJoinPool}
+ * rekonstruiert, dessen Threads sich gegenseitig Arbeit abnehmen, wenn einzelne
+ * Spiele länger dauern.
+ * <p>
+ * Es sind nie mehr als {@code 4 * threads} Spiele gleichzeitig in Arbeit: Ist
+ * das Fenster voll, wird erst auf das älteste Spiel gewartet, bevor das nächste
+ * aus dem Eingabestrom gelesen wird. So bleibt der Speicherbedarf auch bei sehr
+ * großen Datenbanken begrenzt und die Ergebnisse kommen in derselben
+ * Reihenfolge wie die Eingabe zurück.
+ */
+public class BulkGameReconstructor implements AutoCloseable {
+
+	private static final int TASKS_PER_THREAD = 4;
+
+	private final GameReconstructor reconstructor;
+	private final ForkJoinPool pool;
+	private final int maxInFlight;
+
+	/**
+	 * Ergebnis der Rekonstruktion eines Spiels
+	 *
+	 * @param index
+	 *            Position des Spiels im Eingabestrom, ab 0
+	 * @param game
+	 *            das geparste Spiel
+	 * @param board
+	 *            das rekonstruierte Brett oder null, falls es einen Fehler gab
+	 * @param error
+	 *            der Fehler oder null, falls das Spiel rekonstruiert werden
+	 *            konnte
+	 */
+	public record Result(long index, PGNGame game, Board board, GameReconstructionException error) {
+
+		/**
+		 * @return ob das Spiel rekonstruiert werden konnte
+		 */
+		public boolean isSuccess() {
+			return error == null;
+		}
+	}
+
+	/**
+	 * Kennzahlen eines Durchlaufs
+	 *
+	 * @param games
+	 *            Anzahl aller Spiele
+	 * @param failedGames
+	 *            Anzahl der Spiele, die nicht rekonstruiert werden konnten
+	 * @param plies
+	 *            Anzahl der Halbzüge aller erfolgreich rekonstruierten Spiele
+	 * @param elapsedNanos
+	 *            Dauer des Durchlaufs in Nanosekunden
+	 */
+	public record Statistics(long games, long failedGames, long plies, long elapsedNanos) {
+
+		/**
+		 * @return rekonstruierte Spiele pro Sekunde
+		 */
+		public double gamesPerSecond() {
+			return perSecond(games);
+		}
+
+		/**
+		 * @return rekonstruierte Halbzüge pro Sekunde
+		 */
+		public double pliesPerSecond() {
+			return perSecond(plies);
+		}
+
+		private double perSecond(long count) {
+			return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+		}
+	}
+
+	/**
+	 * @param threads
+	 *            Anzahl der Threads, 0 für alle Kerne
+	 * @param whiteRemainingTime
+	 *            Restzeit für Weiß in den rekonstruierten Spielen
+	 * @param blackRemainingTime
+	 *            Restzeit für Schwarz in den rekonstruierten Spielen
+	 */
+	public BulkGameReconstructor(int threads, int whiteRemainingTime, int blackRemainingTime) {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		this.reconstructor = new GameReconstructor(whiteRemainingTime, blackRemainingTime);
+		this.pool = new ForkJoinPool(threads);
+		this.maxInFlight = threads * TASKS_PER_THREAD;
+	}
+
+	/**
+	 * Rekonstruiert alle Spiele des Stroms
+	 *
+	 * @param games
+	 *            die Spiele, werden erst gelesen, wenn im Fenster Platz ist
+	 * @param consumer
+	 *            bekommt die Ergebnisse in der Reihenfolge der Eingabe, wird auf
+	 *            dem aufrufenden Thread ausgeführt
+	 * @return Kennzahlen des Durchlaufs
+	 */
+	public Statistics reconstructAll(Stream<PGNGame> games, Consumer<Result> consumer) {
+		long start = System.nanoTime();
+		long count = 0;
+		long failed = 0;
+		long plies = 0;
+
+		ArrayDeque<ForkJoinTask<Result>> inFlight = new ArrayDeque<>(maxInFlight);
+		Iterator<PGNGame> iterator = games.iterator();
+		while (iterator.hasNext() || !inFlight.isEmpty()) {
+			if (iterator.hasNext() && inFlight.size() < maxInFlight) {
+				PGNGame game = iterator.next();
+				long index = count++;
+				inFlight.add(pool.submit(() -> reconstruct(index, game)));
+				continue;
+			}
+
+			Result result = inFlight.poll().join();
+			if (result.isSuccess()) {
+				plies += result.board().getHistory().size();
+			} else {
+				failed++;
+			}
+			consumer.accept(result);
+		}
+
+		return new Statistics(count, failed, plies, System.nanoTime() - start);
+	}
+
+	private Result reconstruct(long index, PGNGame game) {
+		try {
+			return new Result(index, game, reconstructor.reconstructGame(game), null);
+		} catch (GameReconstructionException e) {
+			return new Result(index, game, null, e);
+		} catch (RuntimeException e) {
+			return new Result(index, game, null,
+					new GameReconstructionException("Unerwarteter Fehler beim Rekonstruieren: " + e, e));
+		}
+	}
+
+	/**
+	 * Beendet die Threads des Pools
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,136 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+
+/**
+ * Exportiert beliebig viele Spiele nacheinander in eine PGN-Datei. Anders als
+ * beim Sammeln in einem {@link java.io.StringWriter} wird jedes Spiel direkt in
+ * einen Puffer fester Größe geschrieben, der Speicherbedarf hängt also nicht
+ * von der Anzahl der Spiele ab.
+ * <p>
+ * Wie bei einem {@link PrintWriter} werfen die einzelnen Spiele keine
+ * IOException, Schreibfehler werden spätestens von {@link #flush()} bzw.
+ * {@link #close()} gemeldet. Ein BulkPGNExporter ist nicht threadsicher.
+ */
+public class BulkPGNExporter implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final PrintWriter output;
+	private final PGNExporter exporter;
+	private long exportedGames;
+
+	/**
+	 * Erstellt einen Exporter, der gepuffert in den Writer schreibt
+	 *
+	 * @param output
+	 *            der Writer, in den die Spiele geschrieben werden
+	 */
+	public BulkPGNExporter(Writer output) {
+		this.output = new PrintWriter(new BufferedWriter(output, BUFFER_SIZE));
+		this.exporter = new PGNExporter(this.output);
+	}
+
+	/**
+	 * Öffnet eine Datei für den Export. Eine bestehende Datei wird überschrieben.
+	 *
+	 * @param file
+	 *            die PGN-Datei
+	 * @param gzip
+	 *            ob die Datei mit GZIP komprimiert werden soll
+	 * @return der Exporter, der geschlossen werden muss
+	 * @throws IOException
+	 *             falls die Datei nicht geöffnet werden kann
+	 */
+	public static BulkPGNExporter open(Path file, boolean gzip) throws IOException {
+		OutputStream stream = Files.newOutputStream(file);
+		try {
+			if (gzip) {
+				stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+			}
+		} catch (IOException e) {
+			stream.close();
+			throw e;
+		}
+		return new BulkPGNExporter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Exportiert ein Spiel wie {@link PGNExporter#exportGame(HistoricalGame)},
+	 * gefolgt von einer Leerzeile
+	 *
+	 * @param game
+	 *            das zu exportierende Spiel
+	 */
+	public void exportGame(HistoricalGame game) {
+		exporter.exportGame(game);
+		output.println();
+		output.println();
+		exportedGames++;
+	}
+
+	/**
+	 * Exportiert alle Spiele des Stroms in seiner Reihenfolge und schreibt danach
+	 * den Puffer. Die Spiele werden einzeln aus dem Strom geholt, so dass er z.B.
+	 * direkt aus einer {@link BulkGameReconstructor Rekonstruktion} stammen kann.
+	 *
+	 * @param games
+	 *            die zu exportierenden Spiele
+	 * @return die Anzahl der exportierten Spiele
+	 * @throws IOException
+	 *             falls nicht geschrieben werden kann
+	 */
+	public long exportAll(Stream<HistoricalGame> games) throws IOException {
+		long count = 0;
+		for (Iterator<HistoricalGame> iterator = games.iterator(); iterator.hasNext();) {
+			exportGame(iterator.next());
+			count++;
+		}
+		flush();
+		return count;
+	}
+
+	/**
+	 * @return die Anzahl der bisher exportierten Spiele
+	 */
+	public long getExportedGames() {
+		return exportedGames;
+	}
+
+	/**
+	 * Schreibt alle gepufferten Spiele
+	 *
+	 * @throws IOException
+	 *             falls seit dem Öffnen ein Schreibfehler aufgetreten ist
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (output.checkError()) {
+			throw new IOException("Die PGN-Datei konnte nicht geschrieben werden");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		boolean error = output.checkError();
+		output.close();
+		if (error) {
+			throw new IOException("Die PGN-Datei konnte nicht geschrieben werden");
+		}
+	}
+}
@@ -6,6 +6,8 @@ import java.util.Map;
 import java.util.Objects;
 import tuda.ai1.propro25.fen.FENFormatException;
 import tuda.ai1.propro25.model.*;
+import tuda.ai1.propro25.model.history.GameTree;
+import tuda.ai1.propro25.model.piece.*;
 import tuda.ai1.propro25.pgn.move.CastlingPGNMove;
 import tuda.ai1.propro25.pgn.move.Checking;
 import tuda.ai1.propro25.pgn.move.NormalPGNMove;
@@ -55,11 +57,12 @@ public class GameReconstructor {
 	 * Siehe {@link GameReconstructor#reconstructGame(String)}
 	 */
 	public Board reconstructGame(PGNGame game) throws GameReconstructionException {
-		Board board = createInitialBoard(game);
+		Board board = createInitialBoard(game.tags());
 
 		for (PGNMove move : game.moves()) {
 			simulateMove(board, move);
 		}
+		finishLine(board, game.moves());
 
 		GameTermination termination = determineTermination(game);
 		verifyGameState(board, termination);
@@ -68,8 +71,71 @@ public class GameReconstructor {
 	}
 
 	/**
-	 * Simuliert einen einzelnen Zug, indem er bestimmt und auf dem Brett ausgeführt
-	 * wird.
+	 * Rekonstruiert das PGN kodierte Spiel samt aller Varianten als Spielbaum
+	 *
+	 * @param game
+	 *            das geparste Spiel
+	 * @return der Spielbaum, dessen Hauptvariante den Zügen des Spiels entspricht
+	 * @throws GameReconstructionException
+	 *             falls die Hauptvariante oder eine der Varianten nicht valide ist
+	 */
+	public GameTree reconstructTree(PGNGame game) throws GameReconstructionException {
+		Board board = createInitialBoard(game.tags());
+		GameTree tree = new GameTree(board.snapshot());
+
+		addLine(board, tree.getRoot(), game.moves(), game.variations());
+
+		verifyGameState(board, determineTermination(game));
+
+		return tree;
+	}
+
+	/**
+	 * Spielt eine Zugfolge auf dem Brett und hängt sie an den Knoten an. Varianten
+	 * werden dabei nach dem ersetzten Zug aus der Stellung davor gespielt und danach
+	 * wieder zurückgenommen, sodass alle Varianten auf demselben Brett
+	 * rekonstruiert werden. Die Züge der Zugfolge selbst bleiben auf dem Brett.
+	 *
+	 * @param board
+	 *            das Simulationsbrett in der Stellung des Knotens
+	 * @param node
+	 *            der Knoten, an den die Zugfolge angehängt wird
+	 * @param moves
+	 *            die Züge der Zugfolge
+	 * @param variations
+	 *            die Varianten zur Zugfolge, nach moveIndex sortiert
+	 * @throws GameReconstructionException
+	 *             falls ein Zug nicht durchgeführt werden kann
+	 */
+	private void addLine(Board board, GameTree.Node node, List<PGNMove> moves, List<PGNVariation> variations)
+			throws GameReconstructionException {
+		int nextVariation = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			simulateMove(board, moves.get(i));
+			// der Zug der Zugfolge wird zuerst angehängt und ist damit die Hauptvariante
+			GameTree.Node next = node.addMove(board.getLastMove());
+
+			if (nextVariation < variations.size() && variations.get(nextVariation).moveIndex() == i) {
+				board.undoLastMove();
+				while (nextVariation < variations.size() && variations.get(nextVariation).moveIndex() == i) {
+					PGNVariation variation = variations.get(nextVariation++);
+					addLine(board, node, variation.moves(), variation.variations());
+					for (int j = 0; j < variation.moves().size(); j++) {
+						board.undoLastMove();
+					}
+				}
+				board.replayMove(next.getMove());
+			}
+
+			node = next;
+		}
+		finishLine(board, moves);
+	}
+
+	/**
+	 * Simuliert einen einzelnen Zug, indem er bestimmt und auf dem Brett
+	 * nachgespielt wird. Matt und Patt werden dabei noch nicht erkannt, siehe
+	 * {@link #finishLine(Board, List)}.
 	 * 
 	 * @param board
 	 *            das Simulationsbrett
@@ -102,7 +168,7 @@ public class GameReconstructor {
 		Move candidate = candidates.get(0);
 
 		try {
-			board.makeMove(candidate);
+			board.replayMove(candidate);
 		} catch (IllegalStateException e) {
 			throw new GameReconstructionException("Der Zug '" + incomplete
 					+ "' ist zwar eindeutig, ist in diesem Zustand aber nicht erlaubt: " + e.getMessage(), e);
@@ -112,15 +178,36 @@ public class GameReconstructor {
 			throw new GameReconstructionException(
 					"Das Schachsetzen des PGN Zugs stimmt nicht mit dem tatsächlichen überein");
 		}
+	}
 
-		if ((incomplete.checking() == Checking.CHECKMATE) != (board.getGameState() == GameState.END_CHECKMATE)) {
-			throw new GameReconstructionException(
-					"Das Schachmattsetzen des PGN Zugs stimmt nicht mit dem tatsächlichen überein");
+	/**
+	 * Erkennt nach dem letzten Zug einer Zugfolge Matt oder Patt und prüft, ob nur
+	 * der letzte Zug als Schachmatt angegeben ist
+	 *
+	 * @param board
+	 *            das Simulationsbrett nach dem letzten Zug
+	 * @param moves
+	 *            die nachgespielte Zugfolge
+	 * @throws GameReconstructionException
+	 *             falls das Schachmattsetzen nicht mit dem tatsächlichen
+	 *             übereinstimmt
+	 */
+	private void finishLine(Board board, List<PGNMove> moves) throws GameReconstructionException {
+		board.finishReplay();
+		for (int i = 0; i < moves.size(); i++) {
+			boolean mateExpected = moves.get(i).checking() == Checking.CHECKMATE;
+			boolean mate = i == moves.size() - 1 && board.getGameState() == GameState.END_CHECKMATE;
+			if (mateExpected != mate) {
+				throw new GameReconstructionException(
+						"Das Schachmattsetzen des PGN Zugs stimmt nicht mit dem tatsächlichen überein");
+			}
 		}
 	}
 
 	/**
-	 * Findet alle Zug-Kandidaten, die auf die nicht-Rochade passen.
+	 * Findet alle Zug-Kandidaten, die auf die nicht-Rochade passen. Statt alle
+	 * legalen Züge zu berechnen, werden nur die Figuren der angegebenen Art
+	 * betrachtet, die das Zielfeld erreichen können.
 	 * 
 	 * @param board
 	 *            das Simulationsbrett
@@ -128,10 +215,9 @@ public class GameReconstructor {
 	 *            der unvollständige PGN Zug
 	 * @return alle Züge, die gemäß dem PGN Zug in diesem Zustand möglich sind
 	 */
-	private List<Move> findMoveCandidates(Board board, NormalPGNMove incomplete) {
-		return board.findAllLegalMoves().stream()
-				.filter(move -> incomplete.piece() == move.getPiece().getAlgebraicNotationSymbol())
-				.filter(move -> move.getTo().equals(incomplete.to()))
+	private List<Move> findMoveCandidates(Board board, NormalPGNMove incomplete) throws GameReconstructionException {
+		Piece piece = createPiece(incomplete.piece(), board.getCurrentPlayer().getColor());
+		return board.findLegalMovesTo(piece, incomplete.to()).stream()
 				// Ist die Spalte/Reihe -1, dann filtern wir nicht danach.
 				.filter(move -> incomplete.fromFile() == -1 || move.getFrom().getFile() == incomplete.fromFile())
 				.filter(move -> incomplete.fromRank() == -1 || move.getFrom().getRank() == incomplete.fromRank())
@@ -150,26 +236,46 @@ public class GameReconstructor {
 	 * @return alle Rochaden, die gemäß dem PGN Zug in diesem Zustand möglich sind
 	 */
 	private List<Move> findCastlingCandidates(Board board, CastlingPGNMove incomplete) {
-		return board.findAllLegalMoves().stream()
-				.filter(move -> (incomplete.kingSide() && move.getType() == MoveType.CASTLING_KINGSIDE)
-						|| (!incomplete.kingSide() && move.getType() == MoveType.CASTLING_QUEENSIDE))
+		Color color = board.getCurrentPlayer().getColor();
+		Coordinate kingTarget = new Coordinate(incomplete.kingSide() ? 6 : 2, color == Color.WHITE ? 0 : 7);
+		MoveType type = incomplete.kingSide() ? MoveType.CASTLING_KINGSIDE : MoveType.CASTLING_QUEENSIDE;
+		return board.findLegalMovesTo(new King(color), kingTarget).stream().filter(move -> move.getType() == type)
 				.toList();
 	}
 
+	/**
+	 * @param symbol
+	 *            Figurensymbol aus dem PGN Zug, 'P' für Bauern
+	 * @param color
+	 *            Farbe der Figur
+	 * @return die passende Figur
+	 * @throws GameReconstructionException
+	 *             falls das Symbol keine Figur bezeichnet
+	 */
+	private Piece createPiece(char symbol, Color color) throws GameReconstructionException {
+		return switch (symbol) {
+			case 'P' -> new Pawn(color);
+			case 'N' -> new Knight(color);
+			case 'B' -> new Bishop(color);
+			case 'R' -> new Rook(color);
+			case 'Q' -> new Queen(color);
+			case 'K' -> new King(color);
+			default -> throw new GameReconstructionException("Unbekanntes Figurensymbol: " + symbol);
+		};
+	}
+
 	/**
 	 * Erstellt den Initialzustand des Bretts. Entweder ist es das Standardbrett
 	 * oder mit einer speziellen FEN-Konfiguration initialisiert, wenn es so in den
 	 * Tags angegeben ist.
 	 * 
-	 * @param game
-	 *            das PGN Spiel, für das das Brett erstellt werden soll
+	 * @param tags
+	 *            die Tags des Spiels, für das das Brett erstellt werden soll
 	 * @return das Brett in dem passenden Startzustand
 	 * @throws GameReconstructionException
 	 *             falls die angegebene FEN fehlerhaft ist
 	 */
-	private Board createInitialBoard(PGNGame game) throws GameReconstructionException {
-		Map<String, String> tags = game.tags();
-
+	Board createInitialBoard(Map<String, String> tags) throws GameReconstructionException {
 		Player[] players = createPlayers(tags);
 
 		if ("1".equals(tags.get("SetUp")) && tags.containsKey("FEN")) {
@@ -231,7 +337,7 @@ public class GameReconstructor {
 	 * @throws GameReconstructionException
 	 *             falls der PGN Zustand nicht mit dem tatsächlichen übereinstimmt
 	 */
-	private void verifyGameState(Board board, GameTermination termination) throws GameReconstructionException {
+	void verifyGameState(Board board, GameTermination termination) throws GameReconstructionException {
 		GameState actualState = board.getGameState();
 		switch (termination) {
 			case IN_PROGRESS -> {
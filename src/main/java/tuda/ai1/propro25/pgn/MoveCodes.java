@@ -0,0 +1,146 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.util.Arrays;
+import java.util.List;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.piece.Piece;
+
+/**
+ * Kodiert Züge als Zahlen für die binären Formate. Ein Zug wird durch Start-
+ * und Zielfeld sowie die Umwandlungsfigur in 15 Bits eindeutig beschrieben.
+ * <p>
+ * Nach diesen Zahlen sortiert ergeben die legalen Züge einer Stellung außerdem
+ * eine feste Reihenfolge, in der ein Zug durch seinen Index beschrieben werden
+ * kann. Da das Startfeld die höchsten Bits belegt, sind die Züge darin nach
+ * Figuren gruppiert. Für einen Index müssen deshalb nur die legalen Züge der
+ * Figuren bis zur gesuchten berechnet werden und nicht alle der Stellung.
+ */
+final class MoveCodes {
+
+	private static final char[] PROMOTION_SYMBOLS = {'\0', 'N', 'B', 'R', 'Q'};
+
+	private MoveCodes() {
+	}
+
+	/**
+	 * @param move
+	 *            ein Zug, bei der Rochade der des Königs
+	 * @return Startfeld, Zielfeld und Umwandlungsfigur in 15 Bits
+	 */
+	static int encode(Move move) {
+		int promotion = 0;
+		char symbol = promotionSymbol(move.getPromotionPiece());
+		for (int i = 1; i < PROMOTION_SYMBOLS.length; i++) {
+			if (PROMOTION_SYMBOLS[i] == symbol) {
+				promotion = i;
+			}
+		}
+		return square(move.getFrom()) << 9 | square(move.getTo()) << 3 | promotion;
+	}
+
+	static Coordinate from(int code) {
+		return square(code >>> 9);
+	}
+
+	static Coordinate to(int code) {
+		return square(code >>> 3);
+	}
+
+	/**
+	 * @return Symbol der Umwandlungsfigur oder '\0'
+	 */
+	static char promotion(int code) {
+		return PROMOTION_SYMBOLS[code & 7];
+	}
+
+	/**
+	 * @return Symbol der Umwandlungsfigur oder '\0', falls es keine gibt
+	 */
+	static char promotionSymbol(Piece promotionPiece) {
+		return promotionPiece == null ? '\0' : promotionPiece.getAlgebraicNotationSymbol();
+	}
+
+	/**
+	 * @param board
+	 *            das Brett vor dem Zug
+	 * @param move
+	 *            ein legaler Zug des aktuellen Spielers
+	 * @return der Index des Zugs, wenn alle legalen Züge nach ihrem Code sortiert
+	 *         sind
+	 * @throws IllegalArgumentException
+	 *             falls der Zug nicht legal ist
+	 */
+	static int indexOf(Board board, Move move) {
+		int code = encode(move);
+		int from = code >>> 9;
+		int index = 0;
+		for (int square = 0; square < from; square++) {
+			if (isOwnPiece(board, square)) {
+				index += board.getAllAllowedMovesForPieceOnSquare(square(square)).size();
+			}
+		}
+		boolean found = false;
+		for (Move legalMove : board.getAllAllowedMovesForPieceOnSquare(move.getFrom())) {
+			int legalCode = encode(legalMove);
+			if (legalCode < code) {
+				index++;
+			} else if (legalCode == code) {
+				found = true;
+			}
+		}
+		if (!found) {
+			throw new IllegalArgumentException("Der Zug ist in dieser Stellung nicht legal: " + move);
+		}
+		return index;
+	}
+
+	/**
+	 * Umkehrung von {@link #indexOf(Board, Move)}
+	 *
+	 * @param board
+	 *            das Brett vor dem Zug
+	 * @param index
+	 *            Index in der sortierten Reihenfolge
+	 * @return der Zug oder null, falls es so viele legale Züge nicht gibt
+	 */
+	static Move moveAt(Board board, int index) {
+		for (int square = 0; square < 64; square++) {
+			if (!isOwnPiece(board, square)) {
+				continue;
+			}
+			List<Move> moves = board.getAllAllowedMovesForPieceOnSquare(square(square));
+			if (index >= moves.size()) {
+				index -= moves.size();
+				continue;
+			}
+
+			int[] codes = new int[moves.size()];
+			for (int i = 0; i < codes.length; i++) {
+				codes[i] = encode(moves.get(i));
+			}
+			Arrays.sort(codes);
+			for (Move move : moves) {
+				if (encode(move) == codes[index]) {
+					return move;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean isOwnPiece(Board board, int square) {
+		Piece piece = board.getPiece(square >>> 3, square & 7);
+		return piece != null && piece.getColor() == board.getCurrentPlayer().getColor();
+	}
+
+	private static int square(Coordinate coordinate) {
+		return coordinate.getFile() * 8 + coordinate.getRank();
+	}
+
+	private static Coordinate square(int index) {
+		return new Coordinate((index >>> 3) & 7, index & 7);
+	}
+}
@@ -0,0 +1,387 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.history.HistoricalBoardState;
+import tuda.ai1.propro25.pgn.move.PGNMove;
+
+/**
+ * Eröffnungsstatistik über eine PGN-Datenbank: Für jede Stellung bis zu einer
+ * festen Zugtiefe wird gezählt, welche Züge gespielt wurden, wie die Spiele
+ * danach ausgingen und wie stark die Spieler im Schnitt waren.
+ * <p>
+ * Die Statistik wird mit einem {@link Builder} gesammelt, bei parallelen
+ * Strömen bekommt jeder Thread einen eigenen, die am Ende zusammengeführt
+ * werden, siehe {@link #build(Stream, int, Path)}. Geschrieben wird eine
+ * Datei mit Einträgen fester Größe, sortiert nach Stellungs-Hash und Zug. Zum
+ * Abfragen wird sie eingeblendet und binär durchsucht, eine Abfrage dauert
+ * also nur Mikrosekunden.
+ */
+public class OpeningStatistics {
+
+	/** Dateiendung der gespeicherten Statistik */
+	public static final String STATISTICS_SUFFIX = ".book";
+
+	private static final int MAGIC = 0x4F504E53; // "OPNS"
+	private static final int HEADER_SIZE = 16;
+	/** Hash, Zug, 5 Zähler und 2 Summen */
+	private static final int ENTRY_SIZE = 8 + 4 + 5 * 4 + 2 * 8;
+
+	private final MappedByteBuffer entries;
+	private final int size;
+
+	/**
+	 * Statistik eines Zugs in einer Stellung
+	 *
+	 * @param from
+	 *            Startfeld des Zugs, bei der Rochade das des Königs
+	 * @param to
+	 *            Zielfeld des Zugs, bei der Rochade das des Königs
+	 * @param promotion
+	 *            Symbol der Umwandlungsfigur oder '\0'
+	 * @param games
+	 *            Anzahl der Spiele mit diesem Zug
+	 * @param whiteWins
+	 *            davon von Weiß gewonnen
+	 * @param draws
+	 *            davon unentschieden
+	 * @param blackWins
+	 *            davon von Schwarz gewonnen
+	 * @param ratedGames
+	 *            Anzahl der Spiele, in denen beide Elo-Zahlen angegeben waren
+	 * @param whiteEloSum
+	 *            Summe der Elo-Zahlen von Weiß in diesen Spielen
+	 * @param blackEloSum
+	 *            Summe der Elo-Zahlen von Schwarz in diesen Spielen
+	 */
+	public record MoveStatistics(Coordinate from, Coordinate to, char promotion, int games, int whiteWins,
+			int draws, int blackWins, int ratedGames, long whiteEloSum, long blackEloSum) {
+
+		/**
+		 * @return durchschnittliche Elo von Weiß oder 0, falls kein Spiel bewertet
+		 *         war
+		 */
+		public int averageWhiteElo() {
+			return ratedGames == 0 ? 0 : (int) (whiteEloSum / ratedGames);
+		}
+
+		/**
+		 * @return durchschnittliche Elo von Schwarz oder 0, falls kein Spiel bewertet
+		 *         war
+		 */
+		public int averageBlackElo() {
+			return ratedGames == 0 ? 0 : (int) (blackEloSum / ratedGames);
+		}
+
+		/**
+		 * Sucht den passenden legalen Zug, z.B. um ihn auf dem Brett auszuführen
+		 *
+		 * @param board
+		 *            das Brett in der Stellung, zu der die Statistik gehört
+		 * @return der Zug oder null, falls er auf dem Brett nicht legal ist
+		 */
+		public Move findMove(Board board) {
+			for (Move move : board.findAllLegalMoves()) {
+				if (move.getFrom().equals(from) && move.getTo().equals(to)
+						&& MoveCodes.promotionSymbol(move.getPromotionPiece()) == promotion) {
+					return move;
+				}
+			}
+			return null;
+		}
+	}
+
+	private OpeningStatistics(MappedByteBuffer entries, int size) {
+		this.entries = entries;
+		this.size = size;
+	}
+
+	/**
+	 * Sammelt die Statistik aller Spiele und schreibt sie in eine Datei. Ist der
+	 * Strom parallel, sammelt jeder Thread in einem eigenen {@link Builder}.
+	 *
+	 * @param games
+	 *            die Spiele, z.B. aus {@link PGNIndex#parallelStream}
+	 * @param maxPly
+	 *            Anzahl der Halbzüge, die pro Spiel gezählt werden
+	 * @param file
+	 *            Zieldatei, wird überschrieben
+	 * @return die geöffnete Statistik
+	 * @throws IOException
+	 *             falls die Datei nicht geschrieben werden kann
+	 */
+	public static OpeningStatistics build(Stream<PGNGame> games, int maxPly, Path file) throws IOException {
+		GameReconstructor reconstructor = new GameReconstructor(0, 0);
+		Builder builder = games.collect(() -> new Builder(reconstructor, maxPly), Builder::add, Builder::merge);
+		builder.write(file);
+		return open(file);
+	}
+
+	/**
+	 * Öffnet eine gespeicherte Statistik
+	 *
+	 * @param file
+	 *            die mit {@link Builder#write(Path)} geschriebene Datei
+	 * @return die Statistik
+	 * @throws IOException
+	 *             falls die Datei nicht gelesen werden kann oder keine Statistik
+	 *             enthält
+	 */
+	public static OpeningStatistics open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Die Eröffnungsstatistik " + file + " ist größer als 2 GiB");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			long size = channel.size() >= HEADER_SIZE ? buffer.getLong(8) : -1;
+			if (size < 0 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != ENTRY_SIZE
+					|| channel.size() != HEADER_SIZE + size * ENTRY_SIZE) {
+				throw new IOException("Die Datei " + file + " ist keine gültige Eröffnungsstatistik");
+			}
+			return new OpeningStatistics(buffer, (int) size);
+		}
+	}
+
+	/**
+	 * @return Anzahl der gespeicherten Paare aus Stellung und Zug
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Siehe {@link #find(long)}
+	 */
+	public List<MoveStatistics> find(Board board) {
+		return find(board.getRepetitionHash());
+	}
+
+	/**
+	 * Sucht die Statistik aller Züge, die in einer Stellung gespielt wurden
+	 *
+	 * @param positionHash
+	 *            Hash der Stellung, siehe {@link Board#getRepetitionHash()}
+	 * @return die Züge, der häufigste zuerst
+	 */
+	public List<MoveStatistics> find(long positionHash) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (entries.getLong(offset(middle)) < positionHash) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		List<MoveStatistics> moves = new ArrayList<>();
+		for (int i = low; i < size && entries.getLong(offset(i)) == positionHash; i++) {
+			int position = offset(i) + 8;
+			int move = entries.getInt(position);
+			moves.add(new MoveStatistics(MoveCodes.from(move), MoveCodes.to(move), MoveCodes.promotion(move),
+					entries.getInt(position + 4), entries.getInt(position + 8), entries.getInt(position + 12),
+					entries.getInt(position + 16), entries.getInt(position + 20), entries.getLong(position + 24),
+					entries.getLong(position + 32)));
+		}
+		moves.sort(Comparator.comparingInt(MoveStatistics::games).reversed());
+		return moves;
+	}
+
+	private static int offset(int entry) {
+		return HEADER_SIZE + entry * ENTRY_SIZE;
+	}
+
+	/** Schlüssel eines Eintrags */
+	private record PositionMove(long hash, int move) {
+	}
+
+	/** Veränderliche Zähler eines Eintrags */
+	private static final class Counter {
+		private int games;
+		private int whiteWins;
+		private int draws;
+		private int blackWins;
+		private int ratedGames;
+		private long whiteEloSum;
+		private long blackEloSum;
+
+		private void add(Counter other) {
+			games += other.games;
+			whiteWins += other.whiteWins;
+			draws += other.draws;
+			blackWins += other.blackWins;
+			ratedGames += other.ratedGames;
+			whiteEloSum += other.whiteEloSum;
+			blackEloSum += other.blackEloSum;
+		}
+	}
+
+	/**
+	 * Sammelt die Statistik im Speicher. Nicht threadsicher, bei paralleler
+	 * Verarbeitung bekommt jeder Thread einen eigenen Builder, die mit
+	 * {@link #merge(Builder)} zusammengeführt werden.
+	 */
+	public static final class Builder {
+
+		private final GameReconstructor reconstructor;
+		private final int maxPly;
+		private final Map<PositionMove, Counter> counters = new HashMap<>();
+		private long games;
+		private long skippedGames;
+
+		/**
+		 * @param maxPly
+		 *            Anzahl der Halbzüge, die pro Spiel gezählt werden
+		 */
+		public Builder(int maxPly) {
+			this(new GameReconstructor(0, 0), maxPly);
+		}
+
+		private Builder(GameReconstructor reconstructor, int maxPly) {
+			if (maxPly < 0) {
+				throw new IllegalArgumentException("maxPly darf nicht negativ sein");
+			}
+			this.reconstructor = reconstructor;
+			this.maxPly = maxPly;
+		}
+
+		/**
+		 * Zählt die ersten Züge eines Spiels. Spiele, die nicht nachgespielt werden
+		 * können, werden übersprungen.
+		 *
+		 * @param game
+		 *            das geparste Spiel
+		 */
+		public void add(PGNGame game) {
+			// nur die gezählten Züge müssen nachgespielt werden
+			List<PGNMove> moves = game.moves().subList(0, Math.min(maxPly, game.moves().size()));
+			Board board;
+			try {
+				board = reconstructor.reconstructGame(new PGNGame(game.tags(), moves, game.termination()));
+			} catch (GameReconstructionException e) {
+				skippedGames++;
+				return;
+			}
+			games++;
+
+			int whiteElo = parseElo(game.tags().get("WhiteElo"));
+			int blackElo = parseElo(game.tags().get("BlackElo"));
+			boolean rated = whiteElo > 0 && blackElo > 0;
+			for (HistoricalBoardState state : board.getHistory()) {
+				// der Zustand aus dem En-Passant-Feld eines FEN hat keinen eigenen Zug
+				if (state.isMoveAlreadyApplied() || state.getMoveToNextState() == null) {
+					continue;
+				}
+				Counter counter = counters.computeIfAbsent(
+						new PositionMove(state.getPositionHash(), MoveCodes.encode(state.getMoveToNextState())),
+						key -> new Counter());
+				counter.games++;
+				switch (game.termination()) {
+					case WHITE_WINS -> counter.whiteWins++;
+					case DRAW -> counter.draws++;
+					case BLACK_WINS -> counter.blackWins++;
+					case IN_PROGRESS -> {
+					}
+				}
+				if (rated) {
+					counter.ratedGames++;
+					counter.whiteEloSum += whiteElo;
+					counter.blackEloSum += blackElo;
+				}
+			}
+		}
+
+		/**
+		 * Übernimmt die Zähler eines anderen Builders
+		 *
+		 * @param other
+		 *            ein Builder mit derselben Zugtiefe
+		 */
+		public void merge(Builder other) {
+			games += other.games;
+			skippedGames += other.skippedGames;
+			other.counters.forEach((key, counter) -> counters.merge(key, counter, (mine, theirs) -> {
+				mine.add(theirs);
+				return mine;
+			}));
+		}
+
+		/**
+		 * @return Anzahl der gezählten Spiele
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * @return Anzahl der Spiele, die nicht nachgespielt werden konnten
+		 */
+		public long getSkippedGames() {
+			return skippedGames;
+		}
+
+		/**
+		 * Schreibt die Statistik sortiert nach Stellung und Zug
+		 *
+		 * @param file
+		 *            Zieldatei, wird überschrieben
+		 * @throws IOException
+		 *             falls die Datei nicht geschrieben werden kann
+		 */
+		public void write(Path file) throws IOException {
+			List<Map.Entry<PositionMove, Counter>> sorted = new ArrayList<>(counters.entrySet());
+			sorted.sort(Comparator.comparing((Map.Entry<PositionMove, Counter> entry) -> entry.getKey().hash())
+					.thenComparingInt(entry -> entry.getKey().move()));
+
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(ENTRY_SIZE);
+				out.writeLong(sorted.size());
+				for (Map.Entry<PositionMove, Counter> entry : sorted) {
+					Counter counter = entry.getValue();
+					out.writeLong(entry.getKey().hash());
+					out.writeInt(entry.getKey().move());
+					out.writeInt(counter.games);
+					out.writeInt(counter.whiteWins);
+					out.writeInt(counter.draws);
+					out.writeInt(counter.blackWins);
+					out.writeInt(counter.ratedGames);
+					out.writeLong(counter.whiteEloSum);
+					out.writeLong(counter.blackEloSum);
+				}
+			}
+		}
+
+		/**
+		 * @return die Elo-Zahl oder 0, falls sie fehlt oder unbekannt ist
+		 */
+		private static int parseElo(String value) {
+			if (value == null) {
+				return 0;
+			}
+			try {
+				return Math.max(0, Integer.parseInt(value.trim()));
+			} catch (NumberFormatException e) {
+				return 0;
+			}
+		}
+	}
+}
@@ -5,12 +5,17 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.time.format.DateTimeFormatter;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import tuda.ai1.propro25.fen.FENRecord;
 import tuda.ai1.propro25.fen.FENSerializer;
 import tuda.ai1.propro25.model.*;
+import tuda.ai1.propro25.model.history.GameTree;
 import tuda.ai1.propro25.model.history.HistoricalBoardState;
 import tuda.ai1.propro25.model.history.HistoricalGame;
+import tuda.ai1.propro25.model.piece.King;
+import tuda.ai1.propro25.model.piece.Piece;
 import tuda.ai1.propro25.pgn.move.Checking;
 
 /**
@@ -37,61 +42,85 @@ public class PGNExporter {
 	 *            das zu exportierende Spiel
 	 */
 	public void exportGame(HistoricalGame game) {
-		FENRecord startState = game.board().getNonStandardStartState();
-
-		writeMandatoryTags(game);
+		writeTags(game);
+		writeMoveText(game.board());
+		writeGameResult(game);
+	}
 
-		if (startState != null) {
-			writeStartState(startState);
+	/**
+	 * Exportiert das Spiel mit allen Varianten. Die Tags und das Ergebnis stammen
+	 * aus dem Spiel, der Zugtext aus dem Spielbaum.
+	 *
+	 * @param game
+	 *            das zu exportierende Spiel
+	 * @param tree
+	 *            der Spielbaum mit derselben Startstellung wie das Spiel
+	 */
+	public void exportGame(HistoricalGame game, GameTree tree) {
+		writeTags(game);
+		writeMoveText(tree);
+		if (tree.size() > 0) {
+			output.print(' ');
 		}
+		writeGameResult(game);
+	}
+
+	/**
+	 * Schreibt die Tags und die Leerzeile vor dem Zugtext
+	 *
+	 * @param game
+	 *            das Spiel, für welches die Tags geschrieben werden sollen
+	 */
+	private void writeTags(HistoricalGame game) {
+		createTags(game).forEach(this::writeTag);
 
 		output.println();
 		output.println();
-		writeMoveText(game.board());
-		writeGameResult(game);
 	}
 
 	/**
-	 * Schreibt die sieben verpflichtenden Tags passend zum Spiel
+	 * Erstellt die sieben verpflichtenden Tags passend zum Spiel und, falls das
+	 * Spiel nicht in der Grundstellung begann, die Tags für den Anfangszustand in
+	 * FEN
 	 *
 	 * @param game
-	 *            das Spiel, für welches die sieben Tags geschrieben werden soll
+	 *            das Spiel, für welches die Tags erstellt werden sollen
+	 * @return die Tags in der Reihenfolge, in der sie geschrieben werden
 	 */
-	private void writeMandatoryTags(HistoricalGame game) {
+	static Map<String, String> createTags(HistoricalGame game) {
 		Player[] players = game.board().getPlayers();
-		Player winner = game.board().getWinner();
+		FENRecord startState = game.board().getNonStandardStartState();
 
-		writeTag("Event", game.gameName());
-		writeTag("Site", "AI1 ProPro");
-		writeTag("Date", game.time().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
-		writeTag("Round", "1"); // wir spielen immer nur eine Runde
-		writeTag("White", players[0].getName());
-		writeTag("Black", players[1].getName());
+		Map<String, String> tags = new LinkedHashMap<>();
+		tags.put("Event", game.gameName());
+		tags.put("Site", "AI1 ProPro");
+		tags.put("Date", game.time().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+		tags.put("Round", "1"); // wir spielen immer nur eine Runde
+		tags.put("White", players[0].getName());
+		tags.put("Black", players[1].getName());
+		tags.put("Result", determineTermination(game.board()).toString());
 
-		String result;
-		if (winner != null) {
-			result = winner.getColor() == Color.WHITE ? "1-0" : "0-1";
-		} else if (game.board().getGameState() == GameState.RUNNING
-				|| game.board().getGameState() == GameState.PAUSED) {
-			result = "*";
-		} else {
-			result = "1/2-1/2";
+		if (startState != null) {
+			tags.put("SetUp", "1");
+			tags.put("FEN", new FENSerializer().serializeRecord(startState));
 		}
-
-		writeTag("Result", result);
+		return tags;
 	}
 
 	/**
-	 * Schreibt den Anfangszustand des Bretts in FEN
-	 *
-	 * @param startState
-	 *            FEN-Record des Startzustands
+	 * @param board
+	 *            das Brett mit dem aktuellen Spielzustand
+	 * @return wie das Spiel laut PGN verbleibt
 	 */
-	private void writeStartState(FENRecord startState) {
-		String fen = new FENSerializer().serializeRecord(startState);
-
-		writeTag("SetUp", "1");
-		writeTag("FEN", fen);
+	static GameTermination determineTermination(Board board) {
+		Player winner = board.getWinner();
+		if (winner != null) {
+			return winner.getColor() == Color.WHITE ? GameTermination.WHITE_WINS : GameTermination.BLACK_WINS;
+		} else if (board.getGameState() == GameState.RUNNING || board.getGameState() == GameState.PAUSED) {
+			return GameTermination.IN_PROGRESS;
+		} else {
+			return GameTermination.DRAW;
+		}
 	}
 
 	/**
@@ -113,7 +142,10 @@ public class PGNExporter {
 	}
 
 	/**
-	 * Schreibt die Liste der Züge mit Nummerierung
+	 * Schreibt die Liste der Züge mit Nummerierung. Die Stellung wird dabei in
+	 * einem einzigen Figuren-Array mitgeführt, aus dem SAN und Schach direkt
+	 * abgeleitet werden. Gespeicherte legale Züge oder Stellungen der Historie
+	 * werden nicht gebraucht.
 	 *
 	 * @param board
 	 *            das Brett, das die Zughistorie hält
@@ -121,89 +153,171 @@ public class PGNExporter {
 	public void writeMoveText(Board board) {
 		List<HistoricalBoardState> states = board.getHistory();
 
-		if (states.isEmpty()) {
+		// Ist der erste Zustand ein Double-Pawn aus dem En-Passant-Feld der Start-FEN,
+		// wird er übersprungen, weil er bereits vom Start FEN abgedeckt ist
+		int firstMoveIdx = !states.isEmpty() && states.get(0).isMoveAlreadyApplied() ? 1 : 0;
+		if (states.size() <= firstMoveIdx) {
 			return;
 		}
+		states = states.subList(firstMoveIdx, states.size());
 
-		Iterator<HistoricalBoardState> iterator = states.iterator();
-		Iterator<HistoricalBoardState> nextIterator = states.iterator();
-		nextIterator.next(); // dieser Iterator ist uns immer einen Schritt voraus
-
-		int firstMoveIdx;
-		if (states.get(0).isIncomplete()) {
-			// Wenn erster Zug double-pawn ist, welches der erste unvollständig bekannte Zug
-			// ist.
-			// Dieser Zug wird dann übersprungen, weil er bereits vom Start FEN abgedeckt
-			// ist.
-			iterator.next();
-
-			if (states.size() <= 1) {
-				// Es gibt nur diesen unvollständigen Zug, der bereits vom Start FEN abgedeckt
-				// ist
-				return;
-			}
-
-			nextIterator.next();
-			firstMoveIdx = 1; // der erste Zug ist übersprungen
-		} else {
-			firstMoveIdx = 0;
+		Piece[][] pieceGrid = states.get(0).getPieceGrid().clone();
+		for (int file = 0; file < pieceGrid.length; file++) {
+			pieceGrid[file] = pieceGrid[file].clone();
 		}
+		Coordinate[] kings = findKings(pieceGrid);
+
+		boolean first = true;
+		for (Iterator<HistoricalBoardState> iterator = states.iterator(); iterator.hasNext();) {
+			HistoricalBoardState state = iterator.next();
+			Move move = state.getMoveToNextState();
+			if (state.getPlayerIndex() == 0) {
+				output.print(state.getFullMoveClock());
+				output.print('.');
+			} else if (first) {
+				// drei Punkte bedeuten, dass jetzt ein schwarzer Zug kommt
+				output.print(state.getFullMoveClock());
+				output.print("...");
+			}
+			first = false;
 
-		if (states.get(firstMoveIdx).getPlayerIndex() == 1) {
-			// der erste Zug wurde von Schwarz gemacht
-			HistoricalBoardState first = iterator.next();
-			output.print(first.getFullMoveClock());
-			output.print("..."); // drei Punkte bedeuten, dass jetzt ein schwarzer Zug kommt
-
-			AlgebraicNotationMoveGenerator.writeHalfMove(first, getChecking(board, nextIterator), output);
+			AlgebraicNotationMoveGenerator.writeMove(move, pieceGrid, output);
+			move.applyTo(pieceGrid);
+			if (move.getPiece() instanceof King) {
+				kings[move.getPiece().getColor().ordinal()] = move.getTo();
+			}
+			Checking checking = getChecking(board, pieceGrid, kings, move, !iterator.hasNext());
+			AlgebraicNotationMoveGenerator.writeChecking(checking, output);
 
 			output.print(' ');
 		}
+	}
 
-		while (iterator.hasNext()) {
-			HistoricalBoardState whiteMoveState = iterator.next();
-
-			output.print(whiteMoveState.getFullMoveClock());
-			output.print('.');
-
-			AlgebraicNotationMoveGenerator.writeHalfMove(whiteMoveState, getChecking(board, nextIterator), output);
+	/**
+	 * Schreibt die Hauptvariante des Spielbaums mit Nummerierung. Die Varianten
+	 * stehen jeweils in Klammern direkt hinter dem Zug, den sie ersetzen.
+	 *
+	 * @param tree
+	 *            der Spielbaum
+	 */
+	public void writeMoveText(GameTree tree) {
+		Board board = tree.createBoard(tree.getRoot());
+		writeLine(board, tree.getRoot(), true);
+	}
 
-			if (iterator.hasNext()) {
+	/**
+	 * Schreibt die Hauptvariante ab einem Knoten samt aller Varianten. Das Brett
+	 * wird dabei nur gezogen und zurückgenommen und ist danach wieder in der
+	 * Stellung des Knotens.
+	 *
+	 * @param board
+	 *            das Brett in der Stellung des Knotens
+	 * @param node
+	 *            der Knoten, dessen Fortsetzung geschrieben wird
+	 * @param first
+	 *            ob die Fortsetzung am Anfang des Zugtexts steht. Dann steht vor
+	 *            dem ersten Zug kein Leerzeichen, aber immer eine Nummer.
+	 */
+	private void writeLine(Board board, GameTree.Node node, boolean first) {
+		// am Anfang und nach einer Variante braucht auch ein schwarzer Zug eine Nummer
+		boolean forceNumber = first;
+		int played = 0;
+		for (GameTree.Node next = node.getMainline(); next != null; next = next.getMainline()) {
+			if (!first) {
 				output.print(' ');
-				HistoricalBoardState blackMoveState = iterator.next();
-
-				AlgebraicNotationMoveGenerator.writeHalfMove(blackMoveState, getChecking(board, nextIterator), output);
+			}
+			first = false;
+			writeTreeMove(board, next.getMove(), forceNumber);
+			played++;
+
+			List<GameTree.Node> variations = node.getVariations();
+			if (!variations.isEmpty()) {
+				board.undoLastMove();
+				for (GameTree.Node variation : variations) {
+					output.print(" (");
+					writeTreeMove(board, variation.getMove(), true);
+					writeLine(board, variation, false);
+					board.undoLastMove();
+					output.print(')');
+				}
+				board.makeMove(next.getMove());
 			}
 
-			output.print(' ');
+			forceNumber = !variations.isEmpty();
+			node = next;
+		}
+
+		for (int i = 0; i < played; i++) {
+			board.undoLastMove();
 		}
 	}
 
 	/**
-	 * Überprüft, ob der nächste Zustand einen im Schach stehenden König enthält.
-	 * Der Iterator wird um eins voranbewegt.
+	 * Führt einen Zug aus und schreibt ihn mit Nummer, falls Weiß zieht oder die
+	 * Nummer erzwungen wird
 	 *
 	 * @param board
-	 *            das Brett (benötigt für Schachmatt)
-	 * @param nextIterator
-	 *            der Iterator, der immer auf den nächsten Zustand zeigt
-	 * @return ob im nächsten Zustand ein Schach besteht
+	 *            das Brett vor dem Zug
+	 * @param move
+	 *            der Zug
+	 * @param forceNumber
+	 *            ob auch vor einem schwarzen Zug die Nummer stehen soll
 	 */
-	private Checking getChecking(Board board, Iterator<HistoricalBoardState> nextIterator) {
-		if (!nextIterator.hasNext()) {
-			// das war der letzte Zug, wir müssen das Board fragen
-			if (board.getGameState() == GameState.END_CHECKMATE) {
-				// letzter Zug hat zum Schachmatt geführt
-				return Checking.CHECKMATE;
-			} else if (board.getColorInCheck() != null) {
-				return Checking.CHECK;
-			}
-
-			return Checking.NONE;
+	private void writeTreeMove(Board board, Move move, boolean forceNumber) {
+		if (board.getCurrentPlayer().getColor() == Color.WHITE) {
+			output.print(board.getFullMoveClock());
+			output.print('.');
+		} else if (forceNumber) {
+			output.print(board.getFullMoveClock());
+			output.print("...");
 		}
 
-		return nextIterator.next().getColorInCheck() != null ? Checking.CHECK : Checking.NONE;
+		board.makeMove(move);
+		output.print(board.getLastMoveAlgebraicNotation());
+	}
+
+	/**
+	 * Überprüft, ob ein Zug den gegnerischen König ins Schach stellt
+	 *
+	 * @param board
+	 *            das Brett (benötigt für Schachmatt)
+	 * @param pieceGrid
+	 *            die Figuren nach dem Zug
+	 * @param kings
+	 *            die Felder der Könige nach dem Zug, indiziert mit der Farbe
+	 * @param move
+	 *            der Zug
+	 * @param last
+	 *            ob es der letzte Zug der Partie ist
+	 * @return ob nach dem Zug ein Schach besteht
+	 */
+	private Checking getChecking(Board board, Piece[][] pieceGrid, Coordinate[] kings, Move move, boolean last) {
+		if (last && board.getGameState() == GameState.END_CHECKMATE) {
+			// letzter Zug hat zum Schachmatt geführt
+			return Checking.CHECKMATE;
+		}
+		Color attacker = move.getPiece().getColor();
+		Coordinate king = kings[attacker == Color.WHITE ? Color.BLACK.ordinal() : Color.WHITE.ordinal()];
+		if (king != null && Attacks.isAttacked(pieceGrid, king.getFile(), king.getRank(), attacker)) {
+			return Checking.CHECK;
+		}
+		return Checking.NONE;
+	}
 
+	/**
+	 * @return die Felder der Könige, indiziert mit der Farbe, oder null für einen
+	 *         fehlenden König
+	 */
+	private static Coordinate[] findKings(Piece[][] pieceGrid) {
+		Coordinate[] kings = new Coordinate[Color.values().length];
+		for (int file = 0; file < pieceGrid.length; file++) {
+			for (int rank = 0; rank < pieceGrid[file].length; rank++) {
+				if (pieceGrid[file][rank] instanceof King king) {
+					kings[king.getColor().ordinal()] = new Coordinate(file, rank);
+				}
+			}
+		}
+		return kings;
 	}
 
 	/**
@@ -214,20 +328,7 @@ public class PGNExporter {
 	 *            das Spiel (im Gange oder mit Ausgang)
 	 */
 	void writeGameResult(HistoricalGame game) {
-		Player winner = game.board().getWinner();
-
-		if (winner != null) {
-			String winnerString = winner.getColor() == Color.WHITE ? "1-0" : "0-1";
-			output.print(winnerString);
-			return;
-		}
-
-		GameState state = game.board().getGameState();
-		if (state == GameState.RUNNING || state == GameState.PAUSED) {
-			output.print("*");
-		} else {
-			output.print("1/2-1/2");
-		}
+		output.print(determineTermination(game.board()));
 	}
 
 }
@@ -17,6 +17,17 @@ import tuda.ai1.propro25.pgn.move.PGNMove;
  *            alle bisherigen Züge des Spiels
  * @param termination
  *            wie das Spiel nach dem letzten angegebenen Zug verblieben ist
+ * @param variations
+ *            die Varianten zur Hauptvariante moves, nach
+ *            {@link PGNVariation#moveIndex()} aufsteigend sortiert
  */
-public record PGNGame(Map<String, String> tags, List<PGNMove> moves, GameTermination termination) {
+public record PGNGame(Map<String, String> tags, List<PGNMove> moves, GameTermination termination,
+		List<PGNVariation> variations) {
+
+	/**
+	 * Erstellt ein Spiel ohne Varianten
+	 */
+	public PGNGame(Map<String, String> tags, List<PGNMove> moves, GameTermination termination) {
+		this(tags, moves, termination, List.of());
+	}
 }
@@ -0,0 +1,340 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Index über die Spiele einer PGN-Datenbank. Beim Erstellen wird die Datei per
+ * {@link FileChannel#map} in den Speicher eingeblendet und nur nach
+ * Spielgrenzen abgesucht, ohne etwas zu parsen: Ein Spiel beginnt mit der
+ * ersten Tag-Zeile nach dem Zugtext des vorherigen Spiels. Übrig bleibt ein
+ * {@code long[]} mit dem Anfang jedes Spiels, danach kann jedes Spiel einzeln
+ * gelesen und geparst werden.
+ * <p>
+ * Der Index kann mit {@link #save(Path)} neben der PGN-Datei abgelegt werden,
+ * {@link #open(Path)} verwendet ihn beim nächsten Mal wieder, solange sich die
+ * Datei nicht verändert hat. Da die Spiele über positionsbasierte Lesezugriffe
+ * geladen werden, dürfen beliebig viele Threads gleichzeitig Spiele parsen,
+ * siehe {@link #parallelStream(Consumer)}.
+ */
+public class PGNIndex implements Closeable {
+
+	/** Dateiendung des gespeicherten Index */
+	public static final String INDEX_SUFFIX = ".idx";
+
+	private static final int MAGIC = 0x50474E49; // "PGNI"
+	/** Magic, Größe und Änderungszeit der PGN-Datei, Anzahl der Spiele */
+	private static final int HEADER_SIZE = 24;
+	private static final long MAP_CHUNK_SIZE = 1L << 30;
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private final long lastModified;
+	/** Anfang jedes Spiels, am Ende zusätzlich die Dateigröße */
+	private final long[] offsets;
+
+	private PGNIndex(FileChannel channel, long fileSize, long lastModified, long[] offsets) {
+		this.channel = channel;
+		this.fileSize = fileSize;
+		this.lastModified = lastModified;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Öffnet eine PGN-Datei. Liegt daneben ein passender gespeicherter Index, wird
+	 * dieser geladen, sonst wird der Index neu erstellt und gespeichert.
+	 *
+	 * @param file
+	 *            die PGN-Datei
+	 * @return der Index, muss geschlossen werden
+	 * @throws IOException
+	 *             falls die Datei nicht gelesen werden kann
+	 */
+	public static PGNIndex open(Path file) throws IOException {
+		Path indexFile = indexFileOf(file);
+		PGNIndex index = load(file, indexFile);
+		if (index == null) {
+			index = build(file);
+			try {
+				index.save(indexFile);
+			} catch (IOException e) {
+				// z.B. schreibgeschütztes Verzeichnis, dann wird der Index nur nicht
+				// wiederverwendet
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Erstellt den Index, indem die ganze Datei nach Spielgrenzen abgesucht wird
+	 *
+	 * @param file
+	 *            die PGN-Datei
+	 * @return der Index, muss geschlossen werden
+	 * @throws IOException
+	 *             falls die Datei nicht gelesen werden kann
+	 */
+	public static PGNIndex build(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long lastModified = Files.getLastModifiedTime(file).toMillis();
+			long size = channel.size();
+			return new PGNIndex(channel, size, lastModified, scan(channel, size));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Sucht die Spielgrenzen. Eine Tag-Zeile ist eine Zeile, deren erstes
+	 * Nicht-Leerzeichen ein '[' ist. Kommentare im Zugtext werden übersprungen,
+	 * damit ein '[' darin kein neues Spiel beginnt.
+	 */
+	private static long[] scan(FileChannel channel, long size) throws IOException {
+		long[] offsets = new long[1024];
+		int count = 0;
+
+		boolean atLineStart = true;
+		boolean tagLine = false;
+		boolean inMoveText = false;
+		boolean inBlockComment = false;
+		boolean inLineComment = false;
+		long lineStart = 0;
+
+		for (long chunkStart = 0; chunkStart < size; chunkStart += MAP_CHUNK_SIZE) {
+			long chunkSize = Math.min(MAP_CHUNK_SIZE, size - chunkStart);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkSize);
+			for (int i = 0; i < chunkSize; i++) {
+				byte b = buffer.get(i);
+				if (b == '\n') {
+					atLineStart = true;
+					tagLine = false;
+					inLineComment = false;
+					lineStart = chunkStart + i + 1;
+					continue;
+				}
+				if (inLineComment) {
+					continue;
+				}
+				if (inBlockComment) {
+					inBlockComment = b != '}';
+					continue;
+				}
+				if (b == ' ' || b == '\t' || b == '\r') {
+					continue;
+				}
+
+				if (atLineStart) {
+					atLineStart = false;
+					tagLine = b == '[';
+					if (tagLine && (inMoveText || count == 0)) {
+						if (count == offsets.length) {
+							offsets = Arrays.copyOf(offsets, count * 2);
+						}
+						// das erste Spiel beginnt immer am Dateianfang
+						offsets[count] = count == 0 ? 0 : lineStart;
+						count++;
+						inMoveText = false;
+					}
+				}
+
+				if (!tagLine) {
+					if (count == 0) {
+						// Zugtext ohne Tags am Dateianfang
+						offsets[count++] = 0;
+					}
+					inMoveText = true;
+					inBlockComment = b == '{';
+					inLineComment = b == ';';
+				}
+			}
+		}
+
+		long[] result = Arrays.copyOf(offsets, count + 1);
+		result[count] = size;
+		return result;
+	}
+
+	/**
+	 * Lädt einen gespeicherten Index
+	 *
+	 * @param file
+	 *            die PGN-Datei
+	 * @param indexFile
+	 *            der gespeicherte Index
+	 * @return der Index oder null, falls es keinen gibt oder er nicht mehr zur
+	 *         Datei passt
+	 * @throws IOException
+	 *             falls die PGN-Datei nicht gelesen werden kann
+	 */
+	public static PGNIndex load(Path file, Path indexFile) throws IOException {
+		long size = Files.size(file);
+		long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+		long[] offsets;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+			if (in.readInt() != MAGIC || in.readLong() != size || in.readLong() != lastModified) {
+				return null;
+			}
+			int count = in.readInt();
+			if (count < 0 || Files.size(indexFile) != HEADER_SIZE + (count + 1L) * Long.BYTES) {
+				return null;
+			}
+			offsets = new long[count + 1];
+			for (int i = 0; i < offsets.length; i++) {
+				offsets[i] = in.readLong();
+			}
+		} catch (IOException e) {
+			// kein, unvollständiger oder beschädigter Index, wird neu erstellt
+			return null;
+		}
+
+		return new PGNIndex(FileChannel.open(file, StandardOpenOption.READ), size, lastModified, offsets);
+	}
+
+	/**
+	 * Speichert den Index, sodass er mit {@link #load(Path, Path)} wieder geladen
+	 * werden kann
+	 *
+	 * @param indexFile
+	 *            Zieldatei
+	 * @throws IOException
+	 *             falls die Datei nicht geschrieben werden kann
+	 */
+	public void save(Path indexFile) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+			out.writeInt(MAGIC);
+			out.writeLong(fileSize);
+			out.writeLong(lastModified);
+			out.writeInt(size());
+			for (long offset : offsets) {
+				out.writeLong(offset);
+			}
+		}
+	}
+
+	/**
+	 * @return der Pfad, unter dem {@link #open(Path)} den Index zur Datei ablegt
+	 */
+	public static Path indexFileOf(Path file) {
+		return file.resolveSibling(file.getFileName() + INDEX_SUFFIX);
+	}
+
+	/**
+	 * @return Anzahl der Spiele
+	 */
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * @param game
+	 *            Nummer des Spiels, ab 0
+	 * @return Position des ersten Bytes des Spiels in der Datei
+	 */
+	public long getOffset(int game) {
+		Objects.checkIndex(game, size());
+		return offsets[game];
+	}
+
+	/**
+	 * Liest den Text eines Spiels aus der Datei
+	 *
+	 * @param game
+	 *            Nummer des Spiels, ab 0
+	 * @return das Spiel in PGN
+	 * @throws IOException
+	 *             falls die Datei nicht gelesen werden kann
+	 */
+	public String readGame(int game) throws IOException {
+		Objects.checkIndex(game, size());
+		long start = offsets[game];
+		ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(offsets[game + 1] - start));
+		while (bytes.hasRemaining()) {
+			if (channel.read(bytes, start + bytes.position()) < 0) {
+				throw new IOException("Die PGN-Datei wurde seit dem Erstellen des Index gekürzt");
+			}
+		}
+		return new String(bytes.array(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Liest und parst ein Spiel
+	 *
+	 * @param game
+	 *            Nummer des Spiels, ab 0
+	 * @return das geparste Spiel
+	 * @throws IOException
+	 *             falls die Datei nicht gelesen werden kann
+	 * @throws PGNParseException
+	 *             falls das Spiel syntaktische Fehler enthält
+	 */
+	public PGNGame parseGame(int game) throws IOException, PGNParseException {
+		return PGNParser.parse(readGame(game));
+	}
+
+	/**
+	 * Parst einen Bereich von Spielen, z.B. als Arbeitspaket eines Threads
+	 *
+	 * @param from
+	 *            erstes Spiel, inklusive
+	 * @param to
+	 *            letztes Spiel, exklusive
+	 * @param errorHandler
+	 *            bekommt die Exception jedes fehlerhaften Spiels
+	 * @return die fehlerfreien Spiele des Bereichs
+	 */
+	public Stream<PGNGame> stream(int from, int to, Consumer<PGNParseException> errorHandler) {
+		Objects.checkFromToIndex(from, to, size());
+		return IntStream.range(from, to).mapToObj(game -> parseOrReport(game, errorHandler))
+				.filter(Objects::nonNull);
+	}
+
+	/**
+	 * Parst alle Spiele parallel. Die Reihenfolge der Spiele bleibt bei
+	 * {@link Stream#forEachOrdered} oder {@link Stream#toList()} erhalten.
+	 *
+	 * @param errorHandler
+	 *            bekommt die Exception jedes fehlerhaften Spiels, muss threadsicher
+	 *            sein
+	 * @return die fehlerfreien Spiele
+	 */
+	public Stream<PGNGame> parallelStream(Consumer<PGNParseException> errorHandler) {
+		return stream(0, size(), errorHandler).parallel();
+	}
+
+	private PGNGame parseOrReport(int game, Consumer<PGNParseException> errorHandler) {
+		try {
+			return parseGame(game);
+		} catch (PGNParseException e) {
+			errorHandler.accept(new PGNParseException("Spiel " + (game + 1) + ": " + e.getMessage()));
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
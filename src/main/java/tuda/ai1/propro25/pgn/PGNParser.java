@@ -3,9 +3,25 @@ package tuda.ai1.propro25.pgn;
 
 import static tuda.ai1.propro25.pgn.PGNToken.Type.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import tuda.ai1.propro25.pgn.move.MoveParser;
 import tuda.ai1.propro25.pgn.move.PGNMove;
 
@@ -14,12 +30,19 @@ import tuda.ai1.propro25.pgn.move.PGNMove;
  * <a href="https://www.thechessdrum.net/PGN_Reference.txt">Spezifikation</a>.
  * Hierbei handelt es sich um einen Top-Down-Parser, der den PGNTokenizer
  * verwendet.
+ * <p>
+ * Neben einzelnen Spielen aus einem String können mit
+ * {@link #stream(Reader, Consumer)} ganze PGN-Datenbanken gelesen werden. Die
+ * Spiele werden dabei erst beim Weiterlesen geparst, sodass der Speicherbedarf
+ * unabhängig von der Größe der Datei ist.
  */
 public class PGNParser {
 
 	private final MoveParser moveParser;
 	private final PGNTokenizer tokenizer;
 	private PGNToken currentToken;
+	// true, sobald beim aktuellen Spiel die Tags vorbei sind
+	private boolean inMoveText;
 
 	/**
 	 * Erstellt einen neuen PGNParser, der die gegebene Eingabe parsen kann
@@ -28,8 +51,12 @@ public class PGNParser {
 	 *            die zu parsende Eingabe
 	 */
 	private PGNParser(String input) {
+		this(new PGNTokenizer(input));
+	}
+
+	private PGNParser(PGNTokenizer tokenizer) {
 		this.moveParser = new MoveParser();
-		this.tokenizer = new PGNTokenizer(input);
+		this.tokenizer = tokenizer;
 	}
 
 	public static PGNGame parse(String input) throws PGNParseException {
@@ -37,6 +64,49 @@ public class PGNParser {
 		return parser.parseGame();
 	}
 
+	/**
+	 * Liest alle Spiele einer PGN-Datenbank nacheinander. Fehlerhafte Spiele werden
+	 * übersprungen und an den errorHandler gemeldet, danach wird mit dem nächsten
+	 * Spiel weitergemacht. Der Stream schließt beim Schließen auch den Reader.
+	 *
+	 * @param reader
+	 *            die Eingabe, wird nur stückweise gelesen
+	 * @param errorHandler
+	 *            bekommt für jedes fehlerhafte Spiel die Exception, deren
+	 *            Nachricht die Nummer des Spiels enthält
+	 * @return die Spiele in der Reihenfolge der Eingabe
+	 */
+	public static Stream<PGNGame> stream(Reader reader, Consumer<PGNParseException> errorHandler) {
+		PGNParser parser = new PGNParser(new PGNTokenizer(reader));
+		Iterator<PGNGame> games = parser.new GameIterator(errorHandler);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(games, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						reader.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	/**
+	 * Siehe {@link #stream(Reader, Consumer)}, die Eingabe wird als UTF-8 gelesen
+	 */
+	public static Stream<PGNGame> stream(InputStream input, Consumer<PGNParseException> errorHandler) {
+		return stream(new InputStreamReader(input, StandardCharsets.UTF_8), errorHandler);
+	}
+
+	/**
+	 * Siehe {@link #stream(Reader, Consumer)}, die Datei wird als UTF-8 gelesen
+	 *
+	 * @throws IOException
+	 *             falls die Datei nicht geöffnet werden kann
+	 */
+	public static Stream<PGNGame> stream(Path file, Consumer<PGNParseException> errorHandler) throws IOException {
+		return stream(Files.newInputStream(file), errorHandler);
+	}
+
 	/**
 	 * Parst das gesamte PGN Spiel
 	 * 
@@ -47,6 +117,24 @@ public class PGNParser {
 	PGNGame parseGame() throws PGNParseException {
 		this.currentToken = tokenizer.nextToken();
 
+		PGNGame game = parseNextGame();
+
+		expect(EOF, "Überflüssige Tokens nach dem Spiel-Terminator");
+
+		return game;
+	}
+
+	/**
+	 * Parst ein Spiel ab dem aktuellen Token bis einschließlich seines
+	 * Terminierungs-Markers
+	 *
+	 * @return das geparste Spiel
+	 * @throws PGNParseException
+	 *             falls die Eingabe syntaktische Fehler enthält
+	 */
+	private PGNGame parseNextGame() throws PGNParseException {
+		inMoveText = false;
+
 		Map<String, String> tags = new HashMap<>();
 		while (currentToken.type() == TAG_OPEN) {
 			String[] tag = parseTag();
@@ -55,17 +143,93 @@ public class PGNParser {
 			}
 		}
 
+		inMoveText = true;
 		ArrayList<PGNMove> moves = new ArrayList<>();
+		ArrayList<PGNVariation> variations = new ArrayList<>();
 
 		while (!isTerminationMarker(currentToken.type())) {
-			moves.add(parseMove());
+			parseMoveOrVariation(moves, variations);
 		}
 
 		GameTermination termination = parseTermination();
 
-		expect(EOF, "Überflüssige Tokens nach dem Spiel-Terminator");
+		return new PGNGame(tags, moves, termination, variations);
+	}
+
+	/**
+	 * Parst entweder einen Zug oder eine Variante und hängt sie an die bisherige
+	 * Zugfolge an. Eine Variante ersetzt den zuletzt geparsten Zug.
+	 *
+	 * @param moves
+	 *            die bisherigen Züge der Zugfolge
+	 * @param variations
+	 *            die bisherigen Varianten der Zugfolge
+	 */
+	private void parseMoveOrVariation(List<PGNMove> moves, List<PGNVariation> variations) throws PGNParseException {
+		if (currentToken.type() != RAV_OPEN) {
+			moves.add(parseMove());
+			return;
+		}
+
+		if (moves.isEmpty()) {
+			error("Eine Variante muss auf einen Zug folgen");
+		}
+		consume(); // '(' konsumieren
+
+		ArrayList<PGNMove> variationMoves = new ArrayList<>();
+		ArrayList<PGNVariation> nestedVariations = new ArrayList<>();
+		while (currentToken.type() != RAV_CLOSE) {
+			if (currentToken.type() == EOF) {
+				error("Nicht geschlossenes '('");
+			}
+			parseMoveOrVariation(variationMoves, nestedVariations);
+		}
+		consume(); // ')' konsumieren
+
+		if (variationMoves.isEmpty()) {
+			error("Eine Variante muss mindestens einen Zug enthalten");
+		}
 
-		return new PGNGame(tags, moves, termination);
+		variations.add(new PGNVariation(moves.size() - 1, variationMoves, nestedVariations));
+	}
+
+	/**
+	 * Überspringt nach einem Fehler den Rest des aktuellen Spiels. Das Spiel endet
+	 * mit seinem Terminierungs-Marker oder, falls dieser fehlt, mit dem ersten Tag
+	 * nach dem Zugtext.
+	 */
+	private void skipToNextGame() {
+		PGNToken.Type previous = null;
+		while (currentToken.type() != EOF) {
+			PGNToken.Type type = currentToken.type();
+			if (isTerminationMarker(type)) {
+				consumeLeniently();
+				return;
+			}
+			if (type == TAG_OPEN && inMoveText) {
+				return;
+			}
+			if (type != TAG_OPEN && type != TAG_CLOSE && type != STRING && (type != SYMBOL || previous != TAG_OPEN)) {
+				inMoveText = true;
+			}
+			previous = type;
+			consumeLeniently();
+		}
+	}
+
+	/**
+	 * Geht zum nächsten Token und überspringt dabei Zeichen, die lexikalische
+	 * Fehler auslösen
+	 */
+	private void consumeLeniently() {
+		while (true) {
+			try {
+				currentToken = tokenizer.nextToken();
+				return;
+			} catch (PGNParseException e) {
+				tokenizer.skipChar();
+			}
+		}
 	}
 
 	/**
@@ -75,7 +239,11 @@ public class PGNParser {
 	 */
 	private String[] parseTag() throws PGNParseException {
 		expect(TAG_OPEN, "Am Anfang eines Tags muss ein '[' stehen");
-		String tagName = expect(SYMBOL, "Nach dem '[' muss der Tag-Name stehen").spelling();
+		if (currentToken.type() != SYMBOL) {
+			error("Nach dem '[' muss der Tag-Name stehen");
+		}
+		String tagName = tokenizer.getSpelling().toString();
+		consume();
 		String value = expect(STRING, "Nach dem Tag-Namen muss der Wert in '\"' stehen").spelling();
 		expect(TAG_CLOSE, "Der Tag muss mit einem ']' geschlossen werden");
 
@@ -94,10 +262,17 @@ public class PGNParser {
 			discard(DOT);
 		}
 
-		String moveSpelling = expect(SYMBOL, "Hier muss ein Symbol für den Spielzug kommen").spelling();
+		if (currentToken.type() != SYMBOL) {
+			error("Hier muss ein Symbol für den Spielzug kommen");
+		}
+		// direkt aus dem Puffer des Tokenizers parsen, solange das Symbol noch
+		// aktuell ist
+		CharSequence moveSpelling = tokenizer.getSpelling();
+		PGNMove move = moveParser.parseMove(moveSpelling, 0, moveSpelling.length());
+		consume();
 		discard(NAG, STRING); // NAGs und String-Annotationen interessieren uns nicht
 
-		return moveParser.parseMove(moveSpelling);
+		return move;
 	}
 
 	/**
@@ -183,4 +358,53 @@ public class PGNParser {
 		throw new PGNParseException(message);
 	}
 
+	/**
+	 * Liest die Spiele einer Datenbank nacheinander, immer erst wenn das nächste
+	 * angefragt wird
+	 */
+	private class GameIterator implements Iterator<PGNGame> {
+
+		private final Consumer<PGNParseException> errorHandler;
+		private PGNGame next;
+		private boolean started;
+		private int gameNumber;
+
+		GameIterator(Consumer<PGNParseException> errorHandler) {
+			this.errorHandler = errorHandler;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next != null) {
+				return true;
+			}
+			if (!started) {
+				started = true;
+				consumeLeniently();
+			}
+
+			while (currentToken.type() != EOF) {
+				gameNumber++;
+				try {
+					next = parseNextGame();
+					return true;
+				} catch (PGNParseException e) {
+					errorHandler.accept(new PGNParseException("Spiel " + gameNumber + ": " + e.getMessage()));
+					skipToNextGame();
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public PGNGame next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			PGNGame game = next;
+			next = null;
+			return game;
+		}
+	}
+
 }
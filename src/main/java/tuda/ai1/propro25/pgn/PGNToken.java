@@ -8,7 +8,9 @@ package tuda.ai1.propro25.pgn;
  *            der Typ dieses Token
  * @param spelling
  *            die genauen Zeichen, aus denen dieses Token aus der Quelle
- *            entstanden ist
+ *            entstanden ist, bzw. der Inhalt eines Strings. Bei Symbolen,
+ *            Ganzzahlen und NAGs null, ihr Text steht nur im Puffer des
+ *            Tokenizers, siehe {@link PGNTokenizer#getSpelling()}
  */
 record PGNToken(Type type, String spelling) {
 
@@ -46,6 +48,16 @@ record PGNToken(Type type, String spelling) {
 		 */
 		NAG,
 
+		/**
+		 * ')' am Ende einer Variante
+		 */
+		RAV_CLOSE,
+
+		/**
+		 * '(' am Anfang einer Variante
+		 */
+		RAV_OPEN,
+
 		/**
 		 * mit "" umschlossener Text
 		 */
@@ -3,20 +3,50 @@ package tuda.ai1.propro25.pgn;
 
 import static tuda.ai1.propro25.pgn.PGNToken.Type.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Wird vom PGNParser genutzt, um eine Zeichenkette (String) in einen Strom an
- * Tokens zu zerlegen. Muss für jede Eingabe neu erstellt werden.
+ * Wird vom PGNParser genutzt, um eine Eingabe in einen Strom an Tokens zu
+ * zerlegen. Die Eingabe wird über einen Puffer fester Größe gelesen, sodass
+ * auch Dateien mit beliebig vielen Spielen mit konstantem Speicher zerlegt
+ * werden können. Muss für jede Eingabe neu erstellt werden.
+ * <p>
+ * Tokens mit festem Text werden nur einmal erzeugt und wiederverwendet. Bei
+ * Symbolen, Ganzzahlen und NAGs wird kein String angelegt, ihr Text kann über
+ * {@link #getSpelling()} direkt aus dem Puffer gelesen werden, solange sie das
+ * zuletzt gelesene Token sind. So entsteht für einen Zug im Zugtext kein
+ * einziges Zwischenobjekt, bevor er vom MoveParser zerlegt wird.
  */
 class PGNTokenizer {
 
+	private static final PGNToken EOF_TOKEN = new PGNToken(EOF, "");
+	private static final PGNToken DOT_TOKEN = new PGNToken(DOT, ".");
+	private static final PGNToken ASTERISK_TOKEN = new PGNToken(ASTERISK, "*");
+	private static final PGNToken TAG_OPEN_TOKEN = new PGNToken(TAG_OPEN, "[");
+	private static final PGNToken TAG_CLOSE_TOKEN = new PGNToken(TAG_CLOSE, "]");
+	private static final PGNToken RAV_OPEN_TOKEN = new PGNToken(RAV_OPEN, "(");
+	private static final PGNToken RAV_CLOSE_TOKEN = new PGNToken(RAV_CLOSE, ")");
+	private static final PGNToken WHITE_WINS_TOKEN = new PGNToken(WHITE_WINS, "1-0");
+	private static final PGNToken BLACK_WINS_TOKEN = new PGNToken(BLACK_WINS, "0-1");
+	private static final PGNToken DRAW_TOKEN = new PGNToken(DRAW, "1/2-1/2");
+	private static final PGNToken SYMBOL_TOKEN = new PGNToken(SYMBOL, null);
+	private static final PGNToken INTEGER_TOKEN = new PGNToken(INTEGER, null);
+	private static final PGNToken NAG_TOKEN = new PGNToken(NAG, null);
+
 	private static final char END_CHAR = '\0'; // NULL wird nicht verwendet
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+	private static final int BUFFER_SIZE = 8192;
 
-	private final String input;
+	private final Reader input;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
 	private final StringBuilder spelling;
-	private int index = 0;
 	private char currentChar;
 
 	/**
@@ -27,9 +57,20 @@ class PGNTokenizer {
 	 *            die Eingabe
 	 */
 	PGNTokenizer(String input) {
+		this(new StringReader(input));
+	}
+
+	/**
+	 * Erstellt einen neuen PGNTokenizer, der die Eingabe stückweise liest. Der
+	 * Reader wird nicht geschlossen.
+	 *
+	 * @param input
+	 *            die Eingabe
+	 */
+	PGNTokenizer(Reader input) {
 		this.input = input;
 		this.spelling = new StringBuilder();
-		this.currentChar = input.isEmpty() ? END_CHAR : input.charAt(index++); // erstes Zeichen einlesen
+		advance(); // erstes Zeichen einlesen
 	}
 
 	/**
@@ -63,7 +104,7 @@ class PGNTokenizer {
 		discardWhiteSpacesAndComments();
 
 		if (!hasCharsLeft()) {
-			return new PGNToken(EOF, "");
+			return EOF_TOKEN;
 		}
 
 		// StringBuilder zurücksetzen für nächste Token
@@ -71,10 +112,12 @@ class PGNTokenizer {
 
 		return switch (currentChar) {
 			case '"' -> scanString();
-			case '.' -> createTokenAndConsume(DOT);
-			case '*' -> createTokenAndConsume(ASTERISK);
-			case '[' -> createTokenAndConsume(TAG_OPEN);
-			case ']' -> createTokenAndConsume(TAG_CLOSE);
+			case '.' -> consumeAndReturn(DOT_TOKEN);
+			case '*' -> consumeAndReturn(ASTERISK_TOKEN);
+			case '[' -> consumeAndReturn(TAG_OPEN_TOKEN);
+			case ']' -> consumeAndReturn(TAG_CLOSE_TOKEN);
+			case '(' -> consumeAndReturn(RAV_OPEN_TOKEN);
+			case ')' -> consumeAndReturn(RAV_CLOSE_TOKEN);
 			case '$' -> scanNAG();
 			default -> {
 				if (isLetter(currentChar) || isDigit(currentChar)) {
@@ -105,34 +148,54 @@ class PGNTokenizer {
 		}
 
 		if (isInteger) {
-			return createToken(INTEGER);
+			return INTEGER_TOKEN;
 		}
 
-		String spelling = this.spelling.toString();
-		PGNToken.Type type = switch (spelling) {
-			case "1-0" -> WHITE_WINS;
-			case "0-1" -> BLACK_WINS;
-			case "1/2-1/2" -> DRAW;
-			default -> SYMBOL;
-		};
+		for (PGNToken result : new PGNToken[]{WHITE_WINS_TOKEN, BLACK_WINS_TOKEN, DRAW_TOKEN}) {
+			if (spellingEquals(result.spelling())) {
+				return result;
+			}
+		}
+		return SYMBOL_TOKEN;
+	}
+
+	/**
+	 * @return ob das aktuelle Spelling genau aus dem erwarteten Text besteht
+	 */
+	private boolean spellingEquals(String expected) {
+		if (spelling.length() != expected.length()) {
+			return false;
+		}
+		for (int i = 0; i < expected.length(); i++) {
+			if (spelling.charAt(i) != expected.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
 
-		return new PGNToken(type, spelling);
+	/**
+	 * Gibt den Text des zuletzt gelesenen Tokens zurück. Die Zeichen werden nicht
+	 * kopiert und beim nächsten Aufruf von {@link #nextToken()} überschrieben.
+	 *
+	 * @return die Zeichen, aus denen das letzte Token entstanden ist
+	 */
+	CharSequence getSpelling() {
+		return spelling;
 	}
 
 	/**
-	 * Übersprint alle Leerstellen, Kommentare und Variations-Annotationen (RAVs)
-	 * Diese Informationen sind fürs Parsen irrelevant.
+	 * Übersprint alle Leerstellen und Kommentare. Diese Informationen sind fürs
+	 * Parsen irrelevant.
 	 */
 	private void discardWhiteSpacesAndComments() throws PGNParseException {
 		while (hasCharsLeft()) {
-			if (Character.isWhitespace(currentChar)) {
-				consume(); // alle Leerzeichen etc. verwerfen
+			if (Character.isWhitespace(currentChar) || currentChar == BYTE_ORDER_MARK) {
+				advance(); // alle Leerzeichen etc. verwerfen
 			} else if (currentChar == ';') {
 				discardLineComment();
 			} else if (currentChar == '{') {
 				discardBlockComment();
-			} else if (currentChar == '(') {
-				discardRAV();
 			} else {
 				break;
 			}
@@ -146,11 +209,11 @@ class PGNTokenizer {
 		expect(';', "Ein Zeilen-Kommentar muss mit ';' beginnen");
 		while (hasCharsLeft()) {
 			if (currentChar == '\n') {
-				consume(); // terminator auch konsumieren
+				advance(); // terminator auch konsumieren
 				break;
 			}
 
-			consume();
+			advance();
 		}
 	}
 
@@ -164,39 +227,12 @@ class PGNTokenizer {
 				break;
 			}
 
-			consume();
+			advance();
 		}
 
 		expect('}', "Block-Kommentar muss mit '}' geschlossen werden");
 	}
 
-	/**
-	 * Überspringt (geschachtelte) RAVs
-	 */
-	private void discardRAV() throws PGNParseException {
-		// RAVs sind Kommentare, in denen ein Annotator Variationen vorschlagen kann
-		// sie haben fürs Importieren keinen Nutzen, sollten aber verworfen werden, weil
-		// einige
-		// PGNs im Internet solche enthalten
-
-		expect('(', "Eine rekursive Variations-Annotation muss mit '(' beginnen");
-		int level = 1; // wir haben eine Klammer gelesen, also 1
-
-		while (hasCharsLeft() && level > 0) {
-			if (currentChar == '(') {
-				level++;
-			} else if (currentChar == ')') {
-				level--;
-			}
-
-			consume();
-		}
-
-		if (level > 0) {
-			throw new PGNParseException("Nicht geschlossenes '('");
-		}
-	}
-
 	/**
 	 * @return den erkannten String
 	 */
@@ -245,7 +281,7 @@ class PGNTokenizer {
 			consume(); // erste Ziffer auch konsumieren
 		} while (hasCharsLeft() && isDigit(currentChar));
 
-		return createToken(NAG);
+		return NAG_TOKEN;
 	}
 
 	/**
@@ -274,42 +310,57 @@ class PGNTokenizer {
 	private void consume() {
 		// konsumiertes Zeichen ist also Teil vom nächsten Token
 		spelling.append(currentChar);
+		advance();
+	}
 
-		if (index < input.length()) {
-			currentChar = input.charAt(index++);
-		} else {
-			currentChar = END_CHAR;
+	/**
+	 * Liest das nächste Zeichen, ohne das aktuelle in das Spelling zu übernehmen.
+	 * Ist der Puffer aufgebraucht, wird er aus der Eingabe nachgefüllt.
+	 */
+	private void advance() {
+		if (position == limit) {
+			try {
+				limit = input.read(buffer);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Fehler beim Lesen der PGN-Eingabe", e);
+			}
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				currentChar = END_CHAR;
+				return;
+			}
 		}
+		currentChar = buffer[position++];
 	}
 
 	/**
-	 * @return ob es noch Zeichen zu erkennen gibt
+	 * Verwirft das aktuelle Zeichen, z.B. um nach einem lexikalischen Fehler
+	 * weiterlesen zu können
 	 */
-	private boolean hasCharsLeft() {
-		return currentChar != END_CHAR;
+	void skipChar() {
+		if (hasCharsLeft()) {
+			advance();
+		}
 	}
 
 	/**
-	 * Konsumiert ein Zeichen und erstellt ein Token
-	 * 
-	 * @param type
-	 *            der Typ des zu erstellenden Token
-	 * @return der neue Token mit dem gegebenen Typ und dem aktuellen Spelling
+	 * @return ob es noch Zeichen zu erkennen gibt
 	 */
-	private PGNToken createTokenAndConsume(PGNToken.Type type) {
-		consume();
-		return createToken(type);
+	private boolean hasCharsLeft() {
+		return currentChar != END_CHAR;
 	}
 
 	/**
-	 * Erstellt ein Token mit dem angegebenen Typen und dem aktuellen Spelling.
+	 * Konsumiert ein Zeichen und gibt ein Token mit festem Text zurück
 	 * 
-	 * @param type
-	 *            der Typ des zu erstellenden Token
-	 * @return der neue Token mit dem gegebenen Typ und dem aktuellen Spelling
+	 * @param token
+	 *            das gemeinsam genutzte Token für dieses Zeichen
+	 * @return das übergebene Token
 	 */
-	private PGNToken createToken(PGNToken.Type type) {
-		return new PGNToken(type, spelling.toString());
+	private PGNToken consumeAndReturn(PGNToken token) {
+		consume();
+		return token;
 	}
 
 	/**
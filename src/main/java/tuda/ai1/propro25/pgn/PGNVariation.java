@@ -0,0 +1,22 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.util.List;
+import tuda.ai1.propro25.pgn.move.PGNMove;
+
+/**
+ * Eine aus PGN geparste Variante (recursive annotation variation, RAV). Sie
+ * ersetzt einen Zug der übergeordneten Zugfolge und wird daher aus der Stellung
+ * vor diesem Zug gespielt.
+ *
+ * @param moveIndex
+ *            Index des Zugs in der übergeordneten Zugfolge, den diese Variante
+ *            ersetzt
+ * @param moves
+ *            die Züge der Variante
+ * @param variations
+ *            die in dieser Variante geschachtelten Varianten, nach moveIndex
+ *            aufsteigend sortiert
+ */
+public record PGNVariation(int moveIndex, List<PGNMove> moves, List<PGNVariation> variations) {
+}
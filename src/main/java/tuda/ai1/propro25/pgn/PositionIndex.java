@@ -0,0 +1,424 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.history.HistoricalBoardState;
+
+/**
+ * Index über alle Stellungen einer PGN-Datenbank, um z.B. alle Spiele zu finden,
+ * in denen eine Stellung vorkam. Für jede Stellung jedes Spiels wird ein
+ * Eintrag aus {@link Board#getRepetitionHash()}, Spielnummer und Halbzug
+ * gespeichert, sortiert nach dem Hash. Zugumstellungen führen so zu denselben
+ * Einträgen.
+ * <p>
+ * Beim Erstellen werden die Spiele blockweise parallel nachgespielt, jeder
+ * Block wird sortiert in eine eigene Zwischendatei geschrieben. Am Ende werden
+ * alle Zwischendateien in einem Durchlauf zur Indexdatei zusammengeführt
+ * (externes Mergesort), sodass nie mehr als ein Block pro Thread im Speicher
+ * liegt. Zum Suchen wird die Indexdatei per {@link FileChannel#map} eingeblendet
+ * und binär durchsucht, eine Suche braucht also unabhängig von der Größe der
+ * Datenbank nur wenige Seitenzugriffe und keinen zusätzlichen Speicher.
+ */
+public class PositionIndex {
+
+	/** Dateiendung des gespeicherten Index */
+	public static final String INDEX_SUFFIX = ".pos";
+
+	private static final int MAGIC = 0x504F5349; // "POSI"
+	private static final int HEADER_SIZE = 16;
+	private static final int ENTRY_SIZE = 16;
+	/** Einträge pro eingeblendetem Abschnitt, 1 GiB */
+	private static final int CHUNK_SHIFT = 26;
+	private static final int GAMES_PER_RUN = 4096;
+
+	private final MappedByteBuffer[] chunks;
+	private final long size;
+
+	/**
+	 * Ein Vorkommen einer Stellung
+	 *
+	 * @param game
+	 *            Nummer des Spiels im {@link PGNIndex}, ab 0
+	 * @param ply
+	 *            Anzahl der Halbzüge, nach denen die Stellung auf dem Brett stand
+	 */
+	public record Occurrence(int game, int ply) {
+	}
+
+	/** Eine sortierte Zwischendatei */
+	private record Run(Path file, long size) {
+	}
+
+	private PositionIndex(MappedByteBuffer[] chunks, long size) {
+		this.chunks = chunks;
+		this.size = size;
+	}
+
+	/**
+	 * @return der Pfad, unter dem der Index zu einer PGN-Datei abgelegt werden
+	 *         sollte
+	 */
+	public static Path indexFileOf(Path file) {
+		return file.resolveSibling(file.getFileName() + INDEX_SUFFIX);
+	}
+
+	/**
+	 * Spielt alle Spiele nach und schreibt den Index. Spiele, die nicht geparst
+	 * oder nachgespielt werden können, werden übersprungen.
+	 *
+	 * @param games
+	 *            die Spiele der Datenbank, ihre Nummern werden übernommen
+	 * @param indexFile
+	 *            Zieldatei, wird überschrieben
+	 * @param threads
+	 *            Anzahl der Threads, 0 für alle Kerne
+	 * @return der geöffnete Index
+	 * @throws IOException
+	 *             falls eine Datei nicht gelesen oder geschrieben werden kann
+	 */
+	public static PositionIndex build(PGNIndex games, Path indexFile, int threads) throws IOException {
+		return build(games, indexFile, threads, GAMES_PER_RUN);
+	}
+
+	static PositionIndex build(PGNIndex games, Path indexFile, int threads, int gamesPerRun) throws IOException {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		Path directory = indexFile.toAbsolutePath().getParent();
+		GameReconstructor reconstructor = new GameReconstructor(0, 0);
+
+		List<ForkJoinTask<Run>> tasks = new ArrayList<>();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (int from = 0; from < games.size(); from += gamesPerRun) {
+				int start = from;
+				int end = Math.min(games.size(), from + gamesPerRun);
+				tasks.add(pool.submit(() -> writeRun(games, start, end, reconstructor, directory)));
+			}
+			List<Run> runs = new ArrayList<>();
+			for (ForkJoinTask<Run> task : tasks) {
+				runs.add(task.join());
+			}
+			merge(runs, indexFile);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+			// auch nach einem Fehler auf alle Blöcke warten, damit keine
+			// Zwischendatei übrig bleibt
+			for (ForkJoinTask<Run> task : tasks) {
+				task.quietlyJoin();
+				if (task.isCompletedNormally()) {
+					Files.deleteIfExists(task.getRawResult().file());
+				}
+			}
+		}
+		return open(indexFile);
+	}
+
+	/**
+	 * Spielt einen Block von Spielen nach und schreibt seine Einträge sortiert in
+	 * eine Zwischendatei
+	 */
+	private static Run writeRun(PGNIndex games, int from, int to, GameReconstructor reconstructor,
+			Path directory) {
+		long[] hashes = new long[1024];
+		long[] values = new long[1024];
+		int count = 0;
+
+		for (int game = from; game < to; game++) {
+			Board board;
+			try {
+				board = reconstructor.reconstructGame(games.parseGame(game));
+			} catch (PGNParseException | GameReconstructionException e) {
+				continue;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (UncheckedIOException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				// wie im BulkGameReconstructor bricht ein einzelnes Spiel nicht den
+				// ganzen Index ab
+				continue;
+			}
+
+			List<HistoricalBoardState> history = board.getHistory();
+			if (count + history.size() + 1 > hashes.length) {
+				int capacity = Math.max(hashes.length * 2, count + history.size() + 1);
+				hashes = Arrays.copyOf(hashes, capacity);
+				values = Arrays.copyOf(values, capacity);
+			}
+			int ply = 0;
+			for (HistoricalBoardState state : history) {
+				// der Zustand aus dem En-Passant-Feld eines FEN ist keine eigene Stellung
+				if (!state.isMoveAlreadyApplied()) {
+					hashes[count] = state.getPositionHash();
+					values[count++] = encode(game, ply++);
+				}
+			}
+			hashes[count] = board.getRepetitionHash();
+			values[count++] = encode(game, ply);
+		}
+
+		sort(hashes, values, 0, count);
+		Path file = null;
+		try {
+			file = Files.createTempFile(directory, "positions", ".run");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+				for (int i = 0; i < count; i++) {
+					out.writeLong(hashes[i]);
+					out.writeLong(values[i]);
+				}
+			}
+			return new Run(file, count);
+		} catch (IOException e) {
+			if (file != null) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+			}
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Führt alle Zwischendateien zur Indexdatei zusammen. Es wird immer der
+	 * kleinste aktuelle Eintrag aller Zwischendateien übernommen.
+	 */
+	private static void merge(List<Run> runs, Path indexFile) throws IOException {
+		long total = 0;
+		PriorityQueue<RunReader> queue = new PriorityQueue<>();
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16))) {
+			for (Run run : runs) {
+				total += run.size();
+				RunReader reader = new RunReader(run);
+				if (reader.next()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+
+			out.writeInt(MAGIC);
+			out.writeInt(ENTRY_SIZE);
+			out.writeLong(total);
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				out.writeLong(reader.hash);
+				out.writeLong(reader.value);
+				if (reader.next()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+		} finally {
+			for (RunReader reader : queue) {
+				reader.close();
+			}
+		}
+	}
+
+	/**
+	 * Öffnet einen gespeicherten Index
+	 *
+	 * @param indexFile
+	 *            die mit {@link #build(PGNIndex, Path, int)} erstellte Datei
+	 * @return der Index
+	 * @throws IOException
+	 *             falls die Datei nicht gelesen werden kann oder kein Index ist
+	 */
+	public static PositionIndex open(Path indexFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			long size = header.getLong(8);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != ENTRY_SIZE
+					|| channel.size() != HEADER_SIZE + size * ENTRY_SIZE) {
+				throw new IOException("Die Datei " + indexFile + " ist kein gültiger Stellungsindex");
+			}
+
+			// das Einblenden bleibt auch nach dem Schließen des Kanals gültig
+			long entriesPerChunk = 1L << CHUNK_SHIFT;
+			MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + entriesPerChunk - 1) >>> CHUNK_SHIFT)];
+			for (int i = 0; i < chunks.length; i++) {
+				long entries = Math.min(entriesPerChunk, size - i * entriesPerChunk);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + i * entriesPerChunk * ENTRY_SIZE,
+						entries * ENTRY_SIZE);
+			}
+			return new PositionIndex(chunks, size);
+		}
+	}
+
+	/**
+	 * @return Anzahl aller Einträge, also aller Stellungen aller Spiele
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Sucht alle Spiele, in denen die aktuelle Stellung des Bretts vorkam
+	 *
+	 * @param board
+	 *            das Brett mit der gesuchten Stellung
+	 * @return alle Vorkommen, nach Spielnummer und Halbzug sortiert
+	 */
+	public List<Occurrence> find(Board board) {
+		return find(board.getRepetitionHash());
+	}
+
+	/**
+	 * Sucht alle Vorkommen einer Stellung
+	 *
+	 * @param positionHash
+	 *            Hash der Stellung, siehe {@link Board#getRepetitionHash()}
+	 * @return alle Vorkommen, nach Spielnummer und Halbzug sortiert
+	 */
+	public List<Occurrence> find(long positionHash) {
+		long low = 0;
+		long high = size;
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			if (hashAt(middle) < positionHash) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		List<Occurrence> occurrences = new ArrayList<>();
+		for (long i = low; i < size && hashAt(i) == positionHash; i++) {
+			long value = valueAt(i);
+			occurrences.add(new Occurrence((int) (value >>> 32), (int) value));
+		}
+		return occurrences;
+	}
+
+	private long hashAt(long entry) {
+		return chunks[(int) (entry >>> CHUNK_SHIFT)].getLong(offsetInChunk(entry));
+	}
+
+	private long valueAt(long entry) {
+		return chunks[(int) (entry >>> CHUNK_SHIFT)].getLong(offsetInChunk(entry) + 8);
+	}
+
+	private static int offsetInChunk(long entry) {
+		return (int) (entry & ((1L << CHUNK_SHIFT) - 1)) * ENTRY_SIZE;
+	}
+
+	private static long encode(int game, int ply) {
+		return (long) game << 32 | ply;
+	}
+
+	/**
+	 * Sortiert die Einträge nach Hash und danach nach Spielnummer und Halbzug.
+	 * Beide Arrays werden gemeinsam vertauscht, so entstehen keine Objekte pro
+	 * Eintrag.
+	 */
+	private static void sort(long[] hashes, long[] values, int from, int to) {
+		while (to - from > 16) {
+			int middle = (from + to) >>> 1;
+			long pivotHash = hashes[middle];
+			long pivotValue = values[middle];
+			int i = from;
+			int j = to - 1;
+			while (i <= j) {
+				while (compare(hashes[i], values[i], pivotHash, pivotValue) < 0) {
+					i++;
+				}
+				while (compare(hashes[j], values[j], pivotHash, pivotValue) > 0) {
+					j--;
+				}
+				if (i <= j) {
+					swap(hashes, values, i++, j--);
+				}
+			}
+			// den kleineren Teil rekursiv, den größeren in der Schleife sortieren
+			if (j + 1 - from < to - i) {
+				sort(hashes, values, from, j + 1);
+				from = i;
+			} else {
+				sort(hashes, values, i, to);
+				to = j + 1;
+			}
+		}
+
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from && compare(hashes[j], values[j], hashes[j - 1], values[j - 1]) < 0; j--) {
+				swap(hashes, values, j, j - 1);
+			}
+		}
+	}
+
+	private static int compare(long hash, long value, long otherHash, long otherValue) {
+		int result = Long.compare(hash, otherHash);
+		return result != 0 ? result : Long.compare(value, otherValue);
+	}
+
+	private static void swap(long[] hashes, long[] values, int i, int j) {
+		long hash = hashes[i];
+		hashes[i] = hashes[j];
+		hashes[j] = hash;
+		long value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+	}
+
+	/**
+	 * Liest eine Zwischendatei Eintrag für Eintrag
+	 */
+	private static final class RunReader implements Comparable<RunReader> {
+
+		private final DataInputStream in;
+		private long remaining;
+		private long hash;
+		private long value;
+
+		private RunReader(Run run) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file()), 1 << 16));
+			this.remaining = run.size();
+		}
+
+		/**
+		 * @return ob ein weiterer Eintrag gelesen wurde
+		 */
+		private boolean next() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			remaining--;
+			hash = in.readLong();
+			value = in.readLong();
+			return true;
+		}
+
+		private void close() throws IOException {
+			in.close();
+		}
+
+		@Override
+		public int compareTo(RunReader other) {
+			return compare(hash, value, other.hash, other.value);
+		}
+	}
+}
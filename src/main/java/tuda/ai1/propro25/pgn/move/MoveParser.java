@@ -1,8 +1,6 @@
 /* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
 package tuda.ai1.propro25.pgn.move;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import tuda.ai1.propro25.model.Coordinate;
 import tuda.ai1.propro25.pgn.PGNParseException;
 
@@ -10,12 +8,25 @@ import tuda.ai1.propro25.pgn.PGNParseException;
  * Diese Klasse ist dafür verantwortlich, in Standard Algebraischer Notation
  * (SAN) kodierte Züge im Kontext von PGN zu parsen. Für das Format siehe
  * <a href="https://www.chessprogramming.org/Algebraic_Chess_Notation">hier</a>.
+ * <p>
+ * Der Zug wird von Hand zerlegt statt über reguläre Ausdrücke: Schach-Suffix,
+ * Umwandlung, Zielfeld und Schlagzeichen werden von hinten abgetrennt, der Rest
+ * am Anfang kann nur noch Figur, Startspalte und Startreihe enthalten. Mit
+ * {@link #parseMove(CharSequence, int, int)} kann direkt aus dem Puffer des
+ * Tokenizers gelesen werden, ohne vorher einen String zu erzeugen.
  */
 public class MoveParser {
 
-	private static final Pattern MOVE_PATTERN = Pattern
-			.compile("([RNBQK])?([a-h])?([1-8])?(x)?([a-h][1-8])(=[RNBQK])?([+#])?$");
-	private static final Pattern CASTLING_PATTERN = Pattern.compile("O-O(-O)?([+#])?$");
+	/** Alle 64 Felder, damit nicht für jeden Zug ein neues erzeugt wird */
+	private static final Coordinate[] SQUARES = new Coordinate[64];
+
+	static {
+		for (int file = 0; file < 8; file++) {
+			for (int rank = 0; rank < 8; rank++) {
+				SQUARES[file * 8 + rank] = new Coordinate(file, rank);
+			}
+		}
+	}
 
 	/**
 	 * Parst einen Spielzug, der von input kodiert wird.
@@ -27,23 +38,75 @@ public class MoveParser {
 	 *             falls der Eingabestring keinen validen Spielzug enthält
 	 */
 	public PGNMove parseMove(String input) throws PGNParseException {
-		Matcher castlingMatcher = CASTLING_PATTERN.matcher(input);
-		if (castlingMatcher.matches()) {
-			return parseCastlingMove(castlingMatcher);
+		return parseMove(input, 0, input.length());
+	}
+
+	/**
+	 * Parst einen Spielzug aus einem Ausschnitt der Eingabe
+	 *
+	 * @param input
+	 *            die Eingabe, z.B. der Puffer des Tokenizers
+	 * @param start
+	 *            Index des ersten Zeichens des Zugs
+	 * @param end
+	 *            Index nach dem letzten Zeichen des Zugs
+	 * @return den geparsten Spielzug
+	 * @throws PGNParseException
+	 *             falls der Ausschnitt keinen validen Spielzug enthält
+	 */
+	public PGNMove parseMove(CharSequence input, int start, int end) throws PGNParseException {
+		int last = end;
+		Checking checking = Checking.NONE;
+		if (last > start && input.charAt(last - 1) == '+') {
+			checking = Checking.CHECK;
+			last--;
+		} else if (last > start && input.charAt(last - 1) == '#') {
+			checking = Checking.CHECKMATE;
+			last--;
+		}
+
+		if (matches(input, start, last, "O-O-O")) {
+			return new CastlingPGNMove(false, checking);
+		}
+		if (matches(input, start, last, "O-O")) {
+			return new CastlingPGNMove(true, checking);
+		}
+
+		Character promotionPiece = null;
+		if (last - start >= 2 && input.charAt(last - 2) == '=' && isPieceSymbol(input.charAt(last - 1))) {
+			promotionPiece = input.charAt(last - 1);
+			last -= 2;
 		}
 
-		Matcher matcher = MOVE_PATTERN.matcher(input);
-		if (!matcher.matches()) {
-			throw new PGNParseException("Der String '" + input + "' kodiert keinen Zug in algebraischer Notation");
+		if (last - start < 2 || !isFile(input.charAt(last - 2)) || !isRank(input.charAt(last - 1))) {
+			throw notAMove(input, start, end);
 		}
+		Coordinate to = SQUARES[(input.charAt(last - 2) - 'a') * 8 + input.charAt(last - 1) - '1'];
+		last -= 2;
 
-		char piece = parsePieceSymbol(matcher.group(1));
-		int fromFile = parseOptionalFile(matcher.group(2));
-		int fromRank = parseOptionalRank(matcher.group(3));
-		boolean capture = matcher.group(4) != null;
-		Coordinate to = parseSquare(matcher.group(5));
-		Character promotionPiece = parsePromotion(matcher.group(6));
-		Checking checking = parseChecking(matcher.group(7));
+		boolean capture = last > start && input.charAt(last - 1) == 'x';
+		if (capture) {
+			last--;
+		}
+
+		// übrig bleiben höchstens Figur, Startspalte und Startreihe in dieser
+		// Reihenfolge
+		int position = start;
+		char piece = 'P';
+		if (position < last && isPieceSymbol(input.charAt(position))) {
+			piece = input.charAt(position++);
+		}
+		int fromFile = -1;
+		if (position < last && isFile(input.charAt(position))) {
+			fromFile = input.charAt(position++) - 'a';
+		}
+		int fromRank = -1;
+		if (position < last && isRank(input.charAt(position))) {
+			fromRank = input.charAt(position++) - '1';
+		}
+		if (position != last) {
+			throw notAMove(input, start, end);
+		}
 
 		if (piece == 'P' && fromFile == -1 && fromRank != -1) {
 			throw new PGNParseException(
@@ -62,97 +125,38 @@ public class MoveParser {
 	}
 
 	/**
-	 * Parst eine Rochade
-	 * 
-	 * @param matcher
-	 *            der Matcher, der die Rochade gematcht hat
-	 * @return den geparsten Rochaden-Zug
-	 */
-	private CastlingPGNMove parseCastlingMove(Matcher matcher) {
-		String queenSide = matcher.group(1);
-		String checkingString = matcher.group(2);
-
-		return new CastlingPGNMove(queenSide == null, parseChecking(checkingString));
-	}
-
-	/**
-	 * Parst das Figurensymbol, das vom Eingabestring kodiert wird.
-	 * 
-	 * @param symbol
-	 *            der Eingabestring
-	 * @return das kodierte Figurensymbol
+	 * @return ob der Ausschnitt genau aus dem erwarteten Text besteht
 	 */
-	private char parsePieceSymbol(String symbol) {
-		if (symbol == null) {
-			return 'P';
+	private boolean matches(CharSequence input, int start, int end, String expected) {
+		if (end - start != expected.length()) {
+			return false;
 		}
-
-		// Wir können uns darauf verlassen, dass dieser Buchstabe ein Symbol ist,
-		// wenn der Eingabestring immer aus der Regex-Match kommt.
-		return symbol.charAt(0);
-	}
-
-	/**
-	 * @param file
-	 *            kodierte Spalte oder null
-	 * @return die 0-basierte Spalte oder -1, falls Eingabe null
-	 */
-	private int parseOptionalFile(String file) {
-		return file == null ? -1 : file.charAt(0) - 'a';
+		for (int i = 0; i < expected.length(); i++) {
+			if (input.charAt(start + i) != expected.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
-	/**
-	 * @param rank
-	 *            kodierte Reihe oder null
-	 * @return die 0-basierte Reihe oder -1, falls Eingabe null
-	 */
-	private int parseOptionalRank(String rank) {
-		return rank == null ? -1 : rank.charAt(0) - '1';
+	private PGNParseException notAMove(CharSequence input, int start, int end) {
+		return new PGNParseException("Der String '" + input.subSequence(start, end)
+				+ "' kodiert keinen Zug in algebraischer Notation");
 	}
 
 	/**
-	 * @param square
-	 *            das Feld kodiert in SAN
-	 * @return das vollständige Feld, das von dem Eingabestring kodiert ist
+	 * @return ob das Zeichen eine Figur außer dem Bauern bezeichnet
 	 */
-	private Coordinate parseSquare(String square) {
-		int file = square.charAt(0) - 'a';
-		int rank = square.charAt(1) - '1';
-		return new Coordinate(file, rank);
+	private boolean isPieceSymbol(char c) {
+		return c == 'R' || c == 'N' || c == 'B' || c == 'Q' || c == 'K';
 	}
 
-	/**
-	 * @param promotion
-	 *            die kodierte Promotion oder null
-	 * @return das Figurensymbol, zu dem promoted wird oder null, falls der
-	 *         Eingabestring null ist
-	 */
-	private Character parsePromotion(String promotion) {
-		if (promotion == null) {
-			return null;
-		}
-
-		// an Position 0 ist das '='
-		return promotion.charAt(1);
+	private boolean isFile(char c) {
+		return c >= 'a' && c <= 'h';
 	}
 
-	/**
-	 * @param checkingString
-	 *            die Schachmöglichkeiten oder null, falls keine
-	 * @return die im Eingabestring kodiert Schachmöglichkeit oder
-	 *         {@link Checking#NONE}, falls null
-	 */
-	private Checking parseChecking(String checkingString) {
-		if (checkingString == null) {
-			return Checking.NONE;
-		}
-
-		return switch (checkingString) {
-			case "+" -> Checking.CHECK;
-			case "#" -> Checking.CHECKMATE;
-			default -> throw new RuntimeException(
-					"Darf nicht passieren! '" + checkingString + "' kodiert keine Schachinformationen");
-		};
+	private boolean isRank(char c) {
+		return c >= '1' && c <= '8';
 	}
 
 }
@@ -0,0 +1,113 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.tournament;
+
+import tuda.ai1.propro25.ai.AIOpponent;
+import tuda.ai1.propro25.ai.DeepeningAI;
+import tuda.ai1.propro25.ai.MCTSAI;
+import tuda.ai1.propro25.ai.PruningAI;
+import tuda.ai1.propro25.ai.SearchAI;
+import tuda.ai1.propro25.ai.TrueRandomOpponent;
+import tuda.ai1.propro25.model.Color;
+
+/**
+ * Beschreibt eine AI-Konfiguration, die im Turnier antritt. Die textuelle Form
+ * ist {@code typ[:tiefe]}, z.B. {@code deepening:4} oder {@code random}.
+ *
+ * @param type
+ *            Art der AI ({@code search}, {@code pruning}, {@code deepening},
+ *            {@code mcts} oder {@code random})
+ * @param depth
+ *            Suchtiefe der AI, wird bei {@code mcts} und {@code random}
+ *            ignoriert
+ */
+public record EngineSpec(String type, int depth) {
+
+	/** Zeit, mit der die AIs als Spieler erstellt werden. Das Turnier hat keine Uhr */
+	private static final int PLAYER_TIME = 600;
+
+	public EngineSpec {
+		if (type == null) {
+			throw new IllegalArgumentException("AI-Typ darf nicht null sein!");
+		}
+		if (!type.equals("search") && !type.equals("pruning") && !type.equals("deepening")
+				&& !type.equals("mcts") && !type.equals("random")) {
+			throw new IllegalArgumentException("Unbekannter AI-Typ: " + type);
+		}
+		if (!type.equals("random") && !type.equals("mcts") && depth <= 0) {
+			throw new IllegalArgumentException("Rechentiefe muss mindestens 1 sein!");
+		}
+	}
+
+	/**
+	 * Liest eine Konfiguration in der Form {@code typ[:tiefe]}
+	 *
+	 * @param spec
+	 *            die textuelle Konfiguration
+	 * @return die gelesene Konfiguration
+	 */
+	public static EngineSpec parse(String spec) {
+		String[] parts = spec.trim().toLowerCase().split(":");
+		if (parts.length > 2) {
+			throw new IllegalArgumentException("Ungültige AI-Konfiguration: " + spec);
+		}
+		try {
+			int depth = parts.length == 2
+					? Integer.parseInt(parts[1])
+					: (parts[0].equals("random") || parts[0].equals("mcts") ? 0 : 3);
+			return new EngineSpec(parts[0], depth);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Ungültige Tiefe in AI-Konfiguration: " + spec, e);
+		}
+	}
+
+	/**
+	 * Erstellt eine neue AI dieser Konfiguration. Jede Partie bekommt eigene
+	 * Instanzen, da die AIs während der Suche Zustand halten.
+	 *
+	 * @param color
+	 *            Figurenfarbe der AI
+	 * @param nodeLimit
+	 *            maximale Anzahl Knoten (bei {@code mcts} Playouts) pro Zug, 0 für
+	 *            unbegrenzt
+	 * @param timeLimitMillis
+	 *            maximale Bedenkzeit pro Zug in Millisekunden, 0 für unbegrenzt
+	 * @return die neue AI
+	 */
+	public AIOpponent create(Color color, long nodeLimit, long timeLimitMillis) {
+		String name = toString();
+		if (type.equals("mcts")) {
+			// Die Partien laufen bereits parallel, daher sucht jede MCTS-AI mit nur einem
+			// Thread
+			MCTSAI mcts = new MCTSAI(name, color, PLAYER_TIME, 1);
+			if (nodeLimit > 0 || timeLimitMillis > 0) {
+				mcts.setPlayoutLimit(nodeLimit);
+				mcts.setTimeLimit(timeLimitMillis);
+			}
+			return mcts;
+		}
+		SearchAI ai = switch (type) {
+			case "search" -> new SearchAI(name, color, PLAYER_TIME, depth);
+			case "pruning" -> new PruningAI(name, color, PLAYER_TIME, depth);
+			case "deepening" -> new DeepeningAI(name, color, PLAYER_TIME, depth);
+			default -> null;
+		};
+		if (ai == null) {
+			return new TrueRandomOpponent(name, color, PLAYER_TIME);
+		}
+		ai.setNodeLimit(nodeLimit);
+		ai.setTimeLimit(timeLimitMillis);
+		return ai;
+	}
+
+	/**
+	 * @return true, wenn die AI dieser Konfiguration eine Suchtiefe hat
+	 */
+	private boolean hasDepth() {
+		return !type.equals("random") && !type.equals("mcts");
+	}
+
+	@Override
+	public String toString() {
+		return hasDepth() ? type + ":" + depth : type;
+	}
+}
@@ -0,0 +1,220 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.tournament;
+
+/**
+ * Sammelt die Ergebnisse eines Wettkampfs zwischen zwei AIs aus Sicht der
+ * ersten AI und berechnet daraus Elo-Differenz, LOS (likelihood of
+ * superiority) und den Stand eines SPRT (sequential probability ratio test).
+ * Ergebnisse dürfen aus mehreren Threads gleichzeitig eingetragen werden.
+ */
+public class MatchStatistics {
+
+	/** Quantil der Normalverteilung für ein 95% Konfidenzintervall */
+	private static final double Z_95 = 1.959964;
+
+	/**
+	 * Entscheidung des SPRT
+	 */
+	public enum SprtResult {
+		/** H1 angenommen: die erste AI ist mindestens elo1 stärker */
+		PASSED,
+		/** H0 angenommen: die erste AI ist höchstens elo0 stärker */
+		FAILED,
+		/** Noch nicht genug Partien für eine Entscheidung */
+		UNDECIDED
+	}
+
+	private int wins;
+	private int draws;
+	private int losses;
+
+	/**
+	 * Trägt eine gewonnene Partie der ersten AI ein
+	 */
+	public synchronized void addWin() {
+		wins++;
+	}
+
+	/**
+	 * Trägt ein Remis ein
+	 */
+	public synchronized void addDraw() {
+		draws++;
+	}
+
+	/**
+	 * Trägt eine verlorene Partie der ersten AI ein
+	 */
+	public synchronized void addLoss() {
+		losses++;
+	}
+
+	public synchronized int getWins() {
+		return wins;
+	}
+
+	public synchronized int getDraws() {
+		return draws;
+	}
+
+	public synchronized int getLosses() {
+		return losses;
+	}
+
+	public synchronized int getGames() {
+		return wins + draws + losses;
+	}
+
+	/**
+	 * @return durchschnittliche Punktzahl der ersten AI pro Partie (0 bis 1)
+	 */
+	public synchronized double getScore() {
+		int games = getGames();
+		return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+	}
+
+	/**
+	 * @return geschätzte Elo-Differenz der ersten zur zweiten AI
+	 */
+	public synchronized double getEloDifference() {
+		return scoreToElo(getScore());
+	}
+
+	/**
+	 * @return halbe Breite des 95% Konfidenzintervalls der Elo-Differenz
+	 */
+	public synchronized double getEloErrorMargin() {
+		int games = getGames();
+		if (games == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double score = getScore();
+		double deviation = Z_95 * Math.sqrt(getVariance() / games);
+		double upper = Math.min(1, score + deviation);
+		double lower = Math.max(0, score - deviation);
+		return (scoreToElo(upper) - scoreToElo(lower)) / 2;
+	}
+
+	/**
+	 * Die LOS gibt an, mit welcher Wahrscheinlichkeit die erste AI tatsächlich
+	 * stärker ist als die zweite. Remis werden dabei nicht berücksichtigt.
+	 *
+	 * @return LOS als Wahrscheinlichkeit zwischen 0 und 1
+	 */
+	public synchronized double getLikelihoodOfSuperiority() {
+		if (wins + losses == 0) {
+			return 0.5;
+		}
+		return 0.5 * (1 + erf((wins - losses) / Math.sqrt(2.0 * (wins + losses))));
+	}
+
+	/**
+	 * Berechnet das Log-Likelihood-Ratio des SPRT mit der Hypothese H0: Elo = elo0
+	 * gegen H1: Elo = elo1. Genutzt wird die übliche Normalapproximation des
+	 * Trinomial-Modells.
+	 *
+	 * @param elo0
+	 *            Elo-Differenz unter H0
+	 * @param elo1
+	 *            Elo-Differenz unter H1
+	 * @return aktuelles Log-Likelihood-Ratio
+	 */
+	public synchronized double getLogLikelihoodRatio(double elo0, double elo1) {
+		int games = getGames();
+		double variance = getVariance();
+		if (games == 0 || variance == 0) {
+			return 0;
+		}
+		double s0 = eloToScore(elo0);
+		double s1 = eloToScore(elo1);
+		return games * (s1 - s0) * (2 * getScore() - s0 - s1) / (2 * variance);
+	}
+
+	/**
+	 * Prüft, ob der SPRT bereits eine Entscheidung treffen kann
+	 *
+	 * @param elo0
+	 *            Elo-Differenz unter H0
+	 * @param elo1
+	 *            Elo-Differenz unter H1
+	 * @param alpha
+	 *            Wahrscheinlichkeit für einen Fehler 1. Art
+	 * @param beta
+	 *            Wahrscheinlichkeit für einen Fehler 2. Art
+	 * @return die Entscheidung des Tests
+	 */
+	public synchronized SprtResult getSprtResult(double elo0, double elo1, double alpha, double beta) {
+		double llr = getLogLikelihoodRatio(elo0, elo1);
+		if (llr >= getSprtUpperBound(alpha, beta)) {
+			return SprtResult.PASSED;
+		}
+		if (llr <= getSprtLowerBound(alpha, beta)) {
+			return SprtResult.FAILED;
+		}
+		return SprtResult.UNDECIDED;
+	}
+
+	/**
+	 * @return Grenze, unterhalb der H0 angenommen wird
+	 */
+	public static double getSprtLowerBound(double alpha, double beta) {
+		return Math.log(beta / (1 - alpha));
+	}
+
+	/**
+	 * @return Grenze, oberhalb der H1 angenommen wird
+	 */
+	public static double getSprtUpperBound(double alpha, double beta) {
+		return Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * @return Varianz der Punktzahl einer einzelnen Partie
+	 */
+	private double getVariance() {
+		int games = getGames();
+		if (games == 0) {
+			return 0;
+		}
+		double score = getScore();
+		return (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2))
+				/ games;
+	}
+
+	/**
+	 * Rechnet eine erwartete Punktzahl in eine Elo-Differenz um
+	 */
+	static double scoreToElo(double score) {
+		if (score <= 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (score >= 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * Rechnet eine Elo-Differenz in eine erwartete Punktzahl um
+	 */
+	static double eloToScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * Näherung der Fehlerfunktion nach Abramowitz und Stegun (7.1.26), der Fehler
+	 * ist kleiner als 1.5e-7
+	 */
+	static double erf(double x) {
+		double t = 1 / (1 + 0.3275911 * Math.abs(x));
+		double polynomial = t * (0.254829592
+				+ t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))));
+		double result = 1 - polynomial * Math.exp(-x * x);
+		return x >= 0 ? result : -result;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "+" + wins + " =" + draws + " -" + losses;
+	}
+}
@@ -0,0 +1,311 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.tournament;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import tuda.ai1.propro25.ai.AIOpponent;
+import tuda.ai1.propro25.fen.EPDReader;
+import tuda.ai1.propro25.fen.EPDRecord;
+import tuda.ai1.propro25.fen.FENCodec;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.Player;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+import tuda.ai1.propro25.pgn.BulkPGNExporter;
+
+/**
+ * Headless Turnier zwischen zwei AI-Konfigurationen. Die Partien werden auf
+ * einem Thread-Pool parallel gespielt, wobei jede Eröffnung zweimal mit
+ * getauschten Farben gespielt wird. Am Ende werden Elo-Differenz, LOS und das
+ * Ergebnis eines SPRT ausgegeben. Sobald der SPRT entschieden ist, werden keine
+ * weiteren Partien mehr gestartet.
+ * <p>
+ * Aufruf:
+ *
+ * <pre>
+ * TournamentRunner --engine1 deepening:4 --engine2 pruning:3 [--games n] [--threads n]
+ *     [--openings datei] [--nodes n] [--movetime ms] [--maxplies n] [--pgn datei]
+ *     [--elo0 e] [--elo1 e] [--alpha a] [--beta b]
+ * </pre>
+ *
+ * Die Eröffnungsdatei enthält pro Zeile eine Stellung als FEN oder EPD. Leere
+ * Zeilen und Zeilen, die mit {@code #} beginnen, werden ignoriert. Endet der
+ * Name der PGN-Datei auf {@code .gz}, wird sie mit GZIP komprimiert.
+ */
+public class TournamentRunner {
+
+	private static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private final EngineSpec engine1;
+	private final EngineSpec engine2;
+	private final List<String> openings;
+	private final int games;
+	private final long nodeLimit;
+	private final long timeLimitMillis;
+	private final int maxPlies;
+	private final double elo0;
+	private final double elo1;
+	private final double alpha;
+	private final double beta;
+	private final BulkPGNExporter pgnOutput;
+
+	private final MatchStatistics statistics = new MatchStatistics();
+	private final AtomicBoolean sprtDecided = new AtomicBoolean(false);
+	private final AtomicInteger finishedGames = new AtomicInteger();
+
+	TournamentRunner(EngineSpec engine1, EngineSpec engine2, List<String> openings, int games, long nodeLimit,
+			long timeLimitMillis, int maxPlies, double elo0, double elo1, double alpha, double beta,
+			BulkPGNExporter pgnOutput) {
+		if (openings.isEmpty()) {
+			throw new IllegalArgumentException("Es muss mindestens eine Eröffnung angegeben werden!");
+		}
+		this.engine1 = engine1;
+		this.engine2 = engine2;
+		this.openings = openings;
+		this.games = games;
+		this.nodeLimit = nodeLimit;
+		this.timeLimitMillis = timeLimitMillis;
+		this.maxPlies = maxPlies;
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		this.alpha = alpha;
+		this.beta = beta;
+		this.pgnOutput = pgnOutput;
+	}
+
+	public static void main(String[] args) throws Exception {
+		EngineSpec engine1 = null;
+		EngineSpec engine2 = null;
+		Path openingFile = null;
+		Path pgnFile = null;
+		int games = 100;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long nodes = 0;
+		long moveTime = 0;
+		int maxPlies = 400;
+		double elo0 = 0;
+		double elo1 = 10;
+		double alpha = 0.05;
+		double beta = 0.05;
+
+		for (int i = 0; i < args.length; i++) {
+			String value = i + 1 < args.length ? args[i + 1] : null;
+			switch (args[i]) {
+				case "--engine1" -> engine1 = EngineSpec.parse(value);
+				case "--engine2" -> engine2 = EngineSpec.parse(value);
+				case "--games" -> games = Integer.parseInt(value);
+				case "--threads" -> threads = Integer.parseInt(value);
+				case "--openings" -> openingFile = Path.of(value);
+				case "--nodes" -> nodes = Long.parseLong(value);
+				case "--movetime" -> moveTime = Long.parseLong(value);
+				case "--maxplies" -> maxPlies = Integer.parseInt(value);
+				case "--pgn" -> pgnFile = Path.of(value);
+				case "--elo0" -> elo0 = Double.parseDouble(value);
+				case "--elo1" -> elo1 = Double.parseDouble(value);
+				case "--alpha" -> alpha = Double.parseDouble(value);
+				case "--beta" -> beta = Double.parseDouble(value);
+				default -> usage("Unbekannte Option: " + args[i]);
+			}
+			i++;
+		}
+		if (engine1 == null || engine2 == null) {
+			usage("Es müssen zwei AIs angegeben werden!");
+		}
+
+		List<String> openings = openingFile == null ? List.of(START_POSITION) : loadOpenings(openingFile);
+		BulkPGNExporter pgnOutput = pgnFile == null
+				? null
+				: BulkPGNExporter.open(pgnFile, pgnFile.getFileName().toString().endsWith(".gz"));
+		try {
+			TournamentRunner runner = new TournamentRunner(engine1, engine2, openings, games, nodes, moveTime,
+					maxPlies, elo0, elo1, alpha, beta, pgnOutput);
+			runner.run(Math.max(1, threads));
+			runner.printSummary();
+		} finally {
+			if (pgnOutput != null) {
+				pgnOutput.close();
+			}
+		}
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println("Aufruf: TournamentRunner --engine1 <typ[:tiefe]> --engine2 <typ[:tiefe]> [--games n]"
+				+ " [--threads n] [--openings datei] [--nodes n] [--movetime ms] [--maxplies n] [--pgn datei]"
+				+ " [--elo0 e] [--elo1 e] [--alpha a] [--beta b]");
+		System.exit(1);
+	}
+
+	/**
+	 * Liest eine Liste an Eröffnungsstellungen. EPD-Zeilen (nur vier Felder und
+	 * evtl. Operationen) werden mit Zugzählern zu vollständigen FENs ergänzt.
+	 *
+	 * @param file
+	 *            Datei mit einer Stellung pro Zeile
+	 * @return Stellungen als FEN
+	 * @throws IOException
+	 *             wenn die Datei nicht gelesen werden konnte
+	 * @throws FENFormatException
+	 *             wenn eine Stellung nicht gültig ist
+	 */
+	static List<String> loadOpenings(Path file) throws IOException, FENFormatException {
+		List<FENFormatException> errors = new ArrayList<>();
+		List<String> openings;
+		FENCodec codec = new FENCodec();
+		StringBuilder fen = new StringBuilder(90);
+		// früh prüfen, damit nicht erst eine Partie mitten im Turnier scheitert
+		try (Stream<EPDRecord> records = EPDReader.stream(file, errors::add)) {
+			openings = records.map(record -> {
+				fen.setLength(0);
+				return codec.encode(record.position(), fen).toString();
+			}).toList();
+		}
+		if (!errors.isEmpty()) {
+			throw errors.get(0);
+		}
+		return openings;
+	}
+
+	/**
+	 * Spielt alle Partien auf einem Thread-Pool
+	 *
+	 * @param threads
+	 *            Anzahl gleichzeitig gespielter Partien
+	 */
+	void run(int threads) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < games; i++) {
+				int gameIndex = i;
+				futures.add(executor.submit(() -> {
+					if (!sprtDecided.get()) {
+						playAndRecord(gameIndex);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Spielt eine Partie, trägt sie in die Statistik ein und exportiert sie
+	 *
+	 * @param gameIndex
+	 *            Nummer der Partie, bestimmt Eröffnung und Farbverteilung
+	 */
+	private void playAndRecord(int gameIndex) throws FENFormatException, IOException {
+		String opening = openings.get((gameIndex / 2) % openings.size());
+		boolean engine1White = gameIndex % 2 == 0;
+		Board board = playGame(opening, engine1White);
+
+		Player winner = board.getWinner();
+		String result;
+		if (winner == null) {
+			statistics.addDraw();
+			result = "1/2-1/2";
+		} else {
+			boolean engine1Won = (winner.getColor() == Color.WHITE) == engine1White;
+			if (engine1Won) {
+				statistics.addWin();
+			} else {
+				statistics.addLoss();
+			}
+			result = winner.getColor() == Color.WHITE ? "1-0" : "0-1";
+		}
+
+		if (pgnOutput != null) {
+			writeGame(board, gameIndex);
+		}
+		if (statistics.getSprtResult(elo0, elo1, alpha, beta) != MatchStatistics.SprtResult.UNDECIDED) {
+			sprtDecided.set(true);
+		}
+		System.out.printf("Partie %d beendet (%d/%d): %s - %s %s, Stand %s%n", gameIndex + 1,
+				finishedGames.incrementAndGet(), games, board.getPlayers()[0].getName(),
+				board.getPlayers()[1].getName(), result, statistics);
+	}
+
+	/**
+	 * Spielt eine einzelne Partie bis zum Ende oder bis zur maximalen Anzahl an
+	 * Halbzügen, ab der die Partie als Remis gewertet wird.
+	 *
+	 * @param opening
+	 *            Startstellung als FEN
+	 * @param engine1White
+	 *            ob die erste AI die weißen Figuren spielt
+	 * @return das Brett nach Ende der Partie
+	 */
+	Board playGame(String opening, boolean engine1White) throws FENFormatException {
+		AIOpponent white = (engine1White ? engine1 : engine2).create(Color.WHITE, nodeLimit, timeLimitMillis);
+		AIOpponent black = (engine1White ? engine2 : engine1).create(Color.BLACK, nodeLimit, timeLimitMillis);
+		Board board = new Board(opening, new Player[]{white, black});
+
+		int plies = 0;
+		while (board.getGameState() == GameState.PAUSED || board.getGameState() == GameState.RUNNING) {
+			if (plies >= maxPlies) {
+				board.agreeToDraw();
+				break;
+			}
+			AIOpponent current = (AIOpponent) board.getCurrentPlayer();
+			Move move = current.getNextMove(board);
+			if (move == null) {
+				board.resignPlayer(current.getColor());
+				break;
+			}
+			board.makeMove(move);
+			plies++;
+		}
+		return board;
+	}
+
+	/**
+	 * Schreibt eine beendete Partie über den {@link BulkPGNExporter} in die PGN-Datei.
+	 * Da alle Partien in dieselbe Datei geschrieben werden, wird auf den Exporter
+	 * synchronisiert.
+	 */
+	private void writeGame(Board board, int gameIndex) throws IOException {
+		String event = "Turnier " + engine1 + " vs. " + engine2 + ", Partie " + (gameIndex + 1);
+		synchronized (pgnOutput) {
+			pgnOutput.exportGame(new HistoricalGame(event, LocalDateTime.now(), board));
+			pgnOutput.flush();
+		}
+	}
+
+	/**
+	 * Gibt die Auswertung des Turniers aus
+	 */
+	void printSummary() {
+		System.out.println("===========================");
+		System.out.println(engine1 + " vs. " + engine2);
+		System.out.println("Partien        : " + statistics.getGames() + " (" + statistics + ")");
+		System.out.printf("Punkte         : %.1f%%%n", statistics.getScore() * 100);
+		System.out.printf("Elo-Differenz  : %.1f +/- %.1f%n", statistics.getEloDifference(),
+				statistics.getEloErrorMargin());
+		System.out.printf("LOS            : %.1f%%%n", statistics.getLikelihoodOfSuperiority() * 100);
+		System.out.printf("SPRT           : LLR %.2f [%.2f, %.2f] (elo0 %.1f, elo1 %.1f) -> %s%n",
+				statistics.getLogLikelihoodRatio(elo0, elo1), MatchStatistics.getSprtLowerBound(alpha, beta),
+				MatchStatistics.getSprtUpperBound(alpha, beta), elo0, elo1,
+				statistics.getSprtResult(elo0, elo1, alpha, beta));
+	}
+
+	MatchStatistics getStatistics() {
+		return statistics;
+	}
+}
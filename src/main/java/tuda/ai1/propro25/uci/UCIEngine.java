@@ -0,0 +1,467 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import tuda.ai1.propro25.ai.DeepeningAI;
+import tuda.ai1.propro25.ai.SearchInfo;
+import tuda.ai1.propro25.ai.TranspositionTable;
+import tuda.ai1.propro25.ai.eval.EndConditionEvaluator;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.PositionSnapshot;
+
+/**
+ * Frontend für das Universal Chess Interface (UCI). Befehle werden zeilenweise
+ * von der Standardeingabe gelesen und die Antworten auf die Standardausgabe
+ * geschrieben. Gerechnet wird mit der {@link DeepeningAI}. So kann die AI
+ * headless von üblichen Schach-GUIs und Turnierprogrammen genutzt werden.
+ * <p>
+ * Das Frontend initialisiert kein JavaFX und kann daher direkt mit
+ * {@code java -cp <klassenpfad> tuda.ai1.propro25.uci.UCIEngine} gestartet
+ * werden.
+ * <p>
+ * Unterstützt werden {@code uci}, {@code isready}, {@code ucinewgame},
+ * {@code position [startpos | fen <fen>] [moves ...]},
+ * {@code go [depth | nodes | movetime | wtime | btime | winc | binc | movestogo | infinite]},
+ * {@code stop}, {@code setoption name [Hash | Threads | MultiPV] value <n>} und
+ * {@code quit}. Mit mehreren Threads suchen zusätzliche AIs dieselbe Stellung
+ * und teilen sich die Transpositionstabelle (lazy SMP), gespielt wird der Zug
+ * des Hauptthreads. Mit MultiPV größer als eins werden die besten Varianten
+ * über {@link DeepeningAI#analyze} berechnet und einzeln ausgegeben.
+ */
+public class UCIEngine {
+
+	static final String ENGINE_NAME = "ProPro25 DeepeningAI";
+	static final String ENGINE_AUTHOR = "TUDA AI1 team";
+
+	/** Tiefe, bis zu der ohne Angabe von depth maximal gesucht wird */
+	static final int MAX_DEPTH = 64;
+	static final int DEFAULT_HASH_MB = 16;
+	static final int MAX_HASH_MB = 4096;
+	static final int MAX_THREADS = 256;
+	static final int MAX_MULTI_PV = 64;
+
+	/** Sicherheitsabstand zur verbleibenden Zeit in Millisekunden */
+	private static final long TIME_BUFFER_MILLIS = 50;
+
+	private final BufferedReader input;
+	private final PrintStream output;
+	private final TranspositionTable transpositionTable = new TranspositionTable(DEFAULT_HASH_MB);
+	private int threads = 1;
+	private int multiPv = 1;
+
+	private Board board = new Board();
+	private Thread searchThread;
+	private boolean searchInfinite;
+
+	/**
+	 * Erstellt ein neues Frontend
+	 *
+	 * @param input
+	 *            Quelle der UCI-Befehle
+	 * @param output
+	 *            Ziel der Antworten
+	 */
+	public UCIEngine(BufferedReader input, PrintStream output) {
+		this.input = input;
+		this.output = output;
+	}
+
+	public static void main(String[] args) throws IOException {
+		BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		new UCIEngine(input, System.out).run();
+	}
+
+	/**
+	 * Liest und verarbeitet Befehle, bis {@code quit} gesendet oder die Eingabe
+	 * geschlossen wird. Bei {@code quit} wird eine laufende Suche sofort beendet,
+	 * bei geschlossener Eingabe darf sie noch regulär zu Ende rechnen.
+	 */
+	public void run() throws IOException {
+		String line;
+		while ((line = input.readLine()) != null) {
+			if (!handleCommand(line.trim())) {
+				stopSearch();
+				return;
+			}
+		}
+		if (searchInfinite) {
+			stopSearch();
+		} else {
+			awaitSearch();
+		}
+	}
+
+	/**
+	 * Verarbeitet einen einzelnen Befehl
+	 *
+	 * @param line
+	 *            die Befehlszeile
+	 * @return false, wenn das Frontend beendet werden soll
+	 */
+	boolean handleCommand(String line) {
+		if (line.isEmpty()) {
+			return true;
+		}
+		String[] tokens = line.split("\\s+");
+		try {
+			switch (tokens[0]) {
+				case "uci" -> {
+					send("id name " + ENGINE_NAME);
+					send("id author " + ENGINE_AUTHOR);
+					send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+					send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+					send("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+					send("uciok");
+				}
+				case "isready" -> send("readyok");
+				case "ucinewgame" -> {
+					stopSearch();
+					transpositionTable.clear();
+					board = new Board();
+				}
+				case "setoption" -> setOption(tokens);
+				case "position" -> setPosition(tokens);
+				case "go" -> go(tokens);
+				case "stop" -> stopSearch();
+				case "quit" -> {
+					return false;
+				}
+				default -> send("info string Unbekannter Befehl: " + tokens[0]);
+			}
+		} catch (IllegalArgumentException | FENFormatException e) {
+			send("info string Fehler: " + e.getMessage());
+		}
+		return true;
+	}
+
+	/**
+	 * Verarbeitet {@code setoption name <name> value <wert>}
+	 */
+	private void setOption(String[] tokens) {
+		int nameIndex = indexOf(tokens, "name");
+		int valueIndex = indexOf(tokens, "value");
+		if (nameIndex < 0 || valueIndex < 0 || valueIndex <= nameIndex + 1 || valueIndex + 1 >= tokens.length) {
+			throw new IllegalArgumentException("Ungültiger setoption-Befehl");
+		}
+		String name = String.join(" ", Arrays.copyOfRange(tokens, nameIndex + 1, valueIndex));
+		int value = Integer.parseInt(tokens[valueIndex + 1]);
+		stopSearch();
+		if (name.equalsIgnoreCase("Hash")) {
+			transpositionTable.resize(Math.max(1, Math.min(MAX_HASH_MB, value)));
+		} else if (name.equalsIgnoreCase("Threads")) {
+			threads = Math.max(1, Math.min(MAX_THREADS, value));
+		} else if (name.equalsIgnoreCase("MultiPV")) {
+			multiPv = Math.max(1, Math.min(MAX_MULTI_PV, value));
+		} else {
+			throw new IllegalArgumentException("Unbekannte Option: " + name);
+		}
+	}
+
+	/**
+	 * Verarbeitet {@code position [startpos | fen <fen>] [moves <zug>...]}
+	 */
+	private void setPosition(String[] tokens) throws FENFormatException {
+		int movesIndex = indexOf(tokens, "moves");
+		int end = movesIndex < 0 ? tokens.length : movesIndex;
+		Board newBoard;
+		if (tokens.length > 1 && tokens[1].equals("startpos")) {
+			newBoard = new Board();
+		} else if (tokens.length > 2 && tokens[1].equals("fen")) {
+			newBoard = new Board(String.join(" ", Arrays.copyOfRange(tokens, 2, end)));
+		} else {
+			throw new IllegalArgumentException("Ungültiger position-Befehl");
+		}
+		if (movesIndex >= 0) {
+			for (int i = movesIndex + 1; i < tokens.length; i++) {
+				Move move = parseMove(newBoard, tokens[i]);
+				if (move == null) {
+					throw new IllegalArgumentException("Illegaler Zug: " + tokens[i]);
+				}
+				newBoard.makeMove(move);
+			}
+		}
+		board = newBoard;
+	}
+
+	/**
+	 * Verarbeitet {@code go} und startet die Suche in einem eigenen Thread, damit
+	 * währenddessen weiter Befehle wie {@code stop} oder {@code isready} gelesen
+	 * werden können
+	 */
+	private void go(String[] tokens) {
+		stopSearch();
+		int depth = MAX_DEPTH;
+		long nodes = 0;
+		long moveTime = 0;
+		long whiteTime = -1;
+		long blackTime = -1;
+		long whiteIncrement = 0;
+		long blackIncrement = 0;
+		int movesToGo = 0;
+		boolean infinite = false;
+		for (int i = 1; i < tokens.length; i++) {
+			switch (tokens[i]) {
+				case "depth" -> depth = Math.max(1, Math.min(MAX_DEPTH, Integer.parseInt(valueOf(tokens, i++))));
+				case "nodes" -> nodes = Long.parseLong(valueOf(tokens, i++));
+				case "movetime" -> moveTime = Long.parseLong(valueOf(tokens, i++));
+				case "wtime" -> whiteTime = Long.parseLong(valueOf(tokens, i++));
+				case "btime" -> blackTime = Long.parseLong(valueOf(tokens, i++));
+				case "winc" -> whiteIncrement = Long.parseLong(valueOf(tokens, i++));
+				case "binc" -> blackIncrement = Long.parseLong(valueOf(tokens, i++));
+				case "movestogo" -> movesToGo = Integer.parseInt(valueOf(tokens, i++));
+				case "infinite" -> infinite = true;
+				default -> {
+					// Unbekannte Parameter (z.B. ponder, searchmoves) werden ignoriert
+				}
+			}
+		}
+		if (!infinite && moveTime == 0) {
+			boolean white = board.getCurrentPlayer().getColor() == Color.WHITE;
+			long remaining = white ? whiteTime : blackTime;
+			long increment = white ? whiteIncrement : blackIncrement;
+			if (remaining >= 0) {
+				moveTime = allocateTime(remaining, increment, movesToGo);
+			}
+		}
+
+		Board searchBoard = board.getBoardDeepCopy();
+		int searchDepth = depth;
+		long nodeLimit = nodes;
+		long timeLimit = infinite ? 0 : moveTime;
+		boolean waitForStop = infinite;
+		searchInfinite = infinite;
+		searchThread = new Thread(() -> search(searchBoard, searchDepth, nodeLimit, timeLimit, waitForStop),
+				"UCI-Suche");
+		searchThread.start();
+	}
+
+	/**
+	 * Teilt die Bedenkzeit für einen Zug aus der verbleibenden Zeit zu
+	 *
+	 * @param remaining
+	 *            verbleibende Zeit in Millisekunden
+	 * @param increment
+	 *            Inkrement pro Zug in Millisekunden
+	 * @param movesToGo
+	 *            Anzahl Züge bis zur nächsten Zeitkontrolle oder 0
+	 * @return Bedenkzeit in Millisekunden
+	 */
+	static long allocateTime(long remaining, long increment, int movesToGo) {
+		long moves = movesToGo > 0 ? movesToGo + 1 : 30;
+		long time = remaining / moves + increment * 3 / 4;
+		return Math.max(1, Math.min(time, remaining - TIME_BUFFER_MILLIS));
+	}
+
+	/**
+	 * Führt die eigentliche Suche aus und sendet am Ende {@code bestmove}. Läuft
+	 * im Suchthread.
+	 */
+	private void search(Board searchBoard, int depth, long nodeLimit, long timeLimit, boolean waitForStop) {
+		// Alle Suchthreads erzeugen ihr eigenes Brett aus demselben Schnappschuss
+		PositionSnapshot snapshot = searchBoard.snapshot();
+		DeepeningAI mainAI = createAI(searchBoard, depth, nodeLimit, timeLimit);
+		List<DeepeningAI> helperAIs = new ArrayList<>();
+		List<Thread> helperThreads = new ArrayList<>();
+		for (int i = 1; i < threads; i++) {
+			DeepeningAI helper = createAI(searchBoard, depth, 0, timeLimit);
+			Thread thread = new Thread(() -> helper.getNextMove(snapshot), "UCI-Hilfssuche-" + i);
+			helperAIs.add(helper);
+			helperThreads.add(thread);
+			thread.start();
+		}
+		Move bestMove;
+		if (multiPv > 1) {
+			List<SearchInfo> lines = mainAI.analyze(snapshot, multiPv, depthLines -> {
+				long nodes = countNodes(mainAI, helperAIs);
+				for (int i = 0; i < depthLines.size(); i++) {
+					send(formatInfo(depthLines.get(i), i + 1, nodes));
+				}
+			});
+			bestMove = lines.isEmpty() ? null : lines.get(0).principalVariation().get(0);
+		} else {
+			mainAI.setSearchListener(info -> send(formatInfo(info, 0, countNodes(mainAI, helperAIs))));
+			bestMove = mainAI.getNextMove(snapshot);
+		}
+
+		for (Thread thread : helperThreads) {
+			thread.interrupt();
+		}
+		// Nach "stop" ist dieser Thread unterbrochen und join würde sofort abbrechen.
+		// Die Hilfsthreads schreiben aber noch in die Transpositionstabelle, daher
+		// wird ohne die Markierung gewartet, bis alle beendet sind.
+		boolean stopped = Thread.interrupted();
+		for (Thread thread : helperThreads) {
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					stopped = true;
+				}
+			}
+		}
+		if (waitForStop && !stopped) {
+			// Bei "go infinite" darf der Zug erst nach "stop" gesendet werden
+			try {
+				Thread.sleep(Long.MAX_VALUE);
+			} catch (InterruptedException e) {
+				stopped = true;
+			}
+		}
+		if (stopped) {
+			Thread.currentThread().interrupt();
+		}
+		send("bestmove " + (bestMove == null ? "0000" : formatMove(bestMove)));
+	}
+
+	private DeepeningAI createAI(Board searchBoard, int depth, long nodeLimit, long timeLimit) {
+		DeepeningAI ai = new DeepeningAI(ENGINE_NAME, searchBoard.getCurrentPlayer().getColor(),
+				searchBoard.getCurrentPlayer().getRemainingTime(), depth);
+		ai.setTranspositionTable(transpositionTable);
+		ai.setNodeLimit(nodeLimit);
+		ai.setTimeLimit(timeLimit);
+		return ai;
+	}
+
+	private static long countNodes(DeepeningAI mainAI, List<DeepeningAI> helperAIs) {
+		long nodes = mainAI.getEvaluatedPositions();
+		for (DeepeningAI helper : helperAIs) {
+			nodes += helper.getEvaluatedPositions();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Beendet eine laufende Suche. Der Suchthread sendet dabei noch seinen besten
+	 * Zug.
+	 */
+	private void stopSearch() {
+		if (searchThread == null) {
+			return;
+		}
+		searchThread.interrupt();
+		awaitSearch();
+	}
+
+	/**
+	 * Wartet, bis der Suchthread beendet ist
+	 */
+	private void awaitSearch() {
+		if (searchThread == null) {
+			return;
+		}
+		try {
+			searchThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		searchThread = null;
+	}
+
+	/**
+	 * Formatiert den Zwischenstand einer Suche als {@code info}-Zeile
+	 *
+	 * @param info
+	 *            Zwischenstand der Suche
+	 * @param multiPv
+	 *            Rang der Variante bei Multi-PV oder 0
+	 * @param nodes
+	 *            Anzahl Knoten aller Suchthreads
+	 * @return die info-Zeile
+	 */
+	static String formatInfo(SearchInfo info, int multiPv, long nodes) {
+		StringBuilder line = new StringBuilder("info depth ").append(info.depth());
+		if (multiPv > 0) {
+			line.append(" multipv ").append(multiPv);
+		}
+		if (EndConditionEvaluator.isMateScore(info.score())) {
+			// Die Bewertung sinkt pro Halbzug bis zum Matt um eins. UCI zählt ganze Züge,
+			// negativ wenn wir matt werden.
+			long plies = Math.round(EndConditionEvaluator.WIN_SCORE - Math.abs(info.score()));
+			line.append(" score mate ").append(info.score() > 0 ? (plies + 1) / 2 : -(plies / 2));
+		} else {
+			line.append(" score cp ").append(Math.round(info.score() * 100));
+		}
+		line.append(" nodes ").append(nodes);
+		line.append(" nps ").append(nodes * 1000 / Math.max(1, info.timeMillis()));
+		line.append(" time ").append(info.timeMillis());
+		if (!info.principalVariation().isEmpty()) {
+			line.append(" pv");
+			for (Move move : info.principalVariation()) {
+				line.append(' ').append(formatMove(move));
+			}
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Formatiert einen Zug in der UCI-Notation, z.B. {@code e2e4} oder
+	 * {@code e7e8q}. Rochaden werden als Königszug angegeben.
+	 *
+	 * @param move
+	 *            der Zug
+	 * @return der Zug in UCI-Notation
+	 */
+	public static String formatMove(Move move) {
+		String notation = move.getFrom().getAlgebraicNotation() + move.getTo().getAlgebraicNotation();
+		if (move.getPromotionPiece() != null) {
+			notation += Character.toLowerCase(move.getPromotionPiece().getAlgebraicNotationSymbol());
+		}
+		return notation;
+	}
+
+	/**
+	 * Sucht den legalen Zug, der zur UCI-Notation passt
+	 *
+	 * @param board
+	 *            Brett, auf dem der Zug ausgeführt werden soll
+	 * @param notation
+	 *            Zug in UCI-Notation
+	 * @return der passende legale Zug oder null
+	 */
+	static Move parseMove(Board board, String notation) {
+		for (Move move : board.findAllLegalMoves()) {
+			if (formatMove(move).equals(notation)) {
+				return move;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return der Wert hinter dem Parameter an der Stelle index
+	 * @throws IllegalArgumentException
+	 *             falls der Befehl nach dem Parameter endet
+	 */
+	private static String valueOf(String[] tokens, int index) {
+		if (index + 1 >= tokens.length) {
+			throw new IllegalArgumentException("Fehlender Wert für " + tokens[index]);
+		}
+		return tokens[index + 1];
+	}
+
+	private static int indexOf(String[] tokens, String token) {
+		for (int i = 0; i < tokens.length; i++) {
+			if (tokens[i].equals(token)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void send(String line) {
+		synchronized (output) {
+			output.println(line);
+			output.flush();
+		}
+	}
+}
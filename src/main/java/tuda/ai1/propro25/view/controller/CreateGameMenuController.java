@@ -15,9 +15,8 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
-import tuda.ai1.propro25.ai.DeepeningAI;
-import tuda.ai1.propro25.ai.PruningAI;
-import tuda.ai1.propro25.ai.SearchAI;
+import tuda.ai1.propro25.ai.DifficultyLevel;
+import tuda.ai1.propro25.ai.MCTSAI;
 import tuda.ai1.propro25.ai.TrueRandomOpponent;
 import tuda.ai1.propro25.fen.FENFormatException;
 import tuda.ai1.propro25.model.Board;
@@ -68,7 +67,7 @@ public class CreateGameMenuController {
 
 	public enum OpponentLevel {
 		LOCAL("Gegen Spieler (Lokal)"), AI_RANDOM("KI (Zufallszug)"), AI_EASY("KI (schwach)"), AI_MEDIUM(
-				"KI (mittel)"), AI_HARD("KI (stark)");
+				"KI (mittel)"), AI_HARD("KI (stark)"), AI_MCTS("KI (Monte Carlo)");
 
 		private final String displayName;
 
@@ -242,9 +241,10 @@ public class CreateGameMenuController {
 
 		Player opponent = switch (selectedOpponent) {
 			case LOCAL -> new Player(aiName, aiColor, time);
-			case AI_EASY -> new SearchAI(aiName, aiColor, time, 2);
-			case AI_MEDIUM -> new PruningAI(aiName, aiColor, time, 3);
-			case AI_HARD -> new DeepeningAI(aiName, aiColor, time, 4);
+			case AI_EASY -> DifficultyLevel.EASY.createOpponent(aiName, aiColor, time);
+			case AI_MEDIUM -> DifficultyLevel.MEDIUM.createOpponent(aiName, aiColor, time);
+			case AI_HARD -> DifficultyLevel.HARD.createOpponent(aiName, aiColor, time);
+			case AI_MCTS -> new MCTSAI(aiName, aiColor, time);
 			case AI_RANDOM -> new TrueRandomOpponent(aiName, aiColor, time);
 		};
 
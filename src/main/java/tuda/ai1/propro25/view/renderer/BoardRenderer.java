@@ -7,6 +7,7 @@ import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.PositionSnapshot;
 import tuda.ai1.propro25.model.piece.Piece;
 import tuda.ai1.propro25.view.util.PieceImageLoader;
 
@@ -87,7 +88,7 @@ public class BoardRenderer {
 	 * Schachbretts</li>
 	 * </ul>
 	 */
-	public void redrawBoard(Piece[][] board) {
+	public void redrawBoard(PositionSnapshot board) {
 		clearCanvas();
 		calcBoardLayout();
 		drawSquares();
@@ -284,14 +285,14 @@ public class BoardRenderer {
 	 * Zeichnet die Schachfiguren auf das Canvas.
 	 *
 	 * @param board
-	 *            Das {@link Board}-Objekt, das den aktuellen Zustand des
+	 *            Schnappschuss des {@link Board}s, der den aktuellen Zustand des
 	 *            Schachbretts enthält, einschließlich der Schachfiguren auf den
 	 *            einzelnen Feldern.
 	 */
-	public void drawPieces(Piece[][] board) {
+	public void drawPieces(PositionSnapshot board) {
 		for (int x = 0; x < BOARD_SIZE; x++) {
 			for (int y = BOARD_SIZE - 1; y >= 0; y--) {
-				Piece piece = board[x][y];
+				Piece piece = board.getPiece(x, y);
 				if (piece != null) {
 					drawPiece(piece.getFenSymbol(), x, y);
 				}
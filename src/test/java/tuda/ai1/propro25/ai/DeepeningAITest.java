@@ -0,0 +1,81 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.ai.eval.EndConditionEvaluator;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.GameState;
+
+class DeepeningAITest {
+
+	@Test
+	void testAnalyzeMultiPv() throws FENFormatException {
+		// Grundreihenmatt mit Ta8, alle anderen Züge sind deutlich schlechter
+		Board board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+		DeepeningAI ai = new DeepeningAI("Analyse", Color.WHITE, 600, 2);
+		List<Integer> reportedDepths = new ArrayList<>();
+
+		List<SearchInfo> lines = ai.analyze(board, 3, depthLines -> reportedDepths.add(depthLines.get(0).depth()));
+
+		assertEquals(List.of(1, 2), reportedDepths);
+		assertEquals(3, lines.size());
+		assertEquals("a8", lines.get(0).principalVariation().get(0).getTo().getAlgebraicNotation());
+		assertEquals(1, lines.get(0).principalVariation().size());
+		assertNotEquals(lines.get(0).principalVariation().get(0), lines.get(1).principalVariation().get(0));
+		assertNotEquals(lines.get(1).principalVariation().get(0), lines.get(2).principalVariation().get(0));
+		assertTrue(lines.get(0).score() > lines.get(1).score());
+		assertTrue(lines.get(1).score() >= lines.get(2).score());
+	}
+
+	@Test
+	void testPrefersShortestMate() throws FENFormatException {
+		// Matt in 2 mit Td1 Kb8 Td8, bei Tiefe 5 gibt es auch längere Matts
+		Board board = new Board("2k5/8/1K6/8/8/8/8/7R w - - 0 1");
+		DeepeningAI ai = new DeepeningAI("Matt", Color.WHITE, 600, 5);
+
+		SearchInfo line = ai.analyze(board, 1, null).get(0);
+
+		assertEquals(EndConditionEvaluator.WIN_SCORE - 3, line.score());
+		assertEquals("d1", line.principalVariation().get(0).getTo().getAlgebraicNotation());
+	}
+
+	@Test
+	void testRepetitionIgnoresTranspositionTable() {
+		Board board = new Board();
+		for (int i = 0; i < 2; i++) {
+			play(board, "g1f3", "g8f6", "f3g1", "f6g8");
+		}
+		// Die Grundstellung steht jetzt zum dritten Mal auf dem Brett
+		assertEquals(GameState.END_REPETITION, board.getGameState());
+		DeepeningAI ai = new DeepeningAI("Remis", Color.WHITE, 600, 4);
+		TranspositionTable table = new TranspositionTable(1);
+		ai.setTranspositionTable(table);
+		table.store(board.getZobristHash(), 10, TranspositionTable.BOUND_EXACT, 5, null);
+
+		double expected = ai.evaluate(board);
+		assertEquals(expected, ai.search(board, 3, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+		// Das Ergebnis der Stellung davor hängt vom Remis ab und darf nicht
+		// wiederverwendet werden
+		board.undoLastMove();
+		ai.search(board, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+		assertEquals(0, TranspositionTable.entryDepth(table.probe(board.getZobristHash())));
+	}
+
+	private static void play(Board board, String... moves) {
+		for (String move : moves) {
+			board.makeMove(board.findAllLegalMoves().stream()
+					.filter(legal -> (legal.getFrom().getAlgebraicNotation() + legal.getTo().getAlgebraicNotation())
+							.equals(move))
+					.findFirst().orElseThrow());
+		}
+	}
+}
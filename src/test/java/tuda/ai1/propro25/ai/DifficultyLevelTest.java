@@ -0,0 +1,52 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Move;
+
+class DifficultyLevelTest {
+
+	private static final String FEN = "r1bq1r1k/1pp1n1pp/1p1p4/4p2Q/4Pp2/1BNP4/PPP2PPP/3R1RK1 w - - 2 14";
+
+	@Test
+	void testNodeBudgetIsDeterministic() throws FENFormatException {
+		for (DifficultyLevel level : new DifficultyLevel[]{DifficultyLevel.EASY, DifficultyLevel.MEDIUM}) {
+			DeepeningAI first = level.createOpponent("Test", Color.WHITE, 600);
+			DeepeningAI second = level.createOpponent("Test", Color.WHITE, 600);
+			// Auf langsamen oder ausgelasteten Rechnern würde sonst manchmal das
+			// Zeitlimit vor dem Knotenlimit greifen und die Züge könnten sich
+			// unterscheiden
+			first.setTimeLimit(0);
+			second.setTimeLimit(0);
+
+			Move firstMove = first.getNextMove(new Board(FEN));
+			Move secondMove = second.getNextMove(new Board(FEN));
+
+			assertEquals(firstMove, secondMove);
+			assertEquals(first.getEvaluatedPositions(), second.getEvaluatedPositions());
+			assertTrue(first.getEvaluatedPositions() <= level.getNodeLimit());
+		}
+	}
+
+	@Test
+	void testBudgetStopKeepsCompletedIteration() throws FENFormatException {
+		// hier bevorzugt Tiefe 1 einen anderen Zug als Tiefe 2
+		String fen = "rnbqkb1r/pp3ppp/4pn2/2pp4/3P4/2PBPN2/PP3PPP/RNBQK2R b KQkq - 0 5";
+		DeepeningAI shallow = new DeepeningAI("Test", Color.BLACK, 600, 1);
+		Move shallowMove = shallow.getNextMove(new Board(fen));
+
+		// das Budget reicht nur für die erste Iteration, die zweite wird sofort
+		// abgebrochen
+		DeepeningAI limited = DifficultyLevel.EASY.createOpponent("Test", Color.BLACK, 600);
+		limited.setTimeLimit(0);
+		limited.setNodeLimit(shallow.getEvaluatedPositions() + 1);
+
+		assertEquals(shallowMove, limited.getNextMove(new Board(fen)));
+	}
+}
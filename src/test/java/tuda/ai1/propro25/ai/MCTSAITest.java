@@ -0,0 +1,29 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Move;
+
+class MCTSAITest {
+
+	@Test
+	void testFindsMateInOne() throws FENFormatException {
+		Board board = new Board("r1bqkbnr/pppp1ppp/2n5/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 0 1");
+		// ein Thread mit festem Seed, damit der Test reproduzierbar ist
+		MCTSAI ai = new MCTSAI("MCTS", Color.WHITE, 600, 1);
+		ai.setRandom(new Random(42));
+		ai.setTimeLimit(0);
+		ai.setPlayoutLimit(1000);
+
+		Move move = ai.getNextMove(board);
+
+		assertEquals("h5", move.getFrom().getAlgebraicNotation());
+		assertEquals("f7", move.getTo().getAlgebraicNotation());
+	}
+}
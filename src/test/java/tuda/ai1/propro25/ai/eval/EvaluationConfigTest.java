@@ -0,0 +1,49 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class EvaluationConfigTest {
+
+	@Test
+	void testSaveAndLoad() throws IOException {
+		int[][][] tables = new int[EvaluationConfig.TABLE_COUNT][][];
+		for (int i = 0; i < EvaluationConfig.TABLE_COUNT; i++) {
+			tables[i] = EvaluationConfig.DEFAULT.getTable(i);
+		}
+		tables[EvaluationConfig.KNIGHT][3][4] = 42;
+		EvaluationConfig config = new EvaluationConfig(0.25, 1.1, 0.8, tables);
+
+		Path file = Files.createTempFile("evaluation", ".properties");
+		try {
+			config.save(file, "Test");
+			EvaluationConfig loaded = EvaluationConfig.load(file);
+			assertEquals(0.25, loaded.getCheckWeight());
+			assertEquals(1.1, loaded.getMaterialWeight());
+			assertEquals(0.8, loaded.getPieceSquareWeight());
+			for (int i = 0; i < EvaluationConfig.TABLE_COUNT; i++) {
+				assertEquals(Arrays.deepToString(tables[i]), Arrays.deepToString(loaded.getTable(i)));
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void testLoadRejectsIncompleteTable() throws IOException {
+		Path file = Files.createTempFile("evaluation", ".properties");
+		try {
+			Files.writeString(file, "pst.pawn=1,2,3\n");
+			assertThrows(IOException.class, () -> EvaluationConfig.load(file));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
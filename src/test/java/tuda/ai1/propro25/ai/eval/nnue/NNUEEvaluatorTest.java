@@ -0,0 +1,81 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.ai.eval.nnue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+
+class NNUEEvaluatorTest {
+
+	private static final int HIDDEN_SIZE = 64;
+
+	private static NNUENetwork randomNetwork(long seed) {
+		Random random = new Random(seed);
+		short[] featureWeights = new short[NNUENetwork.INPUT_SIZE * HIDDEN_SIZE];
+		for (int i = 0; i < featureWeights.length; i++) {
+			featureWeights[i] = (short) (random.nextInt(129) - 64);
+		}
+		short[] featureBias = new short[HIDDEN_SIZE];
+		for (int i = 0; i < featureBias.length; i++) {
+			featureBias[i] = (short) random.nextInt(128);
+		}
+		short[] outputWeights = new short[2 * HIDDEN_SIZE];
+		for (int i = 0; i < outputWeights.length; i++) {
+			outputWeights[i] = (short) (random.nextInt(257) - 128);
+		}
+		return new NNUENetwork(HIDDEN_SIZE, 255, 64, 400, featureWeights, featureBias, outputWeights, 1234);
+	}
+
+	@Test
+	void testIncrementalUpdateMatchesRefresh() throws FENFormatException {
+		NNUENetwork network = randomNetwork(1);
+		NNUEEvaluator incremental = new NNUEEvaluator(network);
+		// Stellung mit Rochaden, En-Passant und Umwandlungen
+		Board board = new Board("r3k2r/1P4p1/8/3pP3/8/8/6p1/R3K2R w KQkq d6 0 1");
+		Random random = new Random(2);
+
+		for (int ply = 0; ply < 60; ply++) {
+			List<Move> moves = board.findAllLegalMoves();
+			if (moves.isEmpty() || (board.getGameState() != GameState.RUNNING
+					&& board.getGameState() != GameState.PAUSED)) {
+				break;
+			}
+			board.makeMove(moves.get(random.nextInt(moves.size())));
+			if (random.nextInt(4) == 0 && ply > 0) {
+				board.undoLastMove();
+				assertEquals(freshEvaluation(network, board), incremental.evaluate(board));
+				board.makeMove(board.findAllLegalMoves().get(0));
+			}
+			if (random.nextInt(3) > 0) {
+				assertEquals(freshEvaluation(network, board), incremental.evaluate(board));
+			}
+		}
+	}
+
+	private static double freshEvaluation(NNUENetwork network, Board board) {
+		return new NNUEEvaluator(network, new ScalarKernel()).evaluate(board);
+	}
+
+	@Test
+	void testSaveAndLoad() throws IOException {
+		NNUENetwork network = randomNetwork(3);
+		Board board = new Board();
+		Path file = Files.createTempFile("network", ".nnue");
+		try {
+			network.save(file);
+			NNUENetwork loaded = NNUENetwork.load(file);
+			assertEquals(new NNUEEvaluator(network).evaluate(board), new NNUEEvaluator(loaded).evaluate(board));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.analysis;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class BatchAnalyzerTest {
+
+	@Test
+	void testInvalidPositionDoesNotStopBatch() throws IOException {
+		String input = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\n"
+				+ "rn1qkbnr/p1pppppp/bp6/8/6P1/22NP2/PPPPP2P/R1BQKBNR b KQkq g8 0 3\n" + "# Kommentar\n"
+				+ "6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - bm Ra8#;\n";
+		StringWriter output = new StringWriter();
+
+		new BatchAnalyzer(1, 0).run(new BufferedReader(new StringReader(input)), output, false, 2, 2);
+
+		String[] rows = output.toString().split("\n");
+		assertEquals(4, rows.length);
+		assertTrue(rows[1].startsWith("1,"), rows[1]);
+		assertTrue(rows[1].endsWith(","), rows[1]);
+		assertTrue(rows[2].startsWith("2,"), rows[2]);
+		assertTrue(rows[2].endsWith("\""), rows[2]);
+		assertTrue(rows[3].startsWith("4,6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1,a1a8,"), rows[3]);
+	}
+}
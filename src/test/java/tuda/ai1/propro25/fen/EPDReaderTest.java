@@ -0,0 +1,65 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.fen;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class EPDReaderTest {
+
+	@Test
+	void testStreamsLines() throws FENFormatException {
+		String comment = "x".repeat(100_000); // länger als der Lesepuffer
+		String epd = "# Testsuite\r\n" + "\r\n"
+				+ "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - bm e4 d4; id \"Start\";\r\n"
+				+ "  8/8/8/8/8/8/8/8 w - - id \"leer\";\n" + "8/8/8/8/8/8/8/8 x - - id \"kaputt\";\n"
+				+ "4k3/8/8/8/8/8/8/4K3 b - - 3 40 c0 \"" + comment + "\";";
+
+		List<FENFormatException> errors = new ArrayList<>();
+		List<EPDRecord> records;
+		try (Stream<EPDRecord> stream = EPDReader.stream(new ChunkedInputStream(epd), errors::add)) {
+			records = stream.toList();
+		}
+
+		assertEquals(3, records.size());
+		assertEquals(List.of("e4", "d4"), records.get(0).bestMoves());
+		assertEquals("Start", records.get(0).id());
+		assertEquals(new FENCodec().decode("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"),
+				records.get(0).position());
+		assertEquals("leer", records.get(1).id());
+		assertEquals(40, records.get(2).position().fullMoveClock());
+		assertEquals(comment, records.get(2).comment());
+
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).getMessage().startsWith("Zeile 5: "));
+	}
+
+	/**
+	 * Liefert pro Aufruf von read nur wenige Bytes, damit Zeilen über die Grenzen
+	 * der gelesenen Stücke gehen
+	 */
+	private static class ChunkedInputStream extends InputStream {
+
+		private final ByteArrayInputStream input;
+
+		ChunkedInputStream(String content) {
+			this.input = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public int read() {
+			return input.read();
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			return input.read(buffer, offset, Math.min(length, 7));
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.fen;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.CastlingAvailability;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.model.piece.*;
+
+class FENCodecTest {
+
+	private static final String FEN = "r3k2r/pp1n1ppp/8/2pP4/8/8/PPP2PPP/R3K2R w Kq c6 0 12";
+
+	private final FENCodec codec = new FENCodec();
+
+	@Test
+	void testRoundTrip() throws FENFormatException {
+		FENRecord record = codec.decode(FEN);
+		assertEquals(Color.WHITE, record.activeColor());
+		assertEquals(new CastlingAvailability(true, false, false, true), record.castlingAvailability());
+		assertEquals(new Coordinate(2, 5), record.enPassantTarget());
+		assertEquals(0, record.halfMoveClock());
+		assertEquals(12, record.fullMoveClock());
+		assertEquals(new King(Color.BLACK), record.board()[4][7]);
+		assertEquals(new Knight(Color.BLACK), record.board()[3][6]);
+		assertNull(record.board()[4][4]);
+
+		StringBuilder output = new StringBuilder("FEN: ");
+		assertSame(output, codec.encode(record, output));
+		assertEquals("FEN: " + FEN, output.toString());
+		assertEquals(record, new FENParser().parseRecord(FEN));
+	}
+
+	@Test
+	void testDecodesRanges() throws FENFormatException {
+		String line = "1. " + FEN + " ;";
+		int start = 3;
+		int end = start + FEN.length();
+		FENRecord expected = codec.decode(FEN);
+		assertEquals(expected, codec.decode(line, start, end));
+		assertEquals(expected, codec.decode(line.getBytes(StandardCharsets.US_ASCII), start, end));
+
+		Piece[][] board = new Piece[Board.BOARD_SIZE][Board.BOARD_SIZE];
+		board[4][4] = new Queen(Color.WHITE);
+		FENRecord record = codec.decode(line, start, end, board);
+		assertSame(board, record.board());
+		assertEquals(expected, record);
+	}
+
+	@Test
+	void testRejectsInvalidFEN() {
+		assertError("FEN Record muss genau 6 durch Leerzeichen getrennte Felder enthalten",
+				"8/8/8/8/8/8/8/8 w - - 0");
+		assertError("FEN Record muss genau 6 durch Leerzeichen getrennte Felder enthalten",
+				"8/8/8/8/8/8/8/8 w - - 0 1 x");
+		assertError("Der FEN Brettzustand muss genau 8 durch '/' getrennte Abschnitte enthalten",
+				"8/8/8/8/8/8/8 w - - 0 1");
+		assertError("Zeile 1 enthielt weniger als 8 Figuren", "8/8/8/8/8/8/8/7 w - - 0 1");
+		assertError("Zeile 8 enthält mehr als 8 Figuren", "8p/8/8/8/8/8/8/8 w - - 0 1");
+		assertError("'x' kodiert keine Figur", "8/8/8/8/8/8/8/7x w - - 0 1");
+		assertError("'W' stellt keine Farbe da. Valide Farben sind 'w' und 'b'", "8/8/8/8/8/8/8/8 W - - 0 1");
+		assertError("Rochaden-String konnte nicht geparst werden: Die 1 letzten Buchstaben sind nicht legal"
+				+ " oder die Reihenfolge ist falsch", "8/8/8/8/8/8/8/8 w kK - 0 1");
+		assertError("Die Koordinate i3 ist nicht auf dem Brett", "8/8/8/8/8/8/8/8 w - i3 0 1");
+		assertError("Der String '1x' enthält keine gültige Zahl", "8/8/8/8/8/8/8/8 w - - 1x 1");
+		assertError("Die Zug-Anzahl darf nicht negativ oder 0 sein", "8/8/8/8/8/8/8/8 w - - 0 0");
+	}
+
+	@Test
+	void testRejectsInvalidEnPassantTarget() throws FENFormatException {
+		String message = " liegt nicht hinter einem gerade zwei Felder vorgerückten Bauern";
+		assertError("Das En-Passant-Feld g8" + message,
+				"rn1qkbnr/p1pppppp/bp6/8/6P1/22NP2/PPPPP2P/R1BQKBNR b KQkq g8 0 3");
+		assertError("Das En-Passant-Feld a7" + message, "4k3/8/8/p7/8/8/8/4K3 w - a7 0 1");
+		assertError("Das En-Passant-Feld f1" + message, "4k3/8/8/8/5P2/8/8/4K3 b - f1 0 1");
+		// richtige Reihe, aber kein gegnerischer Bauer davor
+		assertError("Das En-Passant-Feld d6" + message, "4k3/8/8/4pP2/8/8/8/4K3 w - d6 0 1");
+		assertError("Das En-Passant-Feld e3" + message, "4k3/8/8/8/4p3/8/8/4K3 b - e3 0 1");
+		assertThrows(FENFormatException.class, () -> codec.decodeEPD("4k3/8/8/8/4P3/8/8/4K3 w - e3 bm Kd2;"));
+
+		assertEquals(new Coordinate(4, 2), codec.decode("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1").enPassantTarget());
+		assertEquals(new Coordinate(3, 5), codec.decode("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1").enPassantTarget());
+	}
+
+	@Test
+	void testDecodesEPD() throws FENFormatException {
+		EPDRecord record = codec.decodeEPD(
+				"r3k2r/pp1n1ppp/8/2pP4/8/8/PPP2PPP/R3K2R\tw Kq c6 bm dxc6 O-O-O; am Kf1;id \"Test 1\"; fmvn 12;");
+		assertEquals(codec.decode(FEN), record.position());
+		assertEquals(List.of("dxc6", "O-O-O"), record.bestMoves());
+		assertEquals(List.of("Kf1"), record.avoidMoves());
+		assertEquals("Test 1", record.id());
+		assertNull(record.comment());
+		assertEquals(List.of("bm", "am", "id", "fmvn"), List.copyOf(record.operations().keySet()));
+
+		// eine vollständige FEN ist ebenfalls eine gültige Zeile
+		EPDRecord fen = codec.decodeEPD(FEN + " c0 \"Größer\";");
+		assertEquals(codec.decode(FEN), fen.position());
+		assertTrue(fen.bestMoves().isEmpty());
+		byte[] bytes = (FEN + " c0 \"Größer\";").getBytes(StandardCharsets.UTF_8);
+		assertEquals("Größer", codec.decodeEPD(bytes, 0, bytes.length).comment());
+
+		FENRecord clocks = codec.decodeEPD("8/8/8/8/8/8/8/8 w - - hmvc 7;").position();
+		assertEquals(7, clocks.halfMoveClock());
+		assertEquals(1, clocks.fullMoveClock());
+		assertThrows(FENFormatException.class, () -> codec.decodeEPD("8/8/8/8/8/8/8/8 w - - bm e4"));
+		assertThrows(FENFormatException.class, () -> codec.decodeEPD("8/8/8/8/8/8/8/8 w - - id \"offen;"));
+		assertThrows(FENFormatException.class, () -> codec.decodeEPD("8/8/8/8/8/8/8/8 w - - hmvc x;"));
+	}
+
+	private void assertError(String message, String fen) {
+		FENFormatException exception = assertThrows(FENFormatException.class, () -> codec.decode(fen));
+		assertEquals(message, exception.getMessage());
+	}
+}
@@ -0,0 +1,82 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.piece.King;
+
+class BoardTest {
+
+	@Test
+	void testNoCastlingOutOfOrThroughPawnAttack() throws FENFormatException {
+		// der Bauer greift einmal das Start- und einmal das Zwischenfeld des Königs an
+		for (String fen : List.of("k7/8/8/8/8/8/3p4/4K2R w K - 0 1", "k7/8/8/8/8/8/6p1/4K2R w K - 0 1")) {
+			Board board = new Board(fen);
+			Coordinate king = new Coordinate(4, 0);
+			Move castling = board.getPiece(king).getPseudolegalMoves(king, board).stream()
+					.filter(move -> move.getType() == MoveType.CASTLING_KINGSIDE).findFirst().orElseThrow();
+
+			// zuerst ohne berechnete legale Züge, dann über die vollständige Zuggenerierung
+			assertFalse(board.findLegalMovesTo(new King(Color.WHITE), castling.getTo()).contains(castling));
+			assertFalse(board.findAllLegalMoves().contains(castling));
+			assertThrows(IllegalArgumentException.class, () -> board.makeMove(castling));
+		}
+	}
+
+	@Test
+	void testPieceMovesIndependentOfCache() throws FENFormatException {
+		for (String fen : List.of("k7/8/8/8/8/8/3p4/4K2R w K - 0 1", "k7/8/8/8/8/8/6p1/4K2R w K - 0 1",
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1")) {
+			Board board = new Board(fen);
+			List<List<Move>> withoutCache = new ArrayList<>();
+			for (Coordinate square : ownPieces(board)) {
+				withoutCache.add(board.getAllAllowedMovesForPieceOnSquare(square));
+			}
+
+			List<Move> legalMoves = board.findAllLegalMoves();
+			List<Coordinate> squares = ownPieces(board);
+			for (int i = 0; i < squares.size(); i++) {
+				Coordinate square = squares.get(i);
+				assertEquals(legalMoves.stream().filter(move -> move.getFrom().equals(square)).toList(),
+						withoutCache.get(i));
+				assertEquals(withoutCache.get(i), board.getAllAllowedMovesForPieceOnSquare(square));
+			}
+		}
+	}
+
+	@Test
+	void testLegalMovesAfterUndo() {
+		// mehr Züge als legale Züge für undoLastMove gemerkt werden
+		Board board = new Board();
+		Random random = new Random(3);
+		List<List<Move>> legalMoves = new ArrayList<>();
+		while ((board.getGameState() == GameState.RUNNING || board.getGameState() == GameState.PAUSED)
+				&& legalMoves.size() < 150) {
+			List<Move> moves = board.findAllLegalMoves();
+			legalMoves.add(moves);
+			board.makeMove(moves.get(random.nextInt(moves.size())));
+		}
+		for (int i = legalMoves.size() - 1; i >= 0; i--) {
+			board.undoLastMove();
+			assertEquals(legalMoves.get(i), board.findAllLegalMoves());
+		}
+	}
+
+	private static List<Coordinate> ownPieces(Board board) {
+		List<Coordinate> squares = new ArrayList<>();
+		for (int file = 0; file < Board.BOARD_SIZE; file++) {
+			for (int rank = 0; rank < Board.BOARD_SIZE; rank++) {
+				if (board.getPiece(file, rank) != null
+						&& board.getPiece(file, rank).getColor() == board.getCurrentPlayer().getColor()) {
+					squares.add(new Coordinate(file, rank));
+				}
+			}
+		}
+		return squares;
+	}
+}
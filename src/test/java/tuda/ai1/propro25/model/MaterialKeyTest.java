@@ -0,0 +1,57 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+
+class MaterialKeyTest {
+
+	@Test
+	void testIncrementalKeyMatchesBoard() throws FENFormatException {
+		Board board = new Board("r3k2r/1P4P1/8/3pP3/8/8/1p4p1/R3K2R w KQkq d6 0 1");
+		Random random = new Random(7);
+		long[] keys = new long[41];
+		keys[0] = board.getMaterialKey();
+		int plies = 0;
+		while (plies < 40 && !board.findAllLegalMoves().isEmpty()) {
+			List<Move> moves = board.findAllLegalMoves();
+			// Schlagzüge und Umwandlungen bevorzugen, damit sich das Material ändert
+			List<Move> forcing = moves.stream().filter(move -> move.getType() != MoveType.NORMAL).toList();
+			List<Move> candidates = forcing.isEmpty() || random.nextInt(4) == 0 ? moves : forcing;
+			board.makeMove(candidates.get(random.nextInt(candidates.size())));
+			assertEquals(MaterialKey.of(board.getUnmodifiablePieceGrid()), board.getMaterialKey());
+			keys[++plies] = board.getMaterialKey();
+		}
+		for (int i = plies; i > 0; i--) {
+			assertEquals(keys[i], board.getMaterialKey());
+			board.undoLastMove();
+		}
+		assertEquals(keys[0], board.getMaterialKey());
+	}
+
+	@Test
+	void testInsufficientMaterial() throws FENFormatException {
+		assertEquals(GameState.END_MATERIAL, new Board("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getGameState());
+		assertEquals(GameState.END_MATERIAL, new Board("4k3/8/8/8/8/8/8/2B1K1B1 w - - 0 1").getGameState());
+		assertEquals(GameState.END_MATERIAL, new Board("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1").getGameState());
+		assertEquals(GameState.PAUSED, new Board("4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1").getGameState());
+		assertEquals(GameState.PAUSED, new Board("4k3/8/8/8/8/8/8/1N2KB2 w - - 0 1").getGameState());
+		assertEquals(GameState.PAUSED, new Board("4k3/8/8/8/8/8/8/NN2K3 w - - 0 1").getGameState());
+		assertEquals(GameState.PAUSED, new Board("4k3/8/8/8/8/8/P7/4K3 w - - 0 1").getGameState());
+	}
+
+	@Test
+	void testPhase() {
+		long start = new Board().getMaterialKey();
+		assertEquals(MaterialKey.MAX_PHASE, MaterialKey.getPhase(start));
+		assertFalse(MaterialKey.isEndgame(start));
+		assertEquals(39, MaterialKey.getPieceValue(start, Color.WHITE));
+		assertEquals(8, MaterialKey.count(start, Color.BLACK, MaterialKey.PAWN));
+		assertEquals(1, MaterialKey.count(start, Color.BLACK, MaterialKey.LIGHT_BISHOP));
+		assertEquals(1, MaterialKey.count(start, Color.BLACK, MaterialKey.DARK_BISHOP));
+	}
+}
@@ -0,0 +1,51 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.piece.Piece;
+
+class ZobristTest {
+
+	@Test
+	void testIncrementalHashMatchesBoard() throws FENFormatException {
+		Random random = new Random(5);
+		for (String fen : List.of("r3k2r/1P4P1/8/3pP3/8/8/1p4p1/R3K2R w KQkq d6 0 1",
+				"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")) {
+			Board board = new Board(fen);
+			long[] hashes = new long[61];
+			hashes[0] = board.getZobristHash();
+			assertHashMatches(board);
+			int plies = 0;
+			while (plies < 60 && !board.findAllLegalMoves().isEmpty()) {
+				List<Move> moves = board.findAllLegalMoves();
+				// Schlagzüge, Umwandlungen und Rochaden bevorzugen
+				List<Move> special = moves.stream().filter(move -> move.getType() != MoveType.NORMAL).toList();
+				List<Move> candidates = special.isEmpty() || random.nextInt(3) == 0 ? moves : special;
+				board.makeMove(candidates.get(random.nextInt(candidates.size())));
+				assertHashMatches(board);
+				hashes[++plies] = board.getZobristHash();
+			}
+			for (int i = plies; i > 0; i--) {
+				assertEquals(hashes[i], board.getZobristHash());
+				board.undoLastMove();
+				assertHashMatches(board);
+			}
+			assertEquals(hashes[0], board.getZobristHash());
+			assertEquals(new Board(fen).getZobristHash(), board.getZobristHash());
+		}
+	}
+
+	private static void assertHashMatches(Board board) {
+		Piece[][] grid = board.getUnmodifiablePieceGrid();
+		Color color = board.getCurrentPlayer().getColor();
+		assertEquals(Zobrist.hash(grid, color, board.getCastlingAvailability(),
+				Zobrist.enPassantFile(grid, board.getLastMove())), board.getZobristHash());
+		assertEquals(Zobrist.hash(grid, color, board.getCastlingAvailability(), -1), board.getRepetitionHash());
+		assertEquals(board.getZobristHash(), board.getBoardDeepCopy().getZobristHash());
+	}
+}
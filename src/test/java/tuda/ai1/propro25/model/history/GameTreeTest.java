@@ -0,0 +1,53 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.pgn.GameReconstructionException;
+import tuda.ai1.propro25.pgn.GameReconstructor;
+import tuda.ai1.propro25.pgn.PGNExporter;
+import tuda.ai1.propro25.pgn.PGNParseException;
+import tuda.ai1.propro25.pgn.PGNParser;
+
+class GameTreeTest {
+
+	private static final String MOVE_TEXT = "1.e4 e5 (1...c5 2.Nf3 (2.c3 d5) 2...d6) 2.Nf3 Nc6";
+	private static final String PGN = "[White \"A\"]\n[Black \"B\"]\n[Result \"*\"]\n\n" + MOVE_TEXT + " *";
+
+	@Test
+	void testVariationsRoundTrip() throws PGNParseException, GameReconstructionException {
+		GameTree tree = new GameReconstructor(0, 0).reconstructTree(PGNParser.parse(PGN));
+
+		assertEquals(9, tree.size());
+		assertEquals(4, tree.getMainline().size());
+		assertEquals(1, tree.getRoot().getMainline().getVariations().size());
+
+		StringWriter writer = new StringWriter();
+		new PGNExporter(writer).writeMoveText(tree);
+		assertEquals(MOVE_TEXT, writer.toString());
+	}
+
+	@Test
+	void testSharedPrefixAndBoards() {
+		Board board = new Board();
+		GameTree tree = new GameTree(board.snapshot());
+		Move first = board.findAllLegalMoves().get(0);
+
+		GameTree.Node node = tree.getRoot().addMove(first);
+		assertSame(node, tree.getRoot().addMove(first));
+		assertEquals(1, tree.size());
+
+		board.makeMove(first);
+		Move second = board.findAllLegalMoves().get(0);
+		board.makeMove(second);
+		GameTree.Node leaf = node.addMove(second);
+
+		assertEquals(2, leaf.getPly());
+		assertEquals(board.exportToFEN(), tree.createBoard(leaf).exportToFEN());
+		assertEquals(new Board().exportToFEN(), tree.createBoard(tree.getRoot()).exportToFEN());
+	}
+}
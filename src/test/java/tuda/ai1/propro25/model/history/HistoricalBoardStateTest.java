@@ -0,0 +1,66 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.piece.Piece;
+
+class HistoricalBoardStateTest {
+
+	@Test
+	void testReplayedGridsMatchPlayedPositions() throws FENFormatException {
+		String fen = "r3k2r/pppq1ppp/2n5/3pP3/8/2N5/PPPQ1PPP/R3K2R w KQkq d6 0 1";
+		Board board = new Board(fen);
+		Random random = new Random(3);
+		List<Piece[][]> grids = new ArrayList<>();
+		List<String> fens = new ArrayList<>();
+		while (grids.size() < 3 * HistoricalBoardState.CHECKPOINT_INTERVAL
+				&& !board.findAllLegalMoves().isEmpty()) {
+			grids.add(board.getUnmodifiablePieceGrid());
+			fens.add(board.exportToFEN());
+			List<Move> moves = board.findAllLegalMoves();
+			board.makeMove(moves.get(random.nextInt(moves.size())));
+		}
+
+		List<HistoricalBoardState> history = board.getHistory();
+		// Der erste Zustand ist der Doppelschritt aus dem FEN
+		assertTrue(history.get(0).isMoveAlreadyApplied());
+		for (int i = 0; i < grids.size(); i++) {
+			assertArrayEquals(grids.get(i), history.get(i + 1).getPieceGrid());
+		}
+		for (int i = fens.size() - 1; i >= 0; i--) {
+			board.undoLastMove();
+			assertEquals(fens.get(i), board.exportToFEN());
+		}
+	}
+
+	@Test
+	void testThreefoldRepetition() {
+		Board board = new Board();
+		Coordinate g1 = new Coordinate(6, 0);
+		Coordinate f3 = new Coordinate(5, 2);
+		Coordinate g8 = new Coordinate(6, 7);
+		Coordinate f6 = new Coordinate(5, 5);
+		for (int i = 0; i < 2; i++) {
+			board.makeMove(board.getAllAllowedMovesForPieceOnSquare(g1).stream()
+					.filter(move -> move.getTo().equals(f3)).findFirst().orElseThrow());
+			board.makeMove(board.getAllAllowedMovesForPieceOnSquare(g8).stream()
+					.filter(move -> move.getTo().equals(f6)).findFirst().orElseThrow());
+			board.makeMove(board.getAllAllowedMovesForPieceOnSquare(f3).stream()
+					.filter(move -> move.getTo().equals(g1)).findFirst().orElseThrow());
+			assertEquals(GameState.RUNNING, board.getGameState());
+			board.makeMove(board.getAllAllowedMovesForPieceOnSquare(f6).stream()
+					.filter(move -> move.getTo().equals(g8)).findFirst().orElseThrow());
+		}
+		assertEquals(GameState.END_REPETITION, board.getGameState());
+	}
+}
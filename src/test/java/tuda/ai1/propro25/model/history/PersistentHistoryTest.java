@@ -0,0 +1,63 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.model.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Move;
+
+class PersistentHistoryTest {
+
+	@Test
+	void testAppendAndDropAcrossNodeBoundaries() {
+		Board board = new Board();
+		HistoricalBoardState[] states = new HistoricalBoardState[1100];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = new HistoricalBoardState(board, i % 2, null);
+		}
+
+		PersistentHistory history = PersistentHistory.EMPTY;
+		PersistentHistory[] versions = new PersistentHistory[states.length + 1];
+		versions[0] = history;
+		for (int i = 0; i < states.length; i++) {
+			history = history.append(states[i]);
+			versions[i + 1] = history;
+		}
+		// Alte Versionen bleiben unverändert
+		for (int size : new int[]{0, 1, 31, 32, 33, 1024, 1025, 1100}) {
+			assertEquals(size, versions[size].size());
+			for (int i = 0; i < size; i++) {
+				assertSame(states[i], versions[size].get(i));
+			}
+		}
+		// Entfernen liefert wieder dieselben Inhalte wie die alten Versionen
+		for (int size = states.length; size > 0; size--) {
+			history = history.dropLast();
+			assertEquals(size - 1, history.size());
+			if (size - 1 > 0) {
+				assertSame(states[size - 2], history.get(size - 2));
+				assertSame(states[0], history.get(0));
+			}
+		}
+	}
+
+	@Test
+	void testBoardCopiesShareHistoryIndependently() {
+		Board board = new Board();
+		Move first = board.findAllLegalMoves().get(0);
+		board.makeMove(first);
+		Board copy = board.snapshot().getBoardDeepCopy();
+
+		copy.makeMove(copy.findAllLegalMoves().get(0));
+		assertEquals(1, board.getHistory().size());
+		assertEquals(2, copy.getHistory().size());
+		assertSame(board.getHistory().get(0), copy.getHistory().get(0));
+
+		copy.undoLastMove();
+		copy.undoLastMove();
+		assertEquals(1, board.getHistory().size());
+		assertEquals(first, board.getLastMove());
+	}
+}
@@ -0,0 +1,121 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Color;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+
+class BinaryGameCodecTest {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+	@Test
+	void testRoundTripMatchesPGN() throws Exception {
+		Random random = new Random(2);
+		List<HistoricalGame> games = new ArrayList<>();
+		for (int game = 0; game < 20; game++) {
+			Board board = game % 4 == 0
+					? new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")
+					: new Board();
+			while ((board.getGameState() == GameState.RUNNING || board.getGameState() == GameState.PAUSED)
+					&& board.getHistory().size() < 120) {
+				List<Move> moves = board.findAllLegalMoves();
+				board.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+			if (game % 5 == 1 && board.getGameState() == GameState.RUNNING) {
+				board.resignPlayer(Color.BLACK);
+			}
+			games.add(new HistoricalGame("Spiel " + game, TIME, board));
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (BinaryGameWriter writer = new BinaryGameWriter(bytes)) {
+			for (HistoricalGame game : games) {
+				writer.writeGame(game);
+			}
+		}
+
+		try (BinaryGameReader reader = new BinaryGameReader(new ByteArrayInputStream(bytes.toByteArray()), 0, 0)) {
+			for (HistoricalGame game : games) {
+				HistoricalGame read = reader.readGame().toHistoricalGame();
+				assertEquals(export(game), export(read));
+				assertEquals(game.board().getGameState(), read.board().getGameState());
+			}
+			assertNull(reader.readGame());
+		}
+	}
+
+	@Test
+	void testConvertFromPGN() throws Exception {
+		String pgn = "[White \"A\"]\n[Black \"B\"]\n[Result \"1-0\"]\n\n1.f3 e5 2.g4 Qh4# 1-0\n\n"
+				+ "[White \"A\"]\n[Black \"B\"]\n[Result \"0-1\"]\n\n1.f3 e5 2.g4 Qh4# 0-1\n\n"
+				+ "[White \"C\"]\n[Black \"D\"]\n[Result \"1/2-1/2\"]\n\n1.e4 e5 2.Nf3 1/2-1/2\n";
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		List<PGNParseException> errors = new ArrayList<>();
+		BulkGameReconstructor.Statistics statistics = BinaryGameWriter
+				.convert(PGNParser.stream(new StringReader(pgn), errors::add), bytes, 2);
+		assertTrue(errors.isEmpty());
+		assertEquals(3, statistics.games());
+		// das erste Spiel hat ein falsches Ergebnis
+		assertEquals(1, statistics.failedGames());
+
+		try (BinaryGameReader reader = new BinaryGameReader(new ByteArrayInputStream(bytes.toByteArray()), 0, 0)) {
+			BinaryGameReader.Game mate = reader.readGame();
+			assertEquals(GameState.END_CHECKMATE, mate.board().getGameState());
+			assertEquals("0-1", mate.tags().get("Result"));
+
+			BinaryGameReader.Game draw = reader.readGame();
+			assertEquals("C", draw.board().getPlayers()[0].getName());
+			assertEquals(GameState.END_AGREEMENT, draw.board().getGameState());
+			assertEquals(3, draw.board().getHistory().size());
+			assertNull(reader.readGame());
+		}
+	}
+
+	@Test
+	void testRoundTripAfterPawnCheck() throws Exception {
+		// jeder legale Zug muss sich auch über die Züge der einzelnen Figur kodieren
+		// lassen, eine Rochade aus dem Schach heraus darf es dabei nicht geben
+		for (Move first : new Board("k7/8/8/8/8/8/3p4/4K2R w K - 0 1").findAllLegalMoves()) {
+			Board board = new Board("k7/8/8/8/8/8/3p4/4K2R w K - 0 1");
+			board.makeMove(first);
+			HistoricalGame game = new HistoricalGame("Schach", TIME, board);
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (BinaryGameWriter writer = new BinaryGameWriter(bytes)) {
+				writer.writeGame(game);
+			}
+			try (BinaryGameReader reader = new BinaryGameReader(new ByteArrayInputStream(bytes.toByteArray()), 0,
+					0)) {
+				assertEquals(export(game), export(reader.readGame().toHistoricalGame()));
+			}
+		}
+	}
+
+	@Test
+	void testRejectsOtherData() {
+		assertThrows(IOException.class,
+				() -> new BinaryGameReader(new ByteArrayInputStream("[Event".getBytes()), 0, 0));
+	}
+
+	private static String export(HistoricalGame game) {
+		StringWriter writer = new StringWriter();
+		new PGNExporter(writer).exportGame(game);
+		return writer.toString();
+	}
+}
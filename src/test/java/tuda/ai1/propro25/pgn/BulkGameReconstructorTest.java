@@ -0,0 +1,38 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BulkGameReconstructorTest {
+
+	private static final String GAME = "[White \"A\"]\n[Black \"B\"]\n[Result \"1-0\"]\n\n"
+			+ "1.e4 e5 2.Bc4 Nc6 3.Qh5 Nf6 4.Qxf7# 1-0";
+
+	@Test
+	void testResultsKeepInputOrder() throws PGNParseException {
+		PGNGame valid = PGNParser.parse(GAME);
+		PGNGame invalid = PGNParser.parse(GAME.replace("Nf6", "Nf5"));
+		List<PGNGame> games = IntStream.range(0, 100).mapToObj(i -> i % 10 == 3 ? invalid : valid).toList();
+
+		List<BulkGameReconstructor.Result> results = new ArrayList<>();
+		BulkGameReconstructor.Statistics statistics;
+		try (BulkGameReconstructor bulk = new BulkGameReconstructor(2, 0, 0)) {
+			statistics = bulk.reconstructAll(games.stream(), results::add);
+		}
+
+		assertEquals(100, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i, results.get(i).index());
+			assertEquals(i % 10 != 3, results.get(i).isSuccess());
+		}
+		assertEquals(100, statistics.games());
+		assertEquals(10, statistics.failedGames());
+		assertEquals(90 * 7, statistics.plies());
+		assertTrue(statistics.gamesPerSecond() > 0);
+	}
+}
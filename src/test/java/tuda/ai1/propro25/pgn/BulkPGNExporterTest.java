@@ -0,0 +1,100 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+
+class BulkPGNExporterTest {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+	@Test
+	void testMatchesSingleExports() throws FENFormatException {
+		List<HistoricalGame> games = randomGames();
+
+		StringWriter expected = new StringWriter();
+		for (HistoricalGame game : games) {
+			new PGNExporter(expected).exportGame(game);
+			expected.write(System.lineSeparator());
+			expected.write(System.lineSeparator());
+		}
+
+		StringWriter actual = new StringWriter();
+		BulkPGNExporter exporter = new BulkPGNExporter(actual);
+		games.forEach(exporter::exportGame);
+		assertEquals(games.size(), exporter.getExportedGames());
+		assertDoesNotThrow(exporter::close);
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	@Test
+	void testGzipRoundTrip() throws IOException, FENFormatException, GameReconstructionException {
+		List<HistoricalGame> games = randomGames();
+
+		Path file = Files.createTempFile("games", ".pgn.gz");
+		try {
+			try (BulkPGNExporter exporter = BulkPGNExporter.open(file, true)) {
+				assertEquals(games.size(), exporter.exportAll(games.stream()));
+			}
+
+			List<PGNGame> parsed;
+			List<PGNParseException> errors = new ArrayList<>();
+			try (InputStream input = new GZIPInputStream(Files.newInputStream(file))) {
+				parsed = PGNParser.stream(input, errors::add).toList();
+			}
+			assertTrue(errors.isEmpty());
+			assertEquals(games.size(), parsed.size());
+
+			// nachgespielte Partien haben keine gespeicherten legalen Züge, die SAN muss
+			// trotzdem gleich bleiben
+			GameReconstructor reconstructor = new GameReconstructor(0, 0);
+			for (int i = 0; i < games.size(); i++) {
+				Board board = reconstructor.reconstructGame(parsed.get(i));
+				assertEquals(moveText(games.get(i).board()), moveText(board));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static List<HistoricalGame> randomGames() throws FENFormatException {
+		Random random = new Random(3);
+		List<HistoricalGame> games = new ArrayList<>();
+		for (int game = 0; game < 30; game++) {
+			Board board = switch (game % 3) {
+				case 0 -> new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+				case 1 -> new Board("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 20");
+				default -> new Board();
+			};
+			while ((board.getGameState() == GameState.RUNNING || board.getGameState() == GameState.PAUSED)
+					&& board.getHistory().size() < 150) {
+				List<Move> moves = board.findAllLegalMoves();
+				board.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+			games.add(new HistoricalGame("Spiel " + game, TIME, board));
+		}
+		return games;
+	}
+
+	private static String moveText(Board board) {
+		StringWriter writer = new StringWriter();
+		new PGNExporter(writer).writeMoveText(board);
+		return writer.toString();
+	}
+}
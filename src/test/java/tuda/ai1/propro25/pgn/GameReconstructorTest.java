@@ -0,0 +1,59 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.GameState;
+import tuda.ai1.propro25.model.Move;
+import tuda.ai1.propro25.model.history.HistoricalGame;
+
+class GameReconstructorTest {
+
+	@Test
+	void testReplayMatchesPlayedGames() throws PGNParseException, GameReconstructionException {
+		Random random = new Random(1);
+		for (int game = 0; game < 30; game++) {
+			Board board = new Board();
+			while ((board.getGameState() == GameState.RUNNING || board.getGameState() == GameState.PAUSED)
+					&& board.getHistory().size() < 150) {
+				List<Move> moves = board.findAllLegalMoves();
+				board.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+			String pgn = export(board);
+
+			Board reconstructed = new GameReconstructor(0, 0).reconstructGame(pgn);
+
+			assertEquals(board.exportToFEN(), reconstructed.exportToFEN());
+			assertEquals(board.getGameState(), reconstructed.getGameState());
+			for (int i = 0; i < board.getHistory().size(); i++) {
+				assertEquals(board.getHistory().get(i).getColorInCheck(),
+						reconstructed.getHistory().get(i).getColorInCheck());
+			}
+			// ohne gespeicherte legale Züge muss dieselbe SAN entstehen
+			assertEquals(pgn, export(reconstructed));
+		}
+	}
+
+	@Test
+	void testRejectsCastlingOutOfOrThroughPawnAttack() {
+		for (String fen : List.of("k7/8/8/8/8/8/3p4/4K2R w K - 0 1", "k7/8/8/8/8/8/6p1/4K2R w K - 0 1")) {
+			String tags = "[White \"A\"]\n[Black \"B\"]\n[Result \"*\"]\n[SetUp \"1\"]\n[FEN \"" + fen + "\"]\n\n";
+			assertDoesNotThrow(() -> new GameReconstructor(0, 0).reconstructGame(tags + "1. Kd1 *"));
+			GameReconstructionException exception = assertThrows(GameReconstructionException.class,
+					() -> new GameReconstructor(0, 0).reconstructGame(tags + "1. O-O *"));
+			assertTrue(exception.getMessage().startsWith("In diesem Zustand kann keine Figure"));
+		}
+	}
+
+	private static String export(Board board) {
+		StringWriter writer = new StringWriter();
+		new PGNExporter(writer).exportGame(new HistoricalGame("Test", LocalDateTime.of(2025, 1, 1, 0, 0), board));
+		return writer.toString();
+	}
+}
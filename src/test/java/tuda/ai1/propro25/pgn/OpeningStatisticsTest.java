@@ -0,0 +1,58 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Coordinate;
+
+class OpeningStatisticsTest {
+
+	private static PGNGame game(String result, int whiteElo, String moveText) throws PGNParseException {
+		return PGNParser.parse("[White \"A\"]\n[Black \"B\"]\n[WhiteElo \"" + whiteElo + "\"]\n[BlackElo \"2000\"]\n"
+				+ "[Result \"" + result + "\"]\n\n" + moveText + " " + result);
+	}
+
+	@Test
+	void testCountsMovesResultsAndRatings() throws IOException, PGNParseException {
+		List<PGNGame> games = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			games.add(game("1-0", 2100, "1.e4 e5 2.Nf3 Nc6"));
+			games.add(game("1/2-1/2", 2300, "1.e4 c5 2.Nf3"));
+			games.add(game("0-1", 2200, "1.d4 d5"));
+		}
+
+		Path file = Files.createTempFile("opening", OpeningStatistics.STATISTICS_SUFFIX);
+		try {
+			OpeningStatistics statistics = OpeningStatistics.build(games.parallelStream(), 2, file);
+			// nur die ersten zwei Halbzüge: e4, d4, e5, c5, d5
+			assertEquals(5, statistics.size());
+
+			Board board = new Board();
+			List<OpeningStatistics.MoveStatistics> moves = statistics.find(board);
+			assertEquals(2, moves.size());
+			OpeningStatistics.MoveStatistics e4 = moves.get(0);
+			assertEquals(new Coordinate(4, 1), e4.from());
+			assertEquals(new Coordinate(4, 3), e4.to());
+			assertEquals(40, e4.games());
+			assertEquals(20, e4.whiteWins());
+			assertEquals(20, e4.draws());
+			assertEquals(0, e4.blackWins());
+			assertEquals(2200, e4.averageWhiteElo());
+			assertEquals(2000, e4.averageBlackElo());
+			assertEquals(20, moves.get(1).blackWins());
+
+			board.makeMove(e4.findMove(board));
+			assertEquals(2, statistics.find(board).size());
+			assertTrue(statistics.find(board.getRepetitionHash() + 1).isEmpty());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PGNIndexTest {
+
+	@Test
+	void testIndexFindsEveryGame() throws IOException, PGNParseException {
+		StringBuilder content = new StringBuilder();
+		int games = 50;
+		for (int i = 0; i < games; i++) {
+			content.append("[Event \"Spiel ").append(i).append("\"]\n[White \"A\"]\n[Black \"B\"]\n[Result \"*\"]\n\n")
+					.append("1.e4 {ein Kommentar\n[kein Tag]} e5 *\n\n");
+		}
+		Path file = Files.createTempFile("index", ".pgn");
+		Path indexFile = PGNIndex.indexFileOf(file);
+		try {
+			Files.writeString(file, content, StandardCharsets.UTF_8);
+
+			try (PGNIndex index = PGNIndex.open(file)) {
+				assertEquals(games, index.size());
+				assertEquals("Spiel 42", index.parseGame(42).tags().get("Event"));
+
+				List<PGNParseException> errors = Collections.synchronizedList(new ArrayList<>());
+				List<PGNGame> parsed = index.parallelStream(errors::add).toList();
+				assertEquals(games, parsed.size());
+				assertTrue(errors.isEmpty());
+				assertEquals("Spiel 7", parsed.get(7).tags().get("Event"));
+			}
+
+			assertTrue(Files.exists(indexFile));
+			try (PGNIndex loaded = PGNIndex.load(file, indexFile)) {
+				assertNotNull(loaded);
+				assertEquals(games, loaded.size());
+				assertEquals(2, loaded.parseGame(games - 1).moves().size());
+			}
+
+			// eine beschädigte Anzahl der Spiele führt zum Neuaufbau
+			byte[] saved = Files.readAllBytes(indexFile);
+			ByteBuffer.wrap(saved).putInt(20, Integer.MIN_VALUE);
+			Files.write(indexFile, saved);
+			assertNull(PGNIndex.load(file, indexFile));
+			ByteBuffer.wrap(saved).putInt(20, games + 1);
+			Files.write(indexFile, saved);
+			assertNull(PGNIndex.load(file, indexFile));
+			try (PGNIndex rebuilt = PGNIndex.open(file)) {
+				assertEquals(games, rebuilt.size());
+			}
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(indexFile);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class PGNParserTest {
+
+	private static final String GAME = "[Event \"Test\"]\n[White \"A\"]\n[Black \"B\"]\n[Result \"1-0\"]\n\n"
+			+ "1.e4 e5 2.Bc4 Nc6 3.Qh5 Nf6 4.Qxf7# 1-0\n\n";
+
+	@Test
+	void testStreamSkipsBrokenGames() {
+		StringBuilder input = new StringBuilder();
+		int games = 300; // deutlich mehr als ein Lesepuffer
+		for (int i = 0; i < games; i++) {
+			input.append(i == 100 ? GAME.replace("Nc6", "Nc6 ?!%") : GAME);
+		}
+		// ein Spiel ohne Terminierungs-Marker endet am nächsten Tag
+		input.append(GAME.replace(" 1-0\n", "\n")).append(GAME);
+
+		List<PGNParseException> errors = new ArrayList<>();
+		List<PGNGame> parsed;
+		try (Stream<PGNGame> stream = PGNParser.stream(new StringReader(input.toString()), errors::add)) {
+			parsed = stream.toList();
+		}
+
+		assertEquals(games, parsed.size());
+		assertEquals(2, errors.size());
+		assertTrue(errors.get(0).getMessage().startsWith("Spiel 101:"));
+		for (PGNGame game : parsed) {
+			assertEquals(7, game.moves().size());
+			assertEquals(GameTermination.WHITE_WINS, game.termination());
+			assertEquals("A", game.tags().get("White"));
+		}
+	}
+}
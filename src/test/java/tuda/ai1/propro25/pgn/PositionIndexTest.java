@@ -0,0 +1,61 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Board;
+
+class PositionIndexTest {
+
+	private static final String TAGS = "[White \"A\"]\n[Black \"B\"]\n[Result \"*\"]\n\n";
+	private static final String[] MOVE_TEXTS = {"1.Nf3 d5 2.d4 Nf6", "1.e4 e5", "1.d4 d5 2.Nf3 c6", "1.e4 Zf3",
+			"1.e4 c5 2.Nf3"};
+
+	@Test
+	void testFindsTranspositionsAcrossRuns() throws IOException, PGNParseException, GameReconstructionException {
+		StringBuilder content = new StringBuilder();
+		for (String moveText : MOVE_TEXTS) {
+			content.append(TAGS).append(moveText).append(" *\n\n");
+		}
+		Path directory = Files.createTempDirectory("positions");
+		Path file = directory.resolve("games.pgn");
+		Path indexFile = PositionIndex.indexFileOf(file);
+		try {
+			Files.writeString(file, content, StandardCharsets.UTF_8);
+
+			try (PGNIndex games = PGNIndex.build(file)) {
+				// zwei Spiele pro Zwischendatei, damit auch zusammengeführt wird
+				PositionIndex.build(games, indexFile, 2, 2);
+			}
+			try (Stream<Path> files = Files.list(directory)) {
+				assertEquals(List.of(file, indexFile), files.sorted().toList());
+			}
+			PositionIndex index = PositionIndex.open(indexFile);
+			// 5 + 3 + 5 + 4 Stellungen, das fehlerhafte Spiel 3 wird übersprungen
+			assertEquals(17, index.size());
+
+			assertEquals(List.of(new PositionIndex.Occurrence(0, 0), new PositionIndex.Occurrence(1, 0),
+					new PositionIndex.Occurrence(2, 0), new PositionIndex.Occurrence(4, 0)), index.find(new Board()));
+
+			Board transposed = new GameReconstructor(0, 0).reconstructGame(TAGS + "1.d4 d5 2.Nf3 *");
+			assertEquals(List.of(new PositionIndex.Occurrence(0, 3), new PositionIndex.Occurrence(2, 3)),
+					index.find(transposed));
+
+			Board e4 = new GameReconstructor(0, 0).reconstructGame(TAGS + "1.e4 *");
+			assertEquals(List.of(new PositionIndex.Occurrence(1, 1), new PositionIndex.Occurrence(4, 1)),
+					index.find(e4));
+			assertTrue(index.find(e4.getRepetitionHash() + 1).isEmpty());
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(indexFile);
+			Files.deleteIfExists(directory);
+		}
+	}
+}
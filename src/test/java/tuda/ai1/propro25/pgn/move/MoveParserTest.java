@@ -0,0 +1,48 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.pgn.move;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.model.Coordinate;
+import tuda.ai1.propro25.pgn.PGNParseException;
+
+class MoveParserTest {
+
+	private final MoveParser parser = new MoveParser();
+
+	@Test
+	void testNormalMoves() throws PGNParseException {
+		assertEquals(new NormalPGNMove('P', -1, -1, new Coordinate(4, 3), false, null, Checking.NONE),
+				parser.parseMove("e4"));
+		assertEquals(new NormalPGNMove('N', 1, -1, new Coordinate(3, 1), false, null, Checking.NONE),
+				parser.parseMove("Nbd2"));
+		assertEquals(new NormalPGNMove('Q', 7, 3, new Coordinate(4, 0), true, null, Checking.CHECKMATE),
+				parser.parseMove("Qh4xe1#"));
+		assertEquals(new NormalPGNMove('P', 4, -1, new Coordinate(3, 7), true, 'N', Checking.CHECK),
+				parser.parseMove("exd8=N+"));
+	}
+
+	@Test
+	void testCastling() throws PGNParseException {
+		assertEquals(new CastlingPGNMove(true, Checking.NONE), parser.parseMove("O-O"));
+		assertEquals(new CastlingPGNMove(false, Checking.CHECK), parser.parseMove("O-O-O+"));
+	}
+
+	@Test
+	void testRangeOfBuffer() throws PGNParseException {
+		StringBuilder buffer = new StringBuilder("1. Nf3 d5");
+		assertEquals(parser.parseMove("Nf3"), parser.parseMove(buffer, 3, 6));
+	}
+
+	@Test
+	void testInvalidMoves() {
+		for (String move : new String[]{"", "e9", "xe4", "Pe4", "O-O-O-O", "Ra1b2c3"}) {
+			assertThrows(PGNParseException.class, () -> parser.parseMove(move), move);
+		}
+		var exception = assertThrows(PGNParseException.class, () -> parser.parseMove("Ke1=Q"));
+		assertEquals("Nur Bauern dürfen eine Promotion durchführen", exception.getMessage());
+		exception = assertThrows(PGNParseException.class, () -> parser.parseMove("Zf3"));
+		assertEquals("Der String 'Zf3' kodiert keinen Zug in algebraischer Notation", exception.getMessage());
+	}
+}
@@ -0,0 +1,44 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.tournament;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class MatchStatisticsTest {
+
+	private static MatchStatistics create(int wins, int draws, int losses) {
+		MatchStatistics statistics = new MatchStatistics();
+		for (int i = 0; i < wins; i++) {
+			statistics.addWin();
+		}
+		for (int i = 0; i < draws; i++) {
+			statistics.addDraw();
+		}
+		for (int i = 0; i < losses; i++) {
+			statistics.addLoss();
+		}
+		return statistics;
+	}
+
+	@Test
+	void testEloDifference() {
+		assertEquals(0, create(10, 5, 10).getEloDifference(), 1e-9);
+		assertEquals(147.19, create(60, 20, 20).getEloDifference(), 0.01);
+		assertEquals(-147.19, create(20, 20, 60).getEloDifference(), 0.01);
+	}
+
+	@Test
+	void testLikelihoodOfSuperiority() {
+		assertEquals(0.5, create(10, 5, 10).getLikelihoodOfSuperiority(), 1e-9);
+		assertEquals(0.5, create(0, 7, 0).getLikelihoodOfSuperiority(), 1e-9);
+		assertEquals(0.9214, create(30, 0, 20).getLikelihoodOfSuperiority(), 0.001);
+	}
+
+	@Test
+	void testSprt() {
+		assertEquals(MatchStatistics.SprtResult.PASSED, create(300, 100, 100).getSprtResult(0, 10, 0.05, 0.05));
+		assertEquals(MatchStatistics.SprtResult.FAILED, create(100, 100, 300).getSprtResult(0, 10, 0.05, 0.05));
+		assertEquals(MatchStatistics.SprtResult.UNDECIDED, create(3, 2, 3).getSprtResult(0, 10, 0.05, 0.05));
+	}
+}
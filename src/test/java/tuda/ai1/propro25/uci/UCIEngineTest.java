@@ -0,0 +1,75 @@
+/* (C) 2025 TUDA AI1 team - ProPro 2025 - Chess */
+package tuda.ai1.propro25.uci;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tuda.ai1.propro25.ai.SearchInfo;
+import tuda.ai1.propro25.ai.eval.EndConditionEvaluator;
+import tuda.ai1.propro25.fen.FENFormatException;
+import tuda.ai1.propro25.model.Board;
+import tuda.ai1.propro25.model.Move;
+
+class UCIEngineTest {
+
+	@Test
+	void testFormatsMateScores() throws FENFormatException {
+		Board board = new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+		Move mate = board.findAllLegalMoves().stream().filter(move -> move.getTo().toString().equals("a8"))
+				.findFirst().orElseThrow();
+
+		String win = UCIEngine
+				.formatInfo(new SearchInfo(1, EndConditionEvaluator.WIN_SCORE - 1, 20, 10, List.of(mate)), 0, 20);
+		assertEquals("info depth 1 score mate 1 nodes 20 nps 2000 time 10 pv a1a8", win);
+
+		// Die Entfernung zum Matt stammt aus der Bewertung, nicht aus der Zugfolge
+		String longer = UCIEngine
+				.formatInfo(new SearchInfo(3, EndConditionEvaluator.WIN_SCORE - 3, 20, 10, List.of(mate)), 0, 20);
+		assertTrue(longer.startsWith("info depth 3 score mate 2 nodes"), longer);
+
+		String loss = UCIEngine.formatInfo(new SearchInfo(2, 2 - EndConditionEvaluator.WIN_SCORE, 20, 10, List.of()),
+				2, 20);
+		assertTrue(loss.startsWith("info depth 2 multipv 2 score mate -1 nodes"), loss);
+
+		String normal = UCIEngine.formatInfo(new SearchInfo(3, 0.5, 20, 10, List.of()), 0, 20);
+		assertEquals("info depth 3 score cp 50 nodes 20 nps 2000 time 10", normal);
+	}
+
+	@Test
+	void testStopWaitsForHelperThreads() throws InterruptedException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		UCIEngine engine = new UCIEngine(new BufferedReader(new StringReader("")),
+				new PrintStream(output, true, StandardCharsets.UTF_8));
+		engine.handleCommand("setoption name Threads value 4");
+		engine.handleCommand("go infinite");
+		Thread.sleep(200);
+		engine.handleCommand("stop");
+
+		assertTrue(output.toString(StandardCharsets.UTF_8).contains("bestmove "));
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			assertFalse(thread.getName().startsWith("UCI-"), thread.getName());
+		}
+	}
+
+	@Test
+	void testRejectsGoWithoutValue() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		UCIEngine engine = new UCIEngine(new BufferedReader(new StringReader("")),
+				new PrintStream(output, true, StandardCharsets.UTF_8));
+		assertTrue(engine.handleCommand("go depth"));
+		assertTrue(engine.handleCommand("go movetime"));
+		assertTrue(engine.handleCommand("go depth x"));
+		assertTrue(engine.handleCommand("stop"));
+
+		String sent = output.toString(StandardCharsets.UTF_8);
+		assertTrue(sent.contains("info string Fehler: Fehlender Wert für depth"), sent);
+		assertTrue(sent.contains("info string Fehler: Fehlender Wert für movetime"), sent);
+		assertFalse(sent.contains("bestmove"), sent);
+	}
+}